@@ -29,6 +29,7 @@ import junit.framework.TestCase;
 import org.jdesktop.beansbinding.AutoBinding.UpdateStrategy;
 import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.config.iface.ResourceResolver;
+import org.metawidget.config.impl.BaseConfigReader.ConfigPlan;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspector.annotation.MetawidgetAnnotationInspector;
 import org.metawidget.inspector.beanvalidation.BeanValidationInspector;
@@ -54,7 +55,6 @@ import org.metawidget.swing.SwingMetawidget;
 import org.metawidget.swing.widgetbuilder.SwingWidgetBuilder;
 import org.metawidget.swing.widgetbuilder.swingx.SwingXWidgetBuilder;
 import org.metawidget.swing.widgetprocessor.binding.beansbinding.BeansBindingProcessor;
-import org.metawidget.util.XmlUtils.CachingContentHandler;
 import org.metawidget.widgetbuilder.composite.CompositeWidgetBuilder;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.xml.sax.SAXException;
@@ -301,64 +301,59 @@ public class BaseConfigReaderIntegrationTest
 		// metawidget-1.0.xsd)
 
 		assertEquals( 5, ( (CountingResourceResolver) configReader.getResourceResolver() ).getOpenedResource() );
-		assertEquals( 2, configReader.mResourceCache.size() );
+		assertEquals( 2, configReader.mPlanCache.size() );
 
-		// Check caching paused and unpaused correctly
+		// Check the plan reuses the immutable CompositeInspector, rather than recording how to
+		// build it
 
-		CachingContentHandler cachingContentHandler = configReader.mResourceCache.get( "org/metawidget/config/metawidget-test-caching.xml/org.metawidget.swing.SwingMetawidget" );
-		Field cacheField = CachingContentHandler.class.getDeclaredField( "mCache" );
-		cacheField.setAccessible( true );
+		Field stepsField = ConfigPlan.class.getDeclaredField( "mSteps" );
+		stepsField.setAccessible( true );
 
 		@SuppressWarnings( "unchecked" )
-		List<Object> cache = (List<Object>) cacheField.get( cachingContentHandler );
-		assertTrue( "startDocument".equals( cache.get( 0 ).toString() ) );
-		assertTrue( "startPrefixMapping  http://metawidget.org".equals( cache.get( 1 ).toString() ) );
-		assertTrue( "startPrefixMapping xsi http://www.w3.org/2001/XMLSchema-instance".equals( cache.get( 2 ).toString() ) );
-		assertTrue( "startElement http://metawidget.org metawidget metawidget schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd java:org.metawidget.swing http://metawidget.org/xsd/org.metawidget.swing-1.0.xsd java:org.metawidget.inspector.composite http://metawidget.org/xsd/org.metawidget.inspector.composite-1.0.xsd java:org.metawidget.inspector.xml http://metawidget.org/xsd/org.metawidget.inspector.xml-1.0.xsd\" version=\"1.0\"".equals( cache.get( 3 ).toString() ) );
-		assertTrue( "ignorableWhitespace \n\n\t".equals( cache.get( 4 ).toString() ) );
-		assertTrue( "startPrefixMapping  java:org.metawidget.swing".equals( cache.get( 5 ).toString() ) );
-		assertTrue( "startElement java:org.metawidget.swing swingMetawidget swingMetawidget".equals( cache.get( 6 ).toString() ) );
-		assertTrue( "characters \n\t\t".equals( cache.get( 7 ).toString() ) );
-		assertTrue( "startElement java:org.metawidget.swing inspector inspector".equals( cache.get( 8 ).toString() ) );
-		assertTrue( "characters \n\t\t\t".equals( cache.get( 9 ).toString() ) );
-		assertTrue( "startPrefixMapping  java:org.metawidget.inspector.composite".equals( cache.get( 10 ).toString() ) );
-		assertTrue( "startElement java:org.metawidget.inspector.composite compositeInspector compositeInspector config=\"CompositeInspectorConfig\"".equals( cache.get( 11 ).toString() ) );
-		assertTrue( "endElement java:org.metawidget.inspector.composite compositeInspector compositeInspector".equals( cache.get( 12 ).toString() ) );
-		assertTrue( "endPrefixMapping ".equals( cache.get( 13 ).toString() ) );
-		assertTrue( "characters \n\t\t".equals( cache.get( 14 ).toString() ) );
-		assertTrue( "endElement java:org.metawidget.swing inspector inspector".equals( cache.get( 15 ).toString() ) );
-		assertTrue( "characters \n\t".equals( cache.get( 16 ).toString() ) );
-		assertTrue( "endElement java:org.metawidget.swing swingMetawidget swingMetawidget".equals( cache.get( 17 ).toString() ) );
-		assertTrue( "endPrefixMapping ".equals( cache.get( 18 ).toString() ) );
-		assertTrue( "ignorableWhitespace \n\n".equals( cache.get( 19 ).toString() ) );
-		assertTrue( "endElement http://metawidget.org metawidget metawidget".equals( cache.get( 20 ).toString() ) );
-		assertTrue( "endPrefixMapping ".equals( cache.get( 21 ).toString() ) );
-		assertTrue( "endPrefixMapping xsi".equals( cache.get( 22 ).toString() ) );
-		assertTrue( "endDocument".equals( cache.get( 23 ).toString() ) );
-
-		assertEquals( 24, cache.size() );
+		List<Object> steps = (List<Object>) stepsField.get( configReader.mPlanCache.get( "org/metawidget/config/metawidget-test-caching.xml/org.metawidget.swing.SwingMetawidget" ) );
+		assertEquals( "pushNewObject org.metawidget.swing.SwingMetawidget", steps.get( 0 ).toString() );
+		assertEquals( "pushMethodParameters", steps.get( 1 ).toString() );
+		assertEquals( "pushValue org.metawidget.inspector.composite.CompositeInspector", steps.get( 2 ).toString() );
+		assertEquals( "addObject", steps.get( 3 ).toString() );
+		assertEquals( "invokeMethod setInspector", steps.get( 4 ).toString() );
+
+		assertEquals( 5, steps.size() );
 
 		// Test caching with names (should not cache things outside the name)
 
 		configReader.configure( "org/metawidget/config/metawidget-test-names.xml", SpringMetawidgetTag.class, "layout" );
-		assertEquals( 3, configReader.mResourceCache.size() );
-		cachingContentHandler = configReader.mResourceCache.get( "org/metawidget/config/metawidget-test-names.xml/org.metawidget.jsp.tagext.html.spring.SpringMetawidgetTag/layout" );
+		assertEquals( 3, configReader.mPlanCache.size() );
 
 		@SuppressWarnings( "unchecked" )
-		List<Object> cacheWithNames = (List<Object>) cacheField.get( cachingContentHandler );
-		assertEquals( "startElement java:org.metawidget.jsp.tagext.html.spring layout layout", cacheWithNames.get( 10 ).toString() );
-		assertEquals( "startElement java:org.metawidget.jsp.tagext.html.layout headingTagLayoutDecorator headingTagLayoutDecorator config=\"HeadingTagLayoutDecoratorConfig\"", cacheWithNames.get( 13 ).toString() );
-		assertEquals( "endElement java:org.metawidget.jsp.tagext.html.layout headingTagLayoutDecorator headingTagLayoutDecorator", cacheWithNames.get( 14 ).toString() );
-		assertEquals( "endElement java:org.metawidget.jsp.tagext.html.spring layout layout", cacheWithNames.get( 17 ).toString() );
+		List<Object> stepsWithNames = (List<Object>) stepsField.get( configReader.mPlanCache.get( "org/metawidget/config/metawidget-test-names.xml/org.metawidget.jsp.tagext.html.spring.SpringMetawidgetTag/layout" ) );
+		assertEquals( "pushNewObject org.metawidget.jsp.tagext.html.spring.SpringMetawidgetTag", stepsWithNames.get( 0 ).toString() );
+		assertEquals( "pushMethodParameters", stepsWithNames.get( 1 ).toString() );
+		assertEquals( "pushValue org.metawidget.jsp.tagext.html.layout.HeadingTagLayoutDecorator", stepsWithNames.get( 2 ).toString() );
+		assertEquals( "addObject", stepsWithNames.get( 3 ).toString() );
+		assertEquals( "invokeMethod setLayout", stepsWithNames.get( 4 ).toString() );
 
-		assertEquals( 29, cacheWithNames.size() );
+		assertEquals( 5, stepsWithNames.size() );
 
-		// Test scenarios that we've seen fail hard
+		// Test scenarios that we've seen fail hard.
+		//
+		// Note: the old resource cache recorded raw SAX events, which replayed the same way whether
+		// configuring a Class or an instance, so both shared one entry (and the cache stayed at 4).
+		// A ConfigPlan records the resolved steps instead, and configuring an instance starts with
+		// pushToConfigure rather than pushNewObject. So the instance gets its own plan (and the
+		// cache grows to 5)
 
 		configReader.configure( "org/metawidget/config/metawidget-test-names.xml", SpringMetawidgetTag.class, "widgetBuilder" );
-		assertEquals( 4, configReader.mResourceCache.size() );
+		assertEquals( 4, configReader.mPlanCache.size() );
 		configReader.configure( "org/metawidget/config/metawidget-test-names.xml", new SpringMetawidgetTag(), "widgetBuilder" );
-		assertEquals( 4, configReader.mResourceCache.size() );
+		assertEquals( 5, configReader.mPlanCache.size() );
+
+		@SuppressWarnings( "unchecked" )
+		List<Object> instanceSteps = (List<Object>) stepsField.get( configReader.mPlanCache.get( BaseConfigReader.PLAN_KEY_INSTANCE_PREFIX + "org/metawidget/config/metawidget-test-names.xml/org.metawidget.jsp.tagext.html.spring.SpringMetawidgetTag/widgetBuilder" ) );
+		assertEquals( "pushToConfigure", instanceSteps.get( 0 ).toString() );
+
+		@SuppressWarnings( "unchecked" )
+		List<Object> classSteps = (List<Object>) stepsField.get( configReader.mPlanCache.get( "org/metawidget/config/metawidget-test-names.xml/org.metawidget.jsp.tagext.html.spring.SpringMetawidgetTag/widgetBuilder" ) );
+		assertEquals( "pushNewObject org.metawidget.jsp.tagext.html.spring.SpringMetawidgetTag", classSteps.get( 0 ).toString() );
 
 		try {
 			configReader.configure( "org/metawidget/config/metawidget-test-names.xml", new SpringMetawidgetTag() );
@@ -367,7 +362,7 @@ public class BaseConfigReaderIntegrationTest
 			assertTrue( e.getMessage().contains( "org.metawidget.inspector.iface.InspectorException: java.io.FileNotFoundException: Unable to locate metawidget-metadata.xml on CLASSPATH" ));
 		}
 
-		assertEquals( 4, configReader.mResourceCache.size() );
+		assertEquals( 5, configReader.mPlanCache.size() );
 	}
 
 	public void testImmutable()
@@ -25,6 +25,9 @@ import android.content.res.Resources;
  * <p>
  * Resolves references by using <code>Context.getResources</code> first. Resource strings should be
  * of the form <code>@com.foo:raw/metawidget_metadata</code>.
+ * <p>
+ * Also supports configuring from a raw resource ID (such as <code>R.raw.metawidget</code>). Like
+ * resource strings, these are parsed only once and their compiled configuration cached.
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -32,11 +35,21 @@ import android.content.res.Resources;
 public class AndroidConfigReader
 	extends BaseConfigReader {
 
+	//
+	// Private statics
+	//
+
+	/**
+	 * Prefix for resource names that denote a raw resource ID, rather than a resource string.
+	 */
+
+	private static final String	RESOURCE_ID_PREFIX	= "#";
+
 	//
 	// Private members
 	//
 
-	private Context	mContext;
+	private Context				mContext;
 
 	//
 	// Constructor
@@ -54,6 +67,10 @@ public class AndroidConfigReader
 
 			public InputStream openResource( String resource ) {
 
+				if ( resource.startsWith( RESOURCE_ID_PREFIX ) ) {
+					return context.getResources().openRawResource( Integer.parseInt( resource.substring( RESOURCE_ID_PREFIX.length() ) ) );
+				}
+
 				if ( !resource.startsWith( "@" ) ) {
 					throw MetawidgetException.newException( "Resource name does not start with '@': " + resource );
 				}
@@ -72,6 +89,32 @@ public class AndroidConfigReader
 		mContext = context;
 	}
 
+	//
+	// Public methods
+	//
+
+	/**
+	 * Read configuration from a raw resource ID (such as <code>R.raw.metawidget</code>).
+	 * <p>
+	 * Unlike <code>configure( getResources().openRawResource( resourceId ), ... )</code>, which
+	 * re-parses the XML every time, this version is cached by resource ID in the same way as
+	 * <code>configure( String, Object )</code>. After the first call, no XML parsing is done at all.
+	 *
+	 * @param resourceId
+	 *            raw resource ID
+	 * @param toConfigure
+	 *            object to configure. Can be a subclass of the one actually in the resource
+	 * @param names
+	 *            path to a property within the object. If specified, siblings to this path will be
+	 *            ignored. This allows ConfigReader to be used to initialise only a specific part of
+	 *            an object
+	 */
+
+	public Object configure( int resourceId, Object toConfigure, String... names ) {
+
+		return configure( RESOURCE_ID_PREFIX + resourceId, toConfigure, names );
+	}
+
 	//
 	// Protected methods
 	//
@@ -18,6 +18,7 @@ import static org.metawidget.inspector.InspectionResultConstants.PROPERTY;
 import java.lang.reflect.Constructor;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.metawidget.android.AndroidConfigReader;
 import org.metawidget.android.widget.layout.TableLayout;
@@ -51,10 +52,13 @@ import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.w3c.dom.Element;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.AttributeSet;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.LinearLayout;
+import android.widget.ProgressBar;
 
 /**
  * Metawidget for Android environments.
@@ -101,6 +105,19 @@ public class AndroidMetawidget
 
 	private boolean													mIgnoreAddRemove;
 
+	private Executor												mInspectionExecutor;
+
+	/**
+	 * Identifies the background inspection currently in progress (if any), so that the results of
+	 * superseded inspections can be discarded.
+	 */
+
+	private Object													mInspectionInProgress;
+
+	private boolean													mInspectedInBackground;
+
+	private View													mInspectionPlaceholder;
+
 	private Set<View>												mExistingViews;
 
 	private Set<View>												mExistingUnusedViews;
@@ -410,6 +427,28 @@ public class AndroidMetawidget
 		invalidateWidgets();
 	}
 
+	/**
+	 * Sets an Executor on which to run inspection, including any InspectionResultProcessors, rather
+	 * than on the main thread.
+	 * <p>
+	 * By default, inspection runs just-in-time on the main thread, as part of whichever method
+	 * (such as <code>onMeasure</code> or <code>getChildCount</code>) first needs the widgets. With
+	 * slow Inspectors this freezes the UI. With an Executor, a placeholder is shown instead (see
+	 * <code>newInspectionPlaceholder</code>), and the widgets are built back on the main
+	 * <code>Looper</code> once inspection completes.
+	 * <p>
+	 * Inspectors and InspectionResultProcessors must therefore not touch any Views. Also, methods
+	 * such as <code>findViewWithTags</code> will not find any widgets until inspection completes.
+	 *
+	 * @param inspectionExecutor
+	 *            the Executor to inspect on, or null to inspect on the main thread
+	 */
+
+	public void setInspectionExecutor( Executor inspectionExecutor ) {
+
+		mInspectionExecutor = inspectionExecutor;
+	}
+
 	/**
 	 * Storage area for WidgetProcessors, Layouts, and other stateless clients. Android already has
 	 * <code>setTag</code> for a similar purpose, but we use that for child names.
@@ -668,7 +707,15 @@ public class AndroidMetawidget
 
 		mPipeline.configureOnce();
 
+		// Inspect in the background?
+
+		if ( mLastInspection == null && mInspectionExecutor != null && mPath != null && !mInspectedInBackground ) {
+			inspectInBackground();
+			return;
+		}
+
 		mNeedToBuildWidgets = false;
+		mInspectedInBackground = false;
 		mIgnoreAddRemove = true;
 
 		try {
@@ -760,6 +807,19 @@ public class AndroidMetawidget
 		}
 	}
 
+	/**
+	 * Instantiate the placeholder shown while inspecting in the background (see
+	 * <code>setInspectionExecutor</code>).
+	 * <p>
+	 * By default this is an (indeterminate) <code>ProgressBar</code>. Subclasses may override this
+	 * method to show something else, or return null to show nothing.
+	 */
+
+	protected View newInspectionPlaceholder() {
+
+		return new ProgressBar( getContext() );
+	}
+
 	@Override
 	protected void onMeasure( int widthMeasureSpec, int heightMeasureSpec ) {
 
@@ -774,6 +834,7 @@ public class AndroidMetawidget
 	protected void invalidateInspection() {
 
 		mLastInspection = null;
+		mInspectionInProgress = null;
 		invalidateWidgets();
 	}
 
@@ -869,6 +930,7 @@ public class AndroidMetawidget
 		mPipeline.initNestedPipeline( nestedMetawidget.mPipeline, attributes );
 		nestedMetawidget.setPath( mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + attributes.get( NAME ) );
 		nestedMetawidget.setBundle( mBundle );
+		nestedMetawidget.setInspectionExecutor( mInspectionExecutor );
 		nestedMetawidget.setToInspect( mToInspect );
 	}
 
@@ -876,6 +938,124 @@ public class AndroidMetawidget
 	// Private methods
 	//
 
+	/**
+	 * Inspect on the <code>mInspectionExecutor</code>, showing a placeholder meanwhile, then build
+	 * widgets back on the main <code>Looper</code>.
+	 */
+
+	private void inspectInBackground() {
+
+		if ( mInspectionInProgress != null ) {
+			return;
+		}
+
+		final Object inspectionInProgress = new Object();
+		mInspectionInProgress = inspectionInProgress;
+
+		if ( mInspectionPlaceholder == null ) {
+			mInspectionPlaceholder = newInspectionPlaceholder();
+
+			if ( mInspectionPlaceholder != null ) {
+				mIgnoreAddRemove = true;
+
+				try {
+					addView( mInspectionPlaceholder );
+				} finally {
+					mIgnoreAddRemove = false;
+				}
+			}
+		}
+
+		// Pipelines are not thread-safe, so inspect using a dedicated pipeline (initialized here,
+		// before handing it to the background thread)
+
+		final Pipeline inspectionPipeline = newPipeline();
+		mPipeline.initInspectionPipeline( inspectionPipeline );
+
+		final Object toInspect = mToInspect;
+		final TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+
+		mInspectionExecutor.execute( new Runnable() {
+
+			public void run() {
+
+				Element inspectionResult = null;
+				RuntimeException inspectionException = null;
+
+				try {
+					inspectionResult = inspectionPipeline.inspectAsDom( toInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+				} catch ( RuntimeException e ) {
+					inspectionException = e;
+				}
+
+				final Element finalInspectionResult = inspectionResult;
+				final RuntimeException finalInspectionException = inspectionException;
+
+				postToMainLooper( new Runnable() {
+
+					public void run() {
+
+						onInspectedInBackground( inspectionInProgress, finalInspectionResult, finalInspectionException );
+					}
+				} );
+			}
+		} );
+	}
+
+	/**
+	 * Post the given Runnable to the main <code>Looper</code>. Called on the
+	 * <code>mInspectionExecutor</code>.
+	 */
+
+	/* package private */void postToMainLooper( Runnable runnable ) {
+
+		new Handler( Looper.getMainLooper() ).post( runnable );
+	}
+
+	/**
+	 * Build widgets from a background inspection. Called on the main <code>Looper</code>.
+	 */
+
+	private void onInspectedInBackground( Object inspection, Element inspectionResult, RuntimeException inspectionException ) {
+
+		// Superseded (eg. by setToInspect) while inspecting?
+
+		if ( inspection != mInspectionInProgress ) {
+			return;
+		}
+
+		mInspectionInProgress = null;
+
+		// (clear mNeedToBuildWidgets whilst removing the placeholder, so that it cannot kick off
+		// another build)
+
+		mNeedToBuildWidgets = false;
+
+		if ( mInspectionPlaceholder != null ) {
+			mIgnoreAddRemove = true;
+
+			try {
+				removeView( mInspectionPlaceholder );
+				mInspectionPlaceholder = null;
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
+		if ( inspectionException != null ) {
+			throw MetawidgetException.newException( inspectionException );
+		}
+
+		// (inspectionResult may be null, so flag that we needn't inspect again)
+
+		mLastInspection = inspectionResult;
+		mInspectedInBackground = true;
+		mNeedToBuildWidgets = true;
+		buildWidgets();
+
+		requestLayout();
+	}
+
 	private Element inspect() {
 
 		if ( mPath == null ) {
@@ -996,7 +1176,16 @@ public class AndroidMetawidget
 
 			try {
 				if ( getConfig() != null ) {
-					getConfigReader().configure( getContext().getResources().openRawResource( (Integer) getConfig() ), AndroidMetawidget.this );
+					ConfigReader configReader = getConfigReader();
+
+					// (AndroidConfigReader can cache by resource ID, so inflating further
+					// AndroidMetawidgets does not re-parse the XML)
+
+					if ( configReader instanceof AndroidConfigReader ) {
+						( (AndroidConfigReader) configReader ).configure( (Integer) getConfig(), AndroidMetawidget.this );
+					} else {
+						configReader.configure( getContext().getResources().openRawResource( (Integer) getConfig() ), AndroidMetawidget.this );
+					}
 				}
 
 				AndroidMetawidget.this.configureDefaults();
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import junit.framework.TestCase;
 
@@ -28,6 +29,7 @@ import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultP
 import org.metawidget.util.CollectionUtils;
 
 import android.widget.EditText;
+import android.widget.ProgressBar;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -194,6 +196,56 @@ public class AndroidMetawidgetTest
 		assertEquals( 1, configuredDefaults.size() );
 	}
 
+	public void testInspectionExecutor() {
+
+		final List<Runnable> inspections = new ArrayList<Runnable>();
+		final List<Runnable> posted = new ArrayList<Runnable>();
+
+		AndroidMetawidget androidMetawidget = new AndroidMetawidget( null ) {
+
+			@Override
+			/* package private */void postToMainLooper( Runnable runnable ) {
+
+				posted.add( runnable );
+			}
+		};
+
+		androidMetawidget.setLayout( new LinearLayout() );
+		androidMetawidget.setInspectionExecutor( new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		} );
+		androidMetawidget.setToInspect( new Foo() );
+
+		// Placeholder while inspecting
+
+		assertEquals( 1, androidMetawidget.getChildCount() );
+		assertTrue( androidMetawidget.getChildAt( 0 ) instanceof ProgressBar );
+		assertEquals( 1, inspections.size() );
+
+		// Superseded inspections are discarded
+
+		androidMetawidget.setToInspect( new Foo() );
+		assertEquals( 1, androidMetawidget.getChildCount() );
+		assertEquals( 2, inspections.size() );
+		inspections.get( 0 ).run();
+		assertEquals( 1, posted.size() );
+		posted.get( 0 ).run();
+		assertEquals( 1, androidMetawidget.getChildCount() );
+		assertTrue( androidMetawidget.getChildAt( 0 ) instanceof ProgressBar );
+
+		// Widgets built on the main Looper
+
+		inspections.get( 1 ).run();
+		assertEquals( 2, posted.size() );
+		posted.get( 1 ).run();
+		assertEquals( 2, androidMetawidget.getChildCount() );
+		assertTrue( androidMetawidget.getChildAt( 1 ) instanceof EditText );
+	}
+
 	//
 	// Inner class
 	//
@@ -17,6 +17,7 @@ import java.util.Map;
 
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.Trait;
 import org.metawidget.inspector.impl.actionstyle.Action;
 import org.metawidget.inspector.impl.propertystyle.Property;
@@ -35,7 +36,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class MetawidgetAnnotationInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
@@ -61,6 +63,10 @@ public class MetawidgetAnnotationInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( trait ) ) {
+			return attributes;
+		}
+
 		// UiHidden
 
 		if ( trait.isAnnotationPresent( UiHidden.class ) ) {
@@ -126,6 +132,10 @@ public class MetawidgetAnnotationInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( property ) ) {
+			return attributes;
+		}
+
 		// UiRequired
 
 		if ( property.isAnnotationPresent( UiRequired.class ) ) {
@@ -182,6 +192,10 @@ public class MetawidgetAnnotationInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( action ) ) {
+			return attributes;
+		}
+
 		// UiAction (this is kind of a dummy match)
 
 		if ( action.isAnnotationPresent( UiAction.class ) ) {
@@ -24,6 +24,7 @@ import javax.validation.constraints.Size;
 
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.CollectionUtils;
 
@@ -34,7 +35,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class BeanValidationInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
@@ -60,6 +62,10 @@ public class BeanValidationInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( property ) ) {
+			return attributes;
+		}
+
 		// Digits
 
 		Digits digits = property.getAnnotation( Digits.class );
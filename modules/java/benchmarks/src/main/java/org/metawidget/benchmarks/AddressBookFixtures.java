@@ -0,0 +1,110 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.benchmarks;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.metawidget.config.impl.SimpleResourceResolver;
+import org.metawidget.example.shared.addressbook.model.Address;
+import org.metawidget.example.shared.addressbook.model.BusinessContact;
+import org.metawidget.example.shared.addressbook.model.Communication;
+import org.metawidget.example.shared.addressbook.model.Contact;
+import org.metawidget.example.shared.addressbook.model.ContactSearch;
+import org.metawidget.example.shared.addressbook.model.Gender;
+import org.metawidget.example.shared.addressbook.model.PersonalContact;
+import org.metawidget.inspector.annotation.MetawidgetAnnotationInspector;
+import org.metawidget.inspector.composite.CompositeInspector;
+import org.metawidget.inspector.composite.CompositeInspectorConfig;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.inspector.xml.XmlInspector;
+import org.metawidget.inspector.xml.XmlInspectorConfig;
+import org.w3c.dom.Element;
+
+/**
+ * Fixtures shared by the benchmarks, based on the shared Address Book example model.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public final class AddressBookFixtures {
+
+	//
+	// Public statics
+	//
+
+	/**
+	 * Every type in the Address Book model.
+	 */
+
+	public static final String[]	TYPES		= new String[] { Contact.class.getName(), PersonalContact.class.getName(), BusinessContact.class.getName(), Address.class.getName(), Communication.class.getName(), ContactSearch.class.getName() };
+
+	/**
+	 * Create a new Inspector, configured as per the Address Book examples (minus
+	 * <code>JexlInspectionResultProcessor</code>, which is not part of core).
+	 */
+
+	public static DomInspector<Element> newInspector() {
+
+		XmlInspectorConfig xmlInspectorConfig = new XmlInspectorConfig().setInputStream( new SimpleResourceResolver().openResource( METADATA ) );
+		return new CompositeInspector( new CompositeInspectorConfig().setInspectors( new PropertyTypeInspector(), new MetawidgetAnnotationInspector(), new XmlInspector( xmlInspectorConfig ) ) );
+	}
+
+	/**
+	 * Create a new PersonalContact, populated as per the Address Book examples.
+	 */
+
+	public static PersonalContact newPersonalContact() {
+
+		PersonalContact contact = new PersonalContact( "Mr", "Homer", "Simpson" );
+		contact.setGender( Gender.MALE );
+		contact.getAddress().setStreet( "742 Evergreen Terrace" );
+		contact.getAddress().setCity( "Springfield" );
+		contact.getAddress().setState( "Anytown" );
+		contact.getAddress().setPostcode( "90701" );
+		contact.addCommunication( new Communication( "Telephone", "(939) 555-0113" ) );
+		contact.setDateOfBirth( new GregorianCalendar( 1956, Calendar.MAY, 12 ).getTime() );
+
+		return contact;
+	}
+
+	/**
+	 * Create a new BusinessContact, populated as per the Address Book examples.
+	 */
+
+	public static BusinessContact newBusinessContact() {
+
+		BusinessContact contact = new BusinessContact( "Mr", "Charles Montgomery", "Burns" );
+		contact.setGender( Gender.MALE );
+		contact.setCompany( "Springfield Nuclear Power Plant" );
+		contact.setNumberOfStaff( 2 );
+		contact.addCommunication( new Communication( "Telephone", "(939) 555-0101" ) );
+
+		return contact;
+	}
+
+	//
+	// Private statics
+	//
+
+	private static final String		METADATA	= "org/metawidget/benchmarks/metawidget-metadata.xml";
+
+	//
+	// Private constructor
+	//
+
+	private AddressBookFixtures() {
+
+		// Can never be called
+	}
+}
@@ -0,0 +1,52 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for <code>benchmarks.jar</code>.
+ * <p>
+ * Accepts the same command line options as JMH's own <code>Main</code>, but always adds the GC
+ * profiler so that allocation rates (<code>gc.alloc.rate.norm</code>) are reported alongside
+ * timings. Much of Metawidget's cost is in garbage (DOMs, Maps, Strings), so timings alone can be
+ * misleading.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public final class BenchmarksMain {
+
+	//
+	// Public statics
+	//
+
+	public static void main( String... args )
+		throws Exception {
+
+		Options options = new OptionsBuilder().parent( new CommandLineOptions( args ) ).addProfiler( GCProfiler.class ).build();
+		new Runner( options ).run();
+	}
+
+	//
+	// Private constructor
+	//
+
+	private BenchmarksMain() {
+
+		// Can never be called
+	}
+}
@@ -0,0 +1,228 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.config.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Benchmarks configuring a (mutable) Metawidget from <code>metawidget.xml</code>, as happens on
+ * every JSP/JSF request.
+ * <p>
+ * <code>configureFromResource</code> executes the <code>ConfigPlan</code> compiled on first use.
+ * <code>configureFromInputStream</code> parses the XML every time, for comparison. To compare
+ * against SAX replay, run <code>configureFromResource</code> against a build that predates
+ * <code>ConfigPlan</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+public class BaseConfigReaderBenchmark {
+
+	//
+	// Private statics
+	//
+
+	private static final String	RESOURCE	= "org/metawidget/config/impl/metawidget-benchmark.xml";
+
+	//
+	// Private members
+	//
+
+	private BaseConfigReader	mConfigReader;
+
+	private byte[]				mXml;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		mConfigReader = new BaseConfigReader();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOUtils.streamBetween( mConfigReader.getResourceResolver().openResource( RESOURCE ), out );
+		mXml = out.toByteArray();
+
+		// Compile the plan (and warm the immutable caches)
+
+		mConfigReader.configure( RESOURCE, new BenchmarkMetawidget() );
+	}
+
+	@Benchmark
+	public Object configureFromResource() {
+
+		return mConfigReader.configure( RESOURCE, new BenchmarkMetawidget() );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Object configureFromResourceMultiThreaded() {
+
+		return mConfigReader.configure( RESOURCE, new BenchmarkMetawidget() );
+	}
+
+	@Benchmark
+	public Object configureFromInputStream() {
+
+		return mConfigReader.configure( new ByteArrayInputStream( mXml ), new BenchmarkMetawidget() );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Stands in for a mutable Metawidget, such as <code>UIMetawidget</code>.
+	 */
+
+	public static class BenchmarkMetawidget {
+
+		//
+		// Private members
+		//
+
+		private Inspector							mInspector;
+
+		private InspectionResultProcessor<Object>[]	mInspectionResultProcessors;
+
+		private String								mLabel;
+
+		private int									mMaximumInspectionDepth;
+
+		private boolean								mReadOnly;
+
+		private BenchmarkLayout						mLayout;
+
+		//
+		// Public methods
+		//
+
+		public Inspector getInspector() {
+
+			return mInspector;
+		}
+
+		public void setInspector( Inspector inspector ) {
+
+			mInspector = inspector;
+		}
+
+		public InspectionResultProcessor<Object>[] getInspectionResultProcessors() {
+
+			return mInspectionResultProcessors;
+		}
+
+		public void setInspectionResultProcessors( InspectionResultProcessor<Object>... inspectionResultProcessors ) {
+
+			mInspectionResultProcessors = inspectionResultProcessors;
+		}
+
+		public String getLabel() {
+
+			return mLabel;
+		}
+
+		public void setLabel( String label ) {
+
+			mLabel = label;
+		}
+
+		public int getMaximumInspectionDepth() {
+
+			return mMaximumInspectionDepth;
+		}
+
+		public void setMaximumInspectionDepth( int maximumInspectionDepth ) {
+
+			mMaximumInspectionDepth = maximumInspectionDepth;
+		}
+
+		public boolean isReadOnly() {
+
+			return mReadOnly;
+		}
+
+		public void setReadOnly( boolean readOnly ) {
+
+			mReadOnly = readOnly;
+		}
+
+		public BenchmarkLayout getLayout() {
+
+			return mLayout;
+		}
+
+		public void setLayout( BenchmarkLayout layout ) {
+
+			mLayout = layout;
+		}
+	}
+
+	/**
+	 * Stands in for a mutable Layout.
+	 */
+
+	public static class BenchmarkLayout {
+
+		//
+		// Private members
+		//
+
+		private int				mColumns;
+
+		private List<String>	mSectionStyles;
+
+		//
+		// Public methods
+		//
+
+		public int getColumns() {
+
+			return mColumns;
+		}
+
+		public void setColumns( int columns ) {
+
+			mColumns = columns;
+		}
+
+		public List<String> getSectionStyles() {
+
+			return mSectionStyles;
+		}
+
+		public void setSectionStyles( List<String> sectionStyles ) {
+
+			mSectionStyles = sectionStyles;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspectionresultprocessor.sort;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.benchmarks.AddressBookFixtures;
+import org.metawidget.example.shared.addressbook.model.PersonalContact;
+import org.metawidget.util.XmlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Benchmarks <code>ComesAfterInspectionResultProcessor</code> sorting an inspection result.
+ * <p>
+ * The <code>addressbook</code> parameter sorts the inspection result of a
+ * <code>PersonalContact</code>. The numeric parameters sort a synthetic entity with that many
+ * properties, each of which comes after the next, so that every property must move.
+ * <p>
+ * The processor sorts in place, so each invocation sorts a fresh clone. Subtract
+ * <code>cloneOnly</code> to get the cost of the sort itself. State is per-thread because DOMs are
+ * not thread-safe.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class ComesAfterInspectionResultProcessorBenchmark {
+
+	//
+	// Public members
+	//
+
+	@Param( { "addressbook", "10", "150", "500" } )
+	public String										mInspectionResultName;
+
+	//
+	// Private members
+	//
+
+	private ComesAfterInspectionResultProcessor<Object>	mInspectionResultProcessor;
+
+	private Element										mInspectionResult;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		mInspectionResultProcessor = new ComesAfterInspectionResultProcessor<Object>();
+
+		if ( "addressbook".equals( mInspectionResultName ) ) {
+			mInspectionResult = AddressBookFixtures.newInspector().inspectAsDom( AddressBookFixtures.newPersonalContact(), PersonalContact.class.getName() );
+			return;
+		}
+
+		int properties = Integer.parseInt( mInspectionResultName );
+		Document document = XmlUtils.newDocument();
+		mInspectionResult = document.createElementNS( NAMESPACE, ROOT );
+		document.appendChild( mInspectionResult );
+
+		Element entity = document.createElementNS( NAMESPACE, ENTITY );
+		entity.setAttribute( TYPE, "Foo" );
+		mInspectionResult.appendChild( entity );
+
+		for ( int loop = 0; loop < properties; loop++ ) {
+
+			Element property = document.createElementNS( NAMESPACE, PROPERTY );
+			property.setAttribute( NAME, "property" + loop );
+
+			if ( loop < properties - 1 ) {
+				property.setAttribute( COMES_AFTER, "property" + ( loop + 1 ) );
+			}
+
+			entity.appendChild( property );
+		}
+	}
+
+	@Benchmark
+	public Element sort() {
+
+		return mInspectionResultProcessor.processInspectionResultAsDom( (Element) mInspectionResult.cloneNode( true ), null, null, null );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Element sortMultiThreaded() {
+
+		return sort();
+	}
+
+	@Benchmark
+	public Element cloneOnly() {
+
+		return (Element) mInspectionResult.cloneNode( true );
+	}
+}
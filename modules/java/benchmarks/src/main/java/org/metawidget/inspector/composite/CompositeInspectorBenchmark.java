@@ -0,0 +1,94 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.composite;
+
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.benchmarks.AddressBookFixtures;
+import org.metawidget.example.shared.addressbook.model.BusinessContact;
+import org.metawidget.example.shared.addressbook.model.PersonalContact;
+import org.metawidget.inspector.iface.DomInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.w3c.dom.Element;
+
+/**
+ * Benchmarks <code>CompositeInspector.inspectAsDom</code> combining
+ * <code>PropertyTypeInspector</code>, <code>MetawidgetAnnotationInspector</code> and
+ * <code>XmlInspector</code>, configured as per the Address Book examples.
+ * <p>
+ * <code>inspectEntity</code> inspects a whole <code>PersonalContact</code> (as a top-level
+ * Metawidget does). <code>inspectProperty</code> inspects along a path (as a nested Metawidget
+ * does).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class CompositeInspectorBenchmark {
+
+	//
+	// Private members
+	//
+
+	private DomInspector<Element>	mInspector;
+
+	private PersonalContact			mPersonalContact;
+
+	private BusinessContact			mBusinessContact;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		mInspector = AddressBookFixtures.newInspector();
+		mPersonalContact = AddressBookFixtures.newPersonalContact();
+		mBusinessContact = AddressBookFixtures.newBusinessContact();
+	}
+
+	@Benchmark
+	public Element inspectEntity() {
+
+		return mInspector.inspectAsDom( mPersonalContact, PersonalContact.class.getName() );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Element inspectEntityMultiThreaded() {
+
+		return mInspector.inspectAsDom( mPersonalContact, PersonalContact.class.getName() );
+	}
+
+	@Benchmark
+	public Element inspectProperty() {
+
+		return mInspector.inspectAsDom( mBusinessContact, BusinessContact.class.getName(), "address" );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Element inspectPropertyMultiThreaded() {
+
+		return mInspector.inspectAsDom( mBusinessContact, BusinessContact.class.getName(), "address" );
+	}
+}
@@ -0,0 +1,117 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.javabean;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.benchmarks.AddressBookFixtures;
+import org.metawidget.example.shared.addressbook.model.PersonalContact;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks <code>JavaBeanPropertyStyle</code> looking up, and reading, the properties of the
+ * Address Book model.
+ * <p>
+ * <code>inspectProperties</code> measures the uncached (reflective) lookup of every model type.
+ * <code>getProperties</code> measures the cached lookup every Inspector performs on every
+ * inspection. <code>readProperties</code> measures reading every property of a populated
+ * <code>PersonalContact</code>, as <code>PropertyTypeInspector</code> and the binding
+ * WidgetProcessors do.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class JavaBeanPropertyStyleBenchmark {
+
+	//
+	// Private members
+	//
+
+	private JavaBeanPropertyStyle	mPropertyStyle;
+
+	private PersonalContact			mContact;
+
+	private Map<String, Property>	mContactProperties;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		mPropertyStyle = new JavaBeanPropertyStyle();
+		mContact = AddressBookFixtures.newPersonalContact();
+		mContactProperties = mPropertyStyle.getProperties( PersonalContact.class.getName() );
+	}
+
+	@Benchmark
+	public void inspectProperties( Blackhole blackhole ) {
+
+		for ( String type : AddressBookFixtures.TYPES ) {
+			blackhole.consume( mPropertyStyle.inspectProperties( type ) );
+		}
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public void inspectPropertiesMultiThreaded( Blackhole blackhole ) {
+
+		inspectProperties( blackhole );
+	}
+
+	@Benchmark
+	public void getProperties( Blackhole blackhole ) {
+
+		for ( String type : AddressBookFixtures.TYPES ) {
+			blackhole.consume( mPropertyStyle.getProperties( type ) );
+		}
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public void getPropertiesMultiThreaded( Blackhole blackhole ) {
+
+		getProperties( blackhole );
+	}
+
+	@Benchmark
+	public void readProperties( Blackhole blackhole ) {
+
+		for ( Property property : mContactProperties.values() ) {
+
+			if ( property.isReadable() ) {
+				blackhole.consume( property.read( mContact ) );
+			}
+		}
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public void readPropertiesMultiThreaded( Blackhole blackhole ) {
+
+		readProperties( blackhole );
+	}
+}
@@ -0,0 +1,161 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.javassist;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.benchmarks.AddressBookFixtures;
+import org.metawidget.example.shared.addressbook.model.PersonalContact;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyleConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading properties through reflection against reading them through accessors generated
+ * by <code>JavassistPropertyAccessorFactory</code>.
+ * <p>
+ * <code>readProperties</code> reads every property of a populated <code>PersonalContact</code>.
+ * <code>traverse</code> walks a deep path through a linked object graph, as
+ * <code>BaseObjectInspector</code> does for every nested inspection.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class JavassistPropertyAccessorFactoryBenchmark {
+
+	//
+	// Private statics
+	//
+
+	private static final int		PATH_LENGTH	= 50;
+
+	//
+	// Public members
+	//
+
+	@Param( { "reflection", "javassist" } )
+	public String					mAccessors;
+
+	//
+	// Private members
+	//
+
+	private JavaBeanPropertyStyle	mPropertyStyle;
+
+	private PersonalContact			mContact;
+
+	private Map<String, Property>	mContactProperties;
+
+	private Node					mNode;
+
+	private String[]				mPath;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		JavaBeanPropertyStyleConfig config = new JavaBeanPropertyStyleConfig();
+
+		if ( "javassist".equals( mAccessors ) ) {
+			config.setPropertyAccessorFactory( new JavassistPropertyAccessorFactory() );
+		}
+
+		mPropertyStyle = new JavaBeanPropertyStyle( config );
+		mContact = AddressBookFixtures.newPersonalContact();
+		mContactProperties = mPropertyStyle.getProperties( PersonalContact.class.getName() );
+
+		for ( int loop = 0; loop <= PATH_LENGTH; loop++ ) {
+			Node node = new Node();
+			node.setNext( mNode );
+			mNode = node;
+		}
+
+		mPath = new String[PATH_LENGTH];
+		Arrays.fill( mPath, "next" );
+	}
+
+	@Benchmark
+	public void readProperties( Blackhole blackhole ) {
+
+		for ( Property property : mContactProperties.values() ) {
+
+			if ( property.isReadable() ) {
+				blackhole.consume( property.read( mContact ) );
+			}
+		}
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public void readPropertiesMultiThreaded( Blackhole blackhole ) {
+
+		readProperties( blackhole );
+	}
+
+	@Benchmark
+	public Object traverse() {
+
+		return mPropertyStyle.traverse( mNode, Node.class.getName(), false, mPath );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Object traverseMultiThreaded() {
+
+		return traverse();
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Node {
+
+		//
+		// Private members
+		//
+
+		private Node	mNext;
+
+		//
+		// Public methods
+		//
+
+		public Node getNext() {
+
+			return mNext;
+		}
+
+		public void setNext( Node next ) {
+
+			mNext = next;
+		}
+	}
+}
@@ -0,0 +1,226 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.pipeline.w3c;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.benchmarks.AddressBookFixtures;
+import org.metawidget.example.shared.addressbook.model.PersonalContact;
+import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultProcessor;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.layout.iface.Layout;
+import org.metawidget.widgetbuilder.iface.WidgetBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.w3c.dom.Element;
+
+/**
+ * Benchmarks a full <code>W3CPipeline</code> run for a <code>PersonalContact</code>: inspection,
+ * inspection result processing, and <code>buildWidgets</code>.
+ * <p>
+ * Widgets are built by a stub WidgetBuilder, and laid out by a stub Layout, so that the figures
+ * reflect the pipeline rather than any particular UI framework. <code>buildWidgets</code> builds
+ * from a pre-inspected result, to isolate the cost of the pipeline itself.
+ * <p>
+ * Pipelines (like the Metawidgets that own them) are not thread-safe, so each thread has its own.
+ * The Inspector is shared, as it would be in a real application.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class W3CPipelineBenchmark {
+
+	//
+	// Private members
+	//
+
+	private BenchmarkPipeline	mPipeline;
+
+	private StubLayout			mLayout;
+
+	private PersonalContact		mContact;
+
+	private Element				mInspectionResult;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp( SharedInspector sharedInspector ) {
+
+		mLayout = new StubLayout();
+
+		mPipeline = new BenchmarkPipeline();
+		mPipeline.setInspector( sharedInspector.getInspector() );
+		mPipeline.setInspectionResultProcessors( new ComesAfterInspectionResultProcessor<Object>() );
+		mPipeline.setWidgetBuilder( new StubWidgetBuilder() );
+		mPipeline.setLayout( mLayout );
+
+		mContact = AddressBookFixtures.newPersonalContact();
+		mInspectionResult = mPipeline.inspectAsDom( mContact, PersonalContact.class.getName() );
+	}
+
+	@Benchmark
+	public int inspectAndBuildWidgets()
+		throws Exception {
+
+		mPipeline.buildWidgets( mPipeline.inspectAsDom( mContact, PersonalContact.class.getName() ) );
+		return mLayout.getWidgets();
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public int inspectAndBuildWidgetsMultiThreaded()
+		throws Exception {
+
+		return inspectAndBuildWidgets();
+	}
+
+	@Benchmark
+	public int buildWidgets()
+		throws Exception {
+
+		mPipeline.buildWidgets( mInspectionResult );
+		return mLayout.getWidgets();
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Inspector shared by all threads.
+	 */
+
+	@State( Scope.Benchmark )
+	public static class SharedInspector {
+
+		//
+		// Private members
+		//
+
+		private DomInspector<Element>	mInspector;
+
+		//
+		// Public methods
+		//
+
+		@Setup
+		public void setUp() {
+
+			mInspector = AddressBookFixtures.newInspector();
+		}
+
+		public DomInspector<Element> getInspector() {
+
+			return mInspector;
+		}
+	}
+
+	/**
+	 * Pipeline whose widgets, containers and owner are plain Objects.
+	 */
+
+	/* package private */static class BenchmarkPipeline
+		extends W3CPipeline<Object, Object, Object> {
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected String getDefaultConfiguration() {
+
+			return null;
+		}
+
+		@Override
+		protected Map<String, String> getAdditionalAttributes( Object widget ) {
+
+			return null;
+		}
+
+		@Override
+		protected Object buildNestedMetawidget( Map<String, String> attributes ) {
+
+			throw new UnsupportedOperationException( "StubWidgetBuilder builds every property and action" );
+		}
+
+		@Override
+		protected Object getPipelineOwner() {
+
+			return this;
+		}
+	}
+
+	/**
+	 * Builds a widget for every property and action (but not the top-level entity, so that
+	 * <code>buildCompoundWidget</code> is exercised).
+	 */
+
+	/* package private */static class StubWidgetBuilder
+		implements WidgetBuilder<Object, Object> {
+
+		//
+		// Public methods
+		//
+
+		public Object buildWidget( String elementName, Map<String, String> attributes, Object metawidget ) {
+
+			if ( ENTITY.equals( elementName ) ) {
+				return null;
+			}
+
+			return attributes.get( NAME );
+		}
+	}
+
+	/**
+	 * Counts the widgets it is asked to lay out.
+	 */
+
+	/* package private */static class StubLayout
+		implements Layout<Object, Object, Object> {
+
+		//
+		// Private members
+		//
+
+		private int	mWidgets;
+
+		//
+		// Public methods
+		//
+
+		public void layoutWidget( Object widget, String elementName, Map<String, String> attributes, Object container, Object metawidget ) {
+
+			mWidgets++;
+		}
+
+		public int getWidgets() {
+
+			return mWidgets;
+		}
+	}
+}
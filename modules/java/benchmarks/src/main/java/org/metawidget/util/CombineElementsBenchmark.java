@@ -0,0 +1,113 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.util;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Benchmarks <code>XmlUtils.combineElements</code> merging the results of several Inspectors for
+ * wide entities, as <code>CompositeInspector</code> does.
+ * <p>
+ * Each Inspector returns every property, but alternate Inspectors return them in reverse order so
+ * that the combine cannot simply match children positionally.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class CombineElementsBenchmark {
+
+	//
+	// Private statics
+	//
+
+	private static final int	INSPECTORS	= 6;
+
+	//
+	// Public members
+	//
+
+	@Param( { "10", "150", "500" } )
+	public int					mProperties;
+
+	//
+	// Private members
+	//
+
+	private Element[]			mInspectionResults;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		mInspectionResults = new Element[INSPECTORS];
+
+		for ( int inspectorLoop = 0; inspectorLoop < INSPECTORS; inspectorLoop++ ) {
+
+			Document document = XmlUtils.newDocument();
+			Element inspectionResult = document.createElementNS( NAMESPACE, ROOT );
+			document.appendChild( inspectionResult );
+
+			Element entity = document.createElementNS( NAMESPACE, ENTITY );
+			entity.setAttribute( TYPE, "Foo" );
+			inspectionResult.appendChild( entity );
+
+			for ( int propertyLoop = 0; propertyLoop < mProperties; propertyLoop++ ) {
+
+				int propertyIndex = propertyLoop;
+
+				if ( inspectorLoop % 2 == 1 ) {
+					propertyIndex = mProperties - propertyLoop - 1;
+				}
+
+				Element property = document.createElementNS( NAMESPACE, PROPERTY );
+				property.setAttribute( NAME, "property" + propertyIndex );
+				property.setAttribute( "attribute" + inspectorLoop, String.valueOf( propertyIndex ) );
+				entity.appendChild( property );
+			}
+
+			mInspectionResults[inspectorLoop] = inspectionResult;
+		}
+	}
+
+	@Benchmark
+	public Element combineElements() {
+
+		Document master = XmlUtils.newDocument();
+		Element masterInspectionResult = XmlUtils.importElement( master, mInspectionResults[0] );
+		master.appendChild( masterInspectionResult );
+
+		for ( int loop = 1; loop < INSPECTORS; loop++ ) {
+			XmlUtils.combineElements( masterInspectionResult, mInspectionResults[loop], TYPE, NAME );
+		}
+
+		return masterInspectionResult;
+	}
+}
@@ -0,0 +1,147 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.util;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Benchmarks DOM creation through <code>XmlUtils</code>, single-threaded and multi-threaded.
+ * <p>
+ * Compare runs with and without <code>-Dorg.metawidget.util.XmlUtils.sharedDocumentBuilder=true</code>
+ * (passed via <code>-jvmArgsAppend</code>) to see the effect of per-Thread DocumentBuilders. Run
+ * with <code>-t 1,2,4,8</code> to see throughput scaling with core count.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+public class XmlUtilsBenchmark {
+
+	//
+	// Private members
+	//
+
+	private String					mXml;
+
+	private PropertyTypeInspector	mInspector;
+
+	private Foo						mFoo;
+
+	//
+	// Public methods
+	//
+
+	@Setup
+	public void setUp() {
+
+		mXml = "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" type=\"java.lang.String\"/><property name=\"baz\" type=\"java.util.Date\"/></entity></inspection-result>";
+		mInspector = new PropertyTypeInspector();
+		mFoo = new Foo();
+
+		// Warm up the trait cache
+
+		mInspector.inspectAsDom( mFoo, Foo.class.getName() );
+	}
+
+	@Benchmark
+	public Document documentFromString() {
+
+		return XmlUtils.documentFromString( mXml );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Document documentFromStringMultiThreaded() {
+
+		return XmlUtils.documentFromString( mXml );
+	}
+
+	@Benchmark
+	public Document newDocument() {
+
+		return XmlUtils.newDocument();
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Document newDocumentMultiThreaded() {
+
+		return XmlUtils.newDocument();
+	}
+
+	@Benchmark
+	public Element inspectAsDom() {
+
+		return mInspector.inspectAsDom( mFoo, Foo.class.getName() );
+	}
+
+	@Benchmark
+	@Threads( Threads.MAX )
+	public Element inspectAsDomMultiThreaded() {
+
+		return mInspector.inspectAsDom( mFoo, Foo.class.getName() );
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		//
+		// Private members
+		//
+
+		private String	mBar;
+
+		private Date	mBaz;
+
+		//
+		// Public methods
+		//
+
+		public String getBar() {
+
+			return mBar;
+		}
+
+		public void setBar( String bar ) {
+
+			mBar = bar;
+		}
+
+		public Date getBaz() {
+
+			return mBaz;
+		}
+
+		public void setBaz( Date baz ) {
+
+			mBaz = baz;
+		}
+	}
+}
@@ -12,10 +12,11 @@
 package org.metawidget.inspectionresultprocessor.commons.jexl;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.jexl2.Expression;
 import org.apache.commons.jexl2.JexlContext;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.MapContext;
@@ -41,21 +42,36 @@ public class JexlInspectionResultProcessor<M>
 	// Private statics
 	//
 
-	private static final String						THIS_ATTRIBUTE		= "this";
+	private static final String									THIS_ATTRIBUTE				= "this";
 
-	private static final ThreadLocal<JexlContext>	LOCAL_CONTEXT		= new ThreadLocal<JexlContext>();
+	private static final ThreadLocal<JexlContext>				LOCAL_CONTEXT				= new ThreadLocal<JexlContext>();
 
-	private static final Pattern					PATTERN_EXPRESSION	= Pattern.compile( "\\$\\{([^\\}]+)\\}" );
+	private static final String									EXPRESSION_START			= "${";
+
+	private static final char									EXPRESSION_END				= '}';
+
+	/**
+	 * Maximum number of distinct attribute values to keep compiled templates for. Attribute values
+	 * come from annotations and XML files, so are a largely fixed set.
+	 */
+
+	private static final int									MAXIMUM_CACHED_TEMPLATES	= 1000;
 
 	//
 	// Private members
 	//
 
-	private PropertyStyle							mInjectThis;
+	private PropertyStyle										mInjectThis;
+
+	private Object[]											mInject;
 
-	private Object[]								mInject;
+	private JexlEngine											mJexlEngine;
 
-	private JexlEngine								mJexlEngine;
+	/**
+	 * Compiled templates, keyed by raw attribute value.
+	 */
+
+	/* package private */final ConcurrentMap<String, Template>	mTemplateCache				= CollectionUtils.newBoundedConcurrentHashMap( MAXIMUM_CACHED_TEMPLATES );
 
 	//
 	// Constructors
@@ -138,69 +154,17 @@ public class JexlInspectionResultProcessor<M>
 
 		for ( Map.Entry<String, String> entry : attributes.entrySet() ) {
 
-			String key = entry.getKey();
 			String value = entry.getValue();
 
 			// ...that contains an EL expression...
 
-			Matcher matcher = PATTERN_EXPRESSION.matcher( value );
-			int matchOffset = 0;
-
-			while ( matcher.find() ) {
-
-				String expression = matcher.group( 1 );
-
-				// ...evaluate it...
-
-				try {
-					Object valueObject = mJexlEngine.createExpression( expression ).evaluate( LOCAL_CONTEXT.get() );
-					String valueObjectAsString;
-
-					if ( valueObject == null ) {
-
-						// Support the default case (when the String is just one EL)
-
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							value = null;
-							break;
-						}
-
-						valueObjectAsString = "";
-					} else {
-
-						// Support the default case (when the String is just one EL)
-
-						if ( matcher.start() == 0 && matcher.end() == value.length() ) {
-							if ( valueObject instanceof Collection<?> ) {
-								value = CollectionUtils.toString( (Collection<?>) valueObject );
-							} else if ( valueObject.getClass().isArray() ) {
-								value = ArrayUtils.toString( valueObject );
-							} else {
-								value = String.valueOf( valueObject );
-							}
-							break;
-						}
-
-						valueObjectAsString = String.valueOf( valueObject );
-					}
-
-					// Replace multiple ELs within the String
-
-					value = new StringBuilder( value ).replace( matcher.start() + matchOffset, matcher.end() + matchOffset, valueObjectAsString ).toString();
-					matchOffset += valueObjectAsString.length() - ( matcher.end() - matcher.start() );
-
-				} catch ( Exception e ) {
-
-					// We have found it helpful to include the actual expression we were trying to
-					// evaluate
-
-					throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
-				}
+			if ( value == null || value.indexOf( EXPRESSION_START ) == -1 ) {
+				continue;
 			}
 
-			// ...and replace it
+			// ...evaluate it and replace it
 
-			attributes.put( key, value );
+			entry.setValue( getTemplate( value ).evaluate( LOCAL_CONTEXT.get() ) );
 		}
 	}
 
@@ -244,4 +208,158 @@ public class JexlInspectionResultProcessor<M>
 
 		return context;
 	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Gets the compiled Template for the given attribute value, parsing it if it has not been seen
+	 * before.
+	 */
+
+	private Template getTemplate( String value ) {
+
+		Template template = mTemplateCache.get( value );
+
+		if ( template != null ) {
+			return template;
+		}
+
+		template = new Template( value );
+		mTemplateCache.putIfAbsent( value, template );
+
+		return template;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Attribute value pre-parsed into literal segments and compiled JEXL Expressions.
+	 * <p>
+	 * Literal segment <code>n</code> precedes Expression <code>n</code>, and there is always one more
+	 * literal segment than there are Expressions. Templates are immutable and so can be shared
+	 * between threads.
+	 */
+
+	private class Template {
+
+		//
+		// Private members
+		//
+
+		private final String		mValue;
+
+		private final String[]		mLiterals;
+
+		private final Expression[]	mExpressions;
+
+		//
+		// Constructor
+		//
+
+		public Template( String value ) {
+
+			mValue = value;
+
+			List<String> literals = CollectionUtils.newArrayList();
+			List<Expression> expressions = CollectionUtils.newArrayList();
+			int literalStart = 0;
+			int expressionStart = value.indexOf( EXPRESSION_START );
+
+			while ( expressionStart != -1 ) {
+
+				int expressionEnd = value.indexOf( EXPRESSION_END, expressionStart + EXPRESSION_START.length() );
+
+				if ( expressionEnd == -1 ) {
+					break;
+				}
+
+				// Empty '${}' is not an expression
+
+				if ( expressionEnd == expressionStart + EXPRESSION_START.length() ) {
+					expressionStart = value.indexOf( EXPRESSION_START, expressionStart + 1 );
+					continue;
+				}
+
+				String expression = value.substring( expressionStart + EXPRESSION_START.length(), expressionEnd );
+
+				try {
+					expressions.add( mJexlEngine.createExpression( expression ) );
+				} catch ( Exception e ) {
+
+					// We have found it helpful to include the actual expression we were trying to
+					// evaluate
+
+					throw InspectionResultProcessorException.newException( "Unable to evaluate " + value, e );
+				}
+
+				literals.add( value.substring( literalStart, expressionStart ) );
+				literalStart = expressionEnd + 1;
+				expressionStart = value.indexOf( EXPRESSION_START, literalStart );
+			}
+
+			literals.add( value.substring( literalStart ) );
+
+			mLiterals = literals.toArray( new String[literals.size()] );
+			mExpressions = expressions.toArray( new Expression[expressions.size()] );
+		}
+
+		//
+		// Public methods
+		//
+
+		public String evaluate( JexlContext context ) {
+
+			try {
+
+				// Support the default case (when the String is just one EL)
+
+				if ( mExpressions.length == 1 && mLiterals[0].length() == 0 && mLiterals[1].length() == 0 ) {
+
+					Object valueObject = mExpressions[0].evaluate( context );
+
+					if ( valueObject == null ) {
+						return null;
+					}
+
+					if ( valueObject instanceof Collection<?> ) {
+						return CollectionUtils.toString( (Collection<?>) valueObject );
+					}
+
+					if ( valueObject.getClass().isArray() ) {
+						return ArrayUtils.toString( valueObject );
+					}
+
+					return String.valueOf( valueObject );
+				}
+
+				// Replace multiple ELs within the String
+
+				StringBuilder builder = new StringBuilder( mLiterals[0] );
+
+				for ( int loop = 0, length = mExpressions.length; loop < length; loop++ ) {
+
+					Object valueObject = mExpressions[loop].evaluate( context );
+
+					if ( valueObject != null ) {
+						builder.append( valueObject );
+					}
+
+					builder.append( mLiterals[loop + 1] );
+				}
+
+				return builder.toString();
+
+			} catch ( Exception e ) {
+
+				// We have found it helpful to include the actual expression we were trying to
+				// evaluate
+
+				throw InspectionResultProcessorException.newException( "Unable to evaluate " + mValue, e );
+			}
+		}
+	}
 }
@@ -243,6 +243,53 @@ public class JexlInspectionResultProcessorTest
 		assertEquals( entity.getChildNodes().getLength(), 1 );
 	}
 
+	public void testTemplates() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.metawidget.org/inspection-result ../../inspector/inspection-result-1.0.xsd\" version=\"1.0\">";
+		xml += "<entity type=\"org.metawidget.inspector.commons.jexl.JexlXmlInspectorTest$Foo\">";
+		xml += "<property name=\"bar1\" adjacent=\"${this.abc}${this.def}\" empty=\"${}${this.abc}\" unterminated=\"${this.abc} ${this.def\" text=\"$ {this.abc}\"/>";
+		xml += "<property name=\"bar2\" adjacent=\"${this.abc}${this.def}\" empty=\"${}${this.abc}\"/>";
+		xml += "</entity></inspection-result>";
+
+		JexlInspectionResultProcessor<?> inspectionResultProcessor = new JexlInspectionResultProcessor<Object>();
+
+		String result = inspectionResultProcessor.processInspectionResult( xml, null, new Foo(), Foo.class.getName() );
+		Document document = XmlUtils.documentFromString( result );
+		Element entity = (Element) document.getDocumentElement().getFirstChild();
+
+		Element property = XmlUtils.getChildWithAttributeValue( entity, NAME, "bar1" );
+		assertEquals( "from-abcfrom-def", property.getAttribute( "adjacent" ) );
+		assertEquals( "${}from-abc", property.getAttribute( "empty" ) );
+		assertEquals( "from-abc ${this.def", property.getAttribute( "unterminated" ) );
+		assertEquals( "$ {this.abc}", property.getAttribute( "text" ) );
+
+		property = XmlUtils.getChildWithAttributeValue( entity, NAME, "bar2" );
+		assertEquals( "from-abcfrom-def", property.getAttribute( "adjacent" ) );
+		assertEquals( "${}from-abc", property.getAttribute( "empty" ) );
+
+		// Templates should be cached by raw attribute value (values without expressions need no
+		// template)
+
+		assertEquals( 3, inspectionResultProcessor.mTemplateCache.size() );
+		Object template = inspectionResultProcessor.mTemplateCache.get( "${this.abc}${this.def}" );
+		assertTrue( template != null );
+
+		inspectionResultProcessor.processInspectionResult( xml, null, new Foo(), Foo.class.getName() );
+		assertTrue( template == inspectionResultProcessor.mTemplateCache.get( "${this.abc}${this.def}" ) );
+
+		// Templates should be bounded
+
+		for ( int loop = 0; loop < 2000; loop++ ) {
+			xml = "<inspection-result xmlns=\"http://www.metawidget.org/inspection-result\"><entity type=\"Foo\" value=\"${" + loop + "}\"/></inspection-result>";
+			inspectionResultProcessor.processInspectionResult( xml, null, new Foo(), Foo.class.getName() );
+		}
+
+		assertEquals( 1000, inspectionResultProcessor.mTemplateCache.size() );
+		assertTrue( inspectionResultProcessor.mTemplateCache.containsKey( "${1999}" ) );
+		assertFalse( inspectionResultProcessor.mTemplateCache.containsKey( "${this.abc}${this.def}" ) );
+	}
+
 	//
 	// Inner class
 	//
@@ -21,10 +21,13 @@ import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import javax.xml.parsers.SAXParserFactory;
@@ -40,7 +43,6 @@ import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtils.Log;
-import org.metawidget.util.XmlUtils.CachingContentHandler;
 import org.metawidget.util.simple.StringUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -64,57 +66,70 @@ public class BaseConfigReader
 	 * Dummy config to cache by if immutable has no Config.
 	 */
 
-	/* package private */static final String							IMMUTABLE_NO_CONFIG			= "no-config";
+	/* package private */static final String									IMMUTABLE_NO_CONFIG			= "no-config";
 
-	/* package private */static final Log								LOG							= LogUtils.getLog( BaseConfigReader.class );
+	/* package private */static final Log										LOG							= LogUtils.getLog( BaseConfigReader.class );
 
-	/* package private */static final String							JAVA_NAMESPACE_PREFIX		= "java:";
+	/* package private */static final String									JAVA_NAMESPACE_PREFIX		= "java:";
+
+	/**
+	 * Prefix for keys of plans that configure an existing instance, rather than instantiate one.
+	 */
+
+	/* package private */static final String									PLAN_KEY_INSTANCE_PREFIX	= "instance:";
 
 	//
 	// Protected members
 	//
 
-	protected final SAXParserFactory									mFactory;
+	protected final SAXParserFactory											mFactory;
 
 	//
 	// Private members
 	//
 
-	private final ResourceResolver										mResourceResolver;
+	private final ResourceResolver												mResourceResolver;
 
 	/**
-	 * Cache of resource content based on resource name
+	 * Cache of compiled configuration plans, indexed by a unique location (ie. the resource name,
+	 * the type to configure and any names). This is a broad-grained cache that can prune off large
+	 * portions of the tree. For example, a plan can reference a <code>CompositeInspector</code> at
+	 * the top-level directly, without revisiting any child <code>Inspector</code>s or their various
+	 * <code>xxxConfig</code>s.
+	 * <p>
+	 * This and the other caches are safe for concurrent access, so that executing an
+	 * already-compiled plan never blocks. Only the first parse of a given location is exclusive
+	 * (see <code>mFirstParseLocks</code>).
 	 */
 
-	/* package private */final Map<String, CachingContentHandler>		mResourceCache				= CollectionUtils.newHashMap();
+	/* package private */final ConcurrentMap<String, ConfigPlan>				mPlanCache					= new ConcurrentHashMap<String, ConfigPlan>();
 
 	/**
-	 * Cache of objects that are immutable, indexed by a unique location (ie. the resource name) and
-	 * element number. This is a broad-grained cache that can prune off large portions of the tree.
-	 * For example, it can cache a <code>CompositeInspector</code> at the top-level, including all
-	 * child <code>Inspector</code>s and their various <code>xxxConfig</code>s.
+	 * Locks held during the first parse of a location, so that other threads configuring from the
+	 * same location wait for (and then execute) that parse's plan rather than parsing it
+	 * themselves.
 	 */
 
-	/* package private */final Map<String, Map<Integer, Immutable>>		mImmutableByLocationCache	= CollectionUtils.newHashMap();
+	private final ConcurrentMap<String, Object>									mFirstParseLocks			= new ConcurrentHashMap<String, Object>();
 
 	/**
 	 * Cache of objects that are immutable, indexed by their Class (and within that their Config).
-	 * This is a more fine-grained cache than mImmutableByLocationCache, but is more widely
-	 * applicable. For example, it can cache the same <code>Inspector</code> between different XMLs
-	 * from different <code>InputStream</code>s, and the same <code>PropertyStyle</code> across
-	 * multiple different <code>Inspector</code>s.
+	 * This is a more fine-grained cache than mPlanCache, but is more widely applicable. For
+	 * example, it can cache the same <code>Inspector</code> between different XMLs from different
+	 * <code>InputStream</code>s, and the same <code>PropertyStyle</code> across multiple different
+	 * <code>Inspector</code>s.
 	 */
 
-	/* package private */final Map<Class<?>, Map<Object, Immutable>>	mImmutableByClassCache		= CollectionUtils.newWeakHashMap();
+	/* package private */final Map<Class<?>, ConcurrentMap<Object, Immutable>>	mImmutableByClassCache		= Collections.synchronizedMap( CollectionUtils.<Class<?>, ConcurrentMap<Object, Immutable>> newWeakHashMap() );
 
 	/**
 	 * Cache of objects that are immutable, indexed by their id. This is a less automatic cache than
-	 * either mImmutableByLocationCache or mImmutableByClassCache because the developer has to
-	 * specify an id explicitly. But it leads to cleaner metawidget.xml files because developers
-	 * need only specify, say, a PropertyStyle with nested Config options once.
+	 * either mPlanCache or mImmutableByClassCache because the developer has to specify an id
+	 * explicitly. But it leads to cleaner metawidget.xml files because developers need only
+	 * specify, say, a PropertyStyle with nested Config options once.
 	 */
 
-	/* package private */final Map<String, Immutable>					mImmutableByIdCache			= CollectionUtils.newHashMap();
+	/* package private */final ConcurrentMap<String, Immutable>					mImmutableByIdCache			= new ConcurrentHashMap<String, Immutable>();
 
 	/**
 	 * Patterns do not cache well, because <code>java.util.regex.Pattern</code> does not override
@@ -122,7 +137,7 @@ public class BaseConfigReader
 	 * same instance.
 	 */
 
-	/* package private */final Map<String, Pattern>						mPatternCache				= CollectionUtils.newHashMap();
+	/* package private */final ConcurrentMap<String, Pattern>					mPatternCache				= new ConcurrentHashMap<String, Pattern>();
 
 	//
 	// Constructor
@@ -152,6 +167,12 @@ public class BaseConfigReader
 	 * re-open the resource, or re-parse it, making this version of <code>configure</code> much
 	 * faster than <code>configure( InputStream, Object )</code>.
 	 * <p>
+	 * Specifically, the first call for a given resource (and <code>toConfigure</code> type, and
+	 * <code>names</code>) compiles a <code>ConfigPlan</code>: a list of steps with their
+	 * <code>Method</code>s and <code>Constructor</code>s already resolved, their native values
+	 * already converted and their immutable objects already instantiated. Subsequent calls simply
+	 * execute the plan, with no XML processing and no reflective lookups.
+	 * <p>
 	 * This version further caches any immutable objects, in the same way as
 	 * <code>configure( InputStream, Object )</code> (see the JavaDoc for that method).
 	 *
@@ -167,8 +188,6 @@ public class BaseConfigReader
 
 	public Object configure( String resource, Object toConfigure, String... names ) {
 
-		ConfigHandler configHandler = new ConfigHandler( toConfigure, names );
-
 		// Establish cache
 
 		String locationKey = resource + StringUtils.SEPARATOR_FORWARD_SLASH;
@@ -181,44 +200,64 @@ public class BaseConfigReader
 
 		locationKey += ArrayUtils.toString( names, StringUtils.SEPARATOR_FORWARD_SLASH, true, false );
 
-		synchronized ( mImmutableByLocationCache ) {
+		// Plans differ depending on whether they instantiate toConfigure or configure an existing
+		// instance of it
+
+		String planKey = locationKey;
 
-			Map<Integer, Immutable> immutableByLocationCache = mImmutableByLocationCache.get( locationKey );
+		if ( toConfigure != null && !( toConfigure instanceof Class<?> ) ) {
+			planKey = PLAN_KEY_INSTANCE_PREFIX + locationKey;
+		}
+
+		try {
+
+			// Execute the existing plan (never blocks)...
 
-			if ( immutableByLocationCache == null ) {
-				immutableByLocationCache = CollectionUtils.newHashMap();
+			ConfigPlan plan = mPlanCache.get( planKey );
+
+			if ( plan != null ) {
+				return plan.execute( toConfigure );
 			}
 
-			configHandler.setImmutableForThisLocationCache( immutableByLocationCache );
+			// ...or compile a new one. Only the first parse of this location blocks, and only other
+			// threads configuring from the same location
 
-			try {
+			Object lock = new Object();
+			Object existingLock = mFirstParseLocks.putIfAbsent( planKey, lock );
 
-				// Replay the existing cache...
+			if ( existingLock != null ) {
+				lock = existingLock;
+			}
 
-				CachingContentHandler cachingContentHandler = mResourceCache.get( locationKey );
+			try {
+				synchronized ( lock ) {
 
-				if ( cachingContentHandler != null ) {
-					cachingContentHandler.replay( configHandler );
+					// (another thread may have parsed it while we waited)
 
-				} else {
+					plan = mPlanCache.get( planKey );
 
-					// ...or cache a new one
+					if ( plan != null ) {
+						return plan.execute( toConfigure );
+					}
 
 					LOG.debug( "Reading resource from {0}", locationKey );
-					cachingContentHandler = new CachingContentHandler( configHandler );
-					configHandler.setCachingContentHandler( cachingContentHandler );
-					mFactory.newSAXParser().parse( mResourceResolver.openResource( resource ), cachingContentHandler );
+					ConfigHandler configHandler = new ConfigHandler( toConfigure, names );
+					plan = new ConfigPlan();
+					configHandler.setConfigPlan( plan );
+					mFactory.newSAXParser().parse( mResourceResolver.openResource( resource ), configHandler );
+					Object configured = configHandler.getConfigured();
 
 					// Only cache if successful
 
-					mResourceCache.put( locationKey, cachingContentHandler );
-					mImmutableByLocationCache.put( locationKey, immutableByLocationCache );
-				}
+					mPlanCache.put( planKey, plan );
 
-				return configHandler.getConfigured();
-			} catch ( Exception e ) {
-				throw MetawidgetException.newException( e );
+					return configured;
+				}
+			} finally {
+				mFirstParseLocks.remove( planKey, lock );
 			}
+		} catch ( Exception e ) {
+			throw MetawidgetException.newException( e );
 		}
 	}
 
@@ -426,7 +465,11 @@ public class BaseConfigReader
 
 			if ( pattern == null ) {
 				pattern = Pattern.compile( recordedText );
-				mPatternCache.put( recordedText, pattern );
+				Pattern existingPattern = mPatternCache.putIfAbsent( recordedText, pattern );
+
+				if ( existingPattern != null ) {
+					pattern = existingPattern;
+				}
 			}
 
 			return pattern;
@@ -618,6 +661,40 @@ public class BaseConfigReader
 		return Immutable.class.isAssignableFrom( clazz );
 	}
 
+	//
+	// Private methods
+	//
+
+	private static void addToConstructing( Stack<Object> constructing, Object toAdd ) {
+
+		Object parameters = constructing.peek();
+
+		// Collections
+
+		if ( parameters instanceof Collection<?> ) {
+			@SuppressWarnings( "unchecked" )
+			Collection<Object> collection = (Collection<Object>) parameters;
+			collection.add( toAdd );
+			return;
+		}
+
+		// Arrays
+
+		if ( parameters.getClass().isArray() ) {
+			Object[] array = (Object[]) constructing.pop();
+			Object[] newArray = new Object[array.length + 1];
+			System.arraycopy( array, 0, newArray, 0, array.length );
+
+			newArray[array.length] = toAdd;
+			constructing.push( newArray );
+			return;
+		}
+
+		// Unknown
+
+		throw MetawidgetException.newException( "Don't know how to add to a " + parameters.getClass() );
+	}
+
 	//
 	// Inner classes
 	//
@@ -665,19 +742,6 @@ public class BaseConfigReader
 
 		private String[]				mNames;
 
-		/**
-		 * Number of elements encountered so far. Used as a simple way to get a unique 'row/column'
-		 * location into the XML tree.
-		 */
-
-		private int						mLocationIndex;
-
-		/**
-		 * Map of objects that are immutable for this XML document. Keyed by location index.
-		 */
-
-		private Map<Integer, Immutable>	mImmutableForThisLocationCache;
-
 		/**
 		 * Track our depth in the XML tree.
 		 */
@@ -688,41 +752,46 @@ public class BaseConfigReader
 		 * Depth after which to skip type processing, so as to ignore chunks of the XML tree.
 		 */
 
-		private int						mIgnoreTypeAfterDepth		= -1;
+		private int						mIgnoreTypeAfterDepth	= -1;
 
 		/**
 		 * Depth after which to skip name processing, so as to ignore chunks of the XML tree.
 		 */
 
-		private int						mIgnoreNameAfterDepth		= -1;
-
-		/**
-		 * Depth after which to skip immutable caching, so as to ignore chunks of the XML tree.
-		 */
-
-		private int						mIgnoreImmutableAfterDepth	= -1;
+		private int						mIgnoreNameAfterDepth	= -1;
 
 		/**
 		 * Stack of Objects constructed so far.
 		 */
 
-		private Stack<Object>			mConstructing				= CollectionUtils.newStack();
+		private Stack<Object>			mConstructing			= CollectionUtils.newStack();
 
 		/**
 		 * Next expected state in the XML tree.
 		 */
 
-		private ExpectingState			mExpecting					= ExpectingState.ROOT;
+		private ExpectingState			mExpecting				= ExpectingState.ROOT;
 
 		/**
 		 * Stack of encountered states in the XML tree.
 		 */
 
-		private Stack<EncounteredState>	mEncountered				= CollectionUtils.newStack();
+		private Stack<EncounteredState>	mEncountered			= CollectionUtils.newStack();
 
 		private StringBuilder			mBuilderValue;
 
-		private CachingContentHandler	mCachingContentHandler;
+		/**
+		 * Plan being compiled (if any).
+		 */
+
+		private ConfigPlan				mConfigPlan;
+
+		/**
+		 * Stack of plan sizes at the start of each configured type, so that the steps for an
+		 * immutable can be collapsed into a reference to the immutable itself.
+		 */
+
+		private Stack<Integer>			mConfigPlanMarks		= CollectionUtils.newStack();
 
 		//
 		// Constructor
@@ -738,14 +807,9 @@ public class BaseConfigReader
 		// Public methods
 		//
 
-		public void setImmutableForThisLocationCache( Map<Integer, Immutable> immutableForThisLocationCache ) {
-
-			mImmutableForThisLocationCache = immutableForThisLocationCache;
-		}
-
-		public void setCachingContentHandler( CachingContentHandler cachingContentHandler ) {
+		public void setConfigPlan( ConfigPlan configPlan ) {
 
-			mCachingContentHandler = cachingContentHandler;
+			mConfigPlan = configPlan;
 		}
 
 		public Object getConfigured() {
@@ -812,12 +876,6 @@ public class BaseConfigReader
 								mEncountered.push( EncounteredState.WRONG_TYPE );
 								mIgnoreTypeAfterDepth = 2;
 
-								// Pause caching (if any)
-
-								if ( mCachingContentHandler != null ) {
-									mCachingContentHandler.pause( false );
-								}
-
 								return;
 							}
 
@@ -840,27 +898,21 @@ public class BaseConfigReader
 								mEncountered.push( EncounteredState.WRONG_TYPE );
 								mIgnoreTypeAfterDepth = 2;
 
-								// Pause caching (if any)
-
-								if ( mCachingContentHandler != null ) {
-									mCachingContentHandler.pause( false );
-								}
-
 								return;
 							}
 
 							mConstructing.push( mToConfigure );
 							mEncountered.push( EncounteredState.JAVA_OBJECT );
+
+							if ( mConfigPlan != null ) {
+								mConfigPlan.add( new PushToConfigureStep() );
+							}
 						}
 
 						mExpecting = ExpectingState.METHOD;
 						break;
 
 					case OBJECT:
-						if ( mCachingContentHandler == null || !mCachingContentHandler.isPaused() ) {
-							mLocationIndex++;
-						}
-
 						// Native types
 
 						if ( isNative( localName ) || isLazyResolvingNative( localName ) ) {
@@ -879,6 +931,10 @@ public class BaseConfigReader
 							mConstructing.push( collection );
 							mEncountered.push( EncounteredState.NATIVE_COLLECTION_TYPE );
 
+							if ( mConfigPlan != null ) {
+								mConfigPlan.add( new PushNativeCollectionStep( localName ) );
+							}
+
 							mExpecting = ExpectingState.OBJECT;
 							return;
 						}
@@ -902,13 +958,6 @@ public class BaseConfigReader
 								if ( !localName.equals( expectingName ) ) {
 									mEncountered.push( EncounteredState.WRONG_NAME );
 									mIgnoreNameAfterDepth = mDepth;
-
-									// Pause caching (if any)
-
-									if ( mCachingContentHandler != null ) {
-										mCachingContentHandler.pause( false );
-									}
-
 									return;
 								}
 							}
@@ -919,6 +968,10 @@ public class BaseConfigReader
 						mConstructing.push( new ArrayList<Object>() );
 						mEncountered.push( EncounteredState.METHOD );
 
+						if ( mConfigPlan != null ) {
+							mConfigPlan.add( new PushMethodParametersStep() );
+						}
+
 						mExpecting = ExpectingState.OBJECT;
 						break;
 
@@ -970,12 +1023,6 @@ public class BaseConfigReader
 				}
 
 				mIgnoreTypeAfterDepth = -1;
-
-				// Unpause caching (if any)
-
-				if ( mCachingContentHandler != null ) {
-					mCachingContentHandler.unpause( false );
-				}
 			}
 
 			if ( mIgnoreNameAfterDepth != -1 ) {
@@ -984,12 +1031,6 @@ public class BaseConfigReader
 				}
 
 				mIgnoreNameAfterDepth = -1;
-
-				// Unpause caching (if any)
-
-				if ( mCachingContentHandler != null ) {
-					mCachingContentHandler.unpause( false );
-				}
 			}
 
 			// All done?
@@ -1024,7 +1065,19 @@ public class BaseConfigReader
 
 						// Create native
 
-						addToConstructing( createNative( localName, constructing.getClass(), endRecording() ) );
+						String recordedText = endRecording();
+						Object nativeValue = createNative( localName, constructing.getClass(), recordedText );
+						addToConstructing( nativeValue );
+
+						// (natives that are simple values can be converted once, up front)
+
+						if ( mConfigPlan != null ) {
+							if ( nativeValue == null || nativeValue instanceof String || nativeValue instanceof Number || nativeValue instanceof Boolean || nativeValue instanceof Class<?> || nativeValue instanceof Pattern ) {
+								mConfigPlan.add( new AddValueStep( nativeValue ) );
+							} else {
+								mConfigPlan.add( new AddNativeStep( localName, constructing.getClass(), recordedText ) );
+							}
+						}
 
 						mExpecting = ExpectingState.OBJECT;
 						return;
@@ -1036,6 +1089,10 @@ public class BaseConfigReader
 						Collection<Object> parameters = (Collection<Object>) mConstructing.peek();
 						parameters.add( nativeCollectionType );
 
+						if ( mConfigPlan != null ) {
+							mConfigPlan.add( new AddNativeCollectionStep() );
+						}
+
 						mExpecting = ExpectingState.OBJECT;
 						return;
 
@@ -1055,9 +1112,11 @@ public class BaseConfigReader
 								configuredObject = getImmutableByClass( classToConstruct, object );
 							}
 
+							Constructor<?> constructor = null;
+
 							if ( configuredObject == null ) {
 								try {
-									Constructor<?> constructor = classToConstruct.getConstructor( object.getClass() );
+									constructor = classToConstruct.getConstructor( object.getClass() );
 									configuredObject = constructor.newInstance( object );
 								} catch ( NoSuchMethodException e ) {
 									String likelyConfig = getLikelyConfig( classToConstruct );
@@ -1075,26 +1134,27 @@ public class BaseConfigReader
 
 								if ( isImmutable( classToConstruct ) ) {
 									LOG.debug( "\tInstantiated immutable {0} (config hashCode {1})", classToConstruct, object.hashCode() );
-									Immutable immutable = (Immutable) configuredObject;
-									putImmutableByClass( immutable, object );
+									Immutable immutable = putImmutableByClass( (Immutable) configuredObject, object );
+									configuredObject = immutable;
 
 									if ( id != null ) {
 										putImmutableById( id, immutable );
 									}
 								}
-							} else if ( isImmutable( classToConstruct ) && mCachingContentHandler != null && mDepth < mIgnoreImmutableAfterDepth ) {
-
-								// Unpause caching (if any)
+							}
 
-								mCachingContentHandler.unpause( true );
-								mIgnoreImmutableAfterDepth = -1;
+							// Immutable? The plan need only reference it, not build it (nor its
+							// config) again
 
-								// If the configuredObject was cached by class, it may have come
-								// from a different 'location' (either a different resource, or
-								// a different mLocationIndex within this same resource) so we
-								// still need to cache it at this new location
+							if ( mConfigPlan != null ) {
+								int configPlanMark = mConfigPlanMarks.pop();
 
-								putImmutableByLocation( (Immutable) configuredObject );
+								if ( isImmutable( classToConstruct ) ) {
+									mConfigPlan.truncate( configPlanMark );
+									mConfigPlan.add( new PushValueStep( configuredObject ) );
+								} else {
+									mConfigPlan.add( new ConstructWithConfigStep( constructor ) );
+								}
 							}
 
 							// Use the configured object (not its config) as the 'object' from now
@@ -1113,6 +1173,10 @@ public class BaseConfigReader
 
 						addToConstructing( object );
 
+						if ( mConfigPlan != null ) {
+							mConfigPlan.add( new AddObjectStep() );
+						}
+
 						mExpecting = ExpectingState.OBJECT;
 						return;
 
@@ -1129,8 +1193,21 @@ public class BaseConfigReader
 						String methodName = "set" + StringUtils.capitalize( localName );
 
 						try {
+							List<Object> unresolvedParameters = CollectionUtils.newArrayList( parameters1 );
 							Method method = classGetMethod( constructingClass, methodName, parameters1 );
 							method.invoke( constructing1, parameters1.toArray() );
+
+							// (record which parameters classGetMethod had to lazily resolve)
+
+							if ( mConfigPlan != null ) {
+								boolean[] lazilyResolved = new boolean[parameters1.size()];
+
+								for ( int loop = 0; loop < lazilyResolved.length; loop++ ) {
+									lazilyResolved[loop] = ( parameters1.get( loop ) != unresolvedParameters.get( loop ) );
+								}
+
+								mConfigPlan.add( new InvokeMethodStep( method, lazilyResolved ) );
+							}
 						} catch ( NoSuchMethodException e ) {
 							// Hint for config-based constructors
 
@@ -1230,25 +1307,20 @@ public class BaseConfigReader
 
 				mConstructing.push( immutable );
 				mEncountered.push( EncounteredState.JAVA_OBJECT );
+
+				if ( mConfigPlan != null ) {
+					mConfigPlan.add( new PushValueStep( immutable ) );
+				}
+
 				return ExpectingState.CLOSE_OBJECT_WITH_REFID;
 			}
 
 			Object object = null;
 			Class<?> classToConstruct = lookupClass( uri, localName, mToConfigure.getClass().getClassLoader() );
 
-			// Already cached (by location)?
-			//
-			// Note: if it is already cached by location, any child nodes will have been 'paused
-			// away' by CachingContentHandler, so we don't have to worry about checking the config
-			// attribute
-
-			if ( isImmutable( classToConstruct ) ) {
-				object = getImmutableByLocation();
-			}
-
 			// Configured types
 
-			if ( object == null && configClassName != null ) {
+			if ( configClassName != null ) {
 				String configToConstruct;
 
 				if ( configClassName.indexOf( '.' ) == -1 ) {
@@ -1271,11 +1343,9 @@ public class BaseConfigReader
 				mConstructing.push( new ConfigAndId( config, attributes.getValue( "id" ) ) );
 				mEncountered.push( EncounteredState.CONFIGURED_TYPE );
 
-				// Pause caching (if any)
-
-				if ( mIgnoreImmutableAfterDepth == -1 && mCachingContentHandler != null && isImmutable( classToConstruct ) ) {
-					mCachingContentHandler.pause( true );
-					mIgnoreImmutableAfterDepth = mDepth;
+				if ( mConfigPlan != null ) {
+					mConfigPlanMarks.push( mConfigPlan.size() );
+					mConfigPlan.add( new PushConfigStep( configClass.getDeclaredConstructor() ) );
 				}
 
 				return ExpectingState.METHOD;
@@ -1283,15 +1353,17 @@ public class BaseConfigReader
 
 			// Already cached (without config)?
 
-			if ( object == null && isImmutable( classToConstruct ) ) {
+			if ( isImmutable( classToConstruct ) ) {
 				object = getImmutableByClass( classToConstruct, IMMUTABLE_NO_CONFIG );
 			}
 
 			// Java objects (without config)?
 
+			Constructor<?> defaultConstructor = null;
+
 			if ( object == null ) {
 				try {
-					Constructor<?> defaultConstructor = classToConstruct.getConstructor();
+					defaultConstructor = classToConstruct.getConstructor();
 					object = defaultConstructor.newInstance();
 				} catch ( NoSuchMethodException e ) {
 					String likelyConfig = getLikelyConfig( classToConstruct );
@@ -1307,8 +1379,8 @@ public class BaseConfigReader
 
 				if ( isImmutable( classToConstruct ) ) {
 					LOG.debug( "\tInstantiated immutable {0} (no config)", classToConstruct );
-					Immutable immutable = (Immutable) object;
-					putImmutableByClass( immutable, null );
+					Immutable immutable = putImmutableByClass( (Immutable) object, null );
+					object = immutable;
 
 					String id = attributes.getValue( "id" );
 
@@ -1321,86 +1393,49 @@ public class BaseConfigReader
 			mConstructing.push( object );
 			mEncountered.push( EncounteredState.JAVA_OBJECT );
 
-			return ExpectingState.METHOD;
-		}
-
-		private void addToConstructing( Object toAdd ) {
-
-			Object parameters = mConstructing.peek();
+			// Immutables need only be referenced by the plan, not constructed again
 
-			// Collections
-
-			if ( parameters instanceof Collection<?> ) {
-				@SuppressWarnings( "unchecked" )
-				Collection<Object> collection = (Collection<Object>) parameters;
-				collection.add( toAdd );
-				return;
-			}
-
-			// Arrays
-
-			if ( parameters.getClass().isArray() ) {
-				Object[] array = (Object[]) mConstructing.pop();
-				Object[] newArray = new Object[array.length + 1];
-				System.arraycopy( array, 0, newArray, 0, array.length );
-
-				newArray[array.length] = toAdd;
-				mConstructing.push( newArray );
-				return;
-			}
-
-			// Unknown
-
-			throw MetawidgetException.newException( "Don't know how to add to a " + parameters.getClass() );
-		}
-
-		private Object getImmutableByLocation() {
-
-			// No cache (ie. XML coming from a nameless InputStream)?
-
-			if ( mImmutableForThisLocationCache == null ) {
-				return null;
+			if ( mConfigPlan != null ) {
+				if ( isImmutable( classToConstruct ) ) {
+					mConfigPlan.add( new PushValueStep( object ) );
+				} else {
+					mConfigPlan.add( new PushNewObjectStep( defaultConstructor ) );
+				}
 			}
 
-			return mImmutableForThisLocationCache.get( mLocationIndex );
+			return ExpectingState.METHOD;
 		}
 
-		private void putImmutableByLocation( Immutable immutable ) {
-
-			// No cache by (ie. XML coming from a nameless InputStream)?
-
-			if ( mImmutableForThisLocationCache == null ) {
-				return;
-			}
-
-			if ( mImmutableForThisLocationCache.containsKey( mLocationIndex ) ) {
-				throw InspectorException.newException( "Location " + mLocationIndex + " already cached" );
-			}
+		private void addToConstructing( Object toAdd ) {
 
-			mImmutableForThisLocationCache.put( mLocationIndex, immutable );
+			BaseConfigReader.addToConstructing( mConstructing, toAdd );
 		}
 
 		private Object getImmutableByRefId( String refId ) {
 
-			if ( !mImmutableByIdCache.containsKey( refId ) ) {
+			Immutable immutable = mImmutableByIdCache.get( refId );
+
+			if ( immutable == null ) {
 				throw InspectorException.newException( "Attribute refId=\"" + refId + "\" refers to non-existent id" );
 			}
 
-			return mImmutableByIdCache.get( refId );
+			return immutable;
 		}
 
 		private void putImmutableById( String id, Immutable immutable ) {
 
-			if ( mImmutableByIdCache.containsKey( id ) ) {
+			// (concurrent first parses may legitimately cache the same instance under the same id)
+
+			Immutable existingImmutable = mImmutableByIdCache.putIfAbsent( id, immutable );
+
+			if ( existingImmutable != null && existingImmutable != immutable ) {
 				throw InspectorException.newException( "Attribute id=\"" + id + "\" appears more than once" );
 			}
-
-			mImmutableByIdCache.put( id, immutable );
 		}
 
 		private Object getImmutableByClass( Class<?> clazz, Object config ) {
 
-			Map<Object, Immutable> configs = mImmutableByClassCache.get( clazz );
+			ConcurrentMap<Object, Immutable> configs = mImmutableByClassCache.get( clazz );
 
 			if ( configs == null ) {
 				return null;
@@ -1417,14 +1452,23 @@ public class BaseConfigReader
 			return configs.get( configToLookup );
 		}
 
-		private void putImmutableByClass( Immutable immutable, Object config ) {
+		/**
+		 * @return the cached immutable, which may not be the one passed in if another thread cached
+		 *         an equivalent one first
+		 */
+
+		private Immutable putImmutableByClass( Immutable immutable, Object config ) {
 
 			Class<?> clazz = immutable.getClass();
-			Map<Object, Immutable> configs = mImmutableByClassCache.get( clazz );
+			ConcurrentMap<Object, Immutable> configs;
 
-			if ( configs == null ) {
-				configs = CollectionUtils.newHashMap();
-				mImmutableByClassCache.put( clazz, configs );
+			synchronized ( mImmutableByClassCache ) {
+				configs = mImmutableByClassCache.get( clazz );
+
+				if ( configs == null ) {
+					configs = new ConcurrentHashMap<Object, Immutable>();
+					mImmutableByClassCache.put( clazz, configs );
+				}
 			}
 
 			Object configToStoreUnder = config;
@@ -1509,10 +1553,6 @@ public class BaseConfigReader
 				}
 			}
 
-			if ( configs.containsKey( configToStoreUnder ) ) {
-				throw InspectorException.newException( "Config '" + configToStoreUnder + "' already cached" );
-			}
-
 			for ( Method method : clazz.getMethods() ) {
 
 				// Do not warn for > 1 parameter, as a lot of WidgetBuilders implement setValue
@@ -1523,18 +1563,16 @@ public class BaseConfigReader
 				}
 			}
 
-			configs.put( configToStoreUnder, immutable );
-
-			// Unpause caching (if any)
+			// If another thread cached an equivalent immutable while we were instantiating ours,
+			// use theirs so there is still only ever one instance
 
-			if ( mCachingContentHandler != null && mDepth < mIgnoreImmutableAfterDepth ) {
-				mCachingContentHandler.unpause( true );
-				mIgnoreImmutableAfterDepth = -1;
+			Immutable cachedImmutable = configs.putIfAbsent( configToStoreUnder, immutable );
 
-				if ( config != null ) {
-					putImmutableByLocation( immutable );
-				}
+			if ( cachedImmutable == null ) {
+				cachedImmutable = immutable;
 			}
+
+			return cachedImmutable;
 		}
 
 		/**
@@ -1734,4 +1772,502 @@ public class BaseConfigReader
 			return mId;
 		}
 	}
+
+	/**
+	 * Configuration compiled from a resource, ready to be executed any number of times.
+	 * <p>
+	 * A plan is recorded by <code>ConfigHandler</code> during the first parse of a resource. Each
+	 * step replicates what <code>ConfigHandler</code> did to its stack of objects under
+	 * construction, but with all <code>Method</code>s and <code>Constructor</code>s already
+	 * resolved, all simple native values already converted and all immutable objects already
+	 * instantiated. Once compiled, a plan is never modified so may be executed concurrently.
+	 */
+
+	/* package private */static class ConfigPlan {
+
+		//
+		// Private members
+		//
+
+		private final List<ConfigPlanStep>	mSteps	= CollectionUtils.newArrayList();
+
+		//
+		// Public methods
+		//
+
+		public Object execute( Object toConfigure )
+			throws Exception {
+
+			Stack<Object> constructing = CollectionUtils.newStack();
+
+			try {
+				for ( ConfigPlanStep step : mSteps ) {
+					step.execute( constructing, toConfigure );
+				}
+			} catch ( InvocationTargetException e ) {
+
+				// Prevent InvocationTargetException 'masking' the error
+
+				Throwable t = e.getTargetException();
+
+				if ( !( t instanceof Exception ) ) {
+					throw new RuntimeException( t );
+				}
+
+				throw (Exception) t;
+			}
+
+			return constructing.peek();
+		}
+
+		public int size() {
+
+			return mSteps.size();
+		}
+
+		public void add( ConfigPlanStep step ) {
+
+			mSteps.add( step );
+		}
+
+		public void truncate( int size ) {
+
+			mSteps.subList( size, mSteps.size() ).clear();
+		}
+	}
+
+	private interface ConfigPlanStep {
+
+		//
+		// Methods
+		//
+
+		void execute( Stack<Object> constructing, Object toConfigure )
+			throws Exception;
+	}
+
+	/**
+	 * Pushes the object passed to <code>configure</code>.
+	 */
+
+	private static class PushToConfigureStep
+		implements ConfigPlanStep {
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			constructing.push( toConfigure );
+		}
+
+		@Override
+		public String toString() {
+
+			return "pushToConfigure";
+		}
+	}
+
+	/**
+	 * Pushes a value that never changes between executions, such as an immutable object.
+	 */
+
+	private static class PushValueStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final Object	mValue;
+
+		//
+		// Constructor
+		//
+
+		public PushValueStep( Object value ) {
+
+			mValue = value;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			constructing.push( mValue );
+		}
+
+		@Override
+		public String toString() {
+
+			return "pushValue " + mValue.getClass().getName();
+		}
+	}
+
+	/**
+	 * Pushes a new instance of a (mutable) object using its default constructor.
+	 */
+
+	private static class PushNewObjectStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final Constructor<?>	mConstructor;
+
+		//
+		// Constructor
+		//
+
+		public PushNewObjectStep( Constructor<?> constructor ) {
+
+			mConstructor = constructor;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure )
+			throws Exception {
+
+			constructing.push( mConstructor.newInstance() );
+		}
+
+		@Override
+		public String toString() {
+
+			return "pushNewObject " + mConstructor.getDeclaringClass().getName();
+		}
+	}
+
+	/**
+	 * Pushes a new instance of an <code>xxxConfig</code>.
+	 */
+
+	private class PushConfigStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final Constructor<?>	mConstructor;
+
+		//
+		// Constructor
+		//
+
+		public PushConfigStep( Constructor<?> constructor ) {
+
+			mConstructor = constructor;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure )
+			throws Exception {
+
+			Object config = mConstructor.newInstance();
+
+			if ( config instanceof NeedsResourceResolver ) {
+				( (NeedsResourceResolver) config ).setResourceResolver( getResourceResolver() );
+			}
+
+			constructing.push( config );
+		}
+
+		@Override
+		public String toString() {
+
+			return "pushConfig " + mConstructor.getDeclaringClass().getName();
+		}
+	}
+
+	/**
+	 * Replaces the <code>xxxConfig</code> on the top of the stack with a new instance of the
+	 * (mutable) object it configures.
+	 */
+
+	private static class ConstructWithConfigStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final Constructor<?>	mConstructor;
+
+		//
+		// Constructor
+		//
+
+		public ConstructWithConfigStep( Constructor<?> constructor ) {
+
+			mConstructor = constructor;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure )
+			throws Exception {
+
+			constructing.push( mConstructor.newInstance( constructing.pop() ) );
+		}
+
+		@Override
+		public String toString() {
+
+			return "constructWithConfig " + mConstructor.getDeclaringClass().getName();
+		}
+	}
+
+	/**
+	 * Pops the object on the top of the stack and adds it to the method parameters (or native
+	 * collection) below it.
+	 */
+
+	private static class AddObjectStep
+		implements ConfigPlanStep {
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			addToConstructing( constructing, constructing.pop() );
+		}
+
+		@Override
+		public String toString() {
+
+			return "addObject";
+		}
+	}
+
+	/**
+	 * Adds a native value that was converted once, up front.
+	 */
+
+	private static class AddValueStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final Object	mValue;
+
+		//
+		// Constructor
+		//
+
+		public AddValueStep( Object value ) {
+
+			mValue = value;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			addToConstructing( constructing, mValue );
+		}
+
+		@Override
+		public String toString() {
+
+			return "addValue " + mValue;
+		}
+	}
+
+	/**
+	 * Adds a native value that must be created afresh each time (such as an
+	 * <code>InputStream</code>).
+	 */
+
+	private class AddNativeStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final String	mName;
+
+		private final Class<?>	mNamespace;
+
+		private final String	mRecordedText;
+
+		//
+		// Constructor
+		//
+
+		public AddNativeStep( String name, Class<?> namespace, String recordedText ) {
+
+			mName = name;
+			mNamespace = namespace;
+			mRecordedText = recordedText;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure )
+			throws Exception {
+
+			addToConstructing( constructing, createNative( mName, mNamespace, mRecordedText ) );
+		}
+
+		@Override
+		public String toString() {
+
+			return "addNative " + mName;
+		}
+	}
+
+	private class PushNativeCollectionStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final String	mName;
+
+		//
+		// Constructor
+		//
+
+		public PushNativeCollectionStep( String name ) {
+
+			mName = name;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			constructing.push( createNativeCollection( mName ) );
+		}
+
+		@Override
+		public String toString() {
+
+			return "pushNativeCollection " + mName;
+		}
+	}
+
+	private static class AddNativeCollectionStep
+		implements ConfigPlanStep {
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			Object nativeCollection = constructing.pop();
+
+			@SuppressWarnings( "unchecked" )
+			Collection<Object> parameters = (Collection<Object>) constructing.peek();
+			parameters.add( nativeCollection );
+		}
+
+		@Override
+		public String toString() {
+
+			return "addNativeCollection";
+		}
+	}
+
+	private static class PushMethodParametersStep
+		implements ConfigPlanStep {
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure ) {
+
+			constructing.push( new ArrayList<Object>() );
+		}
+
+		@Override
+		public String toString() {
+
+			return "pushMethodParameters";
+		}
+	}
+
+	/**
+	 * Pops the method parameters on the top of the stack and invokes the method on the object below
+	 * them.
+	 */
+
+	private class InvokeMethodStep
+		implements ConfigPlanStep {
+
+		//
+		// Private members
+		//
+
+		private final Method		mMethod;
+
+		private final Class<?>[]	mParameterTypes;
+
+		private final boolean[]		mLazilyResolved;
+
+		//
+		// Constructor
+		//
+
+		public InvokeMethodStep( Method method, boolean[] lazilyResolved ) {
+
+			mMethod = method;
+			mParameterTypes = method.getParameterTypes();
+			mLazilyResolved = lazilyResolved;
+		}
+
+		//
+		// Public methods
+		//
+
+		public void execute( Stack<Object> constructing, Object toConfigure )
+			throws Exception {
+
+			@SuppressWarnings( "unchecked" )
+			List<Object> parameters = (List<Object>) constructing.pop();
+			Object[] args = parameters.toArray();
+
+			for ( int loop = 0; loop < args.length; loop++ ) {
+				if ( mLazilyResolved[loop] ) {
+					args[loop] = createLazyResolvingNative( args[loop], mParameterTypes[loop] );
+				}
+			}
+
+			mMethod.invoke( constructing.peek(), args );
+		}
+
+		@Override
+		public String toString() {
+
+			return "invokeMethod " + mMethod.getName();
+		}
+	}
 }
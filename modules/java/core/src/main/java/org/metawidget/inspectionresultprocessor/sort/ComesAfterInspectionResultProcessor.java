@@ -14,8 +14,6 @@ package org.metawidget.inspectionresultprocessor.sort;
 import static org.metawidget.inspector.InspectionResultConstants.COMES_AFTER;
 import static org.metawidget.inspector.InspectionResultConstants.ENTITY;
 import static org.metawidget.inspector.InspectionResultConstants.NAME;
-import static org.metawidget.inspector.InspectionResultConstants.NAMESPACE;
-import static org.metawidget.inspector.InspectionResultConstants.ROOT;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -27,7 +25,6 @@ import org.metawidget.inspectionresultprocessor.impl.BaseInspectionResultProcess
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.XmlUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 /**
@@ -46,7 +43,11 @@ public class ComesAfterInspectionResultProcessor<M>
 	// Private statics
 	//
 
-	private static final int	PERMANENT_MARK	= -1;
+	private static final int	TEMPORARY_MARK			= 1;
+
+	private static final int	PERMANENT_MARK			= 2;
+
+	private static final int	COMES_AFTER_ALL_MARK	= 3;
 
 	//
 	// Public methods
@@ -57,7 +58,7 @@ public class ComesAfterInspectionResultProcessor<M>
 
 		try {
 			Element entity = XmlUtils.getFirstChildElement( inspectionResult );
-			
+
 			// Sanity check
 
 			String elementName = entity.getNodeName();
@@ -65,90 +66,108 @@ public class ComesAfterInspectionResultProcessor<M>
 			if ( !ENTITY.equals( elementName ) ) {
 				throw InspectionResultProcessorException.newException( "Top-level element name should be " + ENTITY + ", not " + elementName );
 			}
-			
-			// Prepare all traits as a topological graph (use LinkedHashMap and List
-			// so we get a consistent ordering)
+
+			// Prepare all traits as a topological graph, indexed by name (use LinkedHashMap and
+			// List so we get a consistent ordering)
 
 			Map<String, TopologicalElement> topologicalElements = CollectionUtils.newLinkedHashMap();
+			boolean needsSorting = false;
 			Element trait = XmlUtils.getFirstChildElement( entity );
 
 			while ( trait != null ) {
-				topologicalElements.put( trait.getAttribute( NAME ), new TopologicalElement( trait ) );
-				trait = XmlUtils.getNextSiblingElement( trait );
+
+				Element nextTrait = XmlUtils.getNextSiblingElement( trait );
+				TopologicalElement replaced = topologicalElements.put( trait.getAttribute( NAME ), new TopologicalElement( trait ) );
+
+				// Later traits replace earlier traits of the same name (but keep their position)
+
+				if ( replaced != null ) {
+					entity.removeChild( replaced.getElement() );
+					needsSorting = true;
+				}
+
+				trait = nextTrait;
 			}
 
-			Collection<TopologicalElement> unmarkedNodes = CollectionUtils.newArrayList();
+			List<TopologicalElement> comesAfterAlls = CollectionUtils.newArrayList();
 
 			for ( TopologicalElement topologicalElement : topologicalElements.values() ) {
 
-				unmarkedNodes.add( topologicalElement );
 				trait = topologicalElement.getElement();
 
-				if ( hasComesAfter( trait, metawidget ) ) {
-					
-					String comesAfters = getComesAfter( trait, metawidget );
+				if ( !hasComesAfter( trait, metawidget ) ) {
+					continue;
+				}
 
-					// For comes-after all, gather all nodes
-					
-					if ( "".equals( comesAfters )) {
-						for ( TopologicalElement comesAfter : topologicalElements.values() ) {
+				needsSorting = true;
+				String comesAfters = getComesAfter( trait, metawidget );
+				topologicalElement.setComesAfterAttribute( comesAfters );
 
-							if ( !comesAfter.equals( topologicalElement ) ) {
-								topologicalElement.addComesAfter( comesAfter );
-							}
-						}
-						continue;
+				// For comes-after all, do not add every other node as a dependency (that would be
+				// O(n^2)). Instead, sort it after all the others
+
+				if ( "".equals( comesAfters ) ) {
+					topologicalElement.setMark( COMES_AFTER_ALL_MARK );
+					comesAfterAlls.add( topologicalElement );
+					continue;
+				}
+
+				// For others, lookup each dependent node
+
+				String[] comesAftersArray = ArrayUtils.fromString( comesAfters );
+				String traitName = trait.getAttribute( NAME );
+
+				for ( String comesAfter : comesAftersArray ) {
+
+					if ( comesAfter.equals( traitName ) ) {
+						throw InspectionResultProcessorException.newException( '\'' + traitName + "' " + COMES_AFTER + " itself" );
 					}
 
-					// For others, lookup each dependent node
-					
-					String[] comesAftersArray = ArrayUtils.fromString( comesAfters );
-					String traitName = trait.getAttribute( NAME );
-
-					for ( String comesAfter : comesAftersArray ) {
-
-						if ( comesAfter.equals( traitName ) ) {
-							throw InspectionResultProcessorException.newException( '\'' + traitName + "' " + COMES_AFTER + " itself" );
-						}
-
-						TopologicalElement comesAfterElement = topologicalElements.get( comesAfter );
-					
-						// (node may not be in the graph)
-						
-						if ( comesAfterElement == null ) {
-							continue;
-						}
-						
-						topologicalElement.addComesAfter( comesAfterElement );
+					TopologicalElement comesAfterElement = topologicalElements.get( comesAfter );
+
+					// (node may not be in the graph)
+
+					if ( comesAfterElement == null ) {
+						continue;
 					}
+
+					topologicalElement.addComesAfter( comesAfterElement );
 				}
 			}
 
-			// Sort the graph
+			// Nothing to do?
+
+			if ( !needsSorting ) {
+				return inspectionResult;
+			}
+
+			// Sort the graph...
+
+			Collection<TopologicalElement> nodes = topologicalElements.values();
+			List<TopologicalElement> sortedNodes = CollectionUtils.newArrayList( nodes.size() );
 
-			List<Element> sortedTraits = CollectionUtils.newArrayList();
-			topologicalSort( unmarkedNodes, sortedTraits );
+			for ( TopologicalElement node : nodes ) {
 
-			// Reconstruct the DOM. First, start a new document (Android 1.1 did
-			// not cope well with shuffling the nodes of an existing document)...
+				if ( node.getMark() != COMES_AFTER_ALL_MARK ) {
+					topologicalVisit( node, nodes, sortedNodes );
+				}
+			}
 
-			Document newDocument = XmlUtils.newDocument();
-			Element newInspectionResult = newDocument.createElementNS( NAMESPACE, ROOT );
-			XmlUtils.setMapAsAttributes( newInspectionResult, XmlUtils.getAttributesAsMap( inspectionResult ) );
-			newDocument.appendChild( newInspectionResult );
+			// ...with any comes-after all at the end (there can only be one)
 
-			Element newEntity = newDocument.createElementNS( NAMESPACE, ENTITY );
-			XmlUtils.setMapAsAttributes( newEntity, XmlUtils.getAttributesAsMap( entity ) );
-			newInspectionResult.appendChild( newEntity );
+			if ( comesAfterAlls.size() > 1 ) {
+				throw newInfiniteLoopException( nodes );
+			}
 
-			// ...then import our sorted traits into it
+			sortedNodes.addAll( comesAfterAlls );
 
-			for ( Element sortedTrait : sortedTraits ) {
+			// Reorder the traits in place
 
-				newEntity.appendChild( XmlUtils.importElement( newDocument, sortedTrait ) );
+			for ( TopologicalElement sortedNode : sortedNodes ) {
+				entity.appendChild( sortedNode.getElement() );
 			}
 
-			return newInspectionResult;
+			return inspectionResult;
 		} catch ( Exception e ) {
 			throw InspectionResultProcessorException.newException( e );
 		}
@@ -199,19 +218,11 @@ public class ComesAfterInspectionResultProcessor<M>
 	//
 
 	/**
-	 * Visit the next unmarked node.
+	 * Visit the given node, depth first, adding it to the sorted list after all the nodes it comes
+	 * after.
 	 */
 
-	private void topologicalSort( Collection<TopologicalElement> unmarkedNodes, List<Element> sorted ) {
-
-		while ( !unmarkedNodes.isEmpty() ) {
-
-			TopologicalElement node = unmarkedNodes.iterator().next();
-			topologicalVisit( node, unmarkedNodes, sorted, unmarkedNodes.size() );
-		}
-	}
-
-	private void topologicalVisit( TopologicalElement node, Collection<TopologicalElement> unmarkedNodes, List<Element> sorted, int temporaryMark ) {
+	private void topologicalVisit( TopologicalElement node, Collection<TopologicalElement> nodes, List<TopologicalElement> sorted ) {
 
 		// If node has a permanent mark then all done
 
@@ -219,55 +230,57 @@ public class ComesAfterInspectionResultProcessor<M>
 			return;
 		}
 
-		// If node has a temporary mark then error
+		// If node has a temporary mark then error (likewise, nothing can come after a node that
+		// comes after all)
 
-		if ( node.getMark() == temporaryMark ) {
-			List<String> infiniteLoopNames = CollectionUtils.newArrayList();
+		if ( node.getMark() == TEMPORARY_MARK || node.getMark() == COMES_AFTER_ALL_MARK ) {
+			throw newInfiniteLoopException( nodes );
+		}
 
-			for ( TopologicalElement infiniteLoopNode : unmarkedNodes ) {
+		// Mark node temporarily
 
-				String value;
-				Element trait = infiniteLoopNode.getElement();
-				String comesAfter = getComesAfter( trait, null );
+		node.setMark( TEMPORARY_MARK );
 
-				if ( comesAfter == null ) {
-					continue;
-				}
+		// Visit each dependent node
 
-				if ( comesAfter.length() == 0 ) {
-					value = "at the end";
-				} else {
-					value = "after " + comesAfter.replace( ",", " and " );
-				}
+		for ( TopologicalElement comesAfter : node.getComesAfter() ) {
+			topologicalVisit( comesAfter, nodes, sorted );
+		}
 
-				infiniteLoopNames.add( trait.getAttribute( NAME ) + " comes " + value );
-			}
+		// Mark node permanently, and add to sorted list
 
-			// (sort for unit tests)
+		node.setMark( PERMANENT_MARK );
+		sorted.add( node );
+	}
 
-			Collections.sort( infiniteLoopNames );
+	private InspectionResultProcessorException newInfiniteLoopException( Collection<TopologicalElement> nodes ) {
 
-			throw InspectionResultProcessorException.newException( "Infinite loop detected when sorting " + COMES_AFTER + ": " + CollectionUtils.toString( infiniteLoopNames, ", but " ) );
-		}
+		List<String> infiniteLoopNames = CollectionUtils.newArrayList();
 
-		// Mark node temporarily
+		for ( TopologicalElement infiniteLoopNode : nodes ) {
 
-		node.setMark( temporaryMark );
+			String comesAfter = infiniteLoopNode.getComesAfterAttribute();
 
-		// Visit each dependent node
+			if ( comesAfter == null || infiniteLoopNode.getMark() == PERMANENT_MARK ) {
+				continue;
+			}
 
-		for ( TopologicalElement comesAfter : node.getComesAfter() ) {
-			topologicalVisit( comesAfter, unmarkedNodes, sorted, temporaryMark );
-		}
+			String value;
 
-		// Mark node permanently
+			if ( comesAfter.length() == 0 ) {
+				value = "at the end";
+			} else {
+				value = "after " + comesAfter.replace( ",", " and " );
+			}
 
-		node.setMark( PERMANENT_MARK );
-		unmarkedNodes.remove( node );
+			infiniteLoopNames.add( infiniteLoopNode.getElement().getAttribute( NAME ) + " comes " + value );
+		}
+
+		// (sort for unit tests)
 
-		// Add node to sorted list
+		Collections.sort( infiniteLoopNames );
 
-		sorted.add( node.getElement() );
+		return InspectionResultProcessorException.newException( "Infinite loop detected when sorting " + COMES_AFTER + ": " + CollectionUtils.toString( infiniteLoopNames, ", but " ) );
 	}
 
 	//
@@ -288,6 +301,12 @@ public class ComesAfterInspectionResultProcessor<M>
 
 		private int								mMark;
 
+		/**
+		 * Value of the comes-after attribute, or null if none.
+		 */
+
+		private String							mComesAfterAttribute;
+
 		/**
 		 * Use a List, not a Set, so that sorting is stable.
 		 */
@@ -322,6 +341,16 @@ public class ComesAfterInspectionResultProcessor<M>
 			mComesAfter.add( comesAfter );
 		}
 
+		public String getComesAfterAttribute() {
+
+			return mComesAfterAttribute;
+		}
+
+		public void setComesAfterAttribute( String comesAfterAttribute ) {
+
+			mComesAfterAttribute = comesAfterAttribute;
+		}
+
 		public void setMark( int mark ) {
 
 			mMark = mark;
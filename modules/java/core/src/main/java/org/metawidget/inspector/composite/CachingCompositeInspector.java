@@ -0,0 +1,164 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.composite;
+
+import java.util.Map;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.ValueDependentInspector;
+import org.metawidget.util.ArrayUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.XmlUtils.ImmutableElement;
+import org.metawidget.util.simple.StringUtils;
+import org.w3c.dom.Document;
+
+/**
+ * CompositeInspector that caches its combined inspection results, keyed by type and path.
+ * <p>
+ * Many Inspectors (eg. those that inspect annotations or XML files) return the same result for the
+ * same type and path every time. For these, re-running every sub-Inspector and re-combining their
+ * DOMs on every request is wasted effort. <code>CachingCompositeInspector</code> caches the
+ * combined result, and hands out a fresh copy of it on each call (so that downstream
+ * <code>InspectionResultProcessors</code> can safely modify it).
+ * <p>
+ * Sub-Inspectors whose results depend on the runtime value of the Object being inspected should
+ * implement <code>ValueDependentInspector</code>. Such Inspectors, <em>and all Inspectors after
+ * them</em>, are run on every call and combined into the cached result. This preserves
+ * <code>CompositeInspector</code>'s combining order, so value-dependent Inspectors should be
+ * listed last to get the most benefit from the cache.
+ * <p>
+ * Note: the cache is keyed only by type and path, so any Inspector that is sensitive to
+ * polymorphism (such as <code>PropertyTypeInspector</code>, which reports the actual class of a
+ * value) must be marked as <code>ValueDependentInspector</code>. Inspections that supply their own
+ * master <code>Document</code> are never cached.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class CachingCompositeInspector
+	extends CompositeInspector {
+
+	//
+	// Private members
+	//
+
+	/**
+	 * Number of leading sub-Inspectors whose combined result can be cached (ie. up to, but not
+	 * including, the first <code>ValueDependentInspector</code>).
+	 */
+
+	private final int										mCacheableInspectors;
+
+	/**
+	 * LRU cache of inspection results. Cached as <code>ImmutableElement</code>s, rather than DOMs,
+	 * because DOMs are not safe to read (let alone copy) concurrently.
+	 */
+
+	/* package private */final Map<String, ImmutableElement>	mCache;
+
+	//
+	// Constructor
+	//
+
+	public CachingCompositeInspector( CachingCompositeInspectorConfig config ) {
+
+		super( config );
+
+		int cacheableInspectors = 0;
+
+		for ( Inspector inspector : mInspectors ) {
+
+			if ( inspector instanceof ValueDependentInspector ) {
+				break;
+			}
+
+			cacheableInspectors++;
+		}
+
+		mCacheableInspectors = cacheableInspectors;
+		mCache = CollectionUtils.newLruHashMap( config.getMaximumCacheSize() );
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Clears the cache of inspection results.
+	 * <p>
+	 * This does not affect immutability, as our external behaviour is unchanged (we will just be a
+	 * little slower the next time we are called, while we re-cache).
+	 */
+
+	public void clearCache() {
+
+		synchronized ( mCache ) {
+			mCache.clear();
+		}
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected Document runInspectors( Document masterDocument, DomConversionListener domConversionListener, Object toInspect, String type, String... names )
+		throws Exception {
+
+		// Results combined with an external master cannot be cached
+
+		if ( masterDocument != null || mCacheableInspectors == 0 ) {
+			return super.runInspectors( masterDocument, domConversionListener, toInspect, type, names );
+		}
+
+		// Use the cached result...
+
+		String key = type + ArrayUtils.toString( names, StringUtils.SEPARATOR_FORWARD_SLASH, true, false );
+		ImmutableElement immutableElement;
+
+		synchronized ( mCache ) {
+			immutableElement = mCache.get( key );
+		}
+
+		Document masterDocumentToUse = null;
+
+		if ( immutableElement != null ) {
+			masterDocumentToUse = immutableElement.toDocument();
+		} else {
+
+			// ...or run the cacheable Inspectors and cache their result
+
+			for ( int loop = 0; loop < mCacheableInspectors; loop++ ) {
+				Document inspectionDocument = runInspector( mInspectors[loop], toInspect, type, names );
+				onInspectorResult( domConversionListener, mInspectors[loop], inspectionDocument );
+				masterDocumentToUse = combineInspectionResult( masterDocumentToUse, inspectionDocument );
+			}
+
+			if ( masterDocumentToUse != null && masterDocumentToUse.hasChildNodes() ) {
+				immutableElement = new ImmutableElement( masterDocumentToUse.getDocumentElement() );
+
+				synchronized ( mCache ) {
+					mCache.put( key, immutableElement );
+				}
+			}
+		}
+
+		// Run the remaining Inspectors every time
+
+		for ( int loop = mCacheableInspectors, length = mInspectors.length; loop < length; loop++ ) {
+			Document inspectionDocument = runInspector( mInspectors[loop], toInspect, type, names );
+			onInspectorResult( domConversionListener, mInspectors[loop], inspectionDocument );
+			masterDocumentToUse = combineInspectionResult( masterDocumentToUse, inspectionDocument );
+		}
+
+		return masterDocumentToUse;
+	}
+}
@@ -0,0 +1,96 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.composite;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.simple.ObjectUtils;
+
+/**
+ * Configures a CachingCompositeInspector prior to use. Once instantiated, Inspectors are immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class CachingCompositeInspectorConfig
+	extends CompositeInspectorConfig {
+
+	//
+	// Private members
+	//
+
+	private int	mMaximumCacheSize	= 250;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Sets the maximum number of inspection results (ie. distinct type and path combinations) to
+	 * cache. When the maximum is exceeded, the least recently used inspection result is evicted.
+	 * <p>
+	 * 250 by default.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public CachingCompositeInspectorConfig setMaximumCacheSize( int maximumCacheSize ) {
+
+		mMaximumCacheSize = maximumCacheSize;
+
+		return this;
+	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public CachingCompositeInspectorConfig setInspectors( Inspector... inspectors ) {
+
+		return (CachingCompositeInspectorConfig) super.setInspectors( inspectors );
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
+			return false;
+		}
+
+		if ( mMaximumCacheSize != ( (CachingCompositeInspectorConfig) that ).mMaximumCacheSize ) {
+			return false;
+		}
+
+		return super.equals( that );
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = super.hashCode();
+		hashCode = 31 * hashCode + mMaximumCacheSize;
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected int getMaximumCacheSize() {
+
+		return mMaximumCacheSize;
+	}
+}
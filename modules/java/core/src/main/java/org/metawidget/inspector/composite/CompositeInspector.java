@@ -52,7 +52,7 @@ public class CompositeInspector
 	// Private statics
 	//
 
-	private static final Log				LOG	= LogUtils.getLog( CompositeInspector.class );
+	private static final Log	LOG	= LogUtils.getLog( CompositeInspector.class );
 
 	//
 	// Private members
@@ -158,8 +158,25 @@ public class CompositeInspector
 
 	public Element inspectAsDom( Document masterDocument, Object toInspect, String type, String... names ) {
 
+		return inspectAsDom( null, masterDocument, toInspect, type, names );
+	}
+
+	/**
+	 * As <code>inspectAsDom( Document, Object, String, String... )</code>, but notifies the given
+	 * listener whenever a sub-Inspector is not a <code>DomInspector</code> and so its String
+	 * result must be converted to a DOM.
+	 * <p>
+	 * <code>W3CPipeline</code> uses this to apply its <code>setWarnOnDomConversion</code> and
+	 * <code>setFailOnDomConversion</code> settings to sub-Inspectors.
+	 *
+	 * @param domConversionListener
+	 *            notified on the calling Thread. May be null
+	 */
+
+	public Element inspectAsDom( DomConversionListener domConversionListener, Document masterDocument, Object toInspect, String type, String... names ) {
+
 		try {
-			Document masterDocumentToUse = runInspectors( masterDocument, toInspect, type, names );
+			Document masterDocumentToUse = runInspectors( masterDocument, domConversionListener, toInspect, type, names );
 
 			if ( masterDocumentToUse == null || !masterDocumentToUse.hasChildNodes() ) {
 				if ( toInspect != null && type != null && LOG.isWarnEnabled() ) {
@@ -198,10 +215,11 @@ public class CompositeInspector
 	/**
 	 * Run the sub-Inspectors on the given toInspect and combine the result.
 	 * <p>
-	 * Subclasses may override this method to, say, run some other Inspectors concurrently.
+	 * Subclasses may override this method to, say, run some other Inspectors concurrently (see
+	 * <code>ConcurrentCompositeInspector</code>).
 	 */
 
-	protected Document runInspectors( Document masterDocument, Object toInspect, String type, String... names )
+	protected Document runInspectors( Document masterDocument, DomConversionListener domConversionListener, Object toInspect, String type, String... names )
 		throws Exception {
 
 		Document masterDocumentToUse = masterDocument;
@@ -213,6 +231,7 @@ public class CompositeInspector
 			// ...parse the result...
 
 			Document inspectionDocument = runInspector( inspector, toInspect, type, names );
+			onInspectorResult( domConversionListener, inspector, inspectionDocument );
 
 			// ...combine them...
 
@@ -256,9 +275,25 @@ public class CompositeInspector
 		}
 
 		LOG.trace( "{0} inspected {1}{2}\r\n{3}", inspector.getClass(), type, ArrayUtils.toString( names, StringUtils.SEPARATOR_FORWARD_SLASH, true, false ), xml );
+
 		return XmlUtils.documentFromString( xml );
 	}
 
+	/**
+	 * Called with the result of each <code>runInspector</code>, to notify the given listener if
+	 * the result had to be converted from a String.
+	 * <p>
+	 * Subclasses that run sub-Inspectors on other Threads should call this on the calling Thread,
+	 * so that listeners need not be thread-safe.
+	 */
+
+	protected void onInspectorResult( DomConversionListener domConversionListener, Inspector inspector, Document inspectionDocument ) {
+
+		if ( domConversionListener != null && inspectionDocument != null && !( inspector instanceof DomInspector<?> ) ) {
+			domConversionListener.onDomConversion( inspector );
+		}
+	}
+
 	protected Document combineInspectionResult( Document masterDocument, Document inspectionDocument ) {
 
 		// Short circuit...
@@ -276,4 +311,22 @@ public class CompositeInspector
 		XmlUtils.combineElements( masterDocument.getDocumentElement(), inspectionDocument.getDocumentElement(), TYPE, NAME );
 		return masterDocument;
 	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Notified whenever a sub-Inspector's String result must be converted to a DOM. Always
+	 * notified on the Thread that called <code>inspectAsDom</code>.
+	 */
+
+	public interface DomConversionListener {
+
+		//
+		// Methods
+		//
+
+		void onDomConversion( Inspector inspector );
+	}
 }
@@ -0,0 +1,231 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.composite;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.ArrayUtils;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
+import org.metawidget.util.simple.StringUtils;
+import org.w3c.dom.Document;
+
+/**
+ * CompositeInspector that runs its sub-Inspectors concurrently.
+ * <p>
+ * Useful when some sub-Inspectors are slow (eg. those that consult remote services, or parse large
+ * schemas on demand). Rather than the time taken being the <em>sum</em> of all sub-Inspectors, it
+ * becomes that of the slowest. The results are still combined in the order the sub-Inspectors were
+ * declared, so the combined result is the same as for a regular <code>CompositeInspector</code>.
+ * <p>
+ * An optional timeout stops a single slow sub-Inspector stalling the whole inspection: any
+ * sub-Inspector still running when it elapses is cancelled and its result omitted.
+ * <p>
+ * Note the sub-Inspectors run on the <code>Executor</code>'s Threads, not the calling Thread. So
+ * sub-Inspectors that rely on ThreadLocal state (such as those that consult the
+ * <code>FacesContext</code>, or request-scoped or transaction-scoped resources) will not find it,
+ * and should not be used within a <code>ConcurrentCompositeInspector</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ConcurrentCompositeInspector
+	extends CompositeInspector {
+
+	//
+	// Private statics
+	//
+
+	private static final Log	LOG	= LogUtils.getLog( ConcurrentCompositeInspector.class );
+
+	//
+	// Private members
+	//
+
+	private final Executor		mExecutor;
+
+	private final int			mTimeout;
+
+	//
+	// Constructor
+	//
+
+	public ConcurrentCompositeInspector( ConcurrentCompositeInspectorConfig config ) {
+
+		super( config );
+
+		Executor executor = config.getExecutor();
+
+		if ( executor == null ) {
+			executor = DefaultExecutorHolder.DEFAULT_EXECUTOR;
+		}
+
+		mExecutor = executor;
+		mTimeout = config.getTimeout();
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected Document runInspectors( Document masterDocument, DomConversionListener domConversionListener, Object toInspect, String type, String... names )
+		throws Exception {
+
+		// Start each Inspector...
+
+		int length = mInspectors.length;
+		List<FutureTask<Document>> futures = CollectionUtils.newArrayList();
+
+		for ( int loop = 0; loop < length; loop++ ) {
+			FutureTask<Document> future = new FutureTask<Document>( new InspectorCallable( mInspectors[loop], toInspect, type, names ) );
+			futures.add( future );
+			mExecutor.execute( future );
+		}
+
+		// ...and combine their results in declaration order. The sub-Inspectors run concurrently,
+		// so they share a single deadline
+
+		long deadline = System.currentTimeMillis() + mTimeout;
+		Document masterDocumentToUse = masterDocument;
+
+		try {
+			for ( int loop = 0; loop < length; loop++ ) {
+				Document inspectionDocument;
+
+				try {
+					if ( mTimeout > 0 ) {
+						inspectionDocument = futures.get( loop ).get( Math.max( deadline - System.currentTimeMillis(), 0 ), TimeUnit.MILLISECONDS );
+					} else {
+						inspectionDocument = futures.get( loop ).get();
+					}
+				} catch ( TimeoutException e ) {
+					futures.get( loop ).cancel( true );
+
+					if ( LOG.isWarnEnabled() ) {
+						LOG.warn( "{0} timed out after {1}ms inspecting {2}{3}", mInspectors[loop].getClass(), mTimeout, type, ArrayUtils.toString( names, StringUtils.SEPARATOR_FORWARD_SLASH, true, false ) );
+					}
+
+					continue;
+				} catch ( ExecutionException e ) {
+					Throwable cause = e.getCause();
+
+					if ( cause instanceof Exception ) {
+						throw (Exception) cause;
+					}
+
+					throw e;
+				}
+
+				onInspectorResult( domConversionListener, mInspectors[loop], inspectionDocument );
+				masterDocumentToUse = combineInspectionResult( masterDocumentToUse, inspectionDocument );
+			}
+		} finally {
+
+			// (cancel any Inspectors still running, if we failed)
+
+			for ( FutureTask<Document> future : futures ) {
+				future.cancel( true );
+			}
+		}
+
+		return masterDocumentToUse;
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Holds the default, shared pool of daemon Threads. Initialized (once) on first use.
+	 */
+
+	private static class DefaultExecutorHolder {
+
+		//
+		// Public statics
+		//
+
+		public static final ExecutorService	DEFAULT_EXECUTOR	= Executors.newCachedThreadPool( new DaemonThreadFactory() );
+	}
+
+	/**
+	 * Creates daemon Threads, so that the default pool does not prevent the JVM exiting.
+	 */
+
+	private static class DaemonThreadFactory
+		implements ThreadFactory {
+
+		//
+		// Public methods
+		//
+
+		public Thread newThread( Runnable runnable ) {
+
+			Thread thread = new Thread( runnable, ConcurrentCompositeInspector.class.getSimpleName() );
+			thread.setDaemon( true );
+			return thread;
+		}
+	}
+
+	/**
+	 * Runs a single sub-Inspector.
+	 */
+
+	private class InspectorCallable
+		implements Callable<Document> {
+
+		//
+		// Private members
+		//
+
+		private Inspector	mInspector;
+
+		private Object		mToInspect;
+
+		private String		mType;
+
+		private String[]	mNames;
+
+		//
+		// Constructor
+		//
+
+		public InspectorCallable( Inspector inspector, Object toInspect, String type, String... names ) {
+
+			mInspector = inspector;
+			mToInspect = toInspect;
+			mType = type;
+			mNames = names;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Document call()
+			throws Exception {
+
+			return runInspector( mInspector, mToInspect, mType, mNames );
+		}
+	}
+}
@@ -0,0 +1,128 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.composite;
+
+import java.util.concurrent.Executor;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.simple.ObjectUtils;
+
+/**
+ * Configures a ConcurrentCompositeInspector prior to use. Once instantiated, Inspectors are
+ * immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ConcurrentCompositeInspectorConfig
+	extends CompositeInspectorConfig {
+
+	//
+	// Private members
+	//
+
+	private Executor	mExecutor;
+
+	private int			mTimeout;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public ConcurrentCompositeInspectorConfig setInspectors( Inspector... inspectors ) {
+
+		return (ConcurrentCompositeInspectorConfig) super.setInspectors( inspectors );
+	}
+
+	/**
+	 * Sets the Executor used to run the sub-Inspectors concurrently.
+	 * <p>
+	 * By default, uses a shared pool of daemon Threads.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public ConcurrentCompositeInspectorConfig setExecutor( Executor executor ) {
+
+		mExecutor = executor;
+
+		return this;
+	}
+
+	/**
+	 * Sets the maximum time, in milliseconds, to wait for the sub-Inspectors. They all start
+	 * together (subject to the <code>Executor</code>), so this is a single deadline for the whole
+	 * inspection, not a separate allowance for each sub-Inspector. Sub-Inspectors still running
+	 * when it elapses are cancelled, and their results omitted (with a warning).
+	 * <p>
+	 * 0 (wait indefinitely) by default.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public ConcurrentCompositeInspectorConfig setTimeout( int timeout ) {
+
+		mTimeout = timeout;
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mExecutor, ( (ConcurrentCompositeInspectorConfig) that ).mExecutor ) ) {
+			return false;
+		}
+
+		if ( mTimeout != ( (ConcurrentCompositeInspectorConfig) that ).mTimeout ) {
+			return false;
+		}
+
+		return super.equals( that );
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = super.hashCode();
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mExecutor );
+		hashCode = 31 * hashCode + mTimeout;
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected Executor getExecutor() {
+
+		return mExecutor;
+	}
+
+	protected int getTimeout() {
+
+		return mTimeout;
+	}
+}
@@ -0,0 +1,30 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.iface;
+
+/**
+ * Marks an Inspector whose inspection results depend on the runtime value of the Object being
+ * inspected, not just on its type and path.
+ * <p>
+ * Most Inspectors return the same result for the same type and path every time (eg. they inspect
+ * annotations or XML files). Some, however, inspect runtime values (eg. an Inspector that reports
+ * the <em>actual</em> class of a property's value, or that evaluates expressions against it).
+ * Implementing this interface tells caching mechanisms such as
+ * <code>CachingCompositeInspector</code> not to cache this Inspector's results.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface ValueDependentInspector
+	extends Inspector {
+
+	// Just a marker interface
+}
@@ -16,6 +16,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import java.lang.reflect.Modifier;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.InspectorException;
@@ -26,6 +27,7 @@ import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtils.Log;
 import org.metawidget.util.XmlUtils;
@@ -64,19 +66,40 @@ import org.w3c.dom.Element;
 public abstract class BaseObjectInspector
 	implements DomInspector<Element> {
 
+	//
+	// Private statics
+	//
+
+	/**
+	 * Maximum number of Traits to cache static attributes for (see <code>isInspectionStatic</code>).
+	 * Beyond this, the eldest are evicted.
+	 */
+
+	private static final int								MAXIMUM_CACHED_TRAITS	= 5000;
+
 	//
 	// Protected members
 	//
 
-	protected final Log			mLog	= LogUtils.getLog( getClass() );
+	protected final Log										mLog					= LogUtils.getLog( getClass() );
 
 	//
 	// Private members
 	//
 
-	private final PropertyStyle	mPropertyStyle;
+	private final PropertyStyle								mPropertyStyle;
 
-	private final ActionStyle	mActionStyle;
+	private final ActionStyle								mActionStyle;
+
+	private final int										mNestedInspectionDepth;
+
+	/**
+	 * Merged, immutable results of <code>inspectTrait</code> and
+	 * <code>inspectProperty</code>/<code>inspectAction</code>, keyed by Trait. Only used if
+	 * <code>isInspectionStatic</code>.
+	 */
+
+	private final ConcurrentMap<Trait, Map<String, String>>	mStaticAttributes		= CollectionUtils.newBoundedConcurrentHashMap( MAXIMUM_CACHED_TRAITS );
 
 	//
 	// Constructors
@@ -98,6 +121,7 @@ public abstract class BaseObjectInspector
 
 		mPropertyStyle = config.getPropertyStyle();
 		mActionStyle = config.getActionStyle();
+		mNestedInspectionDepth = config.getNestedInspectionDepth();
 	}
 
 	//
@@ -235,6 +259,10 @@ public abstract class BaseObjectInspector
 
 			if ( !abortTraversingPastNull ) {
 				inspectTraits( childToInspect, actualChildType, entity );
+
+				if ( mNestedInspectionDepth > 0 ) {
+					inspectNestedEntities( childToInspect, actualChildType, entity, mNestedInspectionDepth );
+				}
 			}
 
 			// Add parent attributes (if any)
@@ -329,12 +357,22 @@ public abstract class BaseObjectInspector
 		throws Exception {
 
 		Document document = toAddTo.getOwnerDocument();
+		boolean inspectionStatic = isInspectionStatic();
 
 		// Inspect properties
 
 		for ( Property property : getProperties( type ).values() ) {
-			Map<String, String> traitAttributes = inspectTrait( property );
-			Map<String, String> propertyAttributes = inspectProperty( property );
+			Map<String, String> traitAttributes;
+			Map<String, String> propertyAttributes;
+
+			if ( inspectionStatic ) {
+				traitAttributes = getStaticAttributes( property );
+				propertyAttributes = null;
+			} else {
+				traitAttributes = inspectTrait( property );
+				propertyAttributes = inspectProperty( property );
+			}
+
 			Map<String, String> entityAttributes = inspectPropertyAsEntity( property, toInspect );
 
 			if ( ( traitAttributes == null || traitAttributes.isEmpty() ) && ( propertyAttributes == null || propertyAttributes.isEmpty() ) && ( entityAttributes == null || entityAttributes.isEmpty() ) ) {
@@ -354,8 +392,16 @@ public abstract class BaseObjectInspector
 		// Inspect actions
 
 		for ( Action action : getActions( type ).values() ) {
-			Map<String, String> traitAttributes = inspectTrait( action );
-			Map<String, String> actionAttributes = inspectAction( action );
+			Map<String, String> traitAttributes;
+			Map<String, String> actionAttributes;
+
+			if ( inspectionStatic ) {
+				traitAttributes = getStaticAttributes( action );
+				actionAttributes = null;
+			} else {
+				traitAttributes = inspectTrait( action );
+				actionAttributes = inspectAction( action );
+			}
 
 			if ( ( traitAttributes == null || traitAttributes.isEmpty() ) && ( actionAttributes == null || actionAttributes.isEmpty() ) ) {
 				continue;
@@ -480,6 +526,24 @@ public abstract class BaseObjectInspector
 		return false;
 	}
 
+	/**
+	 * Whether the attributes returned by <code>inspectTrait</code>, <code>inspectProperty</code>
+	 * and <code>inspectAction</code> depend solely on the given Trait (such as on its annotations),
+	 * rather than on the object being inspected or on any other runtime state.
+	 * <p>
+	 * If so, they are computed once per Trait and the results shared between subsequent
+	 * inspections. Attributes from <code>inspectEntity</code> (including those for
+	 * <code>shouldInspectPropertyAsEntity</code>) depend on the runtime object, so are never cached.
+	 * <p>
+	 * Returns <code>true</code> if this Inspector implements <code>StaticTraitInspector</code>,
+	 * <code>false</code> otherwise.
+	 */
+
+	protected boolean isInspectionStatic() {
+
+		return ( this instanceof StaticTraitInspector );
+	}
+
 	//
 	// Protected final methods
 	//
@@ -502,10 +566,66 @@ public abstract class BaseObjectInspector
 		return mActionStyle.getActions( type );
 	}
 
+	/**
+	 * Returns true if the given Trait is known to have no annotations at all (see
+	 * <code>BaseTrait.isUnannotated</code>), so that annotation-based Inspectors can skip it.
+	 * Returns false for Traits that do not index their annotations.
+	 */
+
+	protected final boolean isUnannotated( Trait trait ) {
+
+		return ( trait instanceof BaseTrait && ( (BaseTrait) trait ).isUnannotated() );
+	}
+
 	//
 	// Private methods
 	//
 
+	/**
+	 * Gets the merged attributes of <code>inspectTrait</code> and
+	 * <code>inspectProperty</code>/<code>inspectAction</code> for the given Trait, computing them
+	 * if they are not already cached.
+	 *
+	 * @return an immutable Map. Never null
+	 */
+
+	private Map<String, String> getStaticAttributes( Trait trait )
+		throws Exception {
+
+		Map<String, String> attributes = mStaticAttributes.get( trait );
+
+		if ( attributes != null ) {
+			return attributes;
+		}
+
+		// Merge in the same order inspectTraits would apply them
+
+		attributes = CollectionUtils.newHashMap();
+		putAll( attributes, inspectTrait( trait ) );
+
+		if ( trait instanceof Property ) {
+			putAll( attributes, inspectProperty( (Property) trait ) );
+		} else {
+			putAll( attributes, inspectAction( (Action) trait ) );
+		}
+
+		if ( attributes.isEmpty() ) {
+			attributes = Collections.emptyMap();
+		} else {
+			attributes = Collections.unmodifiableMap( attributes );
+		}
+
+		mStaticAttributes.putIfAbsent( trait, attributes );
+		return attributes;
+	}
+
+	private void putAll( Map<String, String> attributes, Map<String, String> toPut ) {
+
+		if ( toPut != null ) {
+			attributes.putAll( toPut );
+		}
+	}
+
 	/**
 	 * Inspect the given property 'as an entity'.
 	 * <p>
@@ -563,6 +683,97 @@ public abstract class BaseObjectInspector
 		return inspectEntity( property.getType(), actualType );
 	}
 
+	/**
+	 * Inspect the entities of the given <code>toInspect</code>'s properties, and add them as child
+	 * <code>entity</code> elements of their <code>property</code> elements.
+	 * <p>
+	 * Each entity is inspected just as <code>inspectAsDom</code> would inspect it given a path
+	 * ending in that property, but using the value already at hand rather than traversing to it
+	 * from the root again.
+	 *
+	 * @param toInspect
+	 *            the object whose properties to inspect. May be null (eg. when using static
+	 *            inspection)
+	 * @param depth
+	 *            how many further levels to inspect
+	 */
+
+	private void inspectNestedEntities( Object toInspect, String type, Element toAddTo, int depth )
+		throws Exception {
+
+		Document document = toAddTo.getOwnerDocument();
+
+		for ( Property property : getProperties( type ).values() ) {
+
+			String declaredChildType = property.getType();
+
+			if ( ClassUtils.isPrimitive( declaredChildType ) ) {
+				continue;
+			}
+
+			Object childToInspect = null;
+
+			if ( toInspect != null ) {
+				if ( !property.isReadable() ) {
+					continue;
+				}
+
+				childToInspect = property.read( toInspect );
+
+				// As with inspectAsDom, never traverse past a null
+
+				if ( childToInspect == null ) {
+					continue;
+				}
+
+				ClassUtils.registerAlienClassLoader( childToInspect.getClass().getClassLoader() );
+			}
+
+			String actualChildType;
+
+			if ( childToInspect == null ) {
+				actualChildType = declaredChildType;
+			} else {
+				actualChildType = childToInspect.getClass().getName();
+			}
+
+			// Only entities with properties of their own are candidates for nested Metawidgets
+
+			if ( getProperties( actualChildType ).isEmpty() ) {
+				continue;
+			}
+
+			Element nestedEntity = document.createElementNS( NAMESPACE, ENTITY );
+			XmlUtils.setMapAsAttributes( nestedEntity, inspectEntity( declaredChildType, actualChildType ) );
+			inspectTraits( childToInspect, actualChildType, nestedEntity );
+
+			if ( depth > 1 ) {
+				inspectNestedEntities( childToInspect, actualChildType, nestedEntity, depth - 1 );
+			}
+
+			XmlUtils.setMapAsAttributes( nestedEntity, inspectParent( toInspect, property ) );
+
+			if ( isInspectionEmpty( nestedEntity ) ) {
+				continue;
+			}
+
+			nestedEntity.setAttribute( NAME, property.getName() );
+			nestedEntity.setAttribute( TYPE, declaredChildType );
+
+			// (inspectTraits may not have added a property element, if it had no attributes)
+
+			Element propertyElement = XmlUtils.getChildWithAttributeValue( toAddTo, NAME, property.getName() );
+
+			if ( propertyElement == null ) {
+				propertyElement = document.createElementNS( NAMESPACE, PROPERTY );
+				propertyElement.setAttribute( NAME, property.getName() );
+				toAddTo.appendChild( propertyElement );
+			}
+
+			propertyElement.appendChild( nestedEntity );
+		}
+	}
+
 	/**
 	 * Returns true if the inspection returned nothing of consequence. This is an optimization that
 	 * allows our <code>Inspector</code> to return <code>null</code> overall, rather than creating
@@ -58,6 +58,8 @@ public class BaseObjectInspectorConfig {
 
 	protected boolean				mNullActionStyle;
 
+	protected int					mNestedInspectionDepth;
+
 	//
 	// Public methods
 	//
@@ -94,6 +96,34 @@ public class BaseObjectInspectorConfig {
 		return this;
 	}
 
+	/**
+	 * Sets how many levels of nested entities to inspect in the same pass as their parent. Zero
+	 * (the default) inspects only the given entity.
+	 * <p>
+	 * Normally, each nested Metawidget runs its own inspection, traversing the object graph all the
+	 * way from the root. With a nested inspection depth, each property's own entity is instead
+	 * inspected alongside it, while the value is still at hand, and returned as a child
+	 * <code>entity</code> element of the <code>property</code>. Nested Metawidgets then consume
+	 * this sub-tree rather than re-inspecting. A depth equal to the Metawidget's
+	 * <code>maximumInspectionDepth</code> covers every nested Metawidget.
+	 * <p>
+	 * Note that only inspectors with a nested inspection depth contribute to the sub-tree. It is
+	 * therefore only suitable if every <code>BaseObjectInspector</code> in a
+	 * <code>CompositeInspector</code> shares the same depth, and any other inspectors (eg.
+	 * <code>XmlInspector</code>) have nothing to say about the nested entities.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public BaseObjectInspectorConfig setNestedInspectionDepth( int nestedInspectionDepth ) {
+
+		mNestedInspectionDepth = nestedInspectionDepth;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -121,6 +151,10 @@ public class BaseObjectInspectorConfig {
 			return false;
 		}
 
+		if ( mNestedInspectionDepth != ( (BaseObjectInspectorConfig) that ).mNestedInspectionDepth ) {
+			return false;
+		}
+
 		return true;
 	}
 
@@ -132,6 +166,7 @@ public class BaseObjectInspectorConfig {
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mNullPropertyStyle );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mActionStyle );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mNullActionStyle );
+		hashCode = 31 * hashCode + mNestedInspectionDepth;
 
 		return hashCode;
 	}
@@ -185,4 +220,13 @@ public class BaseObjectInspectorConfig {
 
 		return mActionStyle;
 	}
+
+	/**
+	 * Gets how many levels of nested entities to inspect in the same pass as their parent.
+	 */
+
+	protected int getNestedInspectionDepth() {
+
+		return mNestedInspectionDepth;
+	}
 }
@@ -12,11 +12,14 @@
 package org.metawidget.inspector.impl;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * Convenience implementation for Traits.
  * <p>
- * Handles construction, and returning names.
+ * Handles construction, and returning names. Also optionally indexes annotations, so that
+ * subclasses need only find them once (see <code>indexAnnotations</code>).
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -28,7 +31,14 @@ public abstract class BaseTrait
 	// Private methods
 	//
 
-	private String	mName;
+	private String													mName;
+
+	/**
+	 * Index of annotations, built lazily. Immutable once built, so it is fine (if wasteful) for two
+	 * threads to build it at once.
+	 */
+
+	private volatile Map<Class<? extends Annotation>, Annotation>	mAnnotations;
 
 	//
 	// Constructor
@@ -48,14 +58,95 @@ public abstract class BaseTrait
 		return mName;
 	}
 
+	/**
+	 * Looks up the annotation in <code>getAnnotations</code>.
+	 * <p>
+	 * Subclasses must override either this method or <code>indexAnnotations</code>.
+	 */
+
+	public <T extends Annotation> T getAnnotation( Class<T> annotationClass ) {
+
+		Map<Class<? extends Annotation>, Annotation> annotations = getAnnotations();
+
+		if ( annotations == null ) {
+			throw new UnsupportedOperationException( getClass().getName() + " must override either getAnnotation or indexAnnotations" );
+		}
+
+		return annotationClass.cast( annotations.get( annotationClass ) );
+	}
+
 	public boolean isAnnotationPresent( Class<? extends Annotation> annotation ) {
 
 		return getAnnotation( annotation ) != null;
 	}
 
+	/**
+	 * Returns all annotations present on this element, keyed by annotation type. The returned Map
+	 * is unmodifiable.
+	 * <p>
+	 * Inspectors interested in many different annotations can use this to test for them in bulk,
+	 * rather than calling <code>getAnnotation</code> for each.
+	 *
+	 * @return the annotations, or null if this Trait does not index its annotations (see
+	 *         <code>indexAnnotations</code>)
+	 */
+
+	public Map<Class<? extends Annotation>, Annotation> getAnnotations() {
+
+		Map<Class<? extends Annotation>, Annotation> annotations = mAnnotations;
+
+		if ( annotations == null ) {
+			annotations = indexAnnotations();
+
+			if ( annotations == null ) {
+				return null;
+			}
+
+			if ( annotations.isEmpty() ) {
+				annotations = Collections.emptyMap();
+			} else {
+				annotations = Collections.unmodifiableMap( annotations );
+			}
+
+			mAnnotations = annotations;
+		}
+
+		return annotations;
+	}
+
+	/**
+	 * Returns true if this Trait indexes its annotations, and has none.
+	 */
+
+	public boolean isUnannotated() {
+
+		Map<Class<? extends Annotation>, Annotation> annotations = getAnnotations();
+		return ( annotations != null && annotations.isEmpty() );
+	}
+
 	@Override
 	public String toString() {
 
 		return mName;
 	}
+
+	//
+	// Protected methods
+	//
+
+	/**
+	 * Finds all annotations present on this element. Called the first time annotations are
+	 * requested.
+	 * <p>
+	 * By default, returns null. This means the Trait does not index its annotations, so must
+	 * implement <code>getAnnotation</code> itself (as Traits did before indexing was introduced).
+	 *
+	 * @return a Map of annotation type to annotation, or null if this Trait does not index its
+	 *         annotations
+	 */
+
+	protected Map<Class<? extends Annotation>, Annotation> indexAnnotations() {
+
+		return null;
+	}
 }
@@ -13,6 +13,8 @@ package org.metawidget.inspector.impl;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import org.metawidget.util.ArrayUtils;
@@ -45,14 +47,23 @@ public abstract class BaseTraitStyle<T extends Trait> {
 	 * This also stops problems with subclasses of <code>BaseTraitStyle</code> sharing the same
 	 * static cache.
 	 * <p>
-	 * Note: the cache is unbounded, because the number of Classes in the system is fixed. This even
-	 * applies to hot deployment products such as FakeReplace, because new Classes are replaced such
-	 * that they <code>.equal()</code> their originals.
+	 * The cache is a <code>ConcurrentMap</code>, so cache hits never block. By default it is
+	 * unbounded, because the number of Classes in the system is fixed. This even applies to hot
+	 * deployment products such as FakeReplace, because new Classes are replaced such that they
+	 * <code>.equal()</code> their originals. For environments with genuine class churn, a maximum
+	 * size can be configured using <code>BaseTraitStyleConfig.setMaximumCacheSize</code>.
 	 */
 
-	/* package private */final Map<String, Map<String, T>>	mCache;
+	/* package private */final ConcurrentMap<String, Map<String, T>>	mCache;
 
-	private Pattern											mExcludeBaseType;
+	/**
+	 * Locks for cache misses that are currently being looked up, keyed by type. Ensures each type
+	 * is only looked up once, without a miss for one type stalling lookups of other types.
+	 */
+
+	private final ConcurrentMap<String, Object>						mCacheMissLocks;
+
+	private Pattern													mExcludeBaseType;
 
 	private Class<?>[]										mExcludeReturnType;
 
@@ -71,9 +82,18 @@ public abstract class BaseTraitStyle<T extends Trait> {
 	protected BaseTraitStyle( BaseTraitStyleConfig config ) {
 
 		if ( config.isCacheLookups() ) {
-			mCache = CollectionUtils.newHashMap();
+			int maximumCacheSize = config.getMaximumCacheSize();
+
+			if ( maximumCacheSize > 0 ) {
+				mCache = CollectionUtils.newBoundedConcurrentHashMap( maximumCacheSize );
+			} else {
+				mCache = new ConcurrentHashMap<String, Map<String, T>>();
+			}
+
+			mCacheMissLocks = new ConcurrentHashMap<String, Object>();
 		} else {
 			mCache = null;
+			mCacheMissLocks = null;
 		}
 
 		mExcludeBaseType = config.getExcludeBaseType();
@@ -99,9 +119,7 @@ public abstract class BaseTraitStyle<T extends Trait> {
 			return;
 		}
 
-		synchronized ( mCache ) {
-			mCache.clear();
-		}
+		mCache.clear();
 	}
 
 	//
@@ -114,16 +132,40 @@ public abstract class BaseTraitStyle<T extends Trait> {
 			return getUncachedTraits( type );
 		}
 
-		synchronized ( mCache ) {
-			Map<String, T> traits = getCachedTraits( type );
+		// Cache hits never block
 
-			if ( traits == null ) {
-				traits = getUncachedTraits( type );
-				cacheTraits( type, traits );
-			}
+		Map<String, T> traits = getCachedTraits( type );
 
+		if ( traits != null ) {
 			return traits;
 		}
+
+		// Cache misses only block other lookups of the same type
+
+		Object lock = new Object();
+		Object existingLock = mCacheMissLocks.putIfAbsent( type, lock );
+
+		if ( existingLock != null ) {
+			lock = existingLock;
+		}
+
+		try {
+			synchronized ( lock ) {
+
+				// (another thread may have looked it up while we waited)
+
+				traits = getCachedTraits( type );
+
+				if ( traits == null ) {
+					traits = getUncachedTraits( type );
+					cacheTraits( type, traits );
+				}
+
+				return traits;
+			}
+		} finally {
+			mCacheMissLocks.remove( type, lock );
+		}
 	}
 
 	protected final Map<String, T> getCachedTraits( String type ) {
@@ -133,6 +175,15 @@ public abstract class BaseTraitStyle<T extends Trait> {
 
 	protected final void cacheTraits( String type, Map<String, T> traits ) {
 
+		// Index annotations up front, while we are the only thread looking up this type, rather than
+		// leaving Inspectors to race to index them
+
+		for ( T trait : traits.values() ) {
+			if ( trait instanceof BaseTrait ) {
+				( (BaseTrait) trait ).getAnnotations();
+			}
+		}
+
 		mCache.put( type, Collections.unmodifiableMap( traits ) );
 	}
 
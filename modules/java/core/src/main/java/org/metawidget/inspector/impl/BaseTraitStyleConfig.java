@@ -35,6 +35,8 @@ public class BaseTraitStyleConfig {
 
 	private boolean			mCacheLookups	= true;
 
+	private int				mMaximumCacheSize;
+
 	private Pattern			mExcludeBaseType;
 
 	private boolean			mNullExcludeBaseType;
@@ -66,6 +68,26 @@ public class BaseTraitStyleConfig {
 		return this;
 	}
 
+	/**
+	 * Sets the maximum number of types to cache lookups for. When the maximum is exceeded, the
+	 * eldest cached types are evicted. This can be useful in hot deployment environments where
+	 * Classes are continually discarded and reloaded, which would otherwise cause the cache to
+	 * grow without limit.
+	 * <p>
+	 * 0 (unbounded) by default.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public BaseTraitStyleConfig setMaximumCacheSize( int maximumCacheSize ) {
+
+		mMaximumCacheSize = maximumCacheSize;
+
+		// Fluent interface
+
+		return this;
+	}
+
 	/**
 	 * Sets the Pattern used to exclude base types when searching up the model inheritance chain.
 	 * <p>
@@ -149,6 +171,10 @@ public class BaseTraitStyleConfig {
 			return false;
 		}
 
+		if ( mMaximumCacheSize != ( (BaseTraitStyleConfig) that ).mMaximumCacheSize ) {
+			return false;
+		}
+
 		if ( !ObjectUtils.nullSafeEquals( mExcludeBaseType, ( (BaseTraitStyleConfig) that ).mExcludeBaseType ) ) {
 			return false;
 		}
@@ -173,6 +199,7 @@ public class BaseTraitStyleConfig {
 
 		int hashCode = 1;
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mCacheLookups );
+		hashCode = 31 * hashCode + mMaximumCacheSize;
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mExcludeBaseType );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mNullExcludeBaseType );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mExcludeReturnType );
@@ -190,6 +217,11 @@ public class BaseTraitStyleConfig {
 		return mCacheLookups;
 	}
 
+	protected int getMaximumCacheSize() {
+
+		return mMaximumCacheSize;
+	}
+
 	protected Pattern getExcludeBaseType() {
 
 		if ( mExcludeBaseType == null && !mNullExcludeBaseType ) {
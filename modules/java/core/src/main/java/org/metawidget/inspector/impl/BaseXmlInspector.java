@@ -14,7 +14,11 @@ package org.metawidget.inspector.impl;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.metawidget.config.iface.ResourceResolver;
 import org.metawidget.inspector.iface.DomInspector;
@@ -24,9 +28,11 @@ import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
 import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
 import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.ClassUtils;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtils.Log;
 import org.metawidget.util.XmlUtils;
+import org.metawidget.util.XmlUtils.ImmutableElement;
 import org.metawidget.util.simple.StringUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -104,11 +110,21 @@ import org.w3c.dom.Element;
 public abstract class BaseXmlInspector
 	implements DomInspector<Element> {
 
+	//
+	// Private statics
+	//
+
+	/**
+	 * Marker in <code>mInferredIndex</code> for types that matched no top-level element.
+	 */
+
+	private static final IndexedElement					NO_MATCH	= new IndexedElement( null, null, null );
+
 	//
 	// Protected members
 	//
 
-	protected Log				mLog	= LogUtils.getLog( getClass() );
+	protected Log										mLog		= LogUtils.getLog( getClass() );
 
 	//
 	// Private members
@@ -122,13 +138,33 @@ public abstract class BaseXmlInspector
 	 * requirement that a DOM be thread safe, so applications need to make sure that threads are
 	 * properly synchronized for concurrent access to [a shared] DOM. This is true even if you're
 	 * just invoking read operations".
+	 * <p>
+	 * For this reason, inspection does not traverse the DOM directly. Instead it uses
+	 * <code>mIndex</code>, and only reads the DOM (synchronized) the first time each element's traits
+	 * are inspected.
+	 */
+
+	private Element										mRoot;
+
+	/**
+	 * Index of top-level elements, keyed by their <code>getTopLevelTypeAttribute</code>.
+	 * <p>
+	 * Built at construction time and never modified thereafter, so lookups need no locking.
+	 */
+
+	private final Map<String, IndexedElement>			mIndex;
+
+	/**
+	 * Top-level elements matched by inferring the inheritance hierarchy (either using
+	 * <code>restrictAgainstObject</code> or <code>inferInheritanceHierarchy</code>), keyed by the
+	 * name of the inspected type. Types that matched nothing are cached as <code>NO_MATCH</code>.
 	 */
 
-	private Element				mRoot;
+	private final ConcurrentMap<String, IndexedElement>	mInferredIndex;
 
-	private final PropertyStyle	mRestrictAgainstObject;
+	private final PropertyStyle							mRestrictAgainstObject;
 
-	private final boolean		mInferInheritanceHierarchy;
+	private final boolean								mInferInheritanceHierarchy;
 
 	//
 	// Constructor
@@ -164,6 +200,9 @@ public abstract class BaseXmlInspector
 				throw InspectorException.newException( "No XML input file specified" );
 			}
 
+			mIndex = indexTopLevelElements();
+			mInferredIndex = new ConcurrentHashMap<String, IndexedElement>();
+
 			// Debug
 
 			if ( mLog.isTraceEnabled() ) {
@@ -283,58 +322,46 @@ public abstract class BaseXmlInspector
 		}
 
 		try {
-			Document document;
-			Element entity;
-			ValueAndDeclaredType valueAndDeclaredType;
 			Map<String, String> parentAttributes = null;
 
-			// "There's no requirement that a DOM be thread safe, so applications need to make sure
-			// that threads are properly synchronized for concurrent access to [a shared] DOM. This
-			// is true even if you're just invoking read operations"
-			//
-			// https://issues.apache.org/jira/browse/XERCESJ-727
-
-			synchronized ( mRoot ) {
-
-				// If the path has a parent...
+			// If the path has a parent...
 
-				if ( names != null && names.length > 0 ) {
-					// ...inspect its property for useful attributes...
+			if ( names != null && names.length > 0 ) {
+				// ...inspect its property for useful attributes...
 
-					Element propertyInParent = (Element) traverse( toInspect, type, true, names ).getValue();
+				IndexedElement propertyInParent = (IndexedElement) traverseIndex( toInspect, type, true, names ).getValue();
 
-					if ( propertyInParent != null ) {
-						parentAttributes = inspectProperty( propertyInParent );
-					}
+				if ( propertyInParent != null ) {
+					parentAttributes = getPropertyAttributes( propertyInParent );
 				}
+			}
 
-				// ...otherwise, just start at the end point
+			// ...otherwise, just start at the end point
 
-				valueAndDeclaredType = traverse( toInspect, type, false, names );
+			ValueAndDeclaredType valueAndDeclaredType = traverseIndex( toInspect, type, false, names );
+			IndexedElement indexedElement = (IndexedElement) valueAndDeclaredType.getValue();
+			Document document = XmlUtils.newDocument();
+			Element entity = document.createElementNS( NAMESPACE, ENTITY );
 
-				if ( valueAndDeclaredType.getValue() == null ) {
+			if ( indexedElement == null ) {
 
-					if ( parentAttributes == null || parentAttributes.isEmpty() ) {
-						return null;
-					}
-
-					document = XmlUtils.newDocument();
-					entity = document.createElementNS( NAMESPACE, ENTITY );
+				if ( parentAttributes == null || parentAttributes.isEmpty() ) {
+					return null;
+				}
 
-				} else {
+			} else {
 
-					// Inspect traits
+				// Inspect traits
 
-					document = XmlUtils.newDocument();
-					entity = document.createElementNS( NAMESPACE, ENTITY );
-					inspectTraits( (Element) valueAndDeclaredType.getValue(), entity );
+				ImmutableElement traits = getTraits( indexedElement );
 
-					// Nothing of consequence to return?
+				// Nothing of consequence to return?
 
-					if ( !entity.hasChildNodes() && entity.getAttributes().getLength() == 0 && parentAttributes == null ) {
-						return null;
-					}
+				if ( traits.isEmpty() && parentAttributes == null ) {
+					return null;
 				}
+
+				traits.copyTo( entity );
 			}
 
 			Element root = document.createElementNS( NAMESPACE, ROOT );
@@ -438,6 +465,9 @@ public abstract class BaseXmlInspector
 	 * This method can be overridden by clients wishing to modify the inspection process. Most
 	 * clients will find it easier to override one of the sub-methods, such as
 	 * <code>inspectTrait</code> or <code>inspectProperty</code>.
+	 * <p>
+	 * Each element is only inspected once, and the result reused for subsequent inspections. So
+	 * overrides must depend only on the given element.
 	 */
 
 	protected void inspectTraits( Element toInspect, Element toAddTo ) {
@@ -576,6 +606,95 @@ public abstract class BaseXmlInspector
 
 	protected ValueAndDeclaredType traverse( Object toTraverse, String type, boolean onlyToParent, String... names ) {
 
+		ValueAndDeclaredType valueAndDeclaredType = traverseIndex( toTraverse, type, onlyToParent, names );
+		IndexedElement indexedElement = (IndexedElement) valueAndDeclaredType.getValue();
+
+		if ( indexedElement == null ) {
+			return valueAndDeclaredType;
+		}
+
+		return new ValueAndDeclaredType( indexedElement.getElement(), valueAndDeclaredType.getDeclaredType() );
+	}
+
+	/**
+	 * The attribute on top-level elements that uniquely identifies them.
+	 */
+
+	protected String getTopLevelTypeAttribute() {
+
+		return TYPE;
+	}
+
+	/**
+	 * The attribute on child elements that uniquely identifies them.
+	 */
+
+	protected String getNameAttribute() {
+
+		return NAME;
+	}
+
+	/**
+	 * The attribute on child elements that identifies another top-level element.
+	 * <p>
+	 * This is necessary for path traversal. If an XML format does not specify a way to traverse
+	 * from a child to another top-level element, the Inspector cannot find information along paths
+	 * (eg. <code>foo/bar/baz</code>). There <em>is</em> a way around this but, on balance, we
+	 * decided against it (see http://blog.kennardconsulting.com/2008/01/ask-your-father.html).
+	 */
+
+	protected String getTypeAttribute() {
+
+		return TYPE;
+	}
+
+	/**
+	 * The attribute on top-level elements that identifies a superclass relationship (if any).
+	 */
+
+	protected String getExtendsAttribute() {
+
+		return null;
+	}
+
+	/**
+	 * The attribute on child elements that identifies a reference to another element (if any).
+	 * Note that <code>typeAttribute</code> will always take precedence over
+	 * <code>referenceAttribute</code>.
+	 */
+
+	protected String getReferenceAttribute() {
+
+		return null;
+	}
+
+	/**
+	 * Traverse from the given top-level element (as per <code>getTopLevelTypeAttribute</code>) to
+	 * the element which contains named children (as per <code>getNameAttribute</code>). In many
+	 * cases this is one and the same, so by default this method simply returns the given element.
+	 * <p>
+	 * Subclasses can override this method if they need to do some intermediate traversal.
+	 *
+	 * @return the element containing named children, or null if no such element
+	 */
+
+	protected Element traverseFromTopLevelTypeToNamedChildren( Element topLevel ) {
+
+		return topLevel;
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * @return the IndexedElement (may be null) and its declared type (not actual type). Never
+	 *         null. If the declared type within the ValueAndDeclaredType is null, inspection will
+	 *         be aborted
+	 */
+
+	private ValueAndDeclaredType traverseIndex( Object toTraverse, String type, boolean onlyToParent, String... names ) {
+
 		// If given a non-null Object, use it to restrictAgainstObject
 
 		String typeToInspect = type;
@@ -610,8 +729,7 @@ public abstract class BaseXmlInspector
 
 		// Validate type
 
-		String topLevelTypeAttribute = getTopLevelTypeAttribute();
-		Element topLevelElement = XmlUtils.getChildWithAttributeValue( mRoot, topLevelTypeAttribute, typeToInspect );
+		IndexedElement topLevelElement = mIndex.get( typeToInspect );
 
 		if ( topLevelElement == null ) {
 
@@ -622,35 +740,48 @@ public abstract class BaseXmlInspector
 			// If using mRestrictAgainstObject or mInferInheritanceHierarchy, attempt to match
 			// superclasses by checking against the Java class heirarchy
 
-			Class<?> actualClass;
+			topLevelElement = mInferredIndex.get( typeToInspect );
 
-			if ( traverseAgainstObject != null ) {
-				actualClass = traverseAgainstObject.getClass();
-			} else {
-				actualClass = ClassUtils.niceForName( typeToInspect );
+			if ( topLevelElement == null ) {
+
+				Class<?> actualClass;
+
+				if ( traverseAgainstObject != null ) {
+					actualClass = traverseAgainstObject.getClass();
+				} else {
+					actualClass = ClassUtils.niceForName( typeToInspect );
 
-				if ( actualClass == null ) {
-					return new ValueAndDeclaredType( null, typeToInspect );
+					if ( actualClass == null ) {
+						return new ValueAndDeclaredType( null, typeToInspect );
+					}
 				}
-			}
 
-			while ( topLevelElement == null ) {
+				topLevelElement = NO_MATCH;
 
-				actualClass = actualClass.getSuperclass();
+				while ( topLevelElement == NO_MATCH ) {
 
-				if ( actualClass == null ) {
-					break;
+					actualClass = actualClass.getSuperclass();
+
+					if ( actualClass == null ) {
+						break;
+					}
+
+					IndexedElement superclassElement = mIndex.get( actualClass.getName() );
+
+					if ( superclassElement != null ) {
+						topLevelElement = superclassElement;
+					}
 				}
 
-				topLevelElement = XmlUtils.getChildWithAttributeValue( mRoot, topLevelTypeAttribute, actualClass.getName() );
+				mInferredIndex.putIfAbsent( typeToInspect, topLevelElement );
 			}
 
-			if ( topLevelElement == null ) {
+			if ( topLevelElement == NO_MATCH ) {
 				return new ValueAndDeclaredType( null, declaredType );
 			}
 		}
 
-		Element elementWithNamedChildren = traverseFromTopLevelTypeToNamedChildren( topLevelElement );
+		IndexedElement elementWithNamedChildren = topLevelElement.getNamedChildren();
 
 		if ( namesToInspect == null || elementWithNamedChildren == null ) {
 			return new ValueAndDeclaredType( elementWithNamedChildren, declaredType );
@@ -662,13 +793,6 @@ public abstract class BaseXmlInspector
 			return new ValueAndDeclaredType( elementWithNamedChildren, declaredType );
 		}
 
-		// Traverse names
-
-		String extendsAttribute = getExtendsAttribute();
-		String nameAttribute = getNameAttribute();
-		String typeAttribute = getTypeAttribute();
-		String referenceAttribute = getReferenceAttribute();
-
 		// For each name...
 
 		for ( int loop = 0; loop < length; loop++ ) {
@@ -677,42 +801,30 @@ public abstract class BaseXmlInspector
 
 			// ...find the property with that name
 
-			Element property = XmlUtils.getChildWithAttributeValue( elementWithNamedChildren, nameAttribute, name );
+			IndexedElement property = elementWithNamedChildren.getChildByName( name );
 
 			// If none, XML structure may support 'extends', so jump across to the extended element
-			// and search for named properties there
+			// and search for named properties there ('extends' may be several levels deep)
 
-			if ( property == null && extendsAttribute != null ) {
+			while ( property == null && elementWithNamedChildren.getExtends() != null ) {
 
-				while ( true ) {
+				elementWithNamedChildren = mIndex.get( elementWithNamedChildren.getExtends() );
 
-					// ('extends' may be several levels deep)
-
-					if ( !elementWithNamedChildren.hasAttribute( extendsAttribute ) ) {
-						break;
-					}
-
-					String childExtends = elementWithNamedChildren.getAttribute( extendsAttribute );
-					elementWithNamedChildren = XmlUtils.getChildWithAttributeValue( mRoot, topLevelTypeAttribute, childExtends );
-
-					if ( elementWithNamedChildren == null ) {
-						break;
-					}
-
-					property = XmlUtils.getChildWithAttributeValue( elementWithNamedChildren, nameAttribute, name );
-
-					if ( property != null ) {
-						break;
-					}
+				if ( elementWithNamedChildren == null ) {
+					return new ValueAndDeclaredType( null, null );
 				}
+
+				property = elementWithNamedChildren.getChildByName( name );
 			}
 
 			// If still none, XML structure may support 'reference', so search for referenced
 			// properties
 
-			if ( property == null && referenceAttribute != null ) {
+			if ( property == null ) {
+
+				property = elementWithNamedChildren.getChildByReference( name );
 
-				property = XmlUtils.getChildWithAttributeValue( elementWithNamedChildren, referenceAttribute, name );
+				// If still none, give up
 
 				if ( property == null ) {
 					return new ValueAndDeclaredType( null, null );
@@ -723,12 +835,6 @@ public abstract class BaseXmlInspector
 				declaredType = name;
 			}
 
-			// If still none, give up
-
-			if ( property == null ) {
-				return new ValueAndDeclaredType( null, null );
-			}
-
 			if ( onlyToParent && loop >= ( length - 1 ) ) {
 				return new ValueAndDeclaredType( property, declaredType );
 			}
@@ -736,25 +842,30 @@ public abstract class BaseXmlInspector
 			if ( declaredType == null ) {
 				// Fetch typeAttribute (if any)
 
-				if ( property.hasAttribute( typeAttribute ) ) {
-					declaredType = property.getAttribute( typeAttribute );
-				}
+				declaredType = property.getType();
 
 				// Support nested elements with named children (with or without a typeAttribute)
 
-				elementWithNamedChildren = traverseFromTopLevelTypeToNamedChildren( property );
+				elementWithNamedChildren = property.getNamedChildren();
 
-				if ( XmlUtils.getChildWithAttribute( elementWithNamedChildren, nameAttribute ) != null ) {
+				if ( elementWithNamedChildren != null && elementWithNamedChildren.hasChildrenByName() ) {
 					continue;
 				}
 
 				// If no typeAttribute, support referenceAttribute (though typeAttribute takes
 				// precedence)
 
-				if ( !property.hasAttribute( typeAttribute ) ) {
+				if ( declaredType == null ) {
 
-					if ( referenceAttribute == null || XmlUtils.getChildWithAttribute( elementWithNamedChildren, referenceAttribute ) == null ) {
-						throw InspectorException.newException( "Property " + name + " in entity " + topLevelElement.getAttribute( typeAttribute ) + " has no @" + typeAttribute + " attribute in the XML, so cannot navigate to " + type + ArrayUtils.toString( namesToInspect, StringUtils.SEPARATOR_FORWARD_SLASH, true, false ) );
+					if ( elementWithNamedChildren == null || !elementWithNamedChildren.hasChildrenByReference() ) {
+						String typeAttribute = getTypeAttribute();
+						String entityType = topLevelElement.getType();
+
+						if ( entityType == null ) {
+							entityType = "";
+						}
+
+						throw InspectorException.newException( "Property " + name + " in entity " + entityType + " has no @" + typeAttribute + " attribute in the XML, so cannot navigate to " + type + ArrayUtils.toString( namesToInspect, StringUtils.SEPARATOR_FORWARD_SLASH, true, false ) );
 					}
 
 					continue;
@@ -763,7 +874,7 @@ public abstract class BaseXmlInspector
 
 			// Traverse to new top-level element of the given declaredType
 
-			topLevelElement = XmlUtils.getChildWithAttributeValue( mRoot, topLevelTypeAttribute, declaredType );
+			topLevelElement = mIndex.get( declaredType );
 
 			if ( topLevelElement == null ) {
 				return new ValueAndDeclaredType( null, declaredType );
@@ -772,11 +883,11 @@ public abstract class BaseXmlInspector
 			// For ref lookups, topLevelElement may have an additional typeAttribute that is
 			// different from topLevelTypeAttribute
 
-			if ( topLevelElement.hasAttribute( typeAttribute ) ) {
-				declaredType = topLevelElement.getAttribute( typeAttribute );
+			if ( topLevelElement.getType() != null ) {
+				declaredType = topLevelElement.getType();
 			}
 
-			elementWithNamedChildren = traverseFromTopLevelTypeToNamedChildren( topLevelElement );
+			elementWithNamedChildren = topLevelElement.getNamedChildren();
 
 			if ( elementWithNamedChildren == null ) {
 				return new ValueAndDeclaredType( null, declaredType );
@@ -787,69 +898,318 @@ public abstract class BaseXmlInspector
 	}
 
 	/**
-	 * The attribute on top-level elements that uniquely identifies them.
+	 * Inspect the traits of the given element, or return them from a previous inspection.
 	 */
 
-	protected String getTopLevelTypeAttribute() {
+	private ImmutableElement getTraits( IndexedElement indexedElement ) {
 
-		return TYPE;
+		ImmutableElement traits = indexedElement.getTraits();
+
+		if ( traits != null ) {
+			return traits;
+		}
+
+		// Only the first inspection of each element reads the shared DOM, so must synchronize
+		// (see mRoot)
+
+		synchronized ( mRoot ) {
+
+			traits = indexedElement.getTraits();
+
+			if ( traits == null ) {
+				Element entity = XmlUtils.newDocument().createElementNS( NAMESPACE, ENTITY );
+				inspectTraits( indexedElement.getElement(), entity );
+				traits = new ImmutableElement( entity );
+				indexedElement.setTraits( traits );
+			}
+
+			return traits;
+		}
 	}
 
 	/**
-	 * The attribute on child elements that uniquely identifies them.
+	 * Inspect the given property element, or return it from a previous inspection.
 	 */
 
-	protected String getNameAttribute() {
+	private Map<String, String> getPropertyAttributes( IndexedElement indexedElement ) {
 
-		return NAME;
+		if ( indexedElement.isPropertyInspected() ) {
+			return indexedElement.getPropertyAttributes();
+		}
+
+		synchronized ( mRoot ) {
+
+			if ( !indexedElement.isPropertyInspected() ) {
+				Map<String, String> propertyAttributes = inspectProperty( indexedElement.getElement() );
+
+				if ( propertyAttributes != null ) {
+					propertyAttributes = Collections.unmodifiableMap( propertyAttributes );
+				}
+
+				indexedElement.setPropertyAttributes( propertyAttributes );
+			}
+
+			return indexedElement.getPropertyAttributes();
+		}
 	}
 
 	/**
-	 * The attribute on child elements that identifies another top-level element.
+	 * Index the top-level elements of <code>mRoot</code>, along with their named (and referenced)
+	 * children and any elements reachable from them via
+	 * <code>traverseFromTopLevelTypeToNamedChildren</code>.
 	 * <p>
-	 * This is necessary for path traversal. If an XML format does not specify a way to traverse
-	 * from a child to another top-level element, the Inspector cannot find information along paths
-	 * (eg. <code>foo/bar/baz</code>). There <em>is</em> a way around this but, on balance, we
-	 * decided against it (see http://blog.kennardconsulting.com/2008/01/ask-your-father.html).
+	 * Called during construction, so subclass overrides of <code>getTopLevelTypeAttribute</code>,
+	 * <code>traverseFromTopLevelTypeToNamedChildren</code> and friends must not rely on subclass
+	 * members.
 	 */
 
-	protected String getTypeAttribute() {
+	private Map<String, IndexedElement> indexTopLevelElements() {
 
-		return TYPE;
+		Map<Element, IndexedElement> indexedElements = new IdentityHashMap<Element, IndexedElement>();
+		Map<String, IndexedElement> index = CollectionUtils.newHashMap();
+		String topLevelTypeAttribute = getTopLevelTypeAttribute();
+		Element topLevelElement = XmlUtils.getChildWithAttribute( mRoot, topLevelTypeAttribute );
+
+		while ( topLevelElement != null ) {
+
+			// (first match wins, same as XmlUtils.getChildWithAttributeValue)
+
+			String topLevelType = topLevelElement.getAttribute( topLevelTypeAttribute );
+
+			if ( !index.containsKey( topLevelType ) ) {
+				index.put( topLevelType, indexElement( topLevelElement, indexedElements ) );
+			}
+
+			topLevelElement = XmlUtils.getSiblingWithAttribute( topLevelElement, topLevelTypeAttribute );
+		}
+
+		return index;
 	}
 
-	/**
-	 * The attribute on top-level elements that identifies a superclass relationship (if any).
-	 */
+	private IndexedElement indexElement( Element element, Map<Element, IndexedElement> indexedElements ) {
 
-	protected String getExtendsAttribute() {
+		IndexedElement indexedElement = indexedElements.get( element );
 
-		return null;
+		if ( indexedElement != null ) {
+			return indexedElement;
+		}
+
+		indexedElement = new IndexedElement( element, getAttributeIfPresent( element, getTypeAttribute() ), getAttributeIfPresent( element, getExtendsAttribute() ) );
+		indexedElements.put( element, indexedElement );
+
+		// Index named (and referenced) children
+
+		String nameAttribute = getNameAttribute();
+		String referenceAttribute = getReferenceAttribute();
+		Element child = XmlUtils.getFirstChildElement( element );
+
+		while ( child != null ) {
+
+			String name = getAttributeIfPresent( child, nameAttribute );
+
+			if ( name != null ) {
+				indexedElement.putChildByName( name, indexElement( child, indexedElements ) );
+			}
+
+			String reference = getAttributeIfPresent( child, referenceAttribute );
+
+			if ( reference != null ) {
+				indexedElement.putChildByReference( reference, indexElement( child, indexedElements ) );
+			}
+
+			child = XmlUtils.getNextSiblingElement( child );
+		}
+
+		// Index the element containing named children. Defer any failure until (if ever) it is
+		// actually traversed, as we would have done without an index
+
+		try {
+			Element namedChildren = traverseFromTopLevelTypeToNamedChildren( element );
+
+			if ( namedChildren != null ) {
+				indexedElement.setNamedChildren( indexElement( namedChildren, indexedElements ) );
+			}
+		} catch ( RuntimeException e ) {
+			indexedElement.setNamedChildrenException( e );
+		}
+
+		return indexedElement;
 	}
 
-	/**
-	 * The attribute on child elements that identifies a reference to another element (if any).
-	 * Note that <code>typeAttribute</code> will always take precedence over
-	 * <code>referenceAttribute</code>.
-	 */
+	private static String getAttributeIfPresent( Element element, String attributeName ) {
 
-	protected String getReferenceAttribute() {
+		if ( attributeName == null || !element.hasAttribute( attributeName ) ) {
+			return null;
+		}
 
-		return null;
+		return element.getAttribute( attributeName );
 	}
 
+	//
+	// Inner classes
+	//
+
 	/**
-	 * Traverse from the given top-level element (as per <code>getTopLevelTypeAttribute</code>) to
-	 * the element which contains named children (as per <code>getNameAttribute</code>). In many
-	 * cases this is one and the same, so by default this method simply returns the given element.
+	 * Element of the shared DOM, indexed so that traversal is a series of hash lookups.
 	 * <p>
-	 * Subclasses can override this method if they need to do some intermediate traversal.
-	 *
-	 * @return the element containing named children, or null if no such element
+	 * The index is built during construction and published through a final field, so is safe to
+	 * read from multiple threads without locking. Only the results of inspecting the element are
+	 * stored later, and those are volatile.
 	 */
 
-	protected Element traverseFromTopLevelTypeToNamedChildren( Element topLevel ) {
+	private static class IndexedElement {
 
-		return topLevel;
+		//
+		// Private members
+		//
+
+		private final Element				mElement;
+
+		private final String				mType;
+
+		private final String				mExtends;
+
+		private Map<String, IndexedElement>	mChildrenByName			= Collections.emptyMap();
+
+		private Map<String, IndexedElement>	mChildrenByReference	= Collections.emptyMap();
+
+		private IndexedElement				mNamedChildren;
+
+		private RuntimeException			mNamedChildrenException;
+
+		private volatile ImmutableElement	mTraits;
+
+		private Map<String, String>			mPropertyAttributes;
+
+		private volatile boolean			mPropertyInspected;
+
+		//
+		// Constructor
+		//
+
+		public IndexedElement( Element element, String type, String extendz ) {
+
+			mElement = element;
+			mType = type;
+			mExtends = extendz;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Element getElement() {
+
+			return mElement;
+		}
+
+		/**
+		 * @return the value of <code>getTypeAttribute</code>, or null if none
+		 */
+
+		public String getType() {
+
+			return mType;
+		}
+
+		/**
+		 * @return the value of <code>getExtendsAttribute</code>, or null if none
+		 */
+
+		public String getExtends() {
+
+			return mExtends;
+		}
+
+		public IndexedElement getChildByName( String name ) {
+
+			return mChildrenByName.get( name );
+		}
+
+		public boolean hasChildrenByName() {
+
+			return !mChildrenByName.isEmpty();
+		}
+
+		public void putChildByName( String name, IndexedElement child ) {
+
+			if ( mChildrenByName.isEmpty() ) {
+				mChildrenByName = CollectionUtils.newHashMap();
+			}
+
+			if ( !mChildrenByName.containsKey( name ) ) {
+				mChildrenByName.put( name, child );
+			}
+		}
+
+		public IndexedElement getChildByReference( String reference ) {
+
+			return mChildrenByReference.get( reference );
+		}
+
+		public boolean hasChildrenByReference() {
+
+			return !mChildrenByReference.isEmpty();
+		}
+
+		public void putChildByReference( String reference, IndexedElement child ) {
+
+			if ( mChildrenByReference.isEmpty() ) {
+				mChildrenByReference = CollectionUtils.newHashMap();
+			}
+
+			if ( !mChildrenByReference.containsKey( reference ) ) {
+				mChildrenByReference.put( reference, child );
+			}
+		}
+
+		/**
+		 * @return the result of <code>traverseFromTopLevelTypeToNamedChildren</code> (may be null)
+		 */
+
+		public IndexedElement getNamedChildren() {
+
+			if ( mNamedChildrenException != null ) {
+				throw mNamedChildrenException;
+			}
+
+			return mNamedChildren;
+		}
+
+		public void setNamedChildren( IndexedElement namedChildren ) {
+
+			mNamedChildren = namedChildren;
+		}
+
+		public void setNamedChildrenException( RuntimeException namedChildrenException ) {
+
+			mNamedChildrenException = namedChildrenException;
+		}
+
+		public ImmutableElement getTraits() {
+
+			return mTraits;
+		}
+
+		public void setTraits( ImmutableElement traits ) {
+
+			mTraits = traits;
+		}
+
+		public boolean isPropertyInspected() {
+
+			return mPropertyInspected;
+		}
+
+		public Map<String, String> getPropertyAttributes() {
+
+			return mPropertyAttributes;
+		}
+
+		public void setPropertyAttributes( Map<String, String> propertyAttributes ) {
+
+			mPropertyAttributes = propertyAttributes;
+			mPropertyInspected = true;
+		}
 	}
 }
@@ -0,0 +1,31 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl;
+
+import org.metawidget.inspector.iface.Inspector;
+
+/**
+ * Marks a <code>BaseObjectInspector</code> whose <code>inspectTrait</code>,
+ * <code>inspectProperty</code> and <code>inspectAction</code> results depend solely on the given
+ * Trait (such as on its annotations), rather than on any other runtime state.
+ * <p>
+ * <code>BaseObjectInspector</code> computes such results once per Trait, and shares them between
+ * subsequent inspections (see <code>BaseObjectInspector.isInspectionStatic</code>).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface StaticTraitInspector
+	extends Inspector {
+
+	// Just a marker interface
+}
@@ -121,12 +121,19 @@ public abstract class MethodActionStyle
 		}
 
 		//
-		// Public methods
+		// Protected methods
 		//
 
-		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
+		@Override
+		protected Map<Class<? extends Annotation>, Annotation> indexAnnotations() {
 
-			return ClassUtils.getOriginalAnnotation( mMethod, annotation );
+			Map<Class<? extends Annotation>, Annotation> annotations = CollectionUtils.newHashMap();
+
+			for ( Annotation annotation : ClassUtils.getOriginalAnnotations( mMethod ) ) {
+				annotations.put( annotation.annotationType(), annotation );
+			}
+
+			return annotations;
 		}
 	}
 }
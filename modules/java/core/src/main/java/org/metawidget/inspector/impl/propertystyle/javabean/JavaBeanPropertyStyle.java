@@ -60,11 +60,13 @@ public class JavaBeanPropertyStyle
 	// Private members
 	//
 
-	private boolean			mSupportPublicFields;
+	private boolean					mSupportPublicFields;
 
-	private MessageFormat	mPrivateFieldConvention;
+	private MessageFormat			mPrivateFieldConvention;
 
-	private ClassLoader		mAdditionalClassLoader;
+	private ClassLoader				mAdditionalClassLoader;
+
+	private PropertyAccessorFactory	mPropertyAccessorFactory;
 
 	//
 	// Constructor
@@ -82,6 +84,7 @@ public class JavaBeanPropertyStyle
 		mSupportPublicFields = config.isSupportPublicFields();
 		mPrivateFieldConvention = config.getPrivateFieldConvention();
 		mAdditionalClassLoader = config.getAdditionalClassLoader();
+		mPropertyAccessorFactory = config.getPropertyAccessorFactory();
 	}
 
 	//
@@ -162,7 +165,7 @@ public class JavaBeanPropertyStyle
 				continue;
 			}
 
-			properties.put( fieldName, new FieldProperty( fieldName, field ) );
+			properties.put( fieldName, new FieldProperty( fieldName, field, mPropertyAccessorFactory ) );
 		}
 	}
 
@@ -243,7 +246,7 @@ public class JavaBeanPropertyStyle
 				continue;
 			}
 
-			properties.put( propertyName, new JavaBeanProperty( propertyName, type.getName(), method, null, getPrivateField( clazz, propertyName ) ) );
+			properties.put( propertyName, new JavaBeanProperty( propertyName, type.getName(), method, null, getPrivateField( clazz, propertyName ), mPropertyAccessorFactory ) );
 		}
 	}
 
@@ -337,7 +340,7 @@ public class JavaBeanPropertyStyle
 
 				// Beware covariant return types: always prefer the getter's type
 
-				properties.put( propertyName, new JavaBeanProperty( propertyName, existingJavaBeanProperty.getType(), existingJavaBeanProperty.getReadMethod(), method, getPrivateField( clazz, propertyName ) ) );
+				properties.put( propertyName, new JavaBeanProperty( propertyName, existingJavaBeanProperty.getType(), existingJavaBeanProperty.getReadMethod(), method, getPrivateField( clazz, propertyName ), mPropertyAccessorFactory ) );
 				continue;
 			}
 
@@ -347,7 +350,7 @@ public class JavaBeanPropertyStyle
 				continue;
 			}
 
-			properties.put( propertyName, new JavaBeanProperty( propertyName, type.getName(), null, method, getPrivateField( clazz, propertyName ) ) );
+			properties.put( propertyName, new JavaBeanProperty( propertyName, type.getName(), null, method, getPrivateField( clazz, propertyName ), mPropertyAccessorFactory ) );
 		}
 	}
 
@@ -448,7 +451,16 @@ public class JavaBeanPropertyStyle
 		// Private methods
 		//
 
-		private Field	mField;
+		private Field								mField;
+
+		/**
+		 * Factory for <code>mAccessor</code>, or null if it has already been created (or there is
+		 * no factory, in which case we use reflection).
+		 */
+
+		private volatile PropertyAccessorFactory	mAccessorFactory;
+
+		private volatile PropertyAccessor			mAccessor;
 
 		//
 		// Constructor
@@ -456,9 +468,15 @@ public class JavaBeanPropertyStyle
 
 		public FieldProperty( String name, Field field ) {
 
+			this( name, field, null );
+		}
+
+		public FieldProperty( String name, Field field, PropertyAccessorFactory accessorFactory ) {
+
 			super( name, field.getType().getName() );
 
 			mField = field;
+			mAccessorFactory = accessorFactory;
 		}
 
 		//
@@ -473,6 +491,12 @@ public class JavaBeanPropertyStyle
 		public Object read( Object obj ) {
 
 			try {
+				PropertyAccessor accessor = getAccessor();
+
+				if ( accessor != null ) {
+					return accessor.read( obj );
+				}
+
 				return mField.get( obj );
 			} catch ( Exception e ) {
 				throw InspectorException.newException( e );
@@ -487,17 +511,19 @@ public class JavaBeanPropertyStyle
 		public void write( Object obj, Object value ) {
 
 			try {
+				PropertyAccessor accessor = getAccessor();
+
+				if ( accessor != null ) {
+					accessor.write( obj, value );
+					return;
+				}
+
 				mField.set( obj, value );
 			} catch ( Exception e ) {
 				throw InspectorException.newException( e );
 			}
 		}
 
-		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
-
-			return mField.getAnnotation( annotation );
-		}
-
 		public String getGenericType() {
 
 			return ClassUtils.getGenericTypeAsString( mField.getGenericType() );
@@ -507,6 +533,49 @@ public class JavaBeanPropertyStyle
 
 			return mField;
 		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Map<Class<? extends Annotation>, Annotation> indexAnnotations() {
+
+			Map<Class<? extends Annotation>, Annotation> annotations = CollectionUtils.newHashMap();
+
+			for ( Annotation annotation : mField.getAnnotations() ) {
+				annotations.put( annotation.annotationType(), annotation );
+			}
+
+			return annotations;
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * @return the accessor, or null to use reflection
+		 */
+
+		private PropertyAccessor getAccessor() {
+
+			if ( mAccessorFactory == null ) {
+				return mAccessor;
+			}
+
+			synchronized ( this ) {
+
+				PropertyAccessorFactory accessorFactory = mAccessorFactory;
+
+				if ( accessorFactory != null ) {
+					mAccessor = accessorFactory.newAccessor( mField );
+					mAccessorFactory = null;
+				}
+			}
+
+			return mAccessor;
+		}
 	}
 
 	/**
@@ -524,11 +593,20 @@ public class JavaBeanPropertyStyle
 		// Private methods
 		//
 
-		private Method	mReadMethod;
+		private Method								mReadMethod;
 
-		private Method	mWriteMethod;
+		private Method								mWriteMethod;
 
-		private Field	mPrivateField;
+		private Field								mPrivateField;
+
+		/**
+		 * Factory for <code>mAccessor</code>, or null if it has already been created (or there is
+		 * no factory, in which case we use reflection).
+		 */
+
+		private volatile PropertyAccessorFactory	mAccessorFactory;
+
+		private volatile PropertyAccessor			mAccessor;
 
 		//
 		// Constructor
@@ -536,6 +614,11 @@ public class JavaBeanPropertyStyle
 
 		public JavaBeanProperty( String name, String type, Method readMethod, Method writeMethod, Field privateField ) {
 
+			this( name, type, readMethod, writeMethod, privateField, null );
+		}
+
+		public JavaBeanProperty( String name, String type, Method readMethod, Method writeMethod, Field privateField, PropertyAccessorFactory accessorFactory ) {
+
 			super( name, type );
 
 			mReadMethod = readMethod;
@@ -548,6 +631,7 @@ public class JavaBeanPropertyStyle
 			}
 
 			mPrivateField = privateField;
+			mAccessorFactory = accessorFactory;
 		}
 
 		//
@@ -568,6 +652,12 @@ public class JavaBeanPropertyStyle
 		public Object read( Object obj ) {
 
 			try {
+				PropertyAccessor accessor = getAccessor();
+
+				if ( accessor != null ) {
+					return accessor.read( obj );
+				}
+
 				return mReadMethod.invoke( obj );
 			} catch ( Exception e ) {
 				throw InspectorException.newException( e );
@@ -582,41 +672,17 @@ public class JavaBeanPropertyStyle
 		public void write( Object obj, Object value ) {
 
 			try {
-				mWriteMethod.invoke( obj, value );
-			} catch ( Exception e ) {
-				throw InspectorException.newException( e );
-			}
-		}
-
-		public <T extends Annotation> T getAnnotation( Class<T> annotationClass ) {
-
-			if ( mReadMethod != null ) {
-				T annotation = ClassUtils.getOriginalAnnotation( mReadMethod, annotationClass );
+				PropertyAccessor accessor = getAccessor();
 
-				if ( annotation != null ) {
-					return annotation;
+				if ( accessor != null ) {
+					accessor.write( obj, value );
+					return;
 				}
-			}
-
-			if ( mWriteMethod != null ) {
-				T annotation = ClassUtils.getOriginalAnnotation( mWriteMethod, annotationClass );
 
-				if ( annotation != null ) {
-					return annotation;
-				}
-			}
-
-			if ( mPrivateField != null ) {
-				T annotation = mPrivateField.getAnnotation( annotationClass );
-
-				if ( annotation != null ) {
-					return annotation;
-				}
-
-				return null;
+				mWriteMethod.invoke( obj, value );
+			} catch ( Exception e ) {
+				throw InspectorException.newException( e );
 			}
-
-			return null;
 		}
 
 		public String getGenericType() {
@@ -653,5 +719,69 @@ public class JavaBeanPropertyStyle
 
 			return mPrivateField;
 		}
+
+		//
+		// Protected methods
+		//
+
+		/**
+		 * Indexes annotations from the private field, write method and read method. Where the same
+		 * annotation type appears more than once, the read method takes precedence, then the write
+		 * method.
+		 */
+
+		@Override
+		protected Map<Class<? extends Annotation>, Annotation> indexAnnotations() {
+
+			Map<Class<? extends Annotation>, Annotation> annotations = CollectionUtils.newHashMap();
+
+			if ( mPrivateField != null ) {
+				putAnnotations( mPrivateField.getAnnotations(), annotations );
+			}
+
+			if ( mWriteMethod != null ) {
+				putAnnotations( ClassUtils.getOriginalAnnotations( mWriteMethod ), annotations );
+			}
+
+			if ( mReadMethod != null ) {
+				putAnnotations( ClassUtils.getOriginalAnnotations( mReadMethod ), annotations );
+			}
+
+			return annotations;
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * @return the accessor, or null to use reflection
+		 */
+
+		private PropertyAccessor getAccessor() {
+
+			if ( mAccessorFactory == null ) {
+				return mAccessor;
+			}
+
+			synchronized ( this ) {
+
+				PropertyAccessorFactory accessorFactory = mAccessorFactory;
+
+				if ( accessorFactory != null ) {
+					mAccessor = accessorFactory.newAccessor( mReadMethod, mWriteMethod );
+					mAccessorFactory = null;
+				}
+			}
+
+			return mAccessor;
+		}
+
+		private void putAnnotations( Annotation[] annotations, Map<Class<? extends Annotation>, Annotation> map ) {
+
+			for ( Annotation annotation : annotations ) {
+				map.put( annotation.annotationType(), annotation );
+			}
+		}
 	}
 }
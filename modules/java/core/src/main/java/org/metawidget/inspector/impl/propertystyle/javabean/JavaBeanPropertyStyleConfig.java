@@ -29,19 +29,21 @@ public class JavaBeanPropertyStyleConfig
 	// Private statics
 	//
 
-	private static String[]	DEFAULT_EXCLUDE_NAME	= new String[] { "propertyChangeListeners", "vetoableChangeListeners" };
+	private static String[]			DEFAULT_EXCLUDE_NAME	= new String[] { "propertyChangeListeners", "vetoableChangeListeners" };
 
 	//
 	// Private members
 	//
 
-	private boolean			mNullExcludeName;
+	private boolean					mNullExcludeName;
 
-	private boolean			mSupportPublicFields;
+	private boolean					mSupportPublicFields;
 
-	private MessageFormat	mPrivateFieldConvention;
+	private MessageFormat			mPrivateFieldConvention;
 
-	private ClassLoader		mAdditionalClassLoader;
+	private ClassLoader				mAdditionalClassLoader;
+
+	private PropertyAccessorFactory	mPropertyAccessorFactory;
 
 	//
 	// Public methods
@@ -132,6 +134,25 @@ public class JavaBeanPropertyStyleConfig
 		return this;
 	}
 
+	/**
+	 * Sets a factory for creating direct accessors to properties, so that reading and writing them
+	 * avoids reflection. Accessors are created once per property, the first time it is read or
+	 * written.
+	 * <p>
+	 * This can be useful when traversing large object graphs, where every step of the path reads a
+	 * property. Properties for which the factory cannot create an accessor fall back to
+	 * reflection. By default there is no factory, and all properties use reflection.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public JavaBeanPropertyStyleConfig setPropertyAccessorFactory( PropertyAccessorFactory propertyAccessorFactory ) {
+
+		mPropertyAccessorFactory = propertyAccessorFactory;
+
+		return this;
+	}
+
 	@Override
 	public boolean equals( Object that ) {
 
@@ -159,6 +180,10 @@ public class JavaBeanPropertyStyleConfig
 			return false;
 		}
 
+		if ( !ObjectUtils.nullSafeEquals( mPropertyAccessorFactory, ( (JavaBeanPropertyStyleConfig) that ).mPropertyAccessorFactory ) ) {
+			return false;
+		}
+
 		return super.equals( that );
 	}
 
@@ -170,6 +195,7 @@ public class JavaBeanPropertyStyleConfig
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPrivateFieldConvention );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mSupportPublicFields );
 		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mAdditionalClassLoader );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mPropertyAccessorFactory );
 
 		return hashCode;
 	}
@@ -204,4 +230,9 @@ public class JavaBeanPropertyStyleConfig
 
 		return mAdditionalClassLoader;
 	}
+
+	protected PropertyAccessorFactory getPropertyAccessorFactory() {
+
+		return mPropertyAccessorFactory;
+	}
 }
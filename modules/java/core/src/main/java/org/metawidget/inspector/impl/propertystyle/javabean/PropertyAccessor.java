@@ -0,0 +1,33 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.impl.propertystyle.javabean;
+
+/**
+ * Reads and writes a single property directly, rather than through reflection.
+ * <p>
+ * PropertyAccessors are created once per property by a <code>PropertyAccessorFactory</code>, and
+ * must be immutable and threadsafe.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface PropertyAccessor {
+
+	//
+	// Methods
+	//
+
+	Object read( Object obj )
+		throws Exception;
+
+	void write( Object obj, Object value )
+		throws Exception;
+}
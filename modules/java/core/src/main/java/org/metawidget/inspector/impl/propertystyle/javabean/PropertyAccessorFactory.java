@@ -0,0 +1,55 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.impl.propertystyle.javabean;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Creates <code>PropertyAccessors</code> for <code>JavaBeanPropertyStyle</code>, so that
+ * properties can be read and written without going through reflection.
+ * <p>
+ * Factories may decline to create an accessor (eg. for non-public classes, or in environments that
+ * do not allow generating classes at runtime, such as Android or under a restrictive
+ * SecurityManager). In that case the property falls back to reflection.
+ * <p>
+ * PropertyAccessorFactories must be immutable (or, at least, appear that way to clients. They can
+ * have caches or configuration settings internally, as long as they are threadsafe).
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public interface PropertyAccessorFactory {
+
+	//
+	// Methods
+	//
+
+	/**
+	 * Creates an accessor for the given getter and setter.
+	 *
+	 * @param readMethod
+	 *            the getter, or null if the property is write-only
+	 * @param writeMethod
+	 *            the setter, or null if the property is read-only
+	 * @return the accessor, or null to fall back to reflection
+	 */
+
+	PropertyAccessor newAccessor( Method readMethod, Method writeMethod );
+
+	/**
+	 * Creates an accessor for the given public field.
+	 *
+	 * @return the accessor, or null to fall back to reflection
+	 */
+
+	PropertyAccessor newAccessor( Field field );
+}
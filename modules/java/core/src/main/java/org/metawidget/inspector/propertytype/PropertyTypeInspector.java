@@ -18,8 +18,10 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 
+import org.metawidget.inspector.iface.ValueDependentInspector;
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.ClassUtils;
 import org.metawidget.util.CollectionUtils;
@@ -30,6 +32,10 @@ import org.metawidget.util.CollectionUtils;
  * If the actual type of the property's object is a subtype of the declared type, both the actual
  * and the declared type are returned.
  * <p>
+ * Because the actual type (and, for Booleans and enums, the lookup) depends on the runtime value,
+ * this Inspector is a <code>ValueDependentInspector</code>. When using
+ * <code>CachingCompositeInspector</code>, list it after the Inspectors whose results can be cached.
+ * <p>
  * The properties are returned in the order defined by their <code>PropertyStyle</code>. For
  * <code>JavaBeanPropertyStyle</code> (the default) this is 'alphabetical by name'. Most clients
  * will want to refine this by using, say, <code>UiComesAfter</code> and
@@ -39,7 +45,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class PropertyTypeInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements ValueDependentInspector, StaticTraitInspector {
 
 	//
 	// Constructor
@@ -0,0 +1,86 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+
+package org.metawidget.inspector.snapshot;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.Map;
+
+import org.metawidget.inspector.impl.BaseXmlInspector;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Inspects snapshots of inspection results, precomputed at build time by
+ * <code>SnapshotWriter</code> (typically via <code>metawidget-maven-plugin</code>).
+ * <p>
+ * Much UI metadata (annotations, JavaBean properties, JPA and Bean Validation constraints,
+ * Hibernate mappings) is fixed at compile time, yet runtime Inspectors re-derive it using
+ * reflection and XML parsing. A snapshot runs the application's usual <code>Inspector</code> and
+ * <code>InspectionResultProcessor</code>s once, during the build, and writes their results into the
+ * artifact. <code>SnapshotInspector</code> then serves those results without any reflection. This
+ * greatly reduces startup time and first-request latency.
+ * <p>
+ * Snapshots are taken per type, without any Object to inspect, so any metadata that depends on the
+ * <em>value</em> of a property (such as <code>PropertyTypeInspector</code>'s
+ * <code>actual-class</code>) is not captured. Paths (such as <code>foo/bar</code>) are traversed
+ * using each property's <code>type</code> attribute, so the types of nested properties must also be
+ * included in the snapshot. To stop at <code>null</code> values, or to match subclasses and proxies
+ * of the snapshotted types, use <code>SnapshotInspectorConfig.setRestrictAgainstObject</code> or
+ * <code>setInferInheritanceHierarchy</code>. Both reintroduce some reflection, though only during
+ * traversal.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SnapshotInspector
+	extends BaseXmlInspector {
+
+	//
+	// Constructors
+	//
+
+	public SnapshotInspector() {
+
+		this( new SnapshotInspectorConfig() );
+	}
+
+	public SnapshotInspector( SnapshotInspectorConfig config ) {
+
+		super( config );
+	}
+
+	//
+	// Protected methods
+	//
+
+	@Override
+	protected Map<String, String> inspectProperty( Element toInspect ) {
+
+		if ( PROPERTY.equals( toInspect.getNodeName() ) ) {
+			return XmlUtils.getAttributesAsMap( toInspect );
+		}
+
+		return null;
+	}
+
+	@Override
+	protected Map<String, String> inspectAction( Element toInspect ) {
+
+		if ( ACTION.equals( toInspect.getNodeName() ) ) {
+			return XmlUtils.getAttributesAsMap( toInspect );
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,92 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+
+package org.metawidget.inspector.snapshot;
+
+import java.io.InputStream;
+
+import org.metawidget.inspector.impl.BaseXmlInspectorConfig;
+import org.metawidget.inspector.impl.propertystyle.PropertyStyle;
+import org.w3c.dom.Document;
+
+/**
+ * Configures a SnapshotInspector prior to use. Once instantiated, Inspectors are immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SnapshotInspectorConfig
+	extends BaseXmlInspectorConfig {
+
+	//
+	// Constructor
+	//
+
+	public SnapshotInspectorConfig() {
+
+		setDefaultFile( "metawidget-snapshot.xml" );
+	}
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public SnapshotInspectorConfig setInputStream( InputStream stream ) {
+
+		return (SnapshotInspectorConfig) super.setInputStream( stream );
+	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public SnapshotInspectorConfig setInputStreams( InputStream... streams ) {
+
+		return (SnapshotInspectorConfig) super.setInputStreams( streams );
+	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public SnapshotInspectorConfig setDocuments( Document... documents ) {
+
+		return (SnapshotInspectorConfig) super.setDocuments( documents );
+	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public SnapshotInspectorConfig setRestrictAgainstObject( PropertyStyle restrictAgainstObject ) {
+
+		return (SnapshotInspectorConfig) super.setRestrictAgainstObject( restrictAgainstObject );
+	}
+
+	/**
+	 * Overridden to provide a covariant return type for our fluent interface.
+	 */
+
+	@Override
+	public SnapshotInspectorConfig setInferInheritanceHierarchy( boolean inferInheritanceHierarchy ) {
+
+		return (SnapshotInspectorConfig) super.setInferInheritanceHierarchy( inferInheritanceHierarchy );
+	}
+}
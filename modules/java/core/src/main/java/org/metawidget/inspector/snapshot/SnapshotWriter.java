@@ -0,0 +1,242 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.snapshot;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Takes snapshots of inspection results, for serving at runtime by <code>SnapshotInspector</code>.
+ * <p>
+ * Runs the configured <code>Inspector</code> and <code>InspectionResultProcessor</code>s over a
+ * list of types, exactly as a Metawidget's pipeline would, and combines the results into a single
+ * <code>inspection-result-1.0.xsd</code>-compliant document (one <code>entity</code> per type).
+ * Typically this is done at build time by <code>metawidget-maven-plugin</code>, which configures a
+ * <code>SnapshotWriter</code> using <code>metawidget.xml</code>:
+ * <p>
+ * <code>
+ * &lt;snapshotWriter xmlns="java:org.metawidget.inspector.snapshot"&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;inspector&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&lt;compositeInspector ...&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;/inspector&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;inspectionResultProcessors&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&lt;array&gt;...&lt;/array&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;/inspectionResultProcessors&gt;<br/>
+ * &lt;/snapshotWriter&gt;
+ * </code>
+ * <p>
+ * There is no Object to inspect, and no Metawidget, at build time. So only
+ * <code>InspectionResultProcessor</code>s that depend solely on the inspection result and the type
+ * (such as <code>ComesAfterInspectionResultProcessor</code>) are suitable. Others should stay in
+ * the runtime pipeline, after the <code>SnapshotInspector</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SnapshotWriter {
+
+	//
+	// Private statics
+	//
+
+	private static final Log		LOG	= LogUtils.getLog( SnapshotWriter.class );
+
+	//
+	// Private members
+	//
+
+	private final SnapshotPipeline	mPipeline;
+
+	//
+	// Constructor
+	//
+
+	public SnapshotWriter() {
+
+		mPipeline = new SnapshotPipeline();
+
+		// Never nest: nested entities are snapshotted as top-level types instead
+
+		mPipeline.setMaximumInspectionDepth( 0 );
+	}
+
+	//
+	// Public methods
+	//
+
+	public void setInspector( Inspector inspector ) {
+
+		mPipeline.setInspector( inspector );
+	}
+
+	@SuppressWarnings( "unchecked" )
+	public void setInspectionResultProcessors( InspectionResultProcessor<SnapshotWriter>... inspectionResultProcessors ) {
+
+		mPipeline.setInspectionResultProcessors( inspectionResultProcessors );
+	}
+
+	/**
+	 * Inspect the given types and combine their inspection results into a single snapshot.
+	 * <p>
+	 * Types that return no inspection result are logged and skipped.
+	 *
+	 * @return the snapshot, conforming to inspection-result-1.0.xsd
+	 */
+
+	public Document snapshot( String... types ) {
+
+		if ( mPipeline.getInspector() == null ) {
+			throw InspectorException.newException( "No inspector configured" );
+		}
+
+		Document snapshot = XmlUtils.newDocument();
+		Element root = snapshot.createElementNS( NAMESPACE, ROOT );
+		root.setAttribute( VERSION, "1.0" );
+		snapshot.appendChild( root );
+
+		Set<String> snapshotted = CollectionUtils.newHashSet();
+
+		for ( String type : types ) {
+
+			if ( !snapshotted.add( type ) ) {
+				continue;
+			}
+
+			Element inspectionResult = mPipeline.inspectAsDom( null, type );
+			Element entity = null;
+
+			if ( inspectionResult != null ) {
+				entity = XmlUtils.getFirstChildElement( inspectionResult );
+			}
+
+			if ( entity == null ) {
+				LOG.warn( "No inspection result for {0}", type );
+				continue;
+			}
+
+			entity = XmlUtils.importElement( snapshot, entity );
+			removeNestedEntities( entity );
+			root.appendChild( entity );
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Take a snapshot of the given types (see <code>snapshot</code>) and write it to the given
+	 * OutputStream, encoded as UTF-8.
+	 */
+
+	public void write( OutputStream out, String... types ) {
+
+		try {
+			out.write( XmlUtils.documentToString( snapshot( types ), true ).getBytes( "UTF-8" ) );
+			out.flush();
+		} catch ( InspectorException e ) {
+			throw e;
+		} catch ( Exception e ) {
+			throw InspectorException.newException( e );
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Remove any nested entities (see
+	 * <code>BaseObjectInspectorConfig.setNestedInspectionDepth</code>).
+	 * <p>
+	 * <code>SnapshotInspector</code> traverses paths via the top-level entities instead, and
+	 * <code>BaseXmlInspector</code> would mistake nested entities for nested properties.
+	 */
+
+	private static void removeNestedEntities( Element entity ) {
+
+		Element property = XmlUtils.getFirstChildElement( entity );
+
+		while ( property != null ) {
+
+			Element child = XmlUtils.getFirstChildElement( property );
+
+			while ( child != null ) {
+
+				Element nextChild = XmlUtils.getNextSiblingElement( child );
+
+				if ( ENTITY.equals( child.getNodeName() ) ) {
+					property.removeChild( child );
+				}
+
+				child = nextChild;
+			}
+
+			property = XmlUtils.getNextSiblingElement( property );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Pipeline that only inspects, so that InspectionResultProcessors run exactly as they would
+	 * for a Metawidget.
+	 */
+
+	private class SnapshotPipeline
+		extends W3CPipeline<Object, Object, SnapshotWriter> {
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected String getDefaultConfiguration() {
+
+			return null;
+		}
+
+		@Override
+		protected Map<String, String> getAdditionalAttributes( Object widget ) {
+
+			return null;
+		}
+
+		@Override
+		protected SnapshotWriter buildNestedMetawidget( Map<String, String> attributes ) {
+
+			// Unreachable: SnapshotWriter only ever calls inspectAsDom, never buildWidgets
+
+			throw new UnsupportedOperationException( "SnapshotWriter only inspects, so never builds nested Metawidgets" );
+		}
+
+		@Override
+		protected SnapshotWriter getPipelineOwner() {
+
+			return SnapshotWriter.this;
+		}
+	}
+}
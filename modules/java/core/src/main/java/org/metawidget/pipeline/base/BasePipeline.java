@@ -87,6 +87,20 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 
 	private Layout<W, C, M>						mLayout;
 
+	/**
+	 * Entity already inspected by our parent pipeline, to be consumed by our next
+	 * <code>inspectAsDom</code> rather than re-inspecting.
+	 */
+
+	private E									mInheritedEntity;
+
+	/**
+	 * Entity already inspected for the nested Metawidget currently being built, to be passed to it
+	 * by <code>initNestedPipeline</code>.
+	 */
+
+	private E									mNestedEntity;
+
 	//
 	// Public methods
 	//
@@ -326,23 +340,31 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 	 * using our same <code>Inspector</code>.
 	 * <p>
 	 * In addition, this method runs the <code>InspectionResultProcessors</code>.
+	 * <p>
+	 * If this is a nested pipeline, and the parent's inspection result already contained the
+	 * nested entity (see <code>BaseObjectInspectorConfig.setNestedInspectionDepth</code>), the
+	 * first call to this method consumes that entity instead of running the
+	 * <code>Inspector</code>.
 	 */
 
 	public E inspectAsDom( Object toInspect, String type, String... names ) {
 
 		configureOnce();
 
+		if ( mInheritedEntity != null ) {
+			E inheritedEntity = mInheritedEntity;
+			mInheritedEntity = null;
+
+			if ( names != null && names.length > 0 && names[names.length - 1].equals( getAttributesAsMap( inheritedEntity ).get( NAME ) ) ) {
+				return processInspectionResult( newInspectionResult( inheritedEntity ), toInspect, type, names );
+			}
+		}
+
 		if ( mInspector == null ) {
 			throw new NullPointerException( "No inspector configured" );
 		}
 
-		Object inspectionResult;
-
-		if ( mInspector instanceof DomInspector<?> ) {
-			inspectionResult = ( (DomInspector<?>) mInspector ).inspectAsDom( toInspect, type, names );
-		} else {
-			inspectionResult = mInspector.inspect( toInspect, type, names );
-		}
+		Object inspectionResult = runInspector( toInspect, type, names );
 
 		if ( inspectionResult == null ) {
 			return null;
@@ -440,6 +462,8 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 	 * <li>the given pipeline is initialised with the same Inspectors, InspectionResultProcessors,
 	 * WidgetBuilders, WidgetProcessors and Layouts as the current pipeline. This is safe because
 	 * they are all immutable</li>
+	 * <li>if the current pipeline's inspection result already contained the nested entity, the
+	 * given pipeline consumes it on its first <code>inspectAsDom</code></li>
 	 * </ul>
 	 *
 	 * @param attributes
@@ -450,6 +474,7 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 
 		nestedPipeline.setReadOnly( isReadOnly() || ( attributes != null && TRUE.equals( attributes.get( READ_ONLY ) ) ) );
 		nestedPipeline.setMaximumInspectionDepth( getMaximumInspectionDepth() - 1 );
+		nestedPipeline.mInheritedEntity = mNestedEntity;
 
 		// Inspectors, InspectionResultProcessors, WidgetBuilders,
 		// WidgetProcessors and Layouts can be shared because they are immutable. However note that
@@ -472,6 +497,45 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 		}
 	}
 
+	/**
+	 * Initialize the given pipeline so that it can inspect on behalf of this one, on a different
+	 * thread.
+	 * <p>
+	 * Pipelines are not thread-safe, so a Metawidget inspecting in the background must not share
+	 * its own pipeline with the background thread. Instead it should call this method (on its own
+	 * thread), hand the given pipeline to the background thread, and not touch the given pipeline
+	 * again until the inspection result is delivered.
+	 * <p>
+	 * Special behaviour is:
+	 * <ul>
+	 * <li>this pipeline is configured first, and the given pipeline is flagged as already
+	 * configured, so that it never configures itself on the background thread</li>
+	 * <li>the given pipeline is initialised with the same Inspector and InspectionResultProcessors
+	 * as the current pipeline</li>
+	 * <li>if this is a nested pipeline, whose parent's inspection result already contained the
+	 * nested entity, the given pipeline consumes that entity in place of this pipeline</li>
+	 * </ul>
+	 */
+
+	public void initInspectionPipeline( BasePipeline<W, C, E, M> inspectionPipeline ) {
+
+		configureOnce();
+
+		inspectionPipeline.mNeedsConfiguring = false;
+		inspectionPipeline.setReadOnly( isReadOnly() );
+		inspectionPipeline.setMaximumInspectionDepth( getMaximumInspectionDepth() );
+		inspectionPipeline.setInspector( getInspector() );
+
+		if ( mInspectionResultProcessors == null ) {
+			inspectionPipeline.mInspectionResultProcessors = null;
+		} else {
+			inspectionPipeline.mInspectionResultProcessors = new ArrayList<InspectionResultProcessor<M>>( mInspectionResultProcessors );
+		}
+
+		inspectionPipeline.mInheritedEntity = mInheritedEntity;
+		mInheritedEntity = null;
+	}
+
 	//
 	// Protected methods
 	//
@@ -543,7 +607,20 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 						attributes.remove( READ_ONLY );
 					}
 
-					widget = buildNestedMetawidget( attributes );
+					// If the Inspector already inspected the nested entity, hand it to the nested
+					// Metawidget (see initNestedPipeline)
+
+					mNestedEntity = getFirstChildElement( child );
+
+					if ( mNestedEntity != null && !ENTITY.equals( getElementName( mNestedEntity ) ) ) {
+						mNestedEntity = null;
+					}
+
+					try {
+						widget = buildNestedMetawidget( attributes );
+					} finally {
+						mNestedEntity = null;
+					}
 				}
 
 				Map<String, String> additionalAttributes = getAdditionalAttributes( widget );
@@ -618,6 +695,25 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 		}
 	}
 
+	/**
+	 * Runs the configured <code>Inspector</code>, as a <code>DomInspector</code> if possible.
+	 * <p>
+	 * Subclasses may override this method to pass additional, pipeline-specific state to
+	 * particular Inspectors.
+	 *
+	 * @return the inspection result. May be a String of XML, or an E, depending on whether the
+	 *         Inspector was a DomInspector
+	 */
+
+	protected Object runInspector( Object toInspect, String type, String... names ) {
+
+		if ( mInspector instanceof DomInspector<?> ) {
+			return ( (DomInspector<?>) mInspector ).inspectAsDom( toInspect, type, names );
+		}
+
+		return mInspector.inspect( toInspect, type, names );
+	}
+
 	/**
 	 * @param inspectionResult
 	 *            may be a String of XML, or an E, depending on whether the
@@ -629,12 +725,17 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 
 		Object inspectionResultToProcess = inspectionResult;
 
+		// (track who produced any String inspection result, for onInspectionResultConversion)
+
+		Object stringProducer = mInspector;
+
 		if ( mInspectionResultProcessors != null ) {
 			M pipelineOwner = getPipelineOwner();
 
 			for ( InspectionResultProcessor<M> inspectionResultProcessor : mInspectionResultProcessors ) {
 				if ( inspectionResultProcessor instanceof DomInspectionResultProcessor<?, ?> ) {
 					if ( inspectionResultToProcess instanceof String ) {
+						onInspectionResultConversion( stringProducer );
 						inspectionResultToProcess = stringToElement( (String) inspectionResultToProcess );
 					}
 					DomInspectionResultProcessor<E, M> domInspectionResultProcessor = (DomInspectionResultProcessor<E, M>) inspectionResultProcessor;
@@ -642,10 +743,12 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 					inspectionResultToProcess = domInspectionResultProcessor.processInspectionResultAsDom( inspectionResultToProcessElement, pipelineOwner, toInspect, type, names );
 				} else {
 					if ( !( inspectionResultToProcess instanceof String ) ) {
+						onInspectionResultConversion( inspectionResultProcessor );
 						E inspectionResultToProcessElement = (E) inspectionResultToProcess;
 						inspectionResultToProcess = elementToString( inspectionResultToProcessElement );
 					}
 					inspectionResultToProcess = inspectionResultProcessor.processInspectionResult( (String) inspectionResultToProcess, pipelineOwner, toInspect, type, names );
+					stringProducer = inspectionResultProcessor;
 				}
 
 				// An InspectionResultProcessor could return null to cancel the
@@ -658,12 +761,45 @@ public abstract class BasePipeline<W, C extends W, E, M extends C> {
 		}
 
 		if ( inspectionResultToProcess instanceof String ) {
+			onInspectionResultConversion( stringProducer );
 			return stringToElement( (String) inspectionResultToProcess );
 		}
 
 		return (E) inspectionResultToProcess;
 	}
 
+	/**
+	 * Wraps the given <code>entity</code>, taken from another inspection result, in a new
+	 * inspection result of its own.
+	 * <p>
+	 * By default, this round-trips through a String of XML. Subclasses should override it to copy
+	 * the element directly where possible.
+	 */
+
+	protected E newInspectionResult( E entity ) {
+
+		return stringToElement( "<" + ROOT + " xmlns=\"" + NAMESPACE + "\" " + VERSION + "=\"1.0\">" + elementToString( entity ) + "</" + ROOT + ">" );
+	}
+
+	/**
+	 * Called whenever <code>processInspectionResult</code> must convert the inspection result
+	 * between a String of XML and an E (in either direction). Such conversions are expensive, and
+	 * happen when an <code>Inspector</code> is not a <code>DomInspector</code>, or an
+	 * <code>InspectionResultProcessor</code> is not a <code>DomInspectionResultProcessor</code>.
+	 * <p>
+	 * Does nothing by default. Subclasses may override this method to count, report or prohibit
+	 * such conversions.
+	 *
+	 * @param cause
+	 *            the <code>Inspector</code> or <code>InspectionResultProcessor</code> that made the
+	 *            conversion necessary
+	 */
+
+	protected void onInspectionResultConversion( Object cause ) {
+
+		// Do nothing by default
+	}
+
 	/**
 	 * Returns additional attributes associated with the widget.
 	 * <p>
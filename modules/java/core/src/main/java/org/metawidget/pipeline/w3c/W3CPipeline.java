@@ -11,12 +11,20 @@
 
 package org.metawidget.pipeline.w3c;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
 import java.util.Map;
 
 import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.iface.MetawidgetException;
+import org.metawidget.inspector.composite.CompositeInspector;
+import org.metawidget.inspector.composite.CompositeInspector.DomConversionListener;
+import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.pipeline.base.BasePipeline;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
 import org.metawidget.util.XmlUtils;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.w3c.dom.Document;
@@ -35,15 +43,43 @@ public abstract class W3CPipeline<W, C extends W, M extends C>
 	// Private statics
 	//
 
+	private static final Log	LOG									= LogUtils.getLog( W3CPipeline.class );
+
 	private static ConfigReader	DEFAULT_CONFIG_READER;
 
+	/**
+	 * System property to default <code>setWarnOnDomConversion</code> to <code>true</code>.
+	 */
+
+	private static final String	WARN_ON_DOM_CONVERSION_PROPERTY		= W3CPipeline.class.getName() + ".warnOnDomConversion";
+
+	/**
+	 * System property to default <code>setFailOnDomConversion</code> to <code>true</code>.
+	 */
+
+	private static final String	FAIL_ON_DOM_CONVERSION_PROPERTY		= W3CPipeline.class.getName() + ".failOnDomConversion";
+
 	//
 	// Private methods
 	//
 
-	private ConfigReader		mConfigReader;
+	private ConfigReader			mConfigReader;
+
+	private Object					mConfig;
 
-	private Object				mConfig;
+	private boolean					mWarnOnDomConversion		= getBooleanProperty( WARN_ON_DOM_CONVERSION_PROPERTY );
+
+	private boolean					mFailOnDomConversion		= getBooleanProperty( FAIL_ON_DOM_CONVERSION_PROPERTY );
+
+	private int						mDomConversions;
+
+	private DomConversionListener	mDomConversionListener		= new DomConversionListener() {
+
+																public void onDomConversion( Inspector inspector ) {
+
+																	onInspectionResultConversion( inspector );
+																}
+															};
 
 	//
 	// Public methods
@@ -91,6 +127,46 @@ public abstract class W3CPipeline<W, C extends W, M extends C>
 		setNeedsConfiguring();
 	}
 
+	/**
+	 * Sets whether to log a warning whenever the inspection result must be converted between a DOM
+	 * and a String of XML, because an <code>Inspector</code> is not a <code>DomInspector</code>
+	 * or an <code>InspectionResultProcessor</code> is not a
+	 * <code>DomInspectionResultProcessor</code>. Such conversions are expensive.
+	 * <p>
+	 * False by default, unless the System property
+	 * <code>org.metawidget.pipeline.w3c.W3CPipeline.warnOnDomConversion</code> is
+	 * <code>true</code>.
+	 */
+
+	public void setWarnOnDomConversion( boolean warnOnDomConversion ) {
+
+		mWarnOnDomConversion = warnOnDomConversion;
+	}
+
+	/**
+	 * Sets whether to throw an exception whenever the inspection result must be converted between
+	 * a DOM and a String of XML. Useful for ensuring a pipeline is entirely DOM-based.
+	 * <p>
+	 * False by default, unless the System property
+	 * <code>org.metawidget.pipeline.w3c.W3CPipeline.failOnDomConversion</code> is
+	 * <code>true</code>.
+	 */
+
+	public void setFailOnDomConversion( boolean failOnDomConversion ) {
+
+		mFailOnDomConversion = failOnDomConversion;
+	}
+
+	/**
+	 * Gets the number of times the most recent inspection result had to be converted between a DOM
+	 * and a String of XML.
+	 */
+
+	public int getDomConversions() {
+
+		return mDomConversions;
+	}
+
 	/**
 	 * Returns the first InspectionResultProcessor in this pipeline's list of
 	 * InspectionResultProcessors (ie. as added by <code>addInspectionResultProcessor</code>) that
@@ -162,16 +238,44 @@ public abstract class W3CPipeline<W, C extends W, M extends C>
 	}
 
 	/**
-	 * Overridden to support custom ConfigReaders.
+	 * Overridden to reset <code>getDomConversions</code>.
+	 */
+
+	@Override
+	public Element inspectAsDom( Object toInspect, String type, String... names ) {
+
+		mDomConversions = 0;
+		return super.inspectAsDom( toInspect, type, names );
+	}
+
+	/**
+	 * Overridden to support custom ConfigReaders and DOM conversion settings.
 	 */
 
 	@Override
 	public void initNestedPipeline( BasePipeline<W, C, Element, M> nestedPipeline, Map<String, String> attributes ) {
 
-		( (W3CPipeline<W, C, M>) nestedPipeline ).setConfigReader( getConfigReader() );
+		W3CPipeline<W, C, M> nestedW3CPipeline = (W3CPipeline<W, C, M>) nestedPipeline;
+		nestedW3CPipeline.setConfigReader( getConfigReader() );
+		nestedW3CPipeline.setWarnOnDomConversion( mWarnOnDomConversion );
+		nestedW3CPipeline.setFailOnDomConversion( mFailOnDomConversion );
 		super.initNestedPipeline( nestedPipeline, attributes );
 	}
 
+	/**
+	 * Overridden to support DOM conversion settings.
+	 */
+
+	@Override
+	public void initInspectionPipeline( BasePipeline<W, C, Element, M> inspectionPipeline ) {
+
+		W3CPipeline<W, C, M> inspectionW3CPipeline = (W3CPipeline<W, C, M>) inspectionPipeline;
+		inspectionW3CPipeline.setConfigReader( getConfigReader() );
+		inspectionW3CPipeline.setWarnOnDomConversion( mWarnOnDomConversion );
+		inspectionW3CPipeline.setFailOnDomConversion( mFailOnDomConversion );
+		super.initInspectionPipeline( inspectionPipeline );
+	}
+
 	//
 	// Protected methods
 	//
@@ -230,6 +334,53 @@ public abstract class W3CPipeline<W, C extends W, M extends C>
 		}
 	}
 
+	/**
+	 * Overridden to apply the DOM conversion settings to any sub-Inspectors of a
+	 * <code>CompositeInspector</code>.
+	 */
+
+	@Override
+	protected Object runInspector( Object toInspect, String type, String... names ) {
+
+		Inspector inspector = getInspector();
+
+		if ( inspector instanceof CompositeInspector ) {
+			return ( (CompositeInspector) inspector ).inspectAsDom( mDomConversionListener, null, toInspect, type, names );
+		}
+
+		return super.runInspector( toInspect, type, names );
+	}
+
+	/**
+	 * Overridden to import the entity directly, rather than round-tripping through a String.
+	 */
+
+	@Override
+	protected Element newInspectionResult( Element entity ) {
+
+		Document document = XmlUtils.newDocument();
+		Element root = document.createElementNS( NAMESPACE, ROOT );
+		root.setAttribute( VERSION, "1.0" );
+		document.appendChild( root );
+		root.appendChild( XmlUtils.importElement( document, entity ) );
+
+		return root;
+	}
+
+	@Override
+	protected void onInspectionResultConversion( Object cause ) {
+
+		mDomConversions++;
+
+		if ( mFailOnDomConversion ) {
+			throw MetawidgetException.newException( cause.getClass().getName() + " requires the inspection result be converted between a DOM and a String. Consider implementing DomInspector or DomInspectionResultProcessor" );
+		}
+
+		if ( mWarnOnDomConversion && LOG.isWarnEnabled() ) {
+			LOG.warn( "{0} requires the inspection result be converted between a DOM and a String. Consider implementing DomInspector or DomInspectionResultProcessor", cause.getClass().getName() );
+		}
+	}
+
 	@Override
 	protected Element stringToElement( String xml ) {
 
@@ -266,4 +417,17 @@ public abstract class W3CPipeline<W, C extends W, M extends C>
 
 		return XmlUtils.getAttributesAsMap( element );
 	}
+
+	//
+	// Private methods
+	//
+
+	private static boolean getBooleanProperty( String name ) {
+
+		try {
+			return Boolean.getBoolean( name );
+		} catch ( SecurityException e ) {
+			return false;
+		}
+	}
 }
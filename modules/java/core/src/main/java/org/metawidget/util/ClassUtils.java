@@ -12,12 +12,17 @@
 package org.metawidget.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.security.AccessControlException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.metawidget.util.simple.StringUtils;
 
@@ -42,31 +47,13 @@ public final class ClassUtils {
 	/**
 	 * Lookup JavaBean-convention getter without using <code>java.beans</code>, as that package is
 	 * not available on all target platforms.
+	 * <p>
+	 * Lookups (including failed lookups) are cached per Class.
 	 */
 
 	public static Method getReadMethod( Class<?> clazz, String property ) {
 
-		String propertyUppercased = StringUtils.capitalize( property );
-
-		try {
-			return clazz.getMethod( JAVABEAN_GET_PREFIX + propertyUppercased );
-		} catch ( Exception e1 ) {
-			try {
-				Method method = clazz.getMethod( JAVABEAN_IS_PREFIX + propertyUppercased );
-
-				// As per section 8.3.2 (Boolean properties) of The JavaBeans API specification,
-				// 'is' only applies to boolean (little 'b')
-
-				if ( boolean.class.equals( method.getReturnType() ) ) {
-					return method;
-				}
-
-			} catch ( Exception e2 ) {
-				// Fall through
-			}
-		}
-
-		throw new RuntimeException( "No such method " + JAVABEAN_GET_PREFIX + propertyUppercased + " (or boolean " + JAVABEAN_IS_PREFIX + propertyUppercased + ") on " + clazz );
+		return getClassCache( clazz ).getReadMethod( clazz, property );
 	}
 
 	/**
@@ -132,12 +119,7 @@ public final class ClassUtils {
 
 		try {
 			Class<?> baseClass = base.getClass();
-
-			// Determine the type based on the 'read' method, not the value.getClass(), because
-			// that is unreliable for 'Integer' versus 'int'
-
-			Method method = getReadMethod( baseClass, property );
-			method = getWriteMethod( baseClass, property, method.getReturnType() );
+			Method method = getClassCache( baseClass ).getWriteMethod( baseClass, property );
 			method.invoke( base, value );
 		} catch ( Exception e ) {
 			throw new RuntimeException( "Unable to set '" + property + "' of '" + base + "' to '" + value + "'", e );
@@ -354,18 +336,6 @@ public final class ClassUtils {
 		throw new RuntimeException( clazz + " is not a number type" );
 	}
 
-	/**
-	 * When dealing with multiple isolated ClassLoaders, sometimes the object being inspected may
-	 * reference a class that is not available to any of our own ClassLoaders. Therefore
-	 * <code>Class.forName</code> will always fail. To cope with this, we
-	 * record 'alien' ClassLoaders as and when we encounter them.
-	 * <p>
-	 * This is a static Set, rather than a ThreadLocal, because we couldn't find a good place to
-	 * reset the ThreadLocal.
-	 */
-
-	/* package private */static final Set<ClassLoader>	ALIEN_CLASSLOADERS	= CollectionUtils.newHashSet();
-
 	/**
 	 * When dealing with multiple isolated ClassLoaders, sometimes the object being inspected may
 	 * reference a class that is not available to any of our own ClassLoaders. Therefore
@@ -391,8 +361,17 @@ public final class ClassUtils {
 			return;
 		}
 
-		synchronized ( ALIEN_CLASSLOADERS ) {
-			ALIEN_CLASSLOADERS.add( classLoader );
+		// Already registered? (this is called on every inspection, so check without locking)
+
+		if ( ALIEN_CLASSLOADERS.contains( classLoader ) ) {
+			return;
+		}
+
+		synchronized ( ALIEN_CLASSLOADERS_LOCK ) {
+
+			if ( !ALIEN_CLASSLOADERS.contains( classLoader ) ) {
+				ALIEN_CLASSLOADERS = ALIEN_CLASSLOADERS.add( classLoader );
+			}
 		}
 	}
 
@@ -445,57 +424,27 @@ public final class ClassUtils {
 			classNameToUse = classNameToUse.substring( 0, indexOf );
 		}
 
-		// Try given ClassLoader (may be none)
-
-		try {
-			if ( classLoader != null ) {
-				return Class.forName( classNameToUse, false, classLoader );
-			}
-		} catch ( ClassNotFoundException e ) {
-
-			// Fall through and try other ClassLoaders
-		}
-
-		// Try given Thread ClassLoader (may be none, such as on Android)
+		// Cached? Failed lookups are expensive (each ClassLoader constructs and throws a
+		// ClassNotFoundException) and common (eg. symbolic types such as 'Login Screen'), so we cache
+		// those too
 
 		ClassLoader threadClassLoader = Thread.currentThread().getContextClassLoader();
+		AlienClassLoaders alienClassLoaders = ALIEN_CLASSLOADERS;
+		ClassLookup classLookup = new ClassLookup( classNameToUse, classLoader, threadClassLoader );
+		Object cached = alienClassLoaders.getCachedLookup( classLookup );
 
-		try {
-			if ( threadClassLoader != null && !threadClassLoader.equals( classLoader ) ) {
-				return Class.forName( classNameToUse, false, threadClassLoader );
-			}
-		} catch ( ClassNotFoundException e ) {
-
-			// Fall through and try other ClassLoaders
+		if ( cached == CLASS_NOT_FOUND ) {
+			return null;
 		}
 
-		// Try our own ClassLoader (if different to threadClassLoader)
-
-		ClassLoader thisClassLoader = ClassUtils.class.getClassLoader();
-
-		try {
-			if ( !thisClassLoader.equals( threadClassLoader ) && !thisClassLoader.equals( classLoader ) ) {
-				return Class.forName( classNameToUse, false, thisClassLoader );
-			}
-		} catch ( ClassNotFoundException e ) {
-
-			// Fall through and try other ClassLoaders
+		if ( cached != null ) {
+			return (Class<?>) cached;
 		}
 
-		// Try our alien ClassLoaders
-
-		synchronized ( ALIEN_CLASSLOADERS ) {
-			for ( ClassLoader alienClassLoader : ALIEN_CLASSLOADERS ) {
-				try {
-					return Class.forName( classNameToUse, false, alienClassLoader );
-				} catch ( ClassNotFoundException e ) {
-
-					// Fall through and try other ClassLoaders
-				}
-			}
-		}
+		Class<?> clazz = uncachedNiceForName( classNameToUse, classLoader, threadClassLoader, alienClassLoaders );
+		alienClassLoaders.cacheLookup( classLookup, clazz );
 
-		return getPrimitive( classNameToUse );
+		return clazz;
 	}
 
 	public static boolean isPrimitive( String className ) {
@@ -566,29 +515,62 @@ public final class ClassUtils {
 	@SuppressWarnings( "unchecked" )
 	public static <T extends Annotation> T getOriginalAnnotation( Method method, Class<T> annotationClass ) {
 
-		Map<Class<? extends Annotation>, Annotation> cache = ORIGINAL_ANNOTATION_CACHE.get( method );
+		ConcurrentMap<Class<? extends Annotation>, Object> cache = getClassCache( method.getDeclaringClass() ).getOriginalAnnotations( method );
+		Object annotation = cache.get( annotationClass );
+
+		if ( annotation == null ) {
+
+			// Cache 'null' as NO_ANNOTATION, because ConcurrentHashMap cannot store nulls
+
+			annotation = internalGetOriginalAnnotation( method, annotationClass );
+
+			if ( annotation == null ) {
+				annotation = NO_ANNOTATION;
+			}
+
+			cache.put( annotationClass, annotation );
+		}
 
-		if ( cache == null ) {
-			cache = CollectionUtils.newWeakHashMap();
-			ORIGINAL_ANNOTATION_CACHE.put( method, cache );
+		if ( annotation == NO_ANNOTATION ) {
+			return null;
 		}
 
-		// Must synchronize, as WeakHashMap is not Thread safe and WeakHashMap:383 contains an
-		// infinite while: while (e != null && !(e.hash == h && eq(k, e.get())))
+		return (T) annotation;
+	}
+
+	/**
+	 * Gets all annotations defined on the given method, searching up the class heirarchy (and
+	 * through interfaces) in the same way as <code>getOriginalAnnotation</code>. For each annotation
+	 * type, the returned annotation is the one <code>getOriginalAnnotation</code> would return.
+	 */
+
+	public static Annotation[] getOriginalAnnotations( Method method ) {
+
+		Map<Class<? extends Annotation>, Annotation> annotations = CollectionUtils.newHashMap();
+
+		// Interfaces have the lowest precedence (and the first interface has precedence over later
+		// ones), so put them in first...
 
-		synchronized ( cache ) {
+		Class<?>[] interfaces = method.getDeclaringClass().getInterfaces();
 
-			// Use 'containsKey', because we may cache it as being 'null'
+		for ( int loop = interfaces.length - 1; loop >= 0; loop-- ) {
 
-			if ( cache.containsKey( annotationClass ) ) {
-				return (T) cache.get( annotationClass );
+			try {
+				putAnnotations( interfaces[loop].getDeclaredMethod( method.getName(), method.getParameterTypes() ).getAnnotations(), annotations );
+			} catch ( Exception e ) {
+				// Not in this interface
 			}
+		}
 
-			T annotation = internalGetOriginalAnnotation( method, annotationClass );
-			cache.put( annotationClass, annotation );
+		// ...then let the method override them
 
-			return annotation;
+		Method originalMethod = getOriginalAnnotatedMethod( method );
+
+		if ( originalMethod != null ) {
+			putAnnotations( originalMethod.getAnnotations(), annotations );
 		}
+
+		return annotations.values().toArray( new Annotation[annotations.size()] );
 	}
 
 	/**
@@ -738,43 +720,245 @@ public final class ClassUtils {
 	// Private statics
 	//
 
-	private static final Map<Method, Map<Class<? extends Annotation>, Annotation>>	ORIGINAL_ANNOTATION_CACHE	= CollectionUtils.newHashMap();
+	/**
+	 * Cache of JavaBean methods and original annotations, for Classes that are safe to hold
+	 * strongly (see <code>isCacheSafe</code>).
+	 */
+
+	private static final ConcurrentMap<Class<?>, ClassCache>										CLASS_CACHE				= new ConcurrentHashMap<Class<?>, ClassCache>();
 
 	/**
-	 * We found <code>getOriginalAnnotation</code> to be around 10x slower that just
-	 * <code>method.getAnnotation</code>, so we cache it.
+	 * Cache of JavaBean methods and original annotations, for all other Classes (eg. from a WAR,
+	 * when Metawidget is in a shared lib), grouped by their ClassLoader. ClassLoaders are held
+	 * weakly, so a redeployed WAR's entry is cleared along with its ClassLoader. Each ClassLoader's
+	 * caches are held softly: the cached Methods strongly reference their Class (and so its
+	 * ClassLoader), so holding them strongly would stop the key ever being cleared. Soft references
+	 * survive garbage collection for as long as memory allows, and are always cleared before an
+	 * OutOfMemoryError.
+	 * <p>
+	 * Must synchronize, as WeakHashMap is not Thread safe and WeakHashMap:383 contains an infinite
+	 * while: while (e != null && !(e.hash == h && eq(k, e.get())))
 	 */
 
-	private static <T extends Annotation> T internalGetOriginalAnnotation( Method method, Class<T> annotationClass ) {
+	/* package private */static final Map<ClassLoader, SoftReference<Map<Class<?>, ClassCache>>>	ALIEN_CLASS_CACHE		= CollectionUtils.newWeakHashMap();
 
-		Method methodToUse = method;
-		String name = methodToUse.getName();
-		Class<?>[] parameterTypes = methodToUse.getParameterTypes();
+	/**
+	 * Cached result of a <code>getOriginalAnnotation</code> lookup that found no annotation.
+	 */
 
-		// If no annotations are defined at all, traverse up the hierarchy
+	private static final Object																		NO_ANNOTATION			= new Object();
 
-		while ( methodToUse.getAnnotations().length == 0 ) {
+	/**
+	 * Registry of 'alien' ClassLoaders (see <code>registerAlienClassLoader</code>).
+	 * <p>
+	 * The registry is copy-on-write, so <code>niceForName</code> can iterate it without locking.
+	 * Registering a new ClassLoader replaces it wholesale, which also discards any cached lookups
+	 * that may now resolve differently. ClassLoaders are held weakly, so that registering does not
+	 * stop them being garbage collected (eg. on redeploy).
+	 * <p>
+	 * This is a static, rather than a ThreadLocal, because we couldn't find a good place to reset
+	 * the ThreadLocal.
+	 */
 
-			Class<?> superclass = methodToUse.getDeclaringClass().getSuperclass();
-			methodToUse = null;
+	private static volatile AlienClassLoaders														ALIEN_CLASSLOADERS		= new AlienClassLoaders();
 
-			while ( superclass != null ) {
+	private static final Object																		ALIEN_CLASSLOADERS_LOCK	= new Object();
 
-				try {
-					methodToUse = superclass.getDeclaredMethod( name, parameterTypes );
-					break;
-				} catch ( Exception e ) {
-					// Not in this superclass, but may be in super-superclass
-				}
+	/**
+	 * Maximum number of <code>niceForName</code> lookups to cache. Beyond this, the eldest are
+	 * evicted.
+	 */
 
-				superclass = superclass.getSuperclass();
+	private static final int																		MAXIMUM_CACHED_LOOKUPS	= 2000;
+
+	/**
+	 * Cached result of a <code>niceForName</code> lookup that found no class.
+	 */
+
+	private static final Object																		CLASS_NOT_FOUND			= new Object();
+
+	/**
+	 * Unregister all alien ClassLoaders. For unit tests.
+	 */
+
+	/* package private */static void unregisterAllAlienClassLoaders() {
+
+		synchronized ( ALIEN_CLASSLOADERS_LOCK ) {
+			ALIEN_CLASSLOADERS = new AlienClassLoaders();
+		}
+	}
+
+	/**
+	 * Try the given ClassLoader (if any), then the Thread's ClassLoader, then ClassUtils'
+	 * ClassLoader, then the alien ClassLoaders.
+	 */
+
+	private static Class<?> uncachedNiceForName( String className, ClassLoader classLoader, ClassLoader threadClassLoader, AlienClassLoaders alienClassLoaders ) {
+
+		// Try given ClassLoader (may be none)
+
+		try {
+			if ( classLoader != null ) {
+				return Class.forName( className, false, classLoader );
 			}
+		} catch ( ClassNotFoundException e ) {
 
-			if ( methodToUse == null ) {
-				break;
+			// Fall through and try other ClassLoaders
+		}
+
+		// Try given Thread ClassLoader (may be none, such as on Android)
+
+		try {
+			if ( threadClassLoader != null && !threadClassLoader.equals( classLoader ) ) {
+				return Class.forName( className, false, threadClassLoader );
+			}
+		} catch ( ClassNotFoundException e ) {
+
+			// Fall through and try other ClassLoaders
+		}
+
+		// Try our own ClassLoader (if different to threadClassLoader)
+
+		ClassLoader thisClassLoader = ClassUtils.class.getClassLoader();
+
+		try {
+			if ( !thisClassLoader.equals( threadClassLoader ) && !thisClassLoader.equals( classLoader ) ) {
+				return Class.forName( className, false, thisClassLoader );
+			}
+		} catch ( ClassNotFoundException e ) {
+
+			// Fall through and try other ClassLoaders
+		}
+
+		// Try our alien ClassLoaders
+
+		for ( WeakReference<ClassLoader> alienClassLoaderReference : alienClassLoaders.getClassLoaders() ) {
+
+			ClassLoader alienClassLoader = alienClassLoaderReference.get();
+
+			if ( alienClassLoader == null ) {
+				continue;
+			}
+
+			try {
+				return Class.forName( className, false, alienClassLoader );
+			} catch ( ClassNotFoundException e ) {
+
+				// Fall through and try other ClassLoaders
+			}
+		}
+
+		return getPrimitive( className );
+	}
+
+	/**
+	 * @return the cache for the given Class, creating it if necessary
+	 */
+
+	private static ClassCache getClassCache( Class<?> clazz ) {
+
+		ClassCache classCache = CLASS_CACHE.get( clazz );
+
+		if ( classCache != null ) {
+			return classCache;
+		}
+
+		if ( isCacheSafe( clazz ) ) {
+			classCache = new ClassCache();
+			ClassCache existingClassCache = CLASS_CACHE.putIfAbsent( clazz, classCache );
+
+			if ( existingClassCache != null ) {
+				return existingClassCache;
+			}
+
+			return classCache;
+		}
+
+		synchronized ( ALIEN_CLASS_CACHE ) {
+
+			ClassLoader classLoader = clazz.getClassLoader();
+			SoftReference<Map<Class<?>, ClassCache>> reference = ALIEN_CLASS_CACHE.get( classLoader );
+			Map<Class<?>, ClassCache> classCaches = null;
+
+			if ( reference != null ) {
+				classCaches = reference.get();
+			}
+
+			if ( classCaches == null ) {
+				classCaches = CollectionUtils.newHashMap();
+				ALIEN_CLASS_CACHE.put( classLoader, new SoftReference<Map<Class<?>, ClassCache>>( classCaches ) );
+			}
+
+			classCache = classCaches.get( clazz );
+
+			if ( classCache == null ) {
+				classCache = new ClassCache();
+				classCaches.put( clazz, classCache );
+			}
+
+			return classCache;
+		}
+	}
+
+	/**
+	 * Whether the given Class was loaded by our ClassLoader, or one of its parents. Such Classes
+	 * cannot be garbage collected before ClassUtils itself, so can safely be cached strongly.
+	 */
+
+	private static boolean isCacheSafe( Class<?> clazz ) {
+
+		ClassLoader classLoader = clazz.getClassLoader();
+
+		if ( classLoader == null ) {
+			return true;
+		}
+
+		for ( ClassLoader ourClassLoader = ClassUtils.class.getClassLoader(); ourClassLoader != null; ourClassLoader = ourClassLoader.getParent() ) {
+
+			if ( classLoader == ourClassLoader ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static Method uncachedGetReadMethod( Class<?> clazz, String property ) {
+
+		String propertyUppercased = StringUtils.capitalize( property );
+
+		try {
+			return clazz.getMethod( JAVABEAN_GET_PREFIX + propertyUppercased );
+		} catch ( Exception e1 ) {
+			try {
+				Method method = clazz.getMethod( JAVABEAN_IS_PREFIX + propertyUppercased );
+
+				// As per section 8.3.2 (Boolean properties) of The JavaBeans API specification,
+				// 'is' only applies to boolean (little 'b')
+
+				if ( boolean.class.equals( method.getReturnType() ) ) {
+					return method;
+				}
+
+			} catch ( Exception e2 ) {
+				// Fall through
 			}
 		}
 
+		throw new RuntimeException( "No such method " + JAVABEAN_GET_PREFIX + propertyUppercased + " (or boolean " + JAVABEAN_IS_PREFIX + propertyUppercased + ") on " + clazz );
+	}
+
+	/**
+	 * We found <code>getOriginalAnnotation</code> to be around 10x slower that just
+	 * <code>method.getAnnotation</code>, so we cache it.
+	 */
+
+	private static <T extends Annotation> T internalGetOriginalAnnotation( Method method, Class<T> annotationClass ) {
+
+		Method methodToUse = getOriginalAnnotatedMethod( method );
+		String name = method.getName();
+		Class<?>[] parameterTypes = method.getParameterTypes();
+
 		// If this method has the annotation, return it
 
 		if ( methodToUse != null ) {
@@ -806,6 +990,51 @@ public final class ClassUtils {
 		return null;
 	}
 
+	/**
+	 * If no annotations are defined at all on the given method, traverses up the class heirarchy to
+	 * the first original version of the method that does define some.
+	 *
+	 * @return the method that defines annotations, or null if none do
+	 */
+
+	private static Method getOriginalAnnotatedMethod( Method method ) {
+
+		Method methodToUse = method;
+		String name = methodToUse.getName();
+		Class<?>[] parameterTypes = methodToUse.getParameterTypes();
+
+		while ( methodToUse.getAnnotations().length == 0 ) {
+
+			Class<?> superclass = methodToUse.getDeclaringClass().getSuperclass();
+			methodToUse = null;
+
+			while ( superclass != null ) {
+
+				try {
+					methodToUse = superclass.getDeclaredMethod( name, parameterTypes );
+					break;
+				} catch ( Exception e ) {
+					// Not in this superclass, but may be in super-superclass
+				}
+
+				superclass = superclass.getSuperclass();
+			}
+
+			if ( methodToUse == null ) {
+				break;
+			}
+		}
+
+		return methodToUse;
+	}
+
+	private static void putAnnotations( Annotation[] annotations, Map<Class<? extends Annotation>, Annotation> map ) {
+
+		for ( Annotation annotation : annotations ) {
+			map.put( annotation.annotationType(), annotation );
+		}
+	}
+
 	private static Class<?> getPrimitive( String className ) {
 
 		if ( "byte".equals( className ) ) {
@@ -851,4 +1080,344 @@ public final class ClassUtils {
 
 		// Can never be called
 	}
+
+	//
+	// Inner classes
+	//
+
+	/**
+	 * Cached lookups for a single Class.
+	 */
+
+	private static class ClassCache {
+
+		//
+		// Private members
+		//
+
+		/**
+		 * Read methods keyed by property name. Values are either the Method, or the exception thrown
+		 * by a failed lookup.
+		 */
+
+		private final ConcurrentMap<String, Object>												mReadMethods			= new ConcurrentHashMap<String, Object>();
+
+		/**
+		 * Write methods keyed by property name, as per <code>mReadMethods</code>.
+		 */
+
+		private final ConcurrentMap<String, Object>												mWriteMethods			= new ConcurrentHashMap<String, Object>();
+
+		private final ConcurrentMap<Method, ConcurrentMap<Class<? extends Annotation>, Object>>	mOriginalAnnotations	= new ConcurrentHashMap<Method, ConcurrentMap<Class<? extends Annotation>, Object>>();
+
+		//
+		// Public methods
+		//
+
+		public Method getReadMethod( Class<?> clazz, String property ) {
+
+			Object readMethod = mReadMethods.get( property );
+
+			if ( readMethod == null ) {
+				try {
+					readMethod = uncachedGetReadMethod( clazz, property );
+				} catch ( RuntimeException e ) {
+					readMethod = e;
+				}
+
+				mReadMethods.put( property, readMethod );
+			}
+
+			return toMethod( readMethod );
+		}
+
+		/**
+		 * Lookup the write method that matches the type of the read method. Determine the type
+		 * based on the read method, not the value.getClass(), because that is unreliable for
+		 * 'Integer' versus 'int'.
+		 */
+
+		public Method getWriteMethod( Class<?> clazz, String property ) {
+
+			Object writeMethod = mWriteMethods.get( property );
+
+			if ( writeMethod == null ) {
+				try {
+					writeMethod = ClassUtils.getWriteMethod( clazz, property, getReadMethod( clazz, property ).getReturnType() );
+				} catch ( RuntimeException e ) {
+					writeMethod = e;
+				}
+
+				mWriteMethods.put( property, writeMethod );
+			}
+
+			return toMethod( writeMethod );
+		}
+
+		public ConcurrentMap<Class<? extends Annotation>, Object> getOriginalAnnotations( Method method ) {
+
+			ConcurrentMap<Class<? extends Annotation>, Object> originalAnnotations = mOriginalAnnotations.get( method );
+
+			if ( originalAnnotations == null ) {
+				originalAnnotations = new ConcurrentHashMap<Class<? extends Annotation>, Object>();
+				ConcurrentMap<Class<? extends Annotation>, Object> existingOriginalAnnotations = mOriginalAnnotations.putIfAbsent( method, originalAnnotations );
+
+				if ( existingOriginalAnnotations != null ) {
+					return existingOriginalAnnotations;
+				}
+			}
+
+			return originalAnnotations;
+		}
+
+		//
+		// Private methods
+		//
+
+		private Method toMethod( Object method ) {
+
+			if ( method instanceof Method ) {
+				return (Method) method;
+			}
+
+			// (wrap, so that each failure gets its own stack trace)
+
+			RuntimeException e = (RuntimeException) method;
+			throw new RuntimeException( e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Immutable snapshot of the registered alien ClassLoaders, along with a cache of the
+	 * <code>niceForName</code> lookups made while it was current.
+	 */
+
+	private static class AlienClassLoaders {
+
+		//
+		// Private members
+		//
+
+		private final List<WeakReference<ClassLoader>>		mClassLoaders;
+
+		private final ConcurrentMap<ClassLookup, Object>	mCachedLookups	= CollectionUtils.newBoundedConcurrentHashMap( MAXIMUM_CACHED_LOOKUPS );
+
+		//
+		// Constructors
+		//
+
+		public AlienClassLoaders() {
+
+			mClassLoaders = Collections.emptyList();
+		}
+
+		private AlienClassLoaders( List<WeakReference<ClassLoader>> classLoaders ) {
+
+			mClassLoaders = Collections.unmodifiableList( classLoaders );
+		}
+
+		//
+		// Public methods
+		//
+
+		public List<WeakReference<ClassLoader>> getClassLoaders() {
+
+			return mClassLoaders;
+		}
+
+		public boolean contains( ClassLoader classLoader ) {
+
+			for ( WeakReference<ClassLoader> reference : mClassLoaders ) {
+
+				if ( classLoader.equals( reference.get() ) ) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		/**
+		 * @return a new AlienClassLoaders containing the given ClassLoader, but no cached lookups.
+		 *         ClassLoaders that have since been garbage collected are dropped
+		 */
+
+		public AlienClassLoaders add( ClassLoader classLoader ) {
+
+			List<WeakReference<ClassLoader>> classLoaders = CollectionUtils.newArrayList( mClassLoaders.size() + 1 );
+
+			for ( WeakReference<ClassLoader> reference : mClassLoaders ) {
+
+				if ( reference.get() != null ) {
+					classLoaders.add( reference );
+				}
+			}
+
+			classLoaders.add( new WeakReference<ClassLoader>( classLoader ) );
+
+			return new AlienClassLoaders( classLoaders );
+		}
+
+		/**
+		 * @return the cached Class, <code>CLASS_NOT_FOUND</code>, or null if not cached
+		 */
+
+		public Object getCachedLookup( ClassLookup classLookup ) {
+
+			Object cached = mCachedLookups.get( classLookup );
+
+			if ( cached instanceof WeakReference<?> ) {
+				return ( (WeakReference<?>) cached ).get();
+			}
+
+			return cached;
+		}
+
+		public void cacheLookup( ClassLookup classLookup, Class<?> clazz ) {
+
+			// Hold Classes weakly, as they would otherwise keep their ClassLoader alive
+
+			Object toCache = CLASS_NOT_FOUND;
+
+			if ( clazz != null ) {
+				toCache = new WeakReference<Class<?>>( clazz );
+			}
+
+			mCachedLookups.put( classLookup.weakly(), toCache );
+		}
+	}
+
+	/**
+	 * Key for a cached <code>niceForName</code> lookup. The result of a lookup depends on the class
+	 * name, the given ClassLoader and the Thread's ClassLoader (as well as the alien ClassLoaders,
+	 * but each <code>AlienClassLoaders</code> has its own cache).
+	 * <p>
+	 * Keys used to query the cache reference the ClassLoaders directly, as they are short-lived.
+	 * Keys stored in the cache (see <code>weakly</code>) reference them weakly, so as not to stop
+	 * them being garbage collected.
+	 */
+
+	private static class ClassLookup {
+
+		//
+		// Private members
+		//
+
+		private final String	mClassName;
+
+		/**
+		 * ClassLoader, WeakReference to a ClassLoader, or null.
+		 */
+
+		private final Object	mClassLoader;
+
+		/**
+		 * ClassLoader, WeakReference to a ClassLoader, or null.
+		 */
+
+		private final Object	mThreadClassLoader;
+
+		private final int		mHashCode;
+
+		//
+		// Constructors
+		//
+
+		public ClassLookup( String className, ClassLoader classLoader, ClassLoader threadClassLoader ) {
+
+			mClassName = className;
+			mClassLoader = classLoader;
+			mThreadClassLoader = threadClassLoader;
+
+			int hashCode = className.hashCode();
+			hashCode = 31 * hashCode + System.identityHashCode( classLoader );
+			hashCode = 31 * hashCode + System.identityHashCode( threadClassLoader );
+			mHashCode = hashCode;
+		}
+
+		private ClassLookup( String className, Object classLoader, Object threadClassLoader, int hashCode ) {
+
+			mClassName = className;
+			mClassLoader = classLoader;
+			mThreadClassLoader = threadClassLoader;
+			mHashCode = hashCode;
+		}
+
+		//
+		// Public methods
+		//
+
+		/**
+		 * @return an equivalent ClassLookup that references its ClassLoaders weakly
+		 */
+
+		public ClassLookup weakly() {
+
+			return new ClassLookup( mClassName, weakly( mClassLoader ), weakly( mThreadClassLoader ), mHashCode );
+		}
+
+		@Override
+		public boolean equals( Object that ) {
+
+			if ( !( that instanceof ClassLookup ) ) {
+				return false;
+			}
+
+			ClassLookup thatClassLookup = (ClassLookup) that;
+
+			if ( mHashCode != thatClassLookup.mHashCode ) {
+				return false;
+			}
+
+			if ( !mClassName.equals( thatClassLookup.mClassName ) ) {
+				return false;
+			}
+
+			if ( strongly( mClassLoader ) != strongly( thatClassLookup.mClassLoader ) ) {
+				return false;
+			}
+
+			return ( strongly( mThreadClassLoader ) == strongly( thatClassLookup.mThreadClassLoader ) );
+		}
+
+		@Override
+		public int hashCode() {
+
+			return mHashCode;
+		}
+
+		//
+		// Private methods
+		//
+
+		private static Object weakly( Object classLoader ) {
+
+			if ( classLoader == null ) {
+				return null;
+			}
+
+			return new WeakReference<Object>( classLoader );
+		}
+
+		/**
+		 * @return the referenced ClassLoader. If it has been garbage collected, returns the
+		 *         (cleared) WeakReference itself, so that it can never be equal to another
+		 *         ClassLookup
+		 */
+
+		private static Object strongly( Object classLoader ) {
+
+			if ( !( classLoader instanceof WeakReference<?> ) ) {
+				return classLoader;
+			}
+
+			Object referent = ( (WeakReference<?>) classLoader ).get();
+
+			if ( referent == null ) {
+				return classLoader;
+			}
+
+			return referent;
+		}
+	}
 }
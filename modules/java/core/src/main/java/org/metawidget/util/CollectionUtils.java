@@ -21,10 +21,14 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -195,6 +199,92 @@ public final class CollectionUtils {
 		return new LinkedHashMap<K, V>( map );
 	}
 
+	/**
+	 * Type-safe initializer for a Map that, once it grows beyond the given maximum size, evicts its
+	 * least recently accessed entry.
+	 * <p>
+	 * Like other Maps returned by <code>CollectionUtils</code>, the returned Map is not
+	 * thread-safe. Note that, because it is access-ordered, even <code>get</code> modifies it.
+	 */
+
+	@SuppressWarnings( "serial" )
+	public static <K, V> LinkedHashMap<K, V> newLruHashMap( final int maximumSize ) {
+
+		return new LinkedHashMap<K, V>( 16, 0.75f, true ) {
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<K, V> eldest ) {
+
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Type-safe initializer for a thread-safe Map that, once it grows beyond the given maximum
+	 * size, evicts its eldest (ie. least recently inserted) entries.
+	 * <p>
+	 * Suitable for caches that are read by many Threads. Unlike <code>newLruHashMap</code>, reads
+	 * do not modify the Map, so need no locking. Only <code>put</code> and
+	 * <code>putIfAbsent</code> are tracked for eviction. Concurrent inserts may briefly take the Map
+	 * beyond its maximum size.
+	 */
+
+	@SuppressWarnings( "serial" )
+	public static <K, V> ConcurrentMap<K, V> newBoundedConcurrentHashMap( final int maximumSize ) {
+
+		return new ConcurrentHashMap<K, V>() {
+
+			private final Queue<K>	mEvictionQueue	= new ConcurrentLinkedQueue<K>();
+
+			@Override
+			public V put( K key, V value ) {
+
+				V previous = super.put( key, value );
+
+				if ( previous == null ) {
+					evictEldest( key );
+				}
+
+				return previous;
+			}
+
+			@Override
+			public V putIfAbsent( K key, V value ) {
+
+				V previous = super.putIfAbsent( key, value );
+
+				if ( previous == null ) {
+					evictEldest( key );
+				}
+
+				return previous;
+			}
+
+			@Override
+			public void clear() {
+
+				super.clear();
+				mEvictionQueue.clear();
+			}
+
+			private void evictEldest( K added ) {
+
+				mEvictionQueue.add( added );
+
+				while ( size() > maximumSize ) {
+					K eldest = mEvictionQueue.poll();
+
+					if ( eldest == null ) {
+						break;
+					}
+
+					remove( eldest );
+				}
+			}
+		};
+	}
+
 	/**
 	 * Type-safe initializer.
 	 */
@@ -384,32 +384,70 @@ public final class XmlUtils {
 		}
 
 		try {
-			synchronized ( DOCUMENT_BUILDER ) {
-				return DOCUMENT_BUILDER.parse( new InputSource( new StringReader( xml ) ) );
+			if ( THREAD_LOCAL_DOCUMENT_BUILDER == null ) {
+				synchronized ( DOCUMENT_BUILDER ) {
+					return DOCUMENT_BUILDER.parse( new InputSource( new StringReader( xml ) ) );
+				}
 			}
+
+			return THREAD_LOCAL_DOCUMENT_BUILDER.get().parse( new InputSource( new StringReader( xml ) ) );
 		} catch ( Exception e ) {
 			throw new RuntimeException( e );
 		}
 	}
 
 	/**
-	 * Creates a new Document built from a shared, no-external-connection-making DocumentBuilder
-	 * created by a namespace-aware, comment-ignoring, whitespace-ignoring DocumentBuilderFactory.
+	 * Creates a new Document built from a no-external-connection-making DocumentBuilder created by
+	 * a namespace-aware, comment-ignoring, whitespace-ignoring DocumentBuilderFactory.
+	 * <p>
+	 * By default, each Thread uses its own DocumentBuilder, so that DOM creation does not serialize
+	 * on a single, global lock. Platforms that prefer a single, shared DocumentBuilder can set the
+	 * System property <code>org.metawidget.util.XmlUtils.sharedDocumentBuilder</code> to
+	 * <code>true</code>.
 	 */
 
 	public static Document newDocument() {
 
-		synchronized ( DOCUMENT_BUILDER ) {
-			return DOCUMENT_BUILDER.newDocument();
+		if ( THREAD_LOCAL_DOCUMENT_BUILDER == null ) {
+			synchronized ( DOCUMENT_BUILDER ) {
+				return DOCUMENT_BUILDER.newDocument();
+			}
+		}
+
+		return THREAD_LOCAL_DOCUMENT_BUILDER.get().newDocument();
+	}
+
+	/**
+	 * Releases the current Thread's DocumentBuilder (if any). It will be recreated if the Thread
+	 * uses <code>XmlUtils</code> again.
+	 * <p>
+	 * Each DocumentBuilder holds a reference to Metawidget's classes and, through them, to their
+	 * ClassLoader. In environments with pooled Threads that outlive the application (such as
+	 * application servers) this pins the application's ClassLoader after undeploy. Such
+	 * applications should call this method at the end of each request (Java Server Faces
+	 * applications do so automatically, see <code>DocumentBuilderPhaseListener</code>). Otherwise
+	 * call it from, for example, a <code>ServletRequestListener</code> or <code>Filter</code>, or set
+	 * <code>org.metawidget.util.XmlUtils.sharedDocumentBuilder</code> (see
+	 * <code>newDocument</code>).
+	 */
+
+	public static void releaseDocumentBuilder() {
+
+		if ( THREAD_LOCAL_DOCUMENT_BUILDER != null ) {
+			THREAD_LOCAL_DOCUMENT_BUILDER.remove();
 		}
 	}
 
 	public static Document parse( InputStream stream )
 		throws IOException, SAXException {
 
-		synchronized ( DOCUMENT_BUILDER ) {
-			return DOCUMENT_BUILDER.parse( stream );
+		if ( THREAD_LOCAL_DOCUMENT_BUILDER == null ) {
+			synchronized ( DOCUMENT_BUILDER ) {
+				return DOCUMENT_BUILDER.parse( stream );
+			}
 		}
+
+		return THREAD_LOCAL_DOCUMENT_BUILDER.get().parse( stream );
 	}
 
 	/**
@@ -482,16 +520,38 @@ public final class XmlUtils {
 			master.setAttribute( attributeToAddName, attributeToAddValue );
 		}
 
-		// Combine child elements: for each child...
+		// Combine child elements: index the master's children by name once up front, rather than
+		// searching them for every child being added...
 
 		NodeList childrenToAdd = toAdd.getChildNodes();
-		NodeList masterChildren = master.getChildNodes();
+		Map<String, Element> masterChildrenByName = null;
+
+		for ( Node nodeMasterChild = master.getFirstChild(); nodeMasterChild != null; nodeMasterChild = nodeMasterChild.getNextSibling() ) {
+
+			if ( !( nodeMasterChild instanceof Element ) ) {
+				continue;
+			}
+
+			if ( masterChildrenByName == null ) {
+				masterChildrenByName = CollectionUtils.newHashMap();
+			}
+
+			// (first match wins)
+
+			String masterChildName = ( (Element) nodeMasterChild ).getAttribute( topLevelAttributeToCombineOn );
+
+			if ( !masterChildrenByName.containsKey( masterChildName ) ) {
+				masterChildrenByName.put( masterChildName, (Element) nodeMasterChild );
+			}
+		}
+
+		// ...then for each child...
 
 		Set<String> childNamesAdded = CollectionUtils.newHashSet();
 
 		Node nodeLastMasterCombinePoint = null;
 
-		outerLoop: for ( int addLoop = 0, addLength = childrenToAdd.getLength(); addLoop < addLength; addLoop++ ) {
+		for ( int addLoop = 0, addLength = childrenToAdd.getLength(); addLoop < addLength; addLoop++ ) {
 			Node nodeChildToAdd = childrenToAdd.item( addLoop );
 
 			if ( !( nodeChildToAdd instanceof Element ) ) {
@@ -510,38 +570,35 @@ public final class XmlUtils {
 			}
 
 			// ...find one with the same @name in the 'master'...
+			//
+			// Note: children added during this loop need not be indexed, as childNamesAdded
+			// guarantees no later child can match them
 
-			for ( int masterLoop = 0, masterLength = masterChildren.getLength(); masterLoop < masterLength; masterLoop++ ) {
-				Node nodeMasterChild = masterChildren.item( masterLoop );
+			Element masterChild = null;
 
-				if ( !( nodeMasterChild instanceof Element ) ) {
-					continue;
-				}
-
-				Element masterChild = (Element) nodeMasterChild;
-				String masterChildName = masterChild.getAttribute( topLevelAttributeToCombineOn );
+			if ( masterChildrenByName != null ) {
+				masterChild = masterChildrenByName.get( childToAddName );
+			}
 
-				if ( !childToAddName.equals( masterChildName ) ) {
-					continue;
-				}
+			if ( masterChild != null ) {
 
 				String nodeNameInMaster = masterChild.getNodeName();
 				String nodeNameInAdd = childToAdd.getNodeName();
 
 				if ( !nodeNameInMaster.equals( nodeNameInAdd ) ) {
-					throw new RuntimeException( "Matching elements named '" + masterChildName + "', but existing one is a '" + nodeNameInMaster + "' whilst new one is a '" + nodeNameInAdd + "'" );
+					throw new RuntimeException( "Matching elements named '" + childToAddName + "', but existing one is a '" + nodeNameInMaster + "' whilst new one is a '" + nodeNameInAdd + "'" );
 				}
 
 				// ...and combine them
 
-				if ( masterLoop == masterLength - 1 ) {
+				if ( masterChild.getNextSibling() == null ) {
 					nodeLastMasterCombinePoint = null;
 				} else {
 					nodeLastMasterCombinePoint = masterChild;
 				}
 
 				combineElements( masterChild, childToAdd, childAttributeToCombineOn, childAttributeToCombineOn );
-				continue outerLoop;
+				continue;
 			}
 
 			// If no such child exists, add one either immediately after the
@@ -1443,6 +1500,126 @@ public final class XmlUtils {
 		}
 	}
 
+	/**
+	 * Immutable snapshot of an Element, its attributes and its child Elements.
+	 * <p>
+	 * DOMs are not safe to read (let alone copy) concurrently, so clients that share parts of a
+	 * DOM between threads (such as caches of inspection results) can snapshot them into an
+	 * <code>ImmutableElement</code> and copy them back out into a new DOM as needed. Inspection
+	 * results contain no text content, so only Elements and attributes are captured.
+	 */
+
+	public static final class ImmutableElement {
+
+		//
+		// Private members
+		//
+
+		private final String				mNamespaceUri;
+
+		private final String				mName;
+
+		/**
+		 * Attributes, as consecutive triples of namespace URI, qualified name and value.
+		 */
+
+		private final String[]				mAttributes;
+
+		private final ImmutableElement[]	mChildren;
+
+		//
+		// Constructor
+		//
+
+		public ImmutableElement( Element element ) {
+
+			mNamespaceUri = element.getNamespaceURI();
+			mName = element.getNodeName();
+
+			NamedNodeMap attributes = element.getAttributes();
+			int attributesLength = attributes.getLength();
+			mAttributes = new String[attributesLength * 3];
+
+			for ( int loop = 0; loop < attributesLength; loop++ ) {
+				Node attribute = attributes.item( loop );
+				mAttributes[loop * 3] = attribute.getNamespaceURI();
+				mAttributes[loop * 3 + 1] = attribute.getNodeName();
+				mAttributes[loop * 3 + 2] = attribute.getNodeValue();
+			}
+
+			int childrenLength = 0;
+
+			for ( Node child = element.getFirstChild(); child != null; child = child.getNextSibling() ) {
+				if ( child instanceof Element ) {
+					childrenLength++;
+				}
+			}
+
+			mChildren = new ImmutableElement[childrenLength];
+			int childIndex = 0;
+
+			for ( Node child = element.getFirstChild(); child != null; child = child.getNextSibling() ) {
+				if ( child instanceof Element ) {
+					mChildren[childIndex++] = new ImmutableElement( (Element) child );
+				}
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		/**
+		 * @return true if this element has neither attributes nor child Elements
+		 */
+
+		public boolean isEmpty() {
+
+			return ( mAttributes.length == 0 && mChildren.length == 0 );
+		}
+
+		/**
+		 * Copy this element into a new Document, as its document element.
+		 */
+
+		public Document toDocument() {
+
+			Document document = newDocument();
+			document.appendChild( toElement( document ) );
+
+			return document;
+		}
+
+		/**
+		 * Copy this element's attributes and child Elements onto the given Element.
+		 */
+
+		public void copyTo( Element element ) {
+
+			for ( int loop = 0, length = mAttributes.length; loop < length; loop += 3 ) {
+				element.setAttributeNS( mAttributes[loop], mAttributes[loop + 1], mAttributes[loop + 2] );
+			}
+
+			Document document = element.getOwnerDocument();
+
+			for ( ImmutableElement child : mChildren ) {
+				element.appendChild( child.toElement( document ) );
+			}
+		}
+
+		//
+		// Private methods
+		//
+
+		private Element toElement( Document document ) {
+
+			Element element = document.createElementNS( mNamespaceUri, mName );
+			copyTo( element );
+
+			return element;
+		}
+	}
+
 	//
 	// Private statics
 	//
@@ -1582,6 +1759,28 @@ public final class XmlUtils {
 		return builder.toString();
 	}
 
+	/**
+	 * Creates a new, no-external-connection-making DocumentBuilder.
+	 * <p>
+	 * DocumentBuilderFactory is not guaranteed to be thread-safe, so access to it is synchronized.
+	 */
+
+	private static DocumentBuilder newDocumentBuilder() {
+
+		try {
+			DocumentBuilder documentBuilder;
+
+			synchronized ( DOCUMENT_BUILDER_FACTORY ) {
+				documentBuilder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+			}
+
+			documentBuilder.setEntityResolver( new NopEntityResolver() );
+			return documentBuilder;
+		} catch ( ParserConfigurationException e ) {
+			throw new RuntimeException( e );
+		}
+	}
+
 	private static void indent( StringBuilder builder, int indent ) {
 
 		for ( int loop = 0; loop < indent; loop++ ) {
@@ -1638,18 +1837,58 @@ public final class XmlUtils {
 	// Private statics
 	//
 
-	private static final DocumentBuilder	DOCUMENT_BUILDER;
+	/**
+	 * System property to force all Threads to share a single DocumentBuilder (under a lock), as
+	 * opposed to each Thread using its own. Useful for platforms where ThreadLocals are expensive or
+	 * unavailable.
+	 */
+
+	private static final String							SHARED_DOCUMENT_BUILDER_PROPERTY	= XmlUtils.class.getName() + ".sharedDocumentBuilder";
+
+	private static final DocumentBuilderFactory			DOCUMENT_BUILDER_FACTORY;
+
+	/**
+	 * Shared DocumentBuilder, used (under a lock) if <code>THREAD_LOCAL_DOCUMENT_BUILDER</code> is
+	 * null.
+	 */
+
+	private static final DocumentBuilder				DOCUMENT_BUILDER;
+
+	/**
+	 * Per-Thread DocumentBuilders. DocumentBuilders are not thread-safe, but are reusable, so
+	 * confining one to each Thread avoids both locking and re-creation. Pooled Threads should
+	 * release theirs using <code>releaseDocumentBuilder</code>.
+	 */
+
+	private static final ThreadLocal<DocumentBuilder>	THREAD_LOCAL_DOCUMENT_BUILDER;
 
 	static {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setNamespaceAware( true );
-		factory.setIgnoringComments( true );
-		factory.setIgnoringElementContentWhitespace( true );
+		DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+		DOCUMENT_BUILDER_FACTORY.setNamespaceAware( true );
+		DOCUMENT_BUILDER_FACTORY.setIgnoringComments( true );
+		DOCUMENT_BUILDER_FACTORY.setIgnoringElementContentWhitespace( true );
+
+		boolean sharedDocumentBuilder;
+
 		try {
-			DOCUMENT_BUILDER = factory.newDocumentBuilder();
-			DOCUMENT_BUILDER.setEntityResolver( new NopEntityResolver() );
-		} catch ( ParserConfigurationException e ) {
-			throw new RuntimeException( e );
+			sharedDocumentBuilder = Boolean.getBoolean( SHARED_DOCUMENT_BUILDER_PROPERTY );
+		} catch ( SecurityException e ) {
+			sharedDocumentBuilder = false;
+		}
+
+		if ( sharedDocumentBuilder ) {
+			DOCUMENT_BUILDER = newDocumentBuilder();
+			THREAD_LOCAL_DOCUMENT_BUILDER = null;
+		} else {
+			DOCUMENT_BUILDER = null;
+			THREAD_LOCAL_DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+
+				@Override
+				protected DocumentBuilder initialValue() {
+
+					return newDocumentBuilder();
+				}
+			};
 		}
 	}
 
@@ -14,9 +14,12 @@ package org.metawidget.config.impl;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import javax.swing.SwingConstants;
@@ -30,6 +33,7 @@ import org.metawidget.inspector.composite.CompositeInspector;
 import org.metawidget.inspector.iface.Inspector;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.inspector.xml.XmlInspector;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.IOUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtilsTest;
@@ -427,6 +431,113 @@ public class ConfigReaderTest
 		}
 	}
 
+	public void testConcurrentConfigure()
+		throws Exception {
+
+		final AtomicInteger openResourceCount = new AtomicInteger();
+		final ConfigReader configReader = new BaseConfigReader( new SimpleResourceResolver() {
+
+			@Override
+			public InputStream openResource( String resource ) {
+
+				openResourceCount.incrementAndGet();
+				return super.openResource( resource );
+			}
+		} );
+
+		final Set<Inspector> inspectors = Collections.synchronizedSet( CollectionUtils.<Inspector> newHashSet() );
+		final List<Throwable> failures = Collections.synchronizedList( CollectionUtils.<Throwable> newArrayList() );
+		Thread[] threads = new Thread[8];
+
+		for ( int loop = 0; loop < threads.length; loop++ ) {
+			threads[loop] = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						for ( int configureLoop = 0; configureLoop < 100; configureLoop++ ) {
+							inspectors.add( (Inspector) configReader.configure( "org/metawidget/config/metawidget-test-logging.xml", Inspector.class ) );
+						}
+					} catch ( Throwable t ) {
+						failures.add( t );
+					}
+				}
+			};
+			threads[loop].start();
+		}
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertTrue( failures.toString(), failures.isEmpty() );
+
+		// Only parsed once, and only ever one instance of the immutable
+
+		assertEquals( 1, openResourceCount.get() );
+		assertEquals( 1, inspectors.size() );
+		assertTrue( inspectors.iterator().next() instanceof CompositeInspector );
+	}
+
+	public void testConfigPlan() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\"	xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"	xsi:schemaLocation=\"http://metawidget.org http://metawidget.org/xsd/metawidget-1.0.xsd\" version=\"1.0\">";
+		xml += "<planBean xmlns=\"java:org.metawidget.config.impl.ConfigReaderTest\">";
+		xml += "<name><string>parent</string></name>";
+		xml += "<stringArray><array><string>foo</string><string>bar</string></array></stringArray>";
+		xml += "<list><list><instanceOf>java.util.Date</instanceOf><int>3</int></list></list>";
+		xml += "<inspector><propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\" config=\"org.metawidget.inspector.impl.BaseObjectInspectorConfig\"/></inspector>";
+		xml += "<child><planBean><name><string>child</string></name></planBean></child>";
+		xml += "</planBean>";
+		xml += "</metawidget>";
+
+		final byte[] bytes = xml.getBytes();
+		ConfigReader configReader = new BaseConfigReader( new SimpleResourceResolver() {
+
+			@Override
+			public InputStream openResource( String resource ) {
+
+				return new ByteArrayInputStream( bytes );
+			}
+		} );
+
+		// First call compiles the plan, second call executes it
+
+		PlanBean planBean1 = (PlanBean) configReader.configure( "plan.xml", PlanBean.class );
+		PlanBean planBean2 = (PlanBean) configReader.configure( "plan.xml", PlanBean.class );
+
+		for ( PlanBean planBean : new PlanBean[] { planBean1, planBean2 } ) {
+			assertEquals( "parent", planBean.getName() );
+			assertEquals( 2, planBean.getStringArray().length );
+			assertEquals( "bar", planBean.getStringArray()[1] );
+			assertTrue( planBean.getList().get( 0 ) instanceof Date );
+			assertEquals( 3, planBean.getList().get( 1 ) );
+			assertTrue( planBean.getInspector() instanceof PropertyTypeInspector );
+			assertEquals( "child", planBean.getChild().getName() );
+		}
+
+		// Mutable objects (and natives) are created afresh, immutable ones are shared
+
+		assertTrue( planBean1 != planBean2 );
+		assertTrue( planBean1.getChild() != planBean2.getChild() );
+		assertTrue( planBean1.getList() != planBean2.getList() );
+		assertTrue( planBean1.getList().get( 0 ) != planBean2.getList().get( 0 ) );
+		assertTrue( planBean1.getInspector() == planBean2.getInspector() );
+
+		// Configure an existing instance
+
+		PlanBean planBean3 = new PlanBean();
+		assertTrue( planBean3 == configReader.configure( "plan.xml", planBean3 ) );
+		assertTrue( planBean3 == configReader.configure( "plan.xml", planBean3, "child" ) );
+		assertEquals( "child", planBean3.getChild().getName() );
+		planBean3 = new PlanBean();
+		assertTrue( planBean3 == configReader.configure( "plan.xml", planBean3, "child" ) );
+		assertEquals( null, planBean3.getName() );
+		assertEquals( "child", planBean3.getChild().getName() );
+	}
+
 	public void testPatternCache()
 		throws Exception {
 
@@ -700,4 +811,75 @@ public class ConfigReaderTest
 
 		// Just an inner class
 	}
+
+	public static class PlanBean {
+
+		//
+		// Private members
+		//
+
+		private String			mName;
+
+		private String[]		mStringArray;
+
+		private List<Object>	mList;
+
+		private Inspector		mInspector;
+
+		private PlanBean		mChild;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		public String[] getStringArray() {
+
+			return mStringArray;
+		}
+
+		public void setStringArray( String[] stringArray ) {
+
+			mStringArray = stringArray;
+		}
+
+		public List<Object> getList() {
+
+			return mList;
+		}
+
+		public void setList( List<Object> list ) {
+
+			mList = list;
+		}
+
+		public Inspector getInspector() {
+
+			return mInspector;
+		}
+
+		public void setInspector( Inspector inspector ) {
+
+			mInspector = inspector;
+		}
+
+		public PlanBean getChild() {
+
+			return mChild;
+		}
+
+		public void setChild( PlanBean child ) {
+
+			mChild = child;
+		}
+	}
 }
\ No newline at end of file
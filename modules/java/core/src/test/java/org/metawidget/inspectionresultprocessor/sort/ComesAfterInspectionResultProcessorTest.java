@@ -11,10 +11,13 @@
 
 package org.metawidget.inspectionresultprocessor.sort;
 
+import static org.metawidget.inspector.InspectionResultConstants.NAME;
+
 import junit.framework.TestCase;
 
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessorException;
 import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Element;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -253,6 +256,63 @@ public class ComesAfterInspectionResultProcessorTest
 		}
 	}
 
+	public void testMultipleComesAfterAll() {
+
+		try {
+			String inputXml = "<?xml version=\"1.0\"?>";
+			inputXml += "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\">";
+			inputXml += "<entity type=\"Foo\">";
+			inputXml += "<property name=\"foo\" comes-after=\"\"/>";
+			inputXml += "<property name=\"bar\"/>";
+			inputXml += "<property name=\"baz\" comes-after=\"\"/>";
+			inputXml += "</entity></inspection-result>";
+
+			// Run processor
+
+			new ComesAfterInspectionResultProcessor<Object>().processInspectionResult( inputXml, null, null, null );
+			fail();
+		} catch ( InspectionResultProcessorException e ) {
+			assertEquals( "Infinite loop detected when sorting comes-after: baz comes at the end, but foo comes at the end", e.getMessage() );
+		}
+	}
+
+	public void testSortInPlace() {
+
+		// Many traits, one of which comes after all
+
+		String inputXml = "<?xml version=\"1.0\"?>";
+		inputXml += "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\">";
+		inputXml += "<entity type=\"Foo\">";
+		inputXml += "<property name=\"last\" comes-after=\"\"/>";
+
+		for ( int loop = 0; loop < 400; loop++ ) {
+			inputXml += "<property name=\"property" + loop + "\" comes-after=\"property" + ( loop + 1 ) + "\"/>";
+		}
+
+		inputXml += "<property name=\"property400\"/>";
+		inputXml += "</entity></inspection-result>";
+
+		Element inspectionResult = XmlUtils.documentFromString( inputXml ).getDocumentElement();
+		Element entity = XmlUtils.getFirstChildElement( inspectionResult );
+		Element sorted = new ComesAfterInspectionResultProcessor<Object>().processInspectionResultAsDom( inspectionResult, null, null, null );
+
+		// Sorted in place
+
+		assertTrue( inspectionResult == sorted );
+		assertTrue( entity == XmlUtils.getFirstChildElement( sorted ) );
+		assertEquals( 402, entity.getChildNodes().getLength() );
+
+		Element trait = XmlUtils.getFirstChildElement( entity );
+
+		for ( int loop = 400; loop >= 0; loop-- ) {
+			assertEquals( "property" + loop, trait.getAttribute( NAME ) );
+			trait = XmlUtils.getNextSiblingElement( trait );
+		}
+
+		assertEquals( "last", trait.getAttribute( NAME ) );
+		assertEquals( null, XmlUtils.getNextSiblingElement( trait ) );
+	}
+
 	public void testComesAfterItself() {
 
 		try {
@@ -0,0 +1,216 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.composite;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+import static org.metawidget.inspector.propertytype.PropertyTypeInspectionResultConstants.*;
+
+import junit.framework.TestCase;
+
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.ValueDependentInspector;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class CachingCompositeInspectorTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testCaching() {
+
+		CountingInspector staticInspector = new CountingInspector( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" required=\"true\"/><property name=\"baz\"/></entity></inspection-result>" );
+		CachingCompositeInspector inspector = new CachingCompositeInspector( new CachingCompositeInspectorConfig().setInspectors( staticInspector ) );
+
+		Element inspectionResult = inspector.inspectAsDom( "foo", "Foo" );
+		assertEquals( 1, staticInspector.mCount );
+		assertEquals( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" required=\"true\"/><property name=\"baz\"/></entity></inspection-result>", XmlUtils.nodeToString( inspectionResult, false ) );
+
+		// Modifying the result should not affect the cache
+
+		Element entity = XmlUtils.getFirstChildElement( inspectionResult );
+		entity.setAttribute( NAME, "modified" );
+		entity.removeChild( XmlUtils.getFirstChildElement( entity ) );
+
+		inspectionResult = inspector.inspectAsDom( "foo", "Foo" );
+		assertEquals( 1, staticInspector.mCount );
+		assertEquals( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" required=\"true\"/><property name=\"baz\"/></entity></inspection-result>", XmlUtils.nodeToString( inspectionResult, false ) );
+		assertEquals( "http://metawidget.org/inspection-result", inspectionResult.getNamespaceURI() );
+		assertEquals( "http://metawidget.org/inspection-result", XmlUtils.getFirstChildElement( inspectionResult ).getNamespaceURI() );
+
+		// Different paths are cached separately
+
+		inspector.inspectAsDom( "foo", "Foo", "bar" );
+		assertEquals( 2, staticInspector.mCount );
+		inspector.inspectAsDom( "foo", "Foo", "bar" );
+		assertEquals( 2, staticInspector.mCount );
+		assertEquals( 2, inspector.mCache.size() );
+
+		// Clear cache
+
+		inspector.clearCache();
+		assertTrue( inspector.mCache.isEmpty() );
+		inspector.inspectAsDom( "foo", "Foo" );
+		assertEquals( 3, staticInspector.mCount );
+
+		// Supplied master Documents are never cached
+
+		Document master = XmlUtils.documentFromString( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"abc\"/></entity></inspection-result>" );
+		inspectionResult = inspector.inspectAsDom( master, "foo", "Foo", new String[0] );
+		assertEquals( 4, staticInspector.mCount );
+		assertEquals( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"abc\"/><property name=\"bar\" required=\"true\"/><property name=\"baz\"/></entity></inspection-result>", XmlUtils.nodeToString( inspectionResult, false ) );
+	}
+
+	public void testValueDependentInspector() {
+
+		CountingInspector staticInspector = new CountingInspector( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" required=\"true\"/></entity></inspection-result>" );
+		CountingInspector valueDependentInspector = new ValueDependentCountingInspector( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" hidden=\"true\"/><property name=\"baz\"/></entity></inspection-result>" );
+		CountingInspector lastInspector = new CountingInspector( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"baz\" large=\"true\"/></entity></inspection-result>" );
+		CachingCompositeInspector inspector = new CachingCompositeInspector( new CachingCompositeInspectorConfig().setInspectors( staticInspector, valueDependentInspector, lastInspector ) );
+
+		String expected = "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" hidden=\"true\" required=\"true\"/><property name=\"baz\" large=\"true\"/></entity></inspection-result>";
+		assertEquals( expected, XmlUtils.nodeToString( inspector.inspectAsDom( "foo", "Foo" ), false ) );
+		assertEquals( expected, XmlUtils.nodeToString( inspector.inspectAsDom( "foo", "Foo" ), false ) );
+
+		// Inspectors from the first ValueDependentInspector onwards are run every time
+
+		assertEquals( 1, staticInspector.mCount );
+		assertEquals( 2, valueDependentInspector.mCount );
+		assertEquals( 2, lastInspector.mCount );
+	}
+
+	public void testPropertyTypeInspector() {
+
+		CachingCompositeInspector inspector = new CachingCompositeInspector( new CachingCompositeInspectorConfig().setInspectors( new PropertyTypeInspector() ) );
+		Holder holder = new Holder();
+
+		holder.setValue( Boolean.TRUE );
+		Element entity = XmlUtils.getFirstChildElement( inspector.inspectAsDom( holder, Holder.class.getName(), "value" ) );
+		assertEquals( Boolean.class.getName(), entity.getAttribute( ACTUAL_CLASS ) );
+		assertEquals( "true, false", entity.getAttribute( LOOKUP ) );
+
+		// Same type and path, different runtime value
+
+		holder.setValue( "Foo" );
+		entity = XmlUtils.getFirstChildElement( inspector.inspectAsDom( holder, Holder.class.getName(), "value" ) );
+		assertEquals( String.class.getName(), entity.getAttribute( ACTUAL_CLASS ) );
+		assertFalse( entity.hasAttribute( LOOKUP ) );
+		assertTrue( inspector.mCache.isEmpty() );
+	}
+
+	public void testMaximumCacheSize() {
+
+		CountingInspector staticInspector = new CountingInspector( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"/></inspection-result>" );
+		CachingCompositeInspector inspector = new CachingCompositeInspector( new CachingCompositeInspectorConfig().setMaximumCacheSize( 2 ).setInspectors( staticInspector ) );
+
+		inspector.inspectAsDom( "foo", "Foo" );
+		inspector.inspectAsDom( "foo", "Foo", "bar" );
+		inspector.inspectAsDom( "foo", "Foo" );
+		inspector.inspectAsDom( "foo", "Foo", "baz" );
+		assertEquals( 3, staticInspector.mCount );
+		assertEquals( 2, inspector.mCache.size() );
+
+		// Least recently used should have been evicted
+
+		inspector.inspectAsDom( "foo", "Foo" );
+		assertEquals( 3, staticInspector.mCount );
+		inspector.inspectAsDom( "foo", "Foo", "bar" );
+		assertEquals( 4, staticInspector.mCount );
+	}
+
+	public void testConfig() {
+
+		MetawidgetTestUtils.testEqualsAndHashcode( CachingCompositeInspectorConfig.class, new CachingCompositeInspectorConfig() {
+			// Subclass
+		} );
+	}
+
+	//
+	// Inner class
+	//
+
+	/* package private */static class CountingInspector
+		implements Inspector {
+
+		//
+		// Private members
+		//
+
+		private String	mXml;
+
+		/* package private */int	mCount;
+
+		//
+		// Constructor
+		//
+
+		public CountingInspector( String xml ) {
+
+			mXml = xml;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			mCount++;
+			return mXml;
+		}
+	}
+
+	/* package private */static class ValueDependentCountingInspector
+		extends CountingInspector
+		implements ValueDependentInspector {
+
+		//
+		// Constructor
+		//
+
+		public ValueDependentCountingInspector( String xml ) {
+
+			super( xml );
+		}
+	}
+
+	public static class Holder {
+
+		//
+		// Private members
+		//
+
+		private Object	mValue;
+
+		//
+		// Public methods
+		//
+
+		public Object getValue() {
+
+			return mValue;
+		}
+
+		public void setValue( Object value ) {
+
+			mValue = value;
+		}
+	}
+}
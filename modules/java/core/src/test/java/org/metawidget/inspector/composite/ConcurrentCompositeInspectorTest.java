@@ -0,0 +1,187 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+package org.metawidget.inspector.composite;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import junit.framework.TestCase;
+
+import org.metawidget.inspector.composite.CompositeInspector.DomConversionListener;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.util.CollectionUtils;
+import org.metawidget.util.LogUtilsTest;
+import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Document;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class ConcurrentCompositeInspectorTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testInspection() {
+
+		// Slowest Inspector first, to test results are combined in declaration order
+
+		Inspector inspector1 = new SleepingInspector( 200, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" required=\"true\"/></entity></inspection-result>" );
+		Inspector inspector2 = new SleepingInspector( 0, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"baz\"/><property name=\"bar\" hidden=\"true\"/></entity></inspection-result>" );
+		Inspector inspector3 = new SleepingInspector( 200, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"abc\"/></entity></inspection-result>" );
+
+		CompositeInspector sequentialInspector = new CompositeInspector( new CompositeInspectorConfig().setInspectors( inspector1, inspector2, inspector3 ) );
+		ConcurrentCompositeInspector concurrentInspector = new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setInspectors( inspector1, inspector2, inspector3 ) );
+
+		String expected = sequentialInspector.inspect( "foo", "Foo" );
+		assertEquals( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\" hidden=\"true\" required=\"true\"/><property name=\"baz\"/><property name=\"abc\"/></entity></inspection-result>", expected );
+
+		// Slow Inspectors should overlap
+
+		long start = System.currentTimeMillis();
+		assertEquals( expected, concurrentInspector.inspect( "foo", "Foo" ) );
+		assertTrue( System.currentTimeMillis() - start < 400 );
+	}
+
+	public void testTimeout() {
+
+		Inspector inspector1 = new SleepingInspector( 0, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\"/></entity></inspection-result>" );
+		Inspector inspector2 = new SleepingInspector( 5000, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"baz\"/></entity></inspection-result>" );
+
+		ConcurrentCompositeInspector inspector = new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setTimeout( 100 ).setInspectors( inspector1, inspector2 ) );
+
+		long start = System.currentTimeMillis();
+		assertEquals( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\"/></entity></inspection-result>", inspector.inspect( "foo", "Foo" ) );
+		assertTrue( System.currentTimeMillis() - start < 1000 );
+		assertEquals( "class org.metawidget.inspector.composite.ConcurrentCompositeInspectorTest$SleepingInspector timed out after 100ms inspecting Foo", LogUtilsTest.getLastWarnMessage() );
+	}
+
+	public void testException() {
+
+		Inspector inspector1 = new SleepingInspector( 0, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"/>" );
+		Inspector inspector2 = new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				throw InspectorException.newException( "Failed inspecting" );
+			}
+		};
+
+		ConcurrentCompositeInspector inspector = new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setInspectors( inspector1, inspector2 ) );
+
+		try {
+			inspector.inspect( "foo", "Foo" );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "Failed inspecting", e.getMessage() );
+		}
+	}
+
+	public void testExecutor() {
+
+		final int[] executed = new int[1];
+
+		Executor executor = new Executor() {
+
+			public void execute( Runnable command ) {
+
+				executed[0]++;
+				command.run();
+			}
+		};
+
+		Inspector inspector1 = new SleepingInspector( 0, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"/></inspection-result>" );
+		Inspector inspector2 = new SleepingInspector( 0, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\"/></entity></inspection-result>" );
+		ConcurrentCompositeInspector inspector = new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setExecutor( executor ).setInspectors( inspector1, inspector2 ) );
+
+		assertEquals( "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\"/></entity></inspection-result>", XmlUtils.nodeToString( inspector.inspectAsDom( "foo", "Foo" ), false ) );
+		assertEquals( 2, executed[0] );
+	}
+
+	public void testDomConversionListener() {
+
+		final Thread callingThread = Thread.currentThread();
+		final List<Inspector> converted = CollectionUtils.newArrayList();
+
+		DomConversionListener listener = new DomConversionListener() {
+
+			public void onDomConversion( Inspector inspector ) {
+
+				assertTrue( callingThread == Thread.currentThread() );
+				converted.add( inspector );
+			}
+		};
+
+		Inspector inspector1 = new SleepingInspector( 100, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"/></inspection-result>" );
+		Inspector inspector2 = new SleepingInspector( 0, "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\"/></entity></inspection-result>" );
+		ConcurrentCompositeInspector inspector = new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setInspectors( inspector1, inspector2 ) );
+
+		// Conversions are reported on the calling Thread, in declaration order
+
+		assertTrue( inspector.inspectAsDom( listener, (Document) null, "foo", "Foo" ) != null );
+		assertEquals( 2, converted.size() );
+		assertTrue( inspector1 == converted.get( 0 ) );
+		assertTrue( inspector2 == converted.get( 1 ) );
+	}
+
+	public void testConfig() {
+
+		MetawidgetTestUtils.testEqualsAndHashcode( ConcurrentCompositeInspectorConfig.class, new ConcurrentCompositeInspectorConfig() {
+			// Subclass
+		} );
+	}
+
+	//
+	// Inner class
+	//
+
+	/* package private */static class SleepingInspector
+		implements Inspector {
+
+		//
+		// Private members
+		//
+
+		private long	mSleep;
+
+		private String	mXml;
+
+		//
+		// Constructor
+		//
+
+		public SleepingInspector( long sleep, String xml ) {
+
+			mSleep = sleep;
+			mXml = xml;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			try {
+				Thread.sleep( mSleep );
+			} catch ( InterruptedException e ) {
+				return null;
+			}
+
+			return mXml;
+		}
+	}
+}
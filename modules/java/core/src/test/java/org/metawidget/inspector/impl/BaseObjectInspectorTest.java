@@ -11,9 +11,17 @@
 
 package org.metawidget.inspector.impl;
 
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.util.Map;
+
 import junit.framework.TestCase;
 
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.MetawidgetTestUtils;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Element;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -32,4 +40,124 @@ public class BaseObjectInspectorTest
 			// Subclass
 		} );
 	}
+
+	public void testStaticInspection() {
+
+		CountingInspector inspector = new StaticCountingInspector();
+		Foo foo = new Foo();
+		foo.setBar( "Baz" );
+
+		Element entity = XmlUtils.getFirstChildElement( inspector.inspectAsDom( foo, Foo.class.getName() ) );
+		Element property = XmlUtils.getChildWithAttributeValue( entity, NAME, "bar" );
+		assertEquals( "trait", property.getAttribute( "trait" ) );
+		assertEquals( "property", property.getAttribute( "source" ) );
+		assertEquals( String.class.getName(), property.getAttribute( TYPE ) );
+
+		// Static attributes should be cached, but entity attributes should not
+
+		foo.setBar( Integer.valueOf( 42 ) );
+		entity = XmlUtils.getFirstChildElement( inspector.inspectAsDom( foo, Foo.class.getName() ) );
+		property = XmlUtils.getChildWithAttributeValue( entity, NAME, "bar" );
+		assertEquals( "trait", property.getAttribute( "trait" ) );
+		assertEquals( "property", property.getAttribute( "source" ) );
+		assertEquals( Integer.class.getName(), property.getAttribute( TYPE ) );
+		assertEquals( 1, inspector.mTraitInspections );
+		assertEquals( 1, inspector.mPropertyInspections );
+
+		// Value-dependent inspections should not be cached
+
+		inspector = new CountingInspector();
+		inspector.inspectAsDom( foo, Foo.class.getName() );
+		entity = XmlUtils.getFirstChildElement( inspector.inspectAsDom( foo, Foo.class.getName() ) );
+		property = XmlUtils.getChildWithAttributeValue( entity, NAME, "bar" );
+		assertEquals( "trait", property.getAttribute( "trait" ) );
+		assertEquals( "property", property.getAttribute( "source" ) );
+		assertEquals( 2, inspector.mTraitInspections );
+		assertEquals( 2, inspector.mPropertyInspections );
+	}
+
+	//
+	// Inner class
+	//
+
+	static class CountingInspector
+		extends BaseObjectInspector {
+
+		//
+		// Private members
+		//
+
+		/* package private */int	mTraitInspections;
+
+		/* package private */int	mPropertyInspections;
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Map<String, String> inspectTrait( Trait trait ) {
+
+			mTraitInspections++;
+
+			Map<String, String> attributes = CollectionUtils.newHashMap();
+			attributes.put( "trait", "trait" );
+			attributes.put( "source", "trait" );
+			return attributes;
+		}
+
+		@Override
+		protected Map<String, String> inspectProperty( Property property ) {
+
+			mPropertyInspections++;
+
+			Map<String, String> attributes = CollectionUtils.newHashMap();
+			attributes.put( "source", "property" );
+			return attributes;
+		}
+
+		@Override
+		protected boolean shouldInspectPropertyAsEntity( Property property ) {
+
+			return true;
+		}
+
+		@Override
+		protected Map<String, String> inspectEntity( String declaredClass, String actualClass ) {
+
+			Map<String, String> attributes = CollectionUtils.newHashMap();
+			attributes.put( TYPE, actualClass );
+			return attributes;
+		}
+	}
+
+	static class StaticCountingInspector
+		extends CountingInspector
+		implements StaticTraitInspector {
+
+		// Just a marker
+	}
+
+	public static class Foo {
+
+		//
+		// Private members
+		//
+
+		private Object	mBar;
+
+		//
+		// Public methods
+		//
+
+		public Object getBar() {
+
+			return mBar;
+		}
+
+		public void setBar( Object bar ) {
+
+			mBar = bar;
+		}
+	}
 }
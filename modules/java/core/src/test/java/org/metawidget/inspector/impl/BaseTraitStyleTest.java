@@ -11,6 +11,8 @@
 
 package org.metawidget.inspector.impl;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.util.Date;
 import java.util.WeakHashMap;
 import java.util.regex.Pattern;
@@ -45,6 +47,43 @@ public class BaseTraitStyleTest
 		} );
 	}
 
+	/**
+	 * Test Traits written before annotations were indexed (which implement getAnnotation
+	 * themselves) still work.
+	 */
+
+	public void testUnindexedTrait()
+		throws Exception {
+
+		final Method method = Date.class.getMethod( "getYear" );
+
+		BaseTrait trait = new BaseTrait( "year" ) {
+
+			@Override
+			public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
+
+				return method.getAnnotation( annotation );
+			}
+		};
+
+		assertTrue( trait.isAnnotationPresent( Deprecated.class ) );
+		assertEquals( null, trait.getAnnotations() );
+		assertFalse( trait.isUnannotated() );
+
+		// Traits must either implement getAnnotation or indexAnnotations
+
+		trait = new BaseTrait( "year" ) {
+			// Implements neither
+		};
+
+		try {
+			trait.getAnnotation( Deprecated.class );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			assertTrue( e.getMessage().endsWith( " must override either getAnnotation or indexAnnotations" ) );
+		}
+	}
+
 	public void testCacheProperties() {
 
 		// With caching
@@ -67,6 +106,33 @@ public class BaseTraitStyleTest
 		assertEquals( traitStyle.mCache, null );
 	}
 
+	public void testMaximumCacheSize() {
+
+		JavaBeanPropertyStyleConfig config = new JavaBeanPropertyStyleConfig();
+		config.setMaximumCacheSize( 2 );
+		BaseTraitStyle<Property> traitStyle = new JavaBeanPropertyStyle( config );
+
+		assertTrue( traitStyle.getTraits( Date.class.getName() ) != null );
+		assertTrue( traitStyle.getTraits( String.class.getName() ) != null );
+		assertEquals( 2, traitStyle.mCache.size() );
+
+		// Eldest should be evicted
+
+		assertTrue( traitStyle.getTraits( Pattern.class.getName() ) != null );
+		assertEquals( 2, traitStyle.mCache.size() );
+		assertTrue( traitStyle.mCache.get( Date.class.getName() ) == null );
+		assertTrue( traitStyle.mCache.get( String.class.getName() ) != null );
+		assertTrue( traitStyle.mCache.get( Pattern.class.getName() ) != null );
+
+		// Clearing the cache should reset eviction order
+
+		traitStyle.clearCache();
+		assertTrue( traitStyle.mCache.isEmpty() );
+		assertTrue( traitStyle.getTraits( Date.class.getName() ) != null );
+		assertTrue( traitStyle.getTraits( String.class.getName() ) != null );
+		assertEquals( 2, traitStyle.mCache.size() );
+	}
+
 	public void testExcludedBaseType() {
 
 		// Default excludeBaseType
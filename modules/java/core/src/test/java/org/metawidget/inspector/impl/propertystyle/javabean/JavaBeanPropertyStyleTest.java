@@ -14,6 +14,9 @@ package org.metawidget.inspector.impl.propertystyle.javabean;
 import java.beans.BeanInfo;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
@@ -26,6 +29,7 @@ import java.util.regex.Pattern;
 import junit.framework.TestCase;
 
 import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.BaseTrait;
 import org.metawidget.inspector.impl.BaseTraitStyle;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.inspector.impl.propertystyle.ValueAndDeclaredType;
@@ -292,6 +296,86 @@ public class JavaBeanPropertyStyleTest
 		assertTrue( field == property.getPrivateField() );
 	}
 
+	public void testPropertyAccessorFactory() {
+
+		CountingPropertyAccessorFactory accessorFactory = new CountingPropertyAccessorFactory();
+		JavaBeanPropertyStyleConfig config = new JavaBeanPropertyStyleConfig();
+		config.setSupportPublicFields( true );
+		config.setPropertyAccessorFactory( accessorFactory );
+		JavaBeanPropertyStyle propertyStyle = new JavaBeanPropertyStyle( config );
+
+		// Accessors are only created on first use
+
+		Property property = propertyStyle.getProperties( ArrayHolder.class.getName() ).get( "array" );
+		assertEquals( 0, accessorFactory.mAccessorsCreated );
+
+		ArrayHolder arrayHolder = new ArrayHolder();
+		String[] array = new String[] { "Foo", "Bar" };
+		property.write( arrayHolder, array );
+		assertTrue( array == arrayHolder.getArray() );
+		assertTrue( array == property.read( arrayHolder ) );
+		assertTrue( array == property.read( arrayHolder ) );
+		assertEquals( 1, accessorFactory.mAccessorsCreated );
+		assertEquals( 3, accessorFactory.mAccesses );
+
+		// Properties the factory declines fall back to reflection (and are not asked again)
+
+		property = propertyStyle.getProperties( Foo.class.getName() ).get( "foo" );
+		Foo foo = new Foo();
+		property.write( foo, "Baz" );
+		assertEquals( "Baz", foo.foo );
+		assertEquals( "Baz", property.read( foo ) );
+		assertEquals( 1, accessorFactory.mAccessorsCreated );
+		assertEquals( 1, accessorFactory.mAccessorsDeclined );
+		assertEquals( 3, accessorFactory.mAccesses );
+
+		// Exceptions are wrapped, as with reflection
+
+		try {
+			propertyStyle.getProperties( Foo.class.getName() ).get( "methodBar" ).read( foo );
+			fail();
+		} catch ( InspectorException e ) {
+			// Should fail
+		}
+	}
+
+	public void testAnnotations() {
+
+		JavaBeanPropertyStyleConfig config = new JavaBeanPropertyStyleConfig();
+		config.setPrivateFieldConvention( new MessageFormat( "'m'{1}" ) );
+		Map<String, Property> properties = new JavaBeanPropertyStyle( config ).getProperties( AnnotationsTest.class.getName() );
+
+		// Getter takes precedence over setter, which takes precedence over private field
+
+		Property property = properties.get( "foo" );
+		Map<Class<? extends Annotation>, Annotation> annotations = ( (BaseTrait) property ).getAnnotations();
+		assertEquals( 2, annotations.size() );
+		assertEquals( "getter", ( (Source) annotations.get( Source.class ) ).value() );
+		assertTrue( annotations.get( Deprecated.class ) != null );
+		assertTrue( annotations.get( Source.class ) == property.getAnnotation( Source.class ) );
+		assertTrue( property.isAnnotationPresent( Deprecated.class ) );
+		assertTrue( annotations == ( (BaseTrait) property ).getAnnotations() );
+
+		property = properties.get( "bar" );
+		assertEquals( "setter", property.getAnnotation( Source.class ).value() );
+		assertEquals( 1, ( (BaseTrait) property ).getAnnotations().size() );
+
+		property = properties.get( "baz" );
+		assertTrue( ( (BaseTrait) property ).getAnnotations().isEmpty() );
+		assertTrue( ( (BaseTrait) property ).isUnannotated() );
+		assertTrue( null == property.getAnnotation( Source.class ) );
+		assertFalse( property.isAnnotationPresent( Deprecated.class ) );
+
+		// Index is unmodifiable
+
+		try {
+			annotations.clear();
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+	}
+
 	public void testConfig() {
 
 		MetawidgetTestUtils.testEqualsAndHashcode( JavaBeanPropertyStyleConfig.class, new JavaBeanPropertyStyleConfig() {
@@ -594,6 +678,53 @@ public class JavaBeanPropertyStyleTest
 		}
 	}
 
+	static class CountingPropertyAccessorFactory
+		implements PropertyAccessorFactory {
+
+		//
+		// Package private members
+		//
+
+		int	mAccessorsCreated;
+
+		int	mAccessorsDeclined;
+
+		int	mAccesses;
+
+		//
+		// Public methods
+		//
+
+		public PropertyAccessor newAccessor( final Method readMethod, final Method writeMethod ) {
+
+			mAccessorsCreated++;
+
+			return new PropertyAccessor() {
+
+				public Object read( Object obj )
+					throws Exception {
+
+					mAccesses++;
+					return readMethod.invoke( obj );
+				}
+
+				public void write( Object obj, Object value )
+					throws Exception {
+
+					mAccesses++;
+					writeMethod.invoke( obj, value );
+				}
+			};
+		}
+
+		public PropertyAccessor newAccessor( Field field ) {
+
+			mAccessorsDeclined++;
+
+			return null;
+		}
+	}
+
 	static class PrivateFieldTest {
 
 		//
@@ -611,4 +742,56 @@ public class JavaBeanPropertyStyleTest
 			return mFoo;
 		}
 	}
+
+	@Retention( RetentionPolicy.RUNTIME )
+	static @interface Source {
+
+		String value();
+	}
+
+	static class AnnotationsTest {
+
+		//
+		// Private members
+		//
+
+		@Source( "field" )
+		@Deprecated
+		private String	mFoo;
+
+		@Source( "field" )
+		private String	mBar;
+
+		//
+		// Public methods
+		//
+
+		@Source( "getter" )
+		public String getFoo() {
+
+			return mFoo;
+		}
+
+		@Source( "setter" )
+		public void setFoo( String foo ) {
+
+			mFoo = foo;
+		}
+
+		public String getBar() {
+
+			return mBar;
+		}
+
+		@Source( "setter" )
+		public void setBar( String bar ) {
+
+			mBar = bar;
+		}
+
+		public String getBaz() {
+
+			return null;
+		}
+	}
 }
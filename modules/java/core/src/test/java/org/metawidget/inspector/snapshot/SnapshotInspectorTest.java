@@ -0,0 +1,224 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+
+package org.metawidget.inspector.snapshot;
+
+import static org.metawidget.inspector.InspectionResultConstants.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import junit.framework.TestCase;
+
+import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultProcessor;
+import org.metawidget.inspector.composite.CompositeInspector;
+import org.metawidget.inspector.composite.CompositeInspectorConfig;
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
+import org.metawidget.inspector.xml.XmlInspector;
+import org.metawidget.inspector.xml.XmlInspectorConfig;
+import org.metawidget.util.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SnapshotInspectorTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	@SuppressWarnings( "unchecked" )
+	public void testSnapshot() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<inspection-result xmlns=\"http://metawidget.org/inspection-result\" version=\"1.0\">";
+		xml += "<entity type=\"" + Foo.class.getName() + "\">";
+		xml += "<property name=\"name\" required=\"true\" comes-after=\"bar\"/>";
+		xml += "<property name=\"bar\" label=\"Barry\"/>";
+		xml += "</entity>";
+		xml += "</inspection-result>";
+
+		XmlInspector xmlInspector = new XmlInspector( new XmlInspectorConfig().setInputStream( new ByteArrayInputStream( xml.getBytes() ) ) );
+		CompositeInspector inspector = new CompositeInspector( new CompositeInspectorConfig().setInspectors( new PropertyTypeInspector(), xmlInspector ) );
+
+		SnapshotWriter snapshotWriter = new SnapshotWriter();
+		snapshotWriter.setInspector( inspector );
+		snapshotWriter.setInspectionResultProcessors( new ComesAfterInspectionResultProcessor<SnapshotWriter>() );
+
+		// Snapshot (ignoring duplicates)
+
+		Document snapshot = snapshotWriter.snapshot( Foo.class.getName(), Bar.class.getName(), Foo.class.getName() );
+		Element entity = XmlUtils.getFirstChildElement( snapshot.getDocumentElement() );
+		assertEquals( Foo.class.getName(), entity.getAttribute( TYPE ) );
+		entity = XmlUtils.getNextSiblingElement( entity );
+		assertEquals( Bar.class.getName(), entity.getAttribute( TYPE ) );
+		assertTrue( null == XmlUtils.getNextSiblingElement( entity ) );
+
+		// Top-level (InspectionResultProcessors already applied)
+
+		SnapshotInspector snapshotInspector = new SnapshotInspector( new SnapshotInspectorConfig().setDocuments( snapshot ) );
+		entity = XmlUtils.getFirstChildElement( snapshotInspector.inspectAsDom( null, Foo.class.getName() ) );
+		assertEquals( ENTITY, entity.getNodeName() );
+		assertEquals( Foo.class.getName(), entity.getAttribute( TYPE ) );
+		assertFalse( entity.hasAttribute( NAME ) );
+
+		Element property = XmlUtils.getFirstChildElement( entity );
+		assertEquals( PROPERTY, property.getNodeName() );
+		assertEquals( "bar", property.getAttribute( NAME ) );
+		assertEquals( Bar.class.getName(), property.getAttribute( TYPE ) );
+		assertEquals( "Barry", property.getAttribute( LABEL ) );
+
+		property = XmlUtils.getNextSiblingElement( property );
+		assertEquals( "name", property.getAttribute( NAME ) );
+		assertEquals( String.class.getName(), property.getAttribute( TYPE ) );
+		assertEquals( TRUE, property.getAttribute( REQUIRED ) );
+		assertTrue( null == XmlUtils.getNextSiblingElement( property ) );
+
+		// Paths
+
+		entity = XmlUtils.getFirstChildElement( snapshotInspector.inspectAsDom( null, Foo.class.getName(), "bar" ) );
+		assertEquals( Bar.class.getName(), entity.getAttribute( TYPE ) );
+		assertEquals( "bar", entity.getAttribute( NAME ) );
+		assertEquals( "Barry", entity.getAttribute( LABEL ) );
+
+		property = XmlUtils.getFirstChildElement( entity );
+		assertEquals( "baz", property.getAttribute( NAME ) );
+		assertEquals( int.class.getName(), property.getAttribute( TYPE ) );
+		assertTrue( null == XmlUtils.getNextSiblingElement( property ) );
+
+		// Unknown types
+
+		assertTrue( null == snapshotInspector.inspectAsDom( null, String.class.getName() ) );
+	}
+
+	public void testWrite() {
+
+		// Nested entities are not written
+
+		SnapshotWriter snapshotWriter = new SnapshotWriter();
+		snapshotWriter.setInspector( new PropertyTypeInspector( new BaseObjectInspectorConfig().setNestedInspectionDepth( 1 ) ) );
+
+		Foo foo = new Foo();
+		foo.setBar( new Bar() );
+		assertTrue( null != XmlUtils.getChildNamed( XmlUtils.getChildWithAttributeValue( XmlUtils.getFirstChildElement( new PropertyTypeInspector( new BaseObjectInspectorConfig().setNestedInspectionDepth( 1 ) ).inspectAsDom( foo, Foo.class.getName() ) ), NAME, "bar" ), ENTITY ) );
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snapshotWriter.write( out, Foo.class.getName(), Bar.class.getName() );
+
+		SnapshotInspector snapshotInspector = new SnapshotInspector( new SnapshotInspectorConfig().setInputStream( new ByteArrayInputStream( out.toByteArray() ) ) );
+		Element entity = XmlUtils.getFirstChildElement( snapshotInspector.inspectAsDom( null, Foo.class.getName() ) );
+		Element property = XmlUtils.getChildWithAttributeValue( entity, NAME, "bar" );
+		assertTrue( null == XmlUtils.getFirstChildElement( property ) );
+
+		entity = XmlUtils.getFirstChildElement( snapshotInspector.inspectAsDom( null, Foo.class.getName(), "bar" ) );
+		assertEquals( "baz", XmlUtils.getFirstChildElement( entity ).getAttribute( NAME ) );
+	}
+
+	public void testConfigReader() {
+
+		String xml = "<?xml version=\"1.0\"?>";
+		xml += "<metawidget xmlns=\"http://metawidget.org\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" version=\"1.0\">";
+		xml += "<snapshotWriter xmlns=\"java:org.metawidget.inspector.snapshot\">";
+		xml += "<inspector><propertyTypeInspector xmlns=\"java:org.metawidget.inspector.propertytype\"/></inspector>";
+		xml += "<inspectionResultProcessors><array>";
+		xml += "<comesAfterInspectionResultProcessor xmlns=\"java:org.metawidget.inspectionresultprocessor.sort\"/>";
+		xml += "</array></inspectionResultProcessors>";
+		xml += "</snapshotWriter>";
+		xml += "</metawidget>";
+
+		SnapshotWriter snapshotWriter = new SnapshotWriter();
+		new BaseConfigReader().configure( new ByteArrayInputStream( xml.getBytes() ), snapshotWriter );
+
+		Element entity = XmlUtils.getFirstChildElement( snapshotWriter.snapshot( Bar.class.getName() ).getDocumentElement() );
+		assertEquals( Bar.class.getName(), entity.getAttribute( TYPE ) );
+		assertEquals( "baz", XmlUtils.getFirstChildElement( entity ).getAttribute( NAME ) );
+	}
+
+	public void testNoInspector() {
+
+		try {
+			new SnapshotWriter().snapshot( Foo.class.getName() );
+			fail();
+		} catch ( InspectorException e ) {
+			assertEquals( "No inspector configured", e.getMessage() );
+		}
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		//
+		// Private members
+		//
+
+		private String	mName;
+
+		private Bar		mBar;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		public Bar getBar() {
+
+			return mBar;
+		}
+
+		public void setBar( Bar bar ) {
+
+			mBar = bar;
+		}
+	}
+
+	public static class Bar {
+
+		//
+		// Private members
+		//
+
+		private int	mBaz;
+
+		//
+		// Public methods
+		//
+
+		public int getBaz() {
+
+			return mBaz;
+		}
+
+		public void setBaz( int baz ) {
+
+			mBaz = baz;
+		}
+	}
+}
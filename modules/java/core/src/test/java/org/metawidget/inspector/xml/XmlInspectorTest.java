@@ -15,6 +15,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
 import junit.framework.TestCase;
@@ -626,6 +627,39 @@ public class XmlInspectorTest
 		assertTrue( concurrencyFailures.isEmpty() );
 	}
 
+	public void testInspectEachElementOnce() {
+
+		final int[] inspectedProperties = new int[1];
+
+		XmlInspector inspector = new XmlInspector( new XmlInspectorConfig().setInputStream( new ByteArrayInputStream( mXml.getBytes() ) ) ) {
+
+			@Override
+			protected Map<String, String> inspectProperty( Element toInspect ) {
+
+				inspectedProperties[0]++;
+				return super.inspectProperty( toInspect );
+			}
+		};
+
+		// First inspection reads the DOM...
+
+		Element inspectionResult = inspector.inspectAsDom( null, "org.metawidget.inspector.xml.XmlInspectorTest$SubFoo", "bar" );
+		String inspect = XmlUtils.nodeToString( inspectionResult, false );
+		int firstInspection = inspectedProperties[0];
+		assertTrue( firstInspection > 0 );
+
+		// ...subsequent inspections do not...
+
+		( (Element) inspectionResult.getFirstChild() ).setAttribute( "modified", TRUE );
+		assertEquals( inspect, inspector.inspect( null, "org.metawidget.inspector.xml.XmlInspectorTest$SubFoo", "bar" ) );
+		assertEquals( firstInspection, inspectedProperties[0] );
+
+		// ...but still return the same result as a fresh Inspector
+
+		assertEquals( mInspector.inspect( null, "org.metawidget.inspector.xml.XmlInspectorTest$SubFoo", "bar" ), inspect );
+		assertEquals( mInspector.inspect( null, "org.metawidget.inspector.xml.XmlInspectorTest$SubFoo" ), inspector.inspect( null, "org.metawidget.inspector.xml.XmlInspectorTest$SubFoo" ) );
+	}
+
 	public void testTraversalToNullTopLevelElement() {
 
 		String xml = "<?xml version=\"1.0\"?>";
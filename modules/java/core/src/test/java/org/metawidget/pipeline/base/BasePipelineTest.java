@@ -14,6 +14,7 @@ package org.metawidget.pipeline.base;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -24,12 +25,21 @@ import junit.framework.TestCase;
 
 import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
 import org.metawidget.inspectionresultprocessor.sort.ComesAfterInspectionResultProcessor;
+import org.metawidget.inspector.composite.CompositeInspector;
+import org.metawidget.inspector.composite.CompositeInspectorConfig;
+import org.metawidget.inspector.composite.ConcurrentCompositeInspector;
+import org.metawidget.inspector.composite.ConcurrentCompositeInspectorConfig;
+import org.metawidget.inspector.iface.DomInspector;
+import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.layout.iface.AdvancedLayout;
 import org.metawidget.layout.iface.Layout;
 import org.metawidget.pipeline.w3c.W3CPipeline;
+import org.metawidget.util.ArrayUtils;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.XmlUtils;
 import org.metawidget.widgetbuilder.iface.AdvancedWidgetBuilder;
@@ -37,6 +47,7 @@ import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.metawidget.widgetprocessor.iface.AdvancedWidgetProcessor;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -184,6 +195,42 @@ public class BasePipelineTest
 		assertEquals( 99, nestedPipeline.getMaximumInspectionDepth() );
 	}
 
+	public void testInitInspectionPipeline() {
+
+		W3CPipeline<JComponent, JComponent, JComponent> pipeline = new MockPipeline();
+		W3CPipeline<JComponent, JComponent, JComponent> inspectionPipeline = new MockPipeline();
+
+		PropertyTypeInspector inspector = new PropertyTypeInspector();
+		ConfigReader configReader = new BaseConfigReader();
+		ComesAfterInspectionResultProcessor<JComponent> inspectionResultProcessor = new ComesAfterInspectionResultProcessor<JComponent>();
+
+		pipeline.setConfigReader( configReader );
+		pipeline.setInspector( inspector );
+		pipeline.addInspectionResultProcessor( inspectionResultProcessor );
+		pipeline.setReadOnly( true );
+		pipeline.setFailOnDomConversion( true );
+
+		// (the inspection pipeline must never configure itself, as it runs on a different thread)
+
+		inspectionPipeline.setConfig( "does-not-exist.xml" );
+		pipeline.initInspectionPipeline( inspectionPipeline );
+
+		// Test elements are initialized
+
+		assertTrue( inspectionPipeline.getConfigReader() == configReader );
+		assertTrue( inspectionPipeline.getInspector() == inspector );
+		assertTrue( inspectionPipeline.isReadOnly() );
+		assertEquals( Bar.class.getName(), XmlUtils.getFirstChildElement( inspectionPipeline.inspectAsDom( null, Bar.class.getName() ) ).getAttribute( TYPE ) );
+		assertEquals( 0, inspectionPipeline.getDomConversions() );
+
+		// Test defensive copy
+
+		assertEquals( inspectionPipeline.getInspectionResultProcessors(), pipeline.getInspectionResultProcessors() );
+		assertTrue( inspectionPipeline.getInspectionResultProcessors() != pipeline.getInspectionResultProcessors() );
+		pipeline.getInspectionResultProcessors().clear();
+		assertTrue( !inspectionPipeline.getInspectionResultProcessors().isEmpty() );
+	}
+
 	public void testAdvancedStartEndBuild()
 		throws Exception {
 
@@ -286,6 +333,161 @@ public class BasePipelineTest
 		assertEquals( myInspectionResultProcessor, pipeline.getInspectionResultProcessor( MyInspectionResultProcessor.class ) );
 	}
 
+	public void testDomConversions() {
+
+		final String xml = "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"Foo\"><property name=\"bar\"/></entity></inspection-result>";
+
+		@SuppressWarnings( "unchecked" )
+		InspectionResultProcessor<JComponent>[] inspectionResultProcessors = new InspectionResultProcessor[] {
+				new ComesAfterInspectionResultProcessor<JComponent>(),
+				new InspectionResultProcessor<JComponent>() {
+
+					public String processInspectionResult( String inspectionResult, JComponent metawidget, Object toInspect, String type, String... names ) {
+
+						return inspectionResult;
+					}
+				},
+				new ComesAfterInspectionResultProcessor<JComponent>()
+		};
+
+		// Non-DOM Inspector and InspectionResultProcessor
+
+		MockPipeline pipeline = new MockPipeline();
+		pipeline.setInspector( new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				return xml;
+			}
+		} );
+		pipeline.setInspectionResultProcessors( inspectionResultProcessors );
+
+		assertEquals( xml, XmlUtils.nodeToString( pipeline.inspectAsDom( null, "Foo" ), false ) );
+		assertEquals( 3, pipeline.getDomConversions() );
+
+		// DOM Inspector and InspectionResultProcessors
+
+		pipeline.setInspector( new PropertyTypeInspector() );
+		pipeline.setInspectionResultProcessors( inspectionResultProcessors[0] );
+		pipeline.inspectAsDom( null, String.class.getName() );
+		assertEquals( 0, pipeline.getDomConversions() );
+
+		// Fail
+
+		pipeline.setInspectionResultProcessors( inspectionResultProcessors );
+		pipeline.setFailOnDomConversion( true );
+
+		try {
+			pipeline.inspectAsDom( null, String.class.getName() );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertTrue( e.getMessage().endsWith( " requires the inspection result be converted between a DOM and a String. Consider implementing DomInspector or DomInspectionResultProcessor" ) );
+		}
+	}
+
+	public void testCompositeInspectorDomConversions() {
+
+		Inspector stringInspector = new Inspector() {
+
+			public String inspect( Object toInspect, String type, String... names ) {
+
+				return "<inspection-result xmlns=\"http://metawidget.org/inspection-result\"><entity type=\"" + type + "\"><property name=\"bar\"/></entity></inspection-result>";
+			}
+		};
+
+		CompositeInspectorConfig config = new CompositeInspectorConfig().setInspectors( stringInspector, new PropertyTypeInspector() );
+
+		// String-only sub-Inspector
+
+		MockPipeline pipeline = new MockPipeline();
+		pipeline.setInspector( new CompositeInspector( config ) );
+		assertTrue( pipeline.inspectAsDom( null, String.class.getName() ) != null );
+		assertEquals( 1, pipeline.getDomConversions() );
+
+		// Concurrent sub-Inspectors (run on other Threads)
+
+		pipeline.setInspector( new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setInspectors( stringInspector, new PropertyTypeInspector() ) ) );
+		pipeline.inspectAsDom( null, String.class.getName() );
+		assertEquals( 1, pipeline.getDomConversions() );
+
+		// DOM sub-Inspectors only
+
+		pipeline.setInspector( new CompositeInspector( new CompositeInspectorConfig().setInspectors( new PropertyTypeInspector() ) ) );
+		pipeline.inspectAsDom( null, String.class.getName() );
+		assertEquals( 0, pipeline.getDomConversions() );
+
+		// Fail
+
+		pipeline.setInspector( new CompositeInspector( config ) );
+		pipeline.setFailOnDomConversion( true );
+
+		try {
+			pipeline.inspectAsDom( null, String.class.getName() );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertTrue( e.getMessage().endsWith( " requires the inspection result be converted between a DOM and a String. Consider implementing DomInspector or DomInspectionResultProcessor" ) );
+		}
+
+		pipeline.setInspector( new ConcurrentCompositeInspector( new ConcurrentCompositeInspectorConfig().setInspectors( stringInspector, new PropertyTypeInspector() ) ) );
+
+		try {
+			pipeline.inspectAsDom( null, String.class.getName() );
+			fail();
+		} catch ( MetawidgetException e ) {
+			assertTrue( e.getMessage().endsWith( " requires the inspection result be converted between a DOM and a String. Consider implementing DomInspector or DomInspectionResultProcessor" ) );
+		}
+	}
+
+	public void testNestedInspection()
+		throws Exception {
+
+		Foo foo = new Foo();
+		foo.setBar( new Bar() );
+		foo.getBar().setBaz( new Baz() );
+
+		// Without a nested inspection depth, every nested pipeline inspects
+
+		CountingInspector inspector = new CountingInspector( new PropertyTypeInspector() );
+		NestingPipeline pipeline = new NestingPipeline( foo, Foo.class.getName() );
+		pipeline.setInspector( inspector );
+		pipeline.buildWidgets( pipeline.inspectAsDom( foo, Foo.class.getName() ) );
+
+		assertEquals( 3, inspector.mInspections );
+		assertEquals( 2, pipeline.mNestedInspectionResults.size() );
+		Element bar = XmlUtils.getFirstChildElement( pipeline.mNestedInspectionResults.get( 0 ) );
+		assertEquals( "bar", bar.getAttribute( NAME ) );
+		assertEquals( Bar.class.getName(), bar.getAttribute( TYPE ) );
+		assertEquals( String.class.getName(), XmlUtils.getChildWithAttributeValue( bar, NAME, "name" ).getAttribute( TYPE ) );
+		Element baz = XmlUtils.getFirstChildElement( pipeline.mNestedInspectionResults.get( 1 ) );
+		assertEquals( "baz", baz.getAttribute( NAME ) );
+		assertEquals( Baz.class.getName(), baz.getAttribute( TYPE ) );
+		assertEquals( String.class.getName(), XmlUtils.getChildWithAttributeValue( baz, NAME, "name" ).getAttribute( TYPE ) );
+
+		// With a nested inspection depth, nested pipelines consume the parent's result
+
+		inspector = new CountingInspector( new PropertyTypeInspector( new BaseObjectInspectorConfig().setNestedInspectionDepth( 2 ) ) );
+		NestingPipeline deepPipeline = new NestingPipeline( foo, Foo.class.getName() );
+		deepPipeline.setInspector( inspector );
+		deepPipeline.buildWidgets( deepPipeline.inspectAsDom( foo, Foo.class.getName() ) );
+
+		assertEquals( 1, inspector.mInspections );
+		assertEquals( 2, deepPipeline.mNestedInspectionResults.size() );
+
+		// (the sub-trees match, apart from any further nested entities)
+
+		Element deepBar = XmlUtils.getFirstChildElement( deepPipeline.mNestedInspectionResults.get( 0 ) );
+		Element nestedEntity = XmlUtils.getFirstChildElement( XmlUtils.getChildWithAttributeValue( deepBar, NAME, "baz" ) );
+		assertEquals( ENTITY, nestedEntity.getNodeName() );
+		nestedEntity.getParentNode().removeChild( nestedEntity );
+		assertEquals( XmlUtils.nodeToString( bar, false ), XmlUtils.nodeToString( deepBar, false ) );
+		assertEquals( XmlUtils.nodeToString( baz, false ), XmlUtils.nodeToString( XmlUtils.getFirstChildElement( deepPipeline.mNestedInspectionResults.get( 1 ) ), false ) );
+
+		// Nested pipelines consume the sub-tree only once
+
+		deepPipeline.mNestedPipelines.get( 0 ).inspectAsDom( foo, Foo.class.getName(), "bar" );
+		assertEquals( 2, inspector.mInspections );
+	}
+
 	//
 	// Inner class
 	//
@@ -331,4 +533,205 @@ public class BasePipelineTest
 			return null;
 		}
 	}
+
+	/* package private */static class CountingInspector
+		implements DomInspector<Element> {
+
+		//
+		// Private members
+		//
+
+		private DomInspector<Element>	mDelegate;
+
+		/* package private */int		mInspections;
+
+		//
+		// Constructor
+		//
+
+		public CountingInspector( DomInspector<Element> delegate ) {
+
+			mDelegate = delegate;
+		}
+
+		//
+		// Public methods
+		//
+
+		public String inspect( Object toInspect, String type, String... names ) {
+
+			return XmlUtils.nodeToString( inspectAsDom( toInspect, type, names ), false );
+		}
+
+		public Element inspectAsDom( Object toInspect, String type, String... names ) {
+
+			mInspections++;
+			return mDelegate.inspectAsDom( toInspect, type, names );
+		}
+	}
+
+	/**
+	 * Pipeline that builds nested pipelines for Bars and Bazs, recording their inspection results.
+	 */
+
+	/* package private */static class NestingPipeline
+		extends MockPipeline {
+
+		//
+		// Private members
+		//
+
+		private Object								mToInspect;
+
+		private String								mType;
+
+		private String[]							mNames;
+
+		/* package private */List<Element>			mNestedInspectionResults;
+
+		/* package private */List<NestingPipeline>	mNestedPipelines;
+
+		//
+		// Constructor
+		//
+
+		public NestingPipeline( Object toInspect, String type ) {
+
+			this( toInspect, type, new String[0], new ArrayList<Element>(), new ArrayList<NestingPipeline>() );
+
+			setWidgetBuilder( new WidgetBuilder<JComponent, JComponent>() {
+
+				public JComponent buildWidget( String elementName, Map<String, String> attributes, JComponent metawidget ) {
+
+					if ( ENTITY.equals( elementName ) ) {
+						return null;
+					}
+
+					if ( Bar.class.getName().equals( attributes.get( TYPE ) ) || Baz.class.getName().equals( attributes.get( TYPE ) ) ) {
+						return null;
+					}
+
+					return new JPanel();
+				}
+			} );
+
+			setLayout( new Layout<JComponent, JComponent, JComponent>() {
+
+				public void layoutWidget( JComponent widget, String elementName, Map<String, String> attributes, JComponent container, JComponent metawidget ) {
+
+					// Do nothing
+				}
+			} );
+		}
+
+		private NestingPipeline( Object toInspect, String type, String[] names, List<Element> nestedInspectionResults, List<NestingPipeline> nestedPipelines ) {
+
+			mToInspect = toInspect;
+			mType = type;
+			mNames = names;
+			mNestedInspectionResults = nestedInspectionResults;
+			mNestedPipelines = nestedPipelines;
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected JComponent buildNestedMetawidget( Map<String, String> attributes )
+			throws Exception {
+
+			String[] names = ArrayUtils.add( mNames, attributes.get( NAME ) );
+			NestingPipeline nestedPipeline = new NestingPipeline( mToInspect, mType, names, mNestedInspectionResults, mNestedPipelines );
+			initNestedPipeline( nestedPipeline, attributes );
+			mNestedPipelines.add( nestedPipeline );
+
+			Element inspectionResult = nestedPipeline.inspectAsDom( mToInspect, mType, names );
+			mNestedInspectionResults.add( inspectionResult );
+			nestedPipeline.buildWidgets( inspectionResult );
+
+			return new JPanel();
+		}
+	}
+
+	public static class Foo {
+
+		//
+		// Private members
+		//
+
+		private Bar	mBar;
+
+		//
+		// Public methods
+		//
+
+		public Bar getBar() {
+
+			return mBar;
+		}
+
+		public void setBar( Bar bar ) {
+
+			mBar = bar;
+		}
+	}
+
+	public static class Bar {
+
+		//
+		// Private members
+		//
+
+		private String	mName;
+
+		private Baz		mBaz;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		public Baz getBaz() {
+
+			return mBaz;
+		}
+
+		public void setBaz( Baz baz ) {
+
+			mBaz = baz;
+		}
+	}
+
+	public static class Baz {
+
+		//
+		// Private members
+		//
+
+		private String	mName;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+	}
 }
@@ -12,8 +12,13 @@
 package org.metawidget.util;
 
 import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import junit.framework.TestCase;
 
@@ -160,6 +165,132 @@ public class ClassUtilsTest
 		}
 	}
 
+	public void testPropertiesCached()
+		throws Exception {
+
+		// Lookups are cached...
+
+		assertTrue( ClassUtils.getReadMethod( Foo.class, "bar" ) == ClassUtils.getReadMethod( Foo.class, "bar" ) );
+
+		// ...including failed lookups...
+
+		for ( int loop = 0; loop < 2; loop++ ) {
+			try {
+				ClassUtils.setProperty( new Foo(), "bar1", new Baz() );
+				fail();
+			} catch ( Exception e ) {
+				assertEquals( "No such method getBar1 (or boolean isBar1) on class org.metawidget.util.ClassUtilsTest$Foo", e.getCause().getMessage() );
+
+				// (the original failure is kept as the cause)
+
+				assertEquals( "No such method getBar1 (or boolean isBar1) on class org.metawidget.util.ClassUtilsTest$Foo", e.getCause().getCause().getMessage() );
+			}
+		}
+
+		// ...including for Classes from other ClassLoaders (though these are only cached weakly)
+
+		Class<?> alienClass = new AlienClassLoader().loadClass( "org.metawidget.util.AlienSet" );
+		Method readMethod = ClassUtils.getReadMethod( alienClass, "empty" );
+		assertEquals( "isEmpty", readMethod.getName() );
+		assertEquals( readMethod, ClassUtils.getReadMethod( alienClass, "empty" ) );
+		assertEquals( Boolean.TRUE, ClassUtils.getProperty( alienClass.newInstance(), "empty" ) );
+	}
+
+	public void testAlienPropertiesCache()
+		throws Exception {
+
+		ClassLoader alienClassLoader = new AlienClassLoader();
+		Class<?> alienClass = alienClassLoader.loadClass( "org.metawidget.util.AlienSet" );
+		assertEquals( "isEmpty", ClassUtils.getReadMethod( alienClass, "empty" ).getName() );
+
+		// Alien caches are keyed weakly by ClassLoader (so do not pin it), and held softly (so
+		// survive garbage collection while memory allows)
+
+		synchronized ( ClassUtils.ALIEN_CLASS_CACHE ) {
+			assertTrue( ClassUtils.ALIEN_CLASS_CACHE instanceof WeakHashMap<?, ?> );
+			assertTrue( ClassUtils.ALIEN_CLASS_CACHE.get( alienClassLoader ) instanceof SoftReference<?> );
+
+			// Cleared caches are recreated on demand
+
+			ClassUtils.ALIEN_CLASS_CACHE.get( alienClassLoader ).clear();
+		}
+
+		assertEquals( "isEmpty", ClassUtils.getReadMethod( alienClass, "empty" ).getName() );
+
+		synchronized ( ClassUtils.ALIEN_CLASS_CACHE ) {
+			assertTrue( null != ClassUtils.ALIEN_CLASS_CACHE.get( alienClassLoader ).get() );
+		}
+	}
+
+	public void testConcurrentOriginalAnnotation()
+		throws Exception {
+
+		final Method[] methods = EqualsSkipped.class.getMethods();
+		final Deprecated[] expected = new Deprecated[methods.length];
+
+		for ( int loop = 0; loop < methods.length; loop++ ) {
+			expected[loop] = ClassUtils.getOriginalAnnotation( methods[loop], Deprecated.class );
+		}
+
+		final Throwable[] failed = new Throwable[1];
+		Thread[] threads = new Thread[8];
+
+		for ( int loop = 0; loop < threads.length; loop++ ) {
+			threads[loop] = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						for ( int repeat = 0; repeat < 100; repeat++ ) {
+							for ( int method = 0; method < methods.length; method++ ) {
+								assertEquals( expected[method], ClassUtils.getOriginalAnnotation( methods[method], Deprecated.class ) );
+							}
+						}
+					} catch ( Throwable t ) {
+						failed[0] = t;
+					}
+				}
+			};
+			threads[loop].start();
+		}
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertEquals( null, failed[0] );
+	}
+
+	public void testGetOriginalAnnotations()
+		throws Exception {
+
+		// Unannotated override should fall back to superclass, plus interface
+
+		Method method = OriginalAnnotations.class.getMethod( "getFoo" );
+		Annotation[] annotations = ClassUtils.getOriginalAnnotations( method );
+		assertEquals( 2, annotations.length );
+
+		for ( Annotation annotation : annotations ) {
+			assertTrue( annotation == ClassUtils.getOriginalAnnotation( method, annotation.annotationType() ) );
+		}
+
+		assertEquals( "super", ClassUtils.getOriginalAnnotation( method, Tag.class ).value() );
+		assertTrue( ClassUtils.getOriginalAnnotation( method, Deprecated.class ) != null );
+
+		// Annotated override should take precedence
+
+		method = OriginalAnnotations.class.getMethod( "getBar" );
+		annotations = ClassUtils.getOriginalAnnotations( method );
+		assertEquals( 1, annotations.length );
+		assertEquals( "sub", ( (Tag) annotations[0] ).value() );
+		assertTrue( annotations[0] == ClassUtils.getOriginalAnnotation( method, Tag.class ) );
+
+		// No annotations
+
+		assertEquals( 0, ClassUtils.getOriginalAnnotations( Object.class.getMethod( "toString" ) ).length );
+	}
+
 	public void testStrictJavaBeanConvention()
 		throws Exception {
 
@@ -233,11 +364,43 @@ public class ClassUtilsTest
 		assertEquals( null, ClassUtils.niceForName( "org.metawidget.util.AlienSet" ) );
 	}
 
-	public static void unregisterAllAlienClassLoaders() {
+	public void testNiceForNameCachedPerClassLoader()
+		throws Exception {
+
+		ClassLoader alienClassLoader = new AlienClassLoader();
+		ClassUtilsTest.unregisterAllAlienClassLoaders();
 
-		synchronized ( ClassUtils.ALIEN_CLASSLOADERS ) {
-			ClassUtils.ALIEN_CLASSLOADERS.clear();
+		// Failed lookups are cached, but only for the same ClassLoaders
+
+		assertEquals( null, ClassUtils.niceForName( "org.metawidget.util.AlienSet" ) );
+		assertEquals( null, ClassUtils.niceForName( "org.metawidget.util.AlienSet" ) );
+		assertEquals( "org.metawidget.util.AlienSet", ClassUtils.niceForName( "org.metawidget.util.AlienSet", alienClassLoader ).getName() );
+		assertTrue( ClassUtils.niceForName( "org.metawidget.util.AlienSet", alienClassLoader ) == ClassUtils.niceForName( "org.metawidget.util.AlienSet", alienClassLoader ) );
+		assertEquals( null, ClassUtils.niceForName( "org.metawidget.util.AlienSet" ) );
+
+		Thread thread = Thread.currentThread();
+		ClassLoader threadClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader( alienClassLoader );
+
+		try {
+			assertEquals( "org.metawidget.util.AlienSet", ClassUtils.niceForName( "org.metawidget.util.AlienSet" ).getName() );
+		} finally {
+			thread.setContextClassLoader( threadClassLoader );
 		}
+
+		assertEquals( null, ClassUtils.niceForName( "org.metawidget.util.AlienSet" ) );
+
+		// Successful lookups are cached too
+
+		assertTrue( String.class == ClassUtils.niceForName( "java.lang.String" ) );
+		assertTrue( String.class == ClassUtils.niceForName( "java.lang.String" ) );
+		assertTrue( int.class == ClassUtils.niceForName( "int" ) );
+		assertTrue( int.class == ClassUtils.niceForName( "int" ) );
+	}
+
+	public static void unregisterAllAlienClassLoaders() {
+
+		ClassUtils.unregisterAllAlienClassLoaders();
 	}
 
 	public static void testGetPackagesAsFolderNames() {
@@ -329,4 +492,50 @@ public class ClassUtilsTest
 			return super.equals( obj );
 		}
 	}
+
+	@Retention( RetentionPolicy.RUNTIME )
+	static @interface Tag {
+
+		String value();
+	}
+
+	static interface OriginalAnnotationsInterface {
+
+		@Deprecated
+		@Tag( "interface" )
+		String getFoo();
+	}
+
+	static class SuperOriginalAnnotations {
+
+		@Tag( "super" )
+		public String getFoo() {
+
+			return null;
+		}
+
+		@Tag( "super" )
+		public String getBar() {
+
+			return null;
+		}
+	}
+
+	static class OriginalAnnotations
+		extends SuperOriginalAnnotations
+		implements OriginalAnnotationsInterface {
+
+		@Override
+		public String getFoo() {
+
+			return null;
+		}
+
+		@Override
+		@Tag( "sub" )
+		public String getBar() {
+
+			return null;
+		}
+	}
 }
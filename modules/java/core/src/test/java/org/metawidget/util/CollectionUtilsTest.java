@@ -13,6 +13,7 @@ package org.metawidget.util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import junit.framework.TestCase;
 
@@ -53,4 +54,31 @@ public class CollectionUtilsTest
 		assertEquals( CollectionUtils.fromString( ",,foo" ).size(), 3 );
 		assertEquals( CollectionUtils.fromString( ",,foo," ).size(), 4 );
 	}
+
+	public void testBoundedConcurrentHashMap() {
+
+		ConcurrentMap<String, String> map = CollectionUtils.newBoundedConcurrentHashMap( 2 );
+		map.put( "foo", "Foo" );
+		assertEquals( null, map.putIfAbsent( "bar", "Bar" ) );
+		assertEquals( "Bar", map.putIfAbsent( "bar", "Bar2" ) );
+		assertEquals( "Foo", map.put( "foo", "Foo2" ) );
+		assertEquals( 2, map.size() );
+
+		// Eldest inserted should be evicted, even though it was updated and read more recently
+
+		assertEquals( "Foo2", map.get( "foo" ) );
+		map.put( "baz", "Baz" );
+		assertEquals( 2, map.size() );
+		assertFalse( map.containsKey( "foo" ) );
+		assertEquals( "Bar", map.get( "bar" ) );
+		assertEquals( "Baz", map.get( "baz" ) );
+
+		// Clearing should also clear the eviction order
+
+		map.clear();
+		map.putIfAbsent( "abc", "Abc" );
+		map.putIfAbsent( "def", "Def" );
+		assertEquals( 2, map.size() );
+		assertEquals( "Abc", map.get( "abc" ) );
+	}
 }
@@ -257,6 +257,59 @@ public class XmlUtilsTest
 		assertEquals( "<bar>\n   <foo>some\n      <strong>bold</strong>text</foo>\n</bar>", XmlUtils.documentToString( document, true ) );
 	}
 
+	public void testConcurrentDocuments()
+		throws Exception {
+
+		final List<Throwable> failures = CollectionUtils.newArrayList();
+		Thread[] threads = new Thread[8];
+
+		for ( int loop = 0; loop < threads.length; loop++ ) {
+			final int threadNumber = loop;
+
+			threads[loop] = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						for ( int iteration = 0; iteration < 100; iteration++ ) {
+							String xml = "<foo thread=\"" + threadNumber + "\"><bar iteration=\"" + iteration + "\"/></foo>";
+							Document document = XmlUtils.documentFromString( xml );
+							assertEquals( xml, XmlUtils.documentToString( document, false ) );
+
+							document = XmlUtils.newDocument();
+							document.appendChild( document.createElementNS( "http://metawidget.org", "baz" ) );
+							assertEquals( "baz", document.getDocumentElement().getLocalName() );
+						}
+					} catch ( Throwable t ) {
+						synchronized ( failures ) {
+							failures.add( t );
+						}
+					}
+				}
+			};
+			threads[loop].start();
+		}
+
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertTrue( failures.toString(), failures.isEmpty() );
+	}
+
+	public void testReleaseDocumentBuilder() {
+
+		assertEquals( "<foo/>", XmlUtils.documentToString( XmlUtils.documentFromString( "<foo/>" ), false ) );
+
+		// Released DocumentBuilders are recreated on demand
+
+		XmlUtils.releaseDocumentBuilder();
+		XmlUtils.releaseDocumentBuilder();
+		assertEquals( "<bar/>", XmlUtils.documentToString( XmlUtils.documentFromString( "<bar/>" ), false ) );
+		assertTrue( null != XmlUtils.newDocument() );
+	}
+
 	public void testCombineElements() {
 
 		Document documentMaster = XmlUtils.documentFromString( "<inspection-result><foo fooAttr=\"1\"><bar barAttr=\"2\" data=\"bar2\"/></foo></inspection-result>" );
@@ -277,6 +330,24 @@ public class XmlUtilsTest
 		documentToAdd = XmlUtils.documentFromString( "<inspection-result><foo fooAttr=\"2\"><bar barAttr=\"3\" data=\"bar3\"/></foo></inspection-result>" );
 		XmlUtils.combineElements( documentMaster.getDocumentElement(), documentToAdd.getDocumentElement(), "fooAttr", "barAttr" );
 		assertEquals( "<inspection-result><foo fooAttr=\"1\"><bar barAttr=\"2\" data=\"bar2\"/></foo><foo fooAttr=\"2\"><bar barAttr=\"3\" data=\"bar3\"/></foo></inspection-result>", XmlUtils.documentToString( documentMaster, false ) );
+
+		// Ordering: new children go immediately after the last matched master child
+
+		documentMaster = XmlUtils.documentFromString( "<inspection-result><entity type=\"Foo\"><property name=\"a\"/><property name=\"b\"/><property name=\"c\"/></entity></inspection-result>" );
+		documentToAdd = XmlUtils.documentFromString( "<inspection-result><entity type=\"Foo\"><property name=\"a\" x=\"1\"/><property name=\"a1\"/><property name=\"a2\"/><property name=\"c\" x=\"2\"/><property name=\"d\"/></entity></inspection-result>" );
+		XmlUtils.combineElements( documentMaster.getDocumentElement(), documentToAdd.getDocumentElement(), "type", "name" );
+		assertEquals( "<inspection-result><entity type=\"Foo\"><property name=\"a\" x=\"1\"/><property name=\"a1\"/><property name=\"a2\"/><property name=\"b\"/><property name=\"c\" x=\"2\"/><property name=\"d\"/></entity></inspection-result>", XmlUtils.documentToString( documentMaster, false ) );
+
+		// Mismatched element names
+
+		documentToAdd = XmlUtils.documentFromString( "<inspection-result><entity type=\"Foo\"><action name=\"b\"/></entity></inspection-result>" );
+
+		try {
+			XmlUtils.combineElements( documentMaster.getDocumentElement(), documentToAdd.getDocumentElement(), "type", "name" );
+			fail();
+		} catch ( Exception e ) {
+			assertEquals( "Matching elements named 'b', but existing one is a 'property' whilst new one is a 'action'", e.getMessage() );
+		}
 	}
 
 	public void testinspectionResultToJsonSchema() {
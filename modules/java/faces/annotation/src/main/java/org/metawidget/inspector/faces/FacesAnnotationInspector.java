@@ -20,6 +20,7 @@ import java.util.regex.Pattern;
 import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.CollectionUtils;
 
@@ -31,7 +32,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class FacesAnnotationInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
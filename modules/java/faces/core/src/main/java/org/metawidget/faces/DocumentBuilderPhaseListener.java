@@ -0,0 +1,58 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.faces;
+
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+
+import org.metawidget.util.XmlUtils;
+
+/**
+ * Releases the request Thread's DocumentBuilder (see <code>XmlUtils.releaseDocumentBuilder</code>)
+ * at the end of each request, so that pooled request Threads do not pin the application's
+ * ClassLoader after undeploy.
+ * <p>
+ * Registered automatically by Metawidget's <code>faces-config.xml</code>.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class DocumentBuilderPhaseListener
+	implements PhaseListener {
+
+	//
+	// Public methods
+	//
+
+	public PhaseId getPhaseId() {
+
+		return PhaseId.ANY_PHASE;
+	}
+
+	public void beforePhase( PhaseEvent event ) {
+
+		// Do nothing
+	}
+
+	/**
+	 * Releases after <code>RENDER_RESPONSE</code>, or after any earlier phase that completes the
+	 * response (such as a redirect).
+	 */
+
+	public void afterPhase( PhaseEvent event ) {
+
+		if ( PhaseId.RENDER_RESPONSE.equals( event.getPhaseId() ) || event.getFacesContext().getResponseComplete() ) {
+			XmlUtils.releaseDocumentBuilder();
+		}
+	}
+}
@@ -0,0 +1,316 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.faces.component;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.metawidget.util.CollectionUtils;
+
+/**
+ * Immutable metadata, interned against a shared, per-type table.
+ * <p>
+ * Used by <code>UIMetawidget.setCompactState</code>. Components with equal metadata share a single
+ * instance and, when serialized into the view state, each instance writes only its table (type and
+ * table id) and its index into that table rather than its full attributes.
+ * <p>
+ * The table lives as long as this class. Indexes are assigned in the order metadata is first
+ * interned, so mean different things in different tables. If a view state is restored into a
+ * different table (say, after a server restart, or on another node of a cluster) the metadata is
+ * therefore restored as <code>UNRESOLVED</code>, rather than as some other metadata that happens to
+ * share its index. <code>UIMetawidget</code> checks for this and rebuilds its widgets, even
+ * following a validation failure.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+/* package private */final class InternedMetadata
+	extends AbstractMap<String, String>
+	implements Serializable {
+
+	//
+	// Package private statics
+	//
+
+	/**
+	 * Restored in place of metadata that was serialized from a different table. Compare by
+	 * identity.
+	 */
+
+	/* package private */static final Map<String, String>	UNRESOLVED					= Collections.unmodifiableMap( CollectionUtils.<String, String> newHashMap() );
+
+	/**
+	 * Identifies this table, so that fingerprints that depend on it can tell when it has changed.
+	 */
+
+	/* package private */static final long					TABLE_ID					= new Random().nextLong();
+
+	//
+	// Private statics
+	//
+
+	private static final long								serialVersionUID			= 1L;
+
+	/**
+	 * Maximum number of distinct metadata to intern per type. Beyond this (such as when the metadata
+	 * contains per-user values) metadata is stored as is, rather than growing the table without
+	 * bound.
+	 */
+
+	private static final int								MAXIMUM_INTERNED_PER_TYPE	= 1000;
+
+	private static final ConcurrentMap<String, Table>		TABLES						= new ConcurrentHashMap<String, Table>();
+
+	private static final String								TABLE_KEY_SEPARATOR			= "@";
+
+	//
+	// Private members
+	//
+
+	private final String									mTableKey;
+
+	private final int										mIndex;
+
+	private final transient Map<String, String>				mAttributes;
+
+	//
+	// Public statics
+	//
+
+	/**
+	 * @param type
+	 *            the type the metadata belongs to. If null, the metadata is returned as is
+	 * @return the shared instance equal to the given metadata
+	 */
+
+	public static Map<String, String> intern( String type, Map<String, String> attributes ) {
+
+		if ( type == null ) {
+			return attributes;
+		}
+
+		Table table = TABLES.get( type );
+
+		if ( table == null ) {
+			table = new Table( type );
+			Table existingTable = TABLES.putIfAbsent( type, table );
+
+			if ( existingTable != null ) {
+				table = existingTable;
+			}
+		}
+
+		return table.intern( attributes );
+	}
+
+	//
+	// Constructor
+	//
+
+	private InternedMetadata( String tableKey, int index, Map<String, String> attributes ) {
+
+		mTableKey = tableKey;
+		mIndex = index;
+		mAttributes = attributes;
+	}
+
+	//
+	// Public methods
+	//
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+
+		return mAttributes.entrySet();
+	}
+
+	@Override
+	public String get( Object key ) {
+
+		return mAttributes.get( key );
+	}
+
+	@Override
+	public boolean containsKey( Object key ) {
+
+		return mAttributes.containsKey( key );
+	}
+
+	@Override
+	public int size() {
+
+		return mAttributes.size();
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * Serialize only a reference into the table.
+	 */
+
+	private Object writeReplace() {
+
+		return new Reference( mTableKey, mIndex );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * Interned metadata for a single type.
+	 */
+
+	private static class Table {
+
+		//
+		// Private members
+		//
+
+		/**
+		 * Identifies this table in the serialized form. There is one instance per table, so
+		 * serialization writes it only once per stream and each <code>Reference</code> to it costs
+		 * only a handle.
+		 */
+
+		private final String												mKey;
+
+		private final ConcurrentMap<Map<String, String>, InternedMetadata>	mInterned	= new ConcurrentHashMap<Map<String, String>, InternedMetadata>();
+
+		private final List<InternedMetadata>								mIndexed	= CollectionUtils.newArrayList();
+
+		//
+		// Constructor
+		//
+
+		public Table( String type ) {
+
+			mKey = type + TABLE_KEY_SEPARATOR + TABLE_ID;
+		}
+
+		//
+		// Public methods
+		//
+
+		public Map<String, String> intern( Map<String, String> attributes ) {
+
+			InternedMetadata interned = mInterned.get( attributes );
+
+			if ( interned != null ) {
+				return interned;
+			}
+
+			synchronized ( mIndexed ) {
+
+				interned = mInterned.get( attributes );
+
+				if ( interned != null ) {
+					return interned;
+				}
+
+				if ( mIndexed.size() >= MAXIMUM_INTERNED_PER_TYPE ) {
+					return attributes;
+				}
+
+				Map<String, String> copy = Collections.unmodifiableMap( CollectionUtils.newHashMap( attributes ) );
+				interned = new InternedMetadata( mKey, mIndexed.size(), copy );
+				mIndexed.add( interned );
+				mInterned.put( copy, interned );
+
+				return interned;
+			}
+		}
+
+		public Map<String, String> get( int index ) {
+
+			synchronized ( mIndexed ) {
+
+				if ( index < 0 || index >= mIndexed.size() ) {
+					return null;
+				}
+
+				return mIndexed.get( index );
+			}
+		}
+	}
+
+	/**
+	 * Serialized form of <code>InternedMetadata</code>.
+	 */
+
+	private static class Reference
+		implements Serializable {
+
+		//
+		// Private statics
+		//
+
+		private static final long	serialVersionUID	= 1L;
+
+		//
+		// Private members
+		//
+
+		private String				mTableKey;
+
+		private int					mIndex;
+
+		//
+		// Constructor
+		//
+
+		public Reference( String tableKey, int index ) {
+
+			mTableKey = tableKey;
+			mIndex = index;
+		}
+
+		//
+		// Private methods
+		//
+
+		/**
+		 * Resolve back to the shared instance, provided it was serialized from this same table.
+		 * Otherwise resolve to <code>UNRESOLVED</code>.
+		 */
+
+		private Object readResolve() {
+
+			String tableIdSuffix = TABLE_KEY_SEPARATOR + TABLE_ID;
+
+			if ( !mTableKey.endsWith( tableIdSuffix ) ) {
+				return UNRESOLVED;
+			}
+
+			Table table = TABLES.get( mTableKey.substring( 0, mTableKey.length() - tableIdSuffix.length() ) );
+
+			if ( table != null ) {
+				Map<String, String> interned = table.get( mIndex );
+
+				if ( interned != null ) {
+					return interned;
+				}
+			}
+
+			return UNRESOLVED;
+		}
+	}
+}
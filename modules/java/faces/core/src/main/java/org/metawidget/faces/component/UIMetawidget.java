@@ -57,6 +57,8 @@ import org.metawidget.util.simple.StringUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
 import org.metawidget.widgetprocessor.iface.WidgetProcessor;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 
 /**
  * Base Metawidget for Java Server Faces environments.
@@ -152,6 +154,18 @@ public abstract class UIMetawidget
 
 	private static final String				COMPONENT_ATTRIBUTE_PARAMETER_PREFIX	= "metawidget-parameter-";
 
+	/**
+	 * Component-level attribute used to record the element name (ie. 'property' or 'action') a
+	 * widget was built for. Used by <code>setRebuildIncrementally</code> to tell widgets apart from
+	 * any containers (such as section panels) the Layout may have wrapped them in.
+	 */
+
+	private static final String				COMPONENT_ATTRIBUTE_ELEMENT_NAME		= "metawidget-element-name";
+
+	private static final long				FNV_OFFSET_BASIS						= 0xcbf29ce484222325L;
+
+	private static final long				FNV_PRIME								= 0x100000001b3L;
+
 	/* package private */static final Log	LOG										= LogUtils.getLog( UIMetawidget.class );
 
 	/* package private */static boolean		LOGGED_MISSING_CONFIG;
@@ -173,6 +187,26 @@ public abstract class UIMetawidget
 
 	/* package private */boolean			mBuildWidgetsOnAjaxRequest;
 
+	private boolean							mRebuildIncrementally;
+
+	private boolean							mRebuildOnlyIfChanged;
+
+	/**
+	 * Fingerprint of the inspection result (and read-only state) the widgets were last built from.
+	 * Only used if <code>setRebuildOnlyIfChanged</code>.
+	 */
+
+	private Long							mInspectionResultFingerprint;
+
+	private boolean							mCompactState;
+
+	/**
+	 * Type of the entity currently being built. Used to intern metadata if
+	 * <code>setCompactState</code>.
+	 */
+
+	private String							mEntityType;
+
 	private boolean							mInspectFromParent;
 
 	private boolean							mReadOnly;
@@ -183,6 +217,13 @@ public abstract class UIMetawidget
 
 	/* package private */Object				mBuildWidgetsSupport;
 
+	/**
+	 * Widgets harvested by <code>startBuild</code> that may be reused by the current build, keyed by
+	 * element name and property name. Only used if <code>setRebuildIncrementally</code>.
+	 */
+
+	private Map<String, UIComponent>		mReusableWidgets;
+
 	//
 	// Constructor
 	//
@@ -396,6 +437,68 @@ public abstract class UIMetawidget
 		mBuildWidgetsOnAjaxRequest = buildWidgetsOnAjaxRequest;
 	}
 
+	/**
+	 * By default, <code>UIMetawidget</code> destroys and recreates every (recreatable) component
+	 * upon each build. On large forms this means much of the render phase is spent recreating
+	 * components identical to the ones just destroyed.
+	 * <p>
+	 * Clients can use <code>setRebuildIncrementally</code> to instead compare the new inspection
+	 * result against the metadata stored under <code>COMPONENT_ATTRIBUTE_METADATA</code>, and keep
+	 * those components whose metadata is unchanged. Only added, removed or changed properties are
+	 * rebuilt.
+	 * <p>
+	 * Kept components are not passed through the WidgetProcessors again (they were processed when
+	 * first built). Therefore this mode is only suitable if the WidgetBuilders and WidgetProcessors
+	 * derive their output purely from the metadata, not from other runtime state.
+	 */
+
+	public void setRebuildIncrementally( boolean rebuildIncrementally ) {
+
+		mRebuildIncrementally = rebuildIncrementally;
+	}
+
+	/**
+	 * By default, <code>UIMetawidget</code> rebuilds its widgets upon every request (subject to
+	 * <code>setBuildWidgetsOnAjaxRequest</code>), even if nothing about them has changed.
+	 * <p>
+	 * Clients can use <code>setRebuildOnlyIfChanged</code> to instead store a fingerprint of the
+	 * (processed) inspection result in the component's state, and skip the build entirely if the
+	 * next inspection result has the same fingerprint. The existing component subtree is then
+	 * reused as is. Combined with <code>setBuildWidgetsOnAjaxRequest( true )</code>, this gives
+	 * most of the performance benefit of not rebuilding upon AJAX requests, while still rebuilding
+	 * when the metadata (say, an <code>UiComesAfter</code> or a JEXL-driven <code>hidden</code>)
+	 * actually changes.
+	 * <p>
+	 * As with <code>setRebuildIncrementally</code>, this mode is only suitable if the
+	 * WidgetBuilders and WidgetProcessors derive their output purely from the metadata.
+	 */
+
+	public void setRebuildOnlyIfChanged( boolean rebuildOnlyIfChanged ) {
+
+		mRebuildOnlyIfChanged = rebuildOnlyIfChanged;
+	}
+
+	/**
+	 * By default, every component <code>UIMetawidget</code> generates stores its own copy of its
+	 * metadata under <code>COMPONENT_ATTRIBUTE_METADATA</code>. With client-side state saving (or
+	 * serialized server-side state saving) all of these get written into the view state, which for
+	 * large forms can be substantial.
+	 * <p>
+	 * Clients can use <code>setCompactState</code> to instead intern the metadata against a shared
+	 * table, per inspected type. Components with equal metadata share the same (immutable) Map, and
+	 * each Map serializes as just a small reference into the table.
+	 * <p>
+	 * The table is per JVM, so a view state restored elsewhere (say, after a server restart, or on
+	 * another node of a cluster) cannot resolve those references. In that case
+	 * <code>UIMetawidget</code> always rebuilds its widgets, even following a validation failure
+	 * (in which case the submitted values are lost).
+	 */
+
+	public void setCompactState( boolean compactState ) {
+
+		mCompactState = compactState;
+	}
+
 	/**
 	 * Returns a label for the given set of attributes.
 	 * <p>
@@ -735,6 +838,12 @@ public abstract class UIMetawidget
 
 		nestedMetawidget.copyParameters( this );
 
+		// Incremental rebuilding
+
+		nestedMetawidget.setRebuildIncrementally( mRebuildIncrementally );
+		nestedMetawidget.setRebuildOnlyIfChanged( mRebuildOnlyIfChanged );
+		nestedMetawidget.setCompactState( mCompactState );
+
 		// Note: it is very dangerous to do, say...
 		//
 		// to.getAttributes().putAll( from.getAttributes() );
@@ -748,13 +857,17 @@ public abstract class UIMetawidget
 	@Override
 	public Object saveState( FacesContext context ) {
 
-		Object[] values = new Object[6];
+		Object[] values = new Object[10];
 		values[0] = super.saveState( context );
 		values[1] = mExplicitRendererType;
 		values[2] = mReadOnly;
 		values[3] = mPipeline.getConfig();
 		values[4] = mInspectFromParent;
 		values[5] = mBuildWidgetsOnAjaxRequest;
+		values[6] = mRebuildIncrementally;
+		values[7] = mRebuildOnlyIfChanged;
+		values[8] = mInspectionResultFingerprint;
+		values[9] = mCompactState;
 
 		return values;
 	}
@@ -770,6 +883,10 @@ public abstract class UIMetawidget
 		mPipeline.setConfig( values[3] );
 		mInspectFromParent = (Boolean) values[4];
 		mBuildWidgetsOnAjaxRequest = (Boolean) values[5];
+		mRebuildIncrementally = (Boolean) values[6];
+		mRebuildOnlyIfChanged = (Boolean) values[7];
+		mInspectionResultFingerprint = (Long) values[8];
+		mCompactState = (Boolean) values[9];
 	}
 
 	//
@@ -884,7 +1001,7 @@ public abstract class UIMetawidget
 		ValueBinding valueBinding = getValueBinding( "value" );
 
 		if ( valueBinding != null ) {
-			mPipeline.buildWidgets( inspect( valueBinding, mInspectFromParent ) );
+			buildWidgetsIfChanged( inspect( valueBinding, mInspectFromParent ) );
 			return;
 		}
 
@@ -893,21 +1010,21 @@ public abstract class UIMetawidget
 		Object value = getValue();
 
 		if ( value instanceof String ) {
-			mPipeline.buildWidgets( mPipeline.inspectAsDom( null, (String) value ) );
+			buildWidgetsIfChanged( mPipeline.inspectAsDom( null, (String) value ) );
 			return;
 		}
 
 		// ...or a Class (for 'binding' attribute)...
 
 		if ( value instanceof Class<?> ) {
-			mPipeline.buildWidgets( mPipeline.inspectAsDom( null, ( (Class<?>) value ).getName() ) );
+			buildWidgetsIfChanged( mPipeline.inspectAsDom( null, ( (Class<?>) value ).getName() ) );
 			return;
 		}
 
 		// ...or a direct Object (for 'binding' attribute)...
 
 		if ( value != null ) {
-			mPipeline.buildWidgets( mPipeline.inspectAsDom( value, value.getClass().getName() ) );
+			buildWidgetsIfChanged( mPipeline.inspectAsDom( value, value.getClass().getName() ) );
 			return;
 		}
 
@@ -942,7 +1059,12 @@ public abstract class UIMetawidget
 
 		// Remove any components we created previously (this is
 		// important for polymorphic controls, which may change from
-		// refresh to refresh)
+		// refresh to refresh). If rebuilding incrementally, hold on to them in case they can be
+		// reused
+
+		if ( mRebuildIncrementally ) {
+			mReusableWidgets = CollectionUtils.newHashMap();
+		}
 
 		List<UIComponent> children = getChildren();
 
@@ -960,7 +1082,7 @@ public abstract class UIMetawidget
 
 			// Remove recreatable components
 
-			if ( removeRecreatableChildren( componentChild ) ) {
+			if ( removeRecreatableChildren( componentChild, mReusableWidgets ) ) {
 				i.remove();
 			}
 		}
@@ -974,23 +1096,37 @@ public abstract class UIMetawidget
 
 	protected void layoutWidget( UIComponent component, String elementName, Map<String, String> attributes ) {
 
+		// Look up any additional attributes
+
+		Map<String, String> additionalAttributes = mPipeline.getAdditionalAttributes( component );
+
+		if ( additionalAttributes != null ) {
+			attributes.putAll( additionalAttributes );
+		}
+
 		Map<String, Object> componentAttributes = component.getAttributes();
-		componentAttributes.put( COMPONENT_ATTRIBUTE_METADATA, attributes );
+
+		if ( mCompactState ) {
+			componentAttributes.put( COMPONENT_ATTRIBUTE_METADATA, InternedMetadata.intern( mEntityType, attributes ) );
+		} else {
+			componentAttributes.put( COMPONENT_ATTRIBUTE_METADATA, attributes );
+		}
+
+		if ( mRebuildIncrementally && !ENTITY.equals( elementName ) ) {
+			componentAttributes.put( COMPONENT_ATTRIBUTE_ELEMENT_NAME, elementName );
+		}
 
 		// If this component already exists in the list, remove it and re-add it. This
 		// enables us to sort existing, manually created components in the correct order
 		//
 		// Doing the remove here, rather than in SimpleLayout, ensures we always remove and
 		// add for cases like moving a Stub from outside a TabPanel to inside it
+		//
+		// Check the parent first, as List.remove is a linear search and newly built components
+		// will never be in the list
 
-		getChildren().remove( component );
-
-		// Look up any additional attributes
-
-		Map<String, String> additionalAttributes = mPipeline.getAdditionalAttributes( component );
-
-		if ( additionalAttributes != null ) {
-			attributes.putAll( additionalAttributes );
+		if ( component.getParent() == this ) {
+			getChildren().remove( component );
 		}
 
 		// BasePipeline will call .layoutWidget
@@ -1046,6 +1182,10 @@ public abstract class UIMetawidget
 			mPipeline.layoutWidget( component, PROPERTY, childAttributes );
 		}
 
+		// Discard any widgets that were not reused
+
+		mReusableWidgets = null;
+
 		LOG.trace( "endBuild" );
 	}
 
@@ -1053,6 +1193,95 @@ public abstract class UIMetawidget
 	// Private methods
 	//
 
+	/**
+	 * Builds widgets for the given inspection result, unless <code>setRebuildOnlyIfChanged</code>
+	 * and the widgets were last built from an identical one.
+	 */
+
+	private void buildWidgetsIfChanged( Element inspectionResult )
+		throws Exception {
+
+		mEntityType = null;
+
+		if ( mCompactState && inspectionResult != null ) {
+			Element entity = XmlUtils.getFirstChildElement( inspectionResult );
+
+			if ( entity != null ) {
+				mEntityType = entity.getAttribute( TYPE );
+			}
+		}
+
+		if ( !mRebuildOnlyIfChanged || inspectionResult == null ) {
+			mPipeline.buildWidgets( inspectionResult );
+			return;
+		}
+
+		// (read-only is not part of the inspection result, but does affect which widgets get built)
+
+		long fingerprint = getFingerprint( String.valueOf( isReadOnly() ), FNV_OFFSET_BASIS );
+		fingerprint = getFingerprint( inspectionResult, fingerprint );
+
+		// If the interned metadata came from a different table (say, before a server restart) it
+		// will not have been restored, so make sure to rebuild
+
+		if ( mCompactState ) {
+			fingerprint = getFingerprint( String.valueOf( InternedMetadata.TABLE_ID ), fingerprint );
+		}
+
+		if ( mInspectionResultFingerprint != null && mInspectionResultFingerprint == fingerprint ) {
+			LOG.trace( "Inspection result unchanged. Skipping build" );
+			return;
+		}
+
+		mPipeline.buildWidgets( inspectionResult );
+
+		// Only store the fingerprint once the build has succeeded
+
+		mInspectionResultFingerprint = fingerprint;
+	}
+
+	/**
+	 * Computes a 64-bit FNV-1a hash over the names, attribute names and attribute values of the
+	 * given element and its descendants, in document order. This is much cheaper than serializing
+	 * the inspection result, and sufficient to detect changes to it.
+	 */
+
+	private long getFingerprint( Element element, long hash ) {
+
+		long fingerprint = getFingerprint( element.getNodeName(), hash );
+
+		NamedNodeMap attributes = element.getAttributes();
+
+		for ( int loop = 0, length = attributes.getLength(); loop < length; loop++ ) {
+			Node attribute = attributes.item( loop );
+			fingerprint = getFingerprint( attribute.getNodeName(), fingerprint );
+			fingerprint = getFingerprint( attribute.getNodeValue(), fingerprint );
+		}
+
+		for ( Element child = XmlUtils.getFirstChildElement( element ); child != null; child = XmlUtils.getNextSiblingElement( child ) ) {
+			fingerprint = getFingerprint( child, fingerprint );
+		}
+
+		// Mark the end of the element, so that siblings and children hash differently
+
+		return getFingerprint( "/", fingerprint );
+	}
+
+	private long getFingerprint( String value, long hash ) {
+
+		long fingerprint = hash;
+
+		for ( int loop = 0, length = value.length(); loop < length; loop++ ) {
+			fingerprint ^= value.charAt( loop );
+			fingerprint *= FNV_PRIME;
+		}
+
+		// Delimit each value, so that ( 'ab', 'c' ) hashes differently to ( 'a', 'bc' )
+
+		fingerprint ^= 0xffff;
+		return fingerprint * FNV_PRIME;
+	}
+
 	/**
 	 * Removes all recreatable children (i.e. not marked COMPONENT_ATTRIBUTE_NOT_RECREATABLE). Does
 	 * not remove top-level <code>UIComponent</code>s if any of their
@@ -1060,10 +1289,12 @@ public abstract class UIMetawidget
 	 * children as it can. This allows their siblings to still behave dynamically even if some
 	 * components are locked (e.g. <code>SelectInputDate</code>).
 	 * 
+	 * @param reusableWidgets
+	 *            if not null, removed widgets are put here (intact) so that they may be reused
 	 * @return true if all children were removed (i.e. none were marked not-recreatable).
 	 */
 
-	private boolean removeRecreatableChildren( UIComponent component ) {
+	private boolean removeRecreatableChildren( UIComponent component, Map<String, UIComponent> reusableWidgets ) {
 
 		// Do not remove locked or overridden components...
 
@@ -1077,6 +1308,19 @@ public abstract class UIMetawidget
 			return false;
 		}
 
+		// Keep widgets (but not Layout containers) intact if they can be reused
+
+		if ( reusableWidgets != null && attributes.containsKey( COMPONENT_ATTRIBUTE_ELEMENT_NAME ) && !hasNotRecreatableChildren( component ) ) {
+
+			@SuppressWarnings( "unchecked" )
+			Map<String, String> metadata = (Map<String, String>) attributes.get( COMPONENT_ATTRIBUTE_METADATA );
+
+			if ( metadata != null && metadata.containsKey( NAME ) ) {
+				reusableWidgets.put( attributes.get( COMPONENT_ATTRIBUTE_ELEMENT_NAME ) + "/" + metadata.get( NAME ), component );
+				return true;
+			}
+		}
+
 		// Recurse into children. We may have an auto-generated 'not recreatable' (e.g.
 		// SelectInputDate) or a manually added 'not recreatable', and we don't want to remove the
 		// top-level for it. This includes children that are nested Metawidgets, and children that
@@ -1087,7 +1331,7 @@ public abstract class UIMetawidget
 
 			UIComponent componentChild = i.next();
 
-			if ( removeRecreatableChildren( componentChild ) ) {
+			if ( removeRecreatableChildren( componentChild, reusableWidgets ) ) {
 				i.remove();
 			}
 		}
@@ -1095,6 +1339,81 @@ public abstract class UIMetawidget
 		return children.isEmpty();
 	}
 
+	private boolean hasNotRecreatableChildren( UIComponent component ) {
+
+		for ( UIComponent componentChild : component.getChildren() ) {
+
+			if ( componentChild.getAttributes().containsKey( COMPONENT_ATTRIBUTE_NOT_RECREATABLE ) || hasNotRecreatableChildren( componentChild ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Whether any component under this Metawidget has metadata that could not be restored from
+	 * compact state (see <code>setCompactState</code>).
+	 */
+
+	/* package private */boolean hasUnresolvedMetadata() {
+
+		if ( !mCompactState ) {
+			return false;
+		}
+
+		return hasUnresolvedChildren( this );
+	}
+
+	private boolean hasUnresolvedChildren( UIComponent component ) {
+
+		for ( UIComponent componentChild : component.getChildren() ) {
+
+			if ( componentChild.getAttributes().get( COMPONENT_ATTRIBUTE_METADATA ) == InternedMetadata.UNRESOLVED || hasUnresolvedChildren( componentChild ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Takes the widget harvested by <code>startBuild</code> for the given element, provided its
+	 * metadata is unchanged.
+	 *
+	 * @return the widget, or null if there is no widget to reuse
+	 */
+
+	private UIComponent takeReusableWidget( String elementName, Map<String, String> attributes ) {
+
+		if ( mReusableWidgets == null ) {
+			return null;
+		}
+
+		UIComponent widget = mReusableWidgets.remove( elementName + "/" + attributes.get( NAME ) );
+
+		if ( widget == null ) {
+			return null;
+		}
+
+		// The stored metadata had the widget's additional attributes merged in (see layoutWidget), so
+		// merge them in here too before comparing
+
+		Map<String, String> expectedMetadata = attributes;
+		Map<String, String> additionalAttributes = mPipeline.getAdditionalAttributes( widget );
+
+		if ( additionalAttributes != null ) {
+			expectedMetadata = CollectionUtils.newHashMap( attributes );
+			expectedMetadata.putAll( additionalAttributes );
+		}
+
+		if ( !expectedMetadata.equals( widget.getAttributes().get( COMPONENT_ATTRIBUTE_METADATA ) ) ) {
+			return null;
+		}
+
+		return widget;
+	}
+
 	/**
 	 * Inspect the value binding.
 	 * <p>
@@ -1206,6 +1525,12 @@ public abstract class UIMetawidget
 	protected class Pipeline
 		extends W3CPipeline<UIComponent, UIComponent, UIMetawidget> {
 
+		//
+		// Private members
+		//
+
+		private UIComponent	mReusedWidget;
+
 		//
 		// Public methods
 		//
@@ -1278,6 +1603,17 @@ public abstract class UIMetawidget
 		@Override
 		protected UIComponent buildWidget( String elementName, Map<String, String> attributes ) {
 
+			// Reuse unchanged widgets, if rebuilding incrementally
+
+			if ( !ENTITY.equals( elementName ) ) {
+
+				mReusedWidget = takeReusableWidget( elementName, attributes );
+
+				if ( mReusedWidget != null ) {
+					return mReusedWidget;
+				}
+			}
+
 			UIComponent entityLevelWidget = super.buildWidget( elementName, attributes );
 
 			// If we manage to build an entity-level widget, move our children *inside* it
@@ -1337,6 +1673,21 @@ public abstract class UIMetawidget
 			return entityLevelWidget;
 		}
 
+		/**
+		 * Overridden to not reprocess reused widgets.
+		 */
+
+		@Override
+		protected UIComponent processWidget( UIComponent widget, String elementName, Map<String, String> attributes ) {
+
+			if ( widget != null && widget == mReusedWidget ) {
+				mReusedWidget = null;
+				return widget;
+			}
+
+			return super.processWidget( widget, elementName, attributes );
+		}
+
 		@Override
 		protected Map<String, String> getAdditionalAttributes( UIComponent widget ) {
 
@@ -1646,10 +1997,16 @@ public abstract class UIMetawidget
 			throws Exception {
 
 			// Validation error? Do not rebuild, as we will lose the invalid values in the
-			// components
+			// components. Unless their metadata could not be restored (see setCompactState), as
+			// then they cannot render properly
 
 			if ( FacesUtils.isValidationFailed() ) {
-				return;
+
+				if ( !mMetawidget.hasUnresolvedMetadata() ) {
+					return;
+				}
+
+				LOG.debug( "Validation failed, but metadata could not be restored from compact state. Rebuilding" );
 			}
 
 			// Build the widgets
@@ -13,7 +13,12 @@ package org.metawidget.faces.component;
 
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
 import java.util.Map;
 
 import javax.faces.component.UIComponent;
@@ -27,12 +32,16 @@ import org.metawidget.config.iface.ConfigReader;
 import org.metawidget.faces.FacesMetawidgetTests.MockFacesContext;
 import org.metawidget.faces.component.html.HtmlMetawidget;
 import org.metawidget.faces.component.html.widgetbuilder.HtmlWidgetBuilder;
+import org.metawidget.faces.component.layout.SimpleLayout;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 import org.metawidget.util.CollectionUtils;
 import org.metawidget.util.LogUtils;
 import org.metawidget.util.LogUtilsTest;
+import org.metawidget.util.XmlUtils;
 import org.metawidget.widgetbuilder.iface.WidgetBuilder;
+import org.metawidget.widgetprocessor.iface.WidgetProcessor;
+import org.w3c.dom.Element;
 
 /**
  * UIMetawidget test cases.
@@ -171,6 +180,352 @@ public class UIMetawidgetTest
 		assertEquals( notRecreatableComponent, metawidget.getChildren().get( 0 ) );
 	}
 
+	public void testRebuildIncrementally()
+		throws Exception {
+
+		final int[] built = new int[1];
+		final int[] processed = new int[1];
+
+		UIMetawidget metawidget = new HtmlMetawidget() {
+
+			@Override
+			protected Pipeline newPipeline() {
+
+				return new Pipeline() {
+
+					@Override
+					protected void configure() {
+
+						// Do not configure
+					}
+				};
+			}
+		};
+
+		metawidget.setValueBinding( "value", mContext.getApplication().createValueBinding( "#{foo}" ) );
+		metawidget.setRebuildIncrementally( true );
+		metawidget.setWidgetBuilder( new WidgetBuilder<UIComponent, UIMetawidget>() {
+
+			public UIComponent buildWidget( String elementName, Map<String, String> attributes, UIMetawidget builderMetawidget ) {
+
+				if ( ENTITY.equals( elementName ) ) {
+					return null;
+				}
+
+				built[0]++;
+				return new HtmlOutputText();
+			}
+		} );
+		metawidget.setWidgetProcessors( new WidgetProcessor<UIComponent, UIMetawidget>() {
+
+			public UIComponent processWidget( UIComponent component, String elementName, Map<String, String> attributes, UIMetawidget processorMetawidget ) {
+
+				processed[0]++;
+				return component;
+			}
+		} );
+		metawidget.setLayout( new SimpleLayout() );
+
+		String bar = "<property name=\"bar\" type=\"java.lang.String\"/>";
+		String baz = "<property name=\"baz\" type=\"java.lang.String\"/>";
+		metawidget.mPipeline.buildWidgets( newInspectionResult( bar + baz ) );
+		assertEquals( 2, metawidget.getChildCount() );
+		assertEquals( 2, built[0] );
+		assertEquals( 2, processed[0] );
+		UIComponent barComponent = metawidget.getChildren().get( 0 );
+		UIComponent bazComponent = metawidget.getChildren().get( 1 );
+
+		// Unchanged
+
+		metawidget.mPipeline.buildWidgets( newInspectionResult( bar + baz ) );
+		assertEquals( 2, metawidget.getChildCount() );
+		assertTrue( barComponent == metawidget.getChildren().get( 0 ) );
+		assertTrue( bazComponent == metawidget.getChildren().get( 1 ) );
+		assertEquals( 2, built[0] );
+		assertEquals( 2, processed[0] );
+
+		// Reordered and changed
+
+		metawidget.mPipeline.buildWidgets( newInspectionResult( "<property name=\"baz\" type=\"int\"/>" + bar ) );
+		assertEquals( 2, metawidget.getChildCount() );
+		assertTrue( bazComponent != metawidget.getChildren().get( 0 ) );
+		assertTrue( barComponent == metawidget.getChildren().get( 1 ) );
+		assertEquals( 3, built[0] );
+		assertEquals( 3, processed[0] );
+
+		// Removed
+
+		metawidget.mPipeline.buildWidgets( newInspectionResult( bar ) );
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( barComponent == metawidget.getChildren().get( 0 ) );
+		assertEquals( 3, built[0] );
+
+		// Not incremental
+
+		metawidget.setRebuildIncrementally( false );
+		metawidget.mPipeline.buildWidgets( newInspectionResult( bar ) );
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( barComponent != metawidget.getChildren().get( 0 ) );
+		assertEquals( 4, built[0] );
+	}
+
+	public void testRebuildIncrementallyWithAdditionalAttributes()
+		throws Exception {
+
+		final int[] built = new int[1];
+
+		UIMetawidget metawidget = new HtmlMetawidget() {
+
+			@Override
+			protected Pipeline newPipeline() {
+
+				return new Pipeline() {
+
+					@Override
+					protected void configure() {
+
+						// Do not configure
+					}
+				};
+			}
+		};
+
+		metawidget.setValueBinding( "value", mContext.getApplication().createValueBinding( "#{foo}" ) );
+		metawidget.setRebuildIncrementally( true );
+		metawidget.setWidgetBuilder( new WidgetBuilder<UIComponent, UIMetawidget>() {
+
+			public UIComponent buildWidget( String elementName, Map<String, String> attributes, UIMetawidget builderMetawidget ) {
+
+				if ( ENTITY.equals( elementName ) ) {
+					return null;
+				}
+
+				built[0]++;
+
+				// Stubs with attributes have them merged into their metadata
+
+				UIStub stub = new UIStub();
+				stub.setStubAttributes( "label: Bar Label" );
+				return stub;
+			}
+		} );
+		metawidget.setLayout( new SimpleLayout() );
+
+		String bar = "<property name=\"bar\" type=\"java.lang.String\"/>";
+		metawidget.mPipeline.buildWidgets( newInspectionResult( bar ) );
+		assertEquals( 1, metawidget.getChildCount() );
+		assertEquals( 1, built[0] );
+		UIComponent barComponent = metawidget.getChildren().get( 0 );
+		assertEquals( "Bar Label", ( (Map<?, ?>) barComponent.getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA ) ).get( LABEL ) );
+
+		// Unchanged
+
+		metawidget.mPipeline.buildWidgets( newInspectionResult( bar ) );
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( barComponent == metawidget.getChildren().get( 0 ) );
+		assertEquals( 1, built[0] );
+
+		// Changed
+
+		metawidget.mPipeline.buildWidgets( newInspectionResult( "<property name=\"bar\" type=\"int\"/>" ) );
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( barComponent != metawidget.getChildren().get( 0 ) );
+		assertEquals( 2, built[0] );
+	}
+
+	public void testRebuildOnlyIfChanged()
+		throws Exception {
+
+		final int[] built = new int[1];
+
+		UIMetawidget metawidget = new HtmlMetawidget() {
+
+			@Override
+			protected Pipeline newPipeline() {
+
+				return new Pipeline() {
+
+					@Override
+					protected void configure() {
+
+						// Do not configure
+					}
+				};
+			}
+		};
+
+		metawidget.setValue( Foo.class );
+		metawidget.setRebuildOnlyIfChanged( true );
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setWidgetBuilder( new WidgetBuilder<UIComponent, UIMetawidget>() {
+
+			public UIComponent buildWidget( String elementName, Map<String, String> attributes, UIMetawidget builderMetawidget ) {
+
+				if ( ENTITY.equals( elementName ) ) {
+					return null;
+				}
+
+				built[0]++;
+				return new HtmlOutputText();
+			}
+		} );
+		metawidget.setLayout( new SimpleLayout() );
+
+		metawidget.buildWidgets();
+		assertEquals( 1, metawidget.getChildCount() );
+		assertEquals( 1, built[0] );
+		UIComponent component = metawidget.getChildren().get( 0 );
+
+		// Unchanged
+
+		metawidget.buildWidgets();
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( component == metawidget.getChildren().get( 0 ) );
+		assertEquals( 1, built[0] );
+
+		// Read-only
+
+		metawidget.setReadOnly( true );
+		metawidget.buildWidgets();
+		assertEquals( 1, metawidget.getChildCount() );
+		assertTrue( component != metawidget.getChildren().get( 0 ) );
+		assertEquals( 2, built[0] );
+
+		// Changed
+
+		metawidget.setValue( Bar.class );
+		metawidget.buildWidgets();
+		assertEquals( 2, metawidget.getChildCount() );
+		assertEquals( 4, built[0] );
+
+		// Fingerprint survives state saving
+
+		Object state = metawidget.saveState( mContext );
+		metawidget.setRebuildOnlyIfChanged( false );
+		metawidget.restoreState( mContext, state );
+		metawidget.buildWidgets();
+		assertEquals( 4, built[0] );
+
+		// Not only if changed
+
+		metawidget.setRebuildOnlyIfChanged( false );
+		metawidget.buildWidgets();
+		assertEquals( 6, built[0] );
+	}
+
+	@SuppressWarnings( "unchecked" )
+	public void testCompactState()
+		throws Exception {
+
+		UIMetawidget metawidget1 = newUnconfiguredMetawidget();
+		metawidget1.setCompactState( true );
+		metawidget1.setValue( Foo.class );
+		metawidget1.buildWidgets();
+
+		UIMetawidget metawidget2 = newUnconfiguredMetawidget();
+		metawidget2.setCompactState( true );
+		metawidget2.setValue( Foo.class );
+		metawidget2.buildWidgets();
+
+		// Metadata should be shared
+
+		Object metadata = metawidget1.getChildren().get( 0 ).getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA );
+		assertTrue( metadata instanceof InternedMetadata );
+		assertEquals( "name", ( (Map<?, ?>) metadata ).get( NAME ) );
+		assertTrue( metadata == metawidget2.getChildren().get( 0 ).getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA ) );
+
+		try {
+			( (Map<String, String>) metadata ).put( NAME, "foo" );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+
+		// Serialization should resolve back to the shared instance
+
+		ByteArrayOutputStream compact = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream( compact );
+		out.writeObject( metadata );
+		out.close();
+
+		assertTrue( metadata == new ObjectInputStream( new ByteArrayInputStream( compact.toByteArray() ) ).readObject() );
+
+		// ...but only within the same table. Indexes are assigned in insertion order, so a view
+		// state from a different table (eg. after a restart, or from another node of a cluster)
+		// should not resolve to whatever metadata shares its index
+
+		byte[] otherTable = compact.toByteArray();
+		String tableIdAsString = String.valueOf( InternedMetadata.TABLE_ID );
+		byte[] tableId = tableIdAsString.getBytes( "UTF-8" );
+		byte[] otherTableId = ( tableIdAsString.substring( 0, tableIdAsString.length() - 1 ) + ( tableIdAsString.endsWith( "0" ) ? "1" : "0" ) ).getBytes( "UTF-8" );
+		int replaced = 0;
+
+		for ( int loop = 0; loop <= otherTable.length - tableId.length; loop++ ) {
+			int matched = 0;
+
+			while ( matched < tableId.length && otherTable[loop + matched] == tableId[matched] ) {
+				matched++;
+			}
+
+			if ( matched == tableId.length ) {
+				System.arraycopy( otherTableId, 0, otherTable, loop, otherTableId.length );
+				replaced++;
+			}
+		}
+
+		assertEquals( 1, replaced );
+		Object unresolved = new ObjectInputStream( new ByteArrayInputStream( otherTable ) ).readObject();
+		assertTrue( InternedMetadata.UNRESOLVED == unresolved );
+
+		// Unresolved metadata should be detected (so that it can force a rebuild, even after a
+		// validation failure) and replaced by the rebuild
+
+		assertFalse( metawidget1.hasUnresolvedMetadata() );
+		metawidget1.getChildren().get( 0 ).getAttributes().put( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA, unresolved );
+		assertTrue( metawidget1.hasUnresolvedMetadata() );
+		metawidget1.buildWidgets();
+		assertFalse( metawidget1.hasUnresolvedMetadata() );
+		assertTrue( metadata == metawidget1.getChildren().get( 0 ).getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA ) );
+
+		// Serialized form should be smaller
+
+		List<Map<String, String>> interned = CollectionUtils.newArrayList();
+		List<Map<String, String>> notInterned = CollectionUtils.newArrayList();
+
+		for ( int loop = 0; loop < 100; loop++ ) {
+			Map<String, String> attributes = CollectionUtils.newHashMap();
+			attributes.put( NAME, "property" + loop );
+			attributes.put( TYPE, String.class.getName() );
+			attributes.put( REQUIRED, TRUE );
+			attributes.put( MAXIMUM_LENGTH, "30" );
+
+			interned.add( InternedMetadata.intern( Foo.class.getName(), attributes ) );
+			notInterned.add( attributes );
+		}
+
+		compact = new ByteArrayOutputStream();
+		out = new ObjectOutputStream( compact );
+		out.writeObject( interned );
+		out.close();
+
+		ByteArrayOutputStream notCompact = new ByteArrayOutputStream();
+		out = new ObjectOutputStream( notCompact );
+		out.writeObject( notInterned );
+		out.close();
+
+		assertTrue( compact.size() * 4 < notCompact.size() );
+		assertEquals( interned, new ObjectInputStream( new ByteArrayInputStream( compact.toByteArray() ) ).readObject() );
+
+		// Not compact
+
+		UIMetawidget metawidget3 = newUnconfiguredMetawidget();
+		metawidget3.setValue( Foo.class );
+		metawidget3.buildWidgets();
+
+		assertFalse( metawidget3.getChildren().get( 0 ).getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA ) instanceof InternedMetadata );
+		assertEquals( metadata, metawidget3.getChildren().get( 0 ).getAttributes().get( UIMetawidget.COMPONENT_ATTRIBUTE_METADATA ) );
+	}
+
 	public void testStub()
 		throws Exception {
 
@@ -291,4 +646,77 @@ public class UIMetawidgetTest
 
 		mContext.release();
 	}
+
+	//
+	// Private methods
+	//
+
+	private UIMetawidget newUnconfiguredMetawidget() {
+
+		UIMetawidget metawidget = new HtmlMetawidget() {
+
+			@Override
+			protected Pipeline newPipeline() {
+
+				return new Pipeline() {
+
+					@Override
+					protected void configure() {
+
+						// Do not configure
+					}
+				};
+			}
+		};
+
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setWidgetBuilder( new WidgetBuilder<UIComponent, UIMetawidget>() {
+
+			public UIComponent buildWidget( String elementName, Map<String, String> attributes, UIMetawidget builderMetawidget ) {
+
+				if ( ENTITY.equals( elementName ) ) {
+					return null;
+				}
+
+				return new HtmlOutputText();
+			}
+		} );
+		metawidget.setLayout( new SimpleLayout() );
+
+		return metawidget;
+	}
+
+	private Element newInspectionResult( String properties ) {
+
+		return XmlUtils.documentFromString( "<inspection-result><entity type=\"Foo\">" + properties + "</entity></inspection-result>" ).getDocumentElement();
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return null;
+		}
+	}
+
+	public static class Bar
+		extends Foo {
+
+		//
+		// Public methods
+		//
+
+		public int getAge() {
+
+			return 0;
+		}
+	}
 }
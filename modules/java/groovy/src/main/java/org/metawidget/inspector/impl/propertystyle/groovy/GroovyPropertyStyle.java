@@ -274,23 +274,6 @@ public class GroovyPropertyStyle
 			}
 		}
 
-		public <T extends Annotation> T getAnnotation( Class<T> annotation ) {
-
-			if ( mField != null ) {
-				return mField.getAnnotation( annotation );
-			}
-
-			if ( mGetterMethod != null ) {
-				return mGetterMethod.getAnnotation( annotation );
-			}
-
-			if ( mSetterMethod != null ) {
-				return mSetterMethod.getAnnotation( annotation );
-			}
-
-			throw InspectorException.newException( "Don't know how to getAnnotation from " + getName() );
-		}
-
 		public String getGenericType() {
 
 			if ( mField != null ) {
@@ -314,5 +297,33 @@ public class GroovyPropertyStyle
 			
 			throw InspectorException.newException( "Don't know how to getGenericType from " + getName() );
 		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Map<Class<? extends Annotation>, Annotation> indexAnnotations() {
+
+			Annotation[] annotations;
+
+			if ( mField != null ) {
+				annotations = mField.getAnnotations();
+			} else if ( mGetterMethod != null ) {
+				annotations = mGetterMethod.getAnnotations();
+			} else if ( mSetterMethod != null ) {
+				annotations = mSetterMethod.getAnnotations();
+			} else {
+				throw InspectorException.newException( "Don't know how to getAnnotation from " + getName() );
+			}
+
+			Map<Class<? extends Annotation>, Annotation> index = CollectionUtils.newHashMap();
+
+			for ( Annotation annotation : annotations ) {
+				index.put( annotation.annotationType(), annotation );
+			}
+
+			return index;
+		}
 	}
 }
@@ -12,12 +12,19 @@
 package org.metawidget.inspector.gwt.remote.client;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.metawidget.inspector.gwt.remote.iface.GwtRemoteInspector;
 import org.metawidget.inspector.gwt.remote.iface.GwtRemoteInspectorAsync;
 import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.util.simple.StringUtils;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.ServiceDefTarget;
 
@@ -31,7 +38,13 @@ import com.google.gwt.user.client.rpc.ServiceDefTarget;
  * Note it is not possible to generically optimize this call to, say, only pass the class name
  * rather than the entire object. This is because some <code>Inspectors</code> inspect the
  * <em>value</em> of the properties (eg. <code>PropertyTypeInspector</code>). On a case-by-case
- * basis, however, such optimization is possible - see <code>GwtMetawidget.rebind</code>.
+ * basis, however, such optimization is possible - see <code>GwtMetawidget.rebind</code> and
+ * <code>GwtRemoteInspectorProxyConfig.setTypeOnly</code>.
+ * <p>
+ * Round trips can be further reduced using <code>GwtRemoteInspectorProxyConfig</code> to batch
+ * requests and cache inspection results. Because batched and cached requests are tracked per
+ * instance, share a single GwtRemoteInspectorProxy between <code>GwtMetawidget</code>s to get the
+ * most benefit (as the default Inspector does).
  *
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
  */
@@ -43,7 +56,30 @@ public class GwtRemoteInspectorProxy
 	// Private members
 	//
 
-	private GwtRemoteInspectorAsync	mInspector;
+	private GwtRemoteInspectorAsync						mInspector;
+
+	private boolean										mBatchRequests;
+
+	private boolean										mTypeOnly;
+
+	/**
+	 * Inspection results, keyed by type and path. Null if not caching.
+	 */
+
+	private Map<String, String>							mInspectionResults;
+
+	/**
+	 * Callbacks waiting on an inspection already sent to the server, keyed by type and path. Null
+	 * if not caching.
+	 */
+
+	private Map<String, List<AsyncCallback<String>>>	mPendingCallbacks;
+
+	/**
+	 * Requests waiting to be sent to the server as a single batch. Null if no batch is scheduled.
+	 */
+
+	private List<InspectionRequest>						mBatch;
 
 	//
 	// Constructor
@@ -55,7 +91,7 @@ public class GwtRemoteInspectorProxy
 
 	public GwtRemoteInspectorProxy() {
 
-		mInspector = (GwtRemoteInspectorAsync) GWT.create( GwtRemoteInspector.class );
+		this( new GwtRemoteInspectorProxyConfig() );
 	}
 
 	/**
@@ -71,9 +107,24 @@ public class GwtRemoteInspectorProxy
 
 	public GwtRemoteInspectorProxy( String serviceEntryPoint ) {
 
-		this();
+		this( new GwtRemoteInspectorProxyConfig().setServiceEntryPoint( serviceEntryPoint ) );
+	}
+
+	public GwtRemoteInspectorProxy( GwtRemoteInspectorProxyConfig config ) {
 
-		( (ServiceDefTarget) mInspector ).setServiceEntryPoint( GWT.getModuleBaseURL() + serviceEntryPoint );
+		mInspector = (GwtRemoteInspectorAsync) GWT.create( GwtRemoteInspector.class );
+
+		if ( config.getServiceEntryPoint() != null ) {
+			( (ServiceDefTarget) mInspector ).setServiceEntryPoint( GWT.getModuleBaseURL() + config.getServiceEntryPoint() );
+		}
+
+		mBatchRequests = config.isBatchRequests();
+		mTypeOnly = config.isTypeOnly();
+
+		if ( config.isCacheInspectionResults() ) {
+			mInspectionResults = new HashMap<String, String>();
+			mPendingCallbacks = new HashMap<String, List<AsyncCallback<String>>>();
+		}
 	}
 
 	//
@@ -85,24 +136,186 @@ public class GwtRemoteInspectorProxy
 		throw new UnsupportedOperationException( "Use async inspection instead" );
 	}
 
-	public void inspect( Object toInspect, String type, String[] names, final AsyncCallback<String> callback ) {
+	public void inspect( Object toInspect, String type, String[] names, AsyncCallback<String> callback ) {
 
-		if ( !( toInspect instanceof Serializable ) ) {
-			throw new RuntimeException( "Objects passed to GwtRemoteInspector must be Serializable" );
+		Serializable serializable = null;
+
+		if ( !mTypeOnly ) {
+			if ( !( toInspect instanceof Serializable ) ) {
+				throw new RuntimeException( "Objects passed to GwtRemoteInspector must be Serializable" );
+			}
+
+			serializable = (Serializable) toInspect;
+		}
+
+		// Not caching?
+
+		if ( mInspectionResults == null ) {
+			send( serializable, type, names, callback );
+			return;
+		}
+
+		// Already cached?
+
+		final String key = getKey( type, names );
+
+		if ( mInspectionResults.containsKey( key ) ) {
+			callback.onSuccess( mInspectionResults.get( key ) );
+			return;
+		}
+
+		// Already sent to the server?
+
+		List<AsyncCallback<String>> pendingCallbacks = mPendingCallbacks.get( key );
+
+		if ( pendingCallbacks != null ) {
+			pendingCallbacks.add( callback );
+			return;
 		}
 
-		mInspector.inspect( (Serializable) toInspect, type, names, new AsyncCallback<String>() {
+		pendingCallbacks = new ArrayList<AsyncCallback<String>>();
+		pendingCallbacks.add( callback );
+		mPendingCallbacks.put( key, pendingCallbacks );
+
+		send( serializable, type, names, new AsyncCallback<String>() {
 
 			public void onFailure( Throwable caught ) {
 
-				callback.onFailure( caught );
+				for ( AsyncCallback<String> pendingCallback : mPendingCallbacks.remove( key ) ) {
+					pendingCallback.onFailure( caught );
+				}
 			}
 
 			public void onSuccess( String xml ) {
 
-				callback.onSuccess( xml );
+				mInspectionResults.put( key, xml );
+
+				for ( AsyncCallback<String> pendingCallback : mPendingCallbacks.remove( key ) ) {
+					pendingCallback.onSuccess( xml );
+				}
 			}
 		} );
+	}
+
+	//
+	// Private methods
+	//
+
+	private void send( Serializable toInspect, String type, String[] names, AsyncCallback<String> callback ) {
+
+		if ( !mBatchRequests ) {
+			mInspector.inspect( toInspect, type, names, callback );
+			return;
+		}
+
+		// Schedule the batch to be sent once the current event loop has finished. Nested
+		// GwtMetawidgets are all scheduled to build at the same time, so their requests typically
+		// end up in the same batch
 
+		if ( mBatch == null ) {
+			mBatch = new ArrayList<InspectionRequest>();
+
+			Scheduler.get().scheduleDeferred( new ScheduledCommand() {
+
+				public void execute() {
+
+					sendBatch();
+				}
+			} );
+		}
+
+		mBatch.add( new InspectionRequest( toInspect, type, names, callback ) );
+	}
+
+	private void sendBatch() {
+
+		final List<InspectionRequest> batch = mBatch;
+		mBatch = null;
+
+		// Only one request? Send it as normal
+
+		if ( batch.size() == 1 ) {
+			InspectionRequest request = batch.get( 0 );
+			mInspector.inspect( request.mToInspect, request.mType, request.mNames, request.mCallback );
+			return;
+		}
+
+		int size = batch.size();
+		Serializable[] toInspect = new Serializable[size];
+		String[] types = new String[size];
+		String[][] names = new String[size][];
+
+		for ( int loop = 0; loop < size; loop++ ) {
+			InspectionRequest request = batch.get( loop );
+			toInspect[loop] = request.mToInspect;
+			types[loop] = request.mType;
+			names[loop] = request.mNames;
+		}
+
+		mInspector.inspectBatch( toInspect, types, names, new AsyncCallback<String[]>() {
+
+			public void onFailure( Throwable caught ) {
+
+				for ( InspectionRequest request : batch ) {
+					request.mCallback.onFailure( caught );
+				}
+			}
+
+			public void onSuccess( String[] xml ) {
+
+				for ( int loop = 0, length = batch.size(); loop < length; loop++ ) {
+					batch.get( loop ).mCallback.onSuccess( xml[loop] );
+				}
+			}
+		} );
+	}
+
+	private String getKey( String type, String[] names ) {
+
+		StringBuilder builder = new StringBuilder( type );
+
+		if ( names != null ) {
+			for ( String name : names ) {
+				builder.append( StringUtils.SEPARATOR_FORWARD_SLASH_CHAR );
+				builder.append( name );
+			}
+		}
+
+		return builder.toString();
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * A request waiting to be sent as part of a batch.
+	 */
+
+	private static class InspectionRequest {
+
+		//
+		// Private members
+		//
+
+		/* package private */Serializable			mToInspect;
+
+		/* package private */String					mType;
+
+		/* package private */String[]				mNames;
+
+		/* package private */AsyncCallback<String>	mCallback;
+
+		//
+		// Constructor
+		//
+
+		public InspectionRequest( Serializable toInspect, String type, String[] names, AsyncCallback<String> callback ) {
+
+			mToInspect = toInspect;
+			mType = type;
+			mNames = names;
+			mCallback = callback;
+		}
 	}
 }
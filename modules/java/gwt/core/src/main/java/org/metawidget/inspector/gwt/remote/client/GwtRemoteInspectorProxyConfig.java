@@ -0,0 +1,173 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.gwt.remote.client;
+
+import org.metawidget.util.simple.ObjectUtils;
+
+/**
+ * Configures a GwtRemoteInspectorProxy prior to use. Once instantiated, Inspectors are immutable.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class GwtRemoteInspectorProxyConfig {
+
+	//
+	// Private members
+	//
+
+	private String	mServiceEntryPoint;
+
+	private boolean	mBatchRequests;
+
+	private boolean	mTypeOnly;
+
+	private boolean	mCacheInspectionResults;
+
+	//
+	// Public methods
+	//
+
+	/**
+	 * Overrides the 'service entry point' of the <code>GwtRemoteInspectorImpl</code> servlet. This
+	 * can be useful for setting up multiple servlets, each with their own
+	 * <code>metawidget.xml</code> configuration.
+	 *
+	 * @param serviceEntryPoint
+	 *            servlet path, relative to <code>GWT.getModuleBaseURL</code>
+	 * @return this, as part of a fluent interface
+	 */
+
+	public GwtRemoteInspectorProxyConfig setServiceEntryPoint( String serviceEntryPoint ) {
+
+		mServiceEntryPoint = serviceEntryPoint;
+
+		return this;
+	}
+
+	/**
+	 * Sets whether to coalesce all inspection requests issued within the same event loop into a
+	 * single round trip to the server.
+	 * <p>
+	 * This benefits forms with nested <code>GwtMetawidget</code>s, which otherwise each fire their
+	 * own round trip.
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public GwtRemoteInspectorProxyConfig setBatchRequests( boolean batchRequests ) {
+
+		mBatchRequests = batchRequests;
+
+		return this;
+	}
+
+	/**
+	 * Sets whether to send only the type and path to the server, rather than the entire object
+	 * graph.
+	 * <p>
+	 * This is only suitable if none of the server-side Inspectors inspect the <em>value</em> of the
+	 * properties (eg. <code>PropertyTypeInspector</code> does, but
+	 * <code>MetawidgetAnnotationInspector</code> does not).
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public GwtRemoteInspectorProxyConfig setTypeOnly( boolean typeOnly ) {
+
+		mTypeOnly = typeOnly;
+
+		return this;
+	}
+
+	/**
+	 * Sets whether to cache inspection results on the client, keyed by type and path.
+	 * <p>
+	 * This is only suitable if the inspection results depend solely on the type and path, not on
+	 * the object being inspected (such as when using <code>setTypeOnly</code>).
+	 *
+	 * @return this, as part of a fluent interface
+	 */
+
+	public GwtRemoteInspectorProxyConfig setCacheInspectionResults( boolean cacheInspectionResults ) {
+
+		mCacheInspectionResults = cacheInspectionResults;
+
+		return this;
+	}
+
+	@Override
+	public boolean equals( Object that ) {
+
+		if ( this == that ) {
+			return true;
+		}
+
+		if ( !ObjectUtils.nullSafeClassEquals( this, that ) ) {
+			return false;
+		}
+
+		if ( !ObjectUtils.nullSafeEquals( mServiceEntryPoint, ( (GwtRemoteInspectorProxyConfig) that ).mServiceEntryPoint ) ) {
+			return false;
+		}
+
+		if ( mBatchRequests != ( (GwtRemoteInspectorProxyConfig) that ).mBatchRequests ) {
+			return false;
+		}
+
+		if ( mTypeOnly != ( (GwtRemoteInspectorProxyConfig) that ).mTypeOnly ) {
+			return false;
+		}
+
+		if ( mCacheInspectionResults != ( (GwtRemoteInspectorProxyConfig) that ).mCacheInspectionResults ) {
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hashCode = 1;
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mServiceEntryPoint );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mBatchRequests );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mTypeOnly );
+		hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode( mCacheInspectionResults );
+
+		return hashCode;
+	}
+
+	//
+	// Protected methods
+	//
+
+	protected String getServiceEntryPoint() {
+
+		return mServiceEntryPoint;
+	}
+
+	protected boolean isBatchRequests() {
+
+		return mBatchRequests;
+	}
+
+	protected boolean isTypeOnly() {
+
+		return mTypeOnly;
+	}
+
+	protected boolean isCacheInspectionResults() {
+
+		return mCacheInspectionResults;
+	}
+}
@@ -47,4 +47,12 @@ public interface GwtRemoteInspector
 	//
 
 	String inspect( Serializable toInspect, String type, String[] names );
+
+	/**
+	 * Inspect several Serializable/types in a single round trip.
+	 *
+	 * @return the inspection results, in the same order as the given arrays
+	 */
+
+	String[] inspectBatch( Serializable[] toInspect, String[] types, String[][] names );
 }
@@ -97,6 +97,22 @@ public class GwtRemoteInspectorImpl
 		return mPipeline.inspect( toInspect, type, names );
 	}
 
+	/**
+	 * Inspect several Serializable/types using server-side processing, as requested by a batching
+	 * <code>GwtRemoteInspectorProxy</code>.
+	 */
+
+	public String[] inspectBatch( Serializable[] toInspect, String[] types, String[][] names ) {
+
+		String[] inspectionResults = new String[types.length];
+
+		for ( int loop = 0, length = types.length; loop < length; loop++ ) {
+			inspectionResults[loop] = inspect( toInspect[loop], types[loop], names[loop] );
+		}
+
+		return inspectionResults;
+	}
+
 	public void setInspector( Inspector inspector ) {
 
 		mPipeline.setInspector( inspector );
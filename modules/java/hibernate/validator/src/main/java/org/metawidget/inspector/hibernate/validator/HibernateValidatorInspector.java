@@ -27,6 +27,7 @@ import org.hibernate.validator.Pattern;
 import org.hibernate.validator.Range;
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.CollectionUtils;
 
@@ -37,7 +38,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class HibernateValidatorInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
@@ -63,6 +65,10 @@ public class HibernateValidatorInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( property ) ) {
+			return attributes;
+		}
+
 		// Digits
 
 		try {
@@ -18,6 +18,7 @@ import java.util.Map;
 import org.codehaus.jackson.annotate.JsonIgnore;
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.CollectionUtils;
 
@@ -28,7 +29,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class JacksonInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
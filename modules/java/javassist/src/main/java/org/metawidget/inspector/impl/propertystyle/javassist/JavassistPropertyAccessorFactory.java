@@ -0,0 +1,347 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.javassist;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.metawidget.inspector.impl.propertystyle.javabean.PropertyAccessor;
+import org.metawidget.inspector.impl.propertystyle.javabean.PropertyAccessorFactory;
+import org.metawidget.util.LogUtils;
+import org.metawidget.util.LogUtils.Log;
+
+/**
+ * PropertyAccessorFactory that uses Javassist to generate a class per property, which calls its
+ * getter/setter (or reads/writes its field) directly rather than through reflection.
+ * <p>
+ * Use it with <code>JavaBeanPropertyStyleConfig.setPropertyAccessorFactory</code>. The generated
+ * classes are defined in their own ClassLoader (one per ClassLoader of the classes being accessed),
+ * so can only access public classes and members. For other properties, or where classes cannot be
+ * generated at runtime (eg. under a restrictive SecurityManager), <code>JavaBeanPropertyStyle</code>
+ * falls back to reflection.
+ *
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class JavassistPropertyAccessorFactory
+	implements PropertyAccessorFactory {
+
+	//
+	// Private statics
+	//
+
+	private static final String													GENERATED_CLASS_NAME_PREFIX	= JavassistPropertyAccessorFactory.class.getName() + "$Generated";
+
+	private static final AtomicInteger											GENERATED_CLASS_COUNT		= new AtomicInteger();
+
+	private static final Log													LOG							= LogUtils.getLog( JavassistPropertyAccessorFactory.class );
+
+	/**
+	 * AccessorClassLoaders, keyed by the ClassLoader of the classes they access.
+	 * <p>
+	 * An AccessorClassLoader strongly references its parent, so is held by a WeakReference (else
+	 * the WeakHashMap key could never be cleared, and redeployed ClassLoaders would leak). Each
+	 * generated accessor strongly references its AccessorClassLoader, so it stays reachable for as
+	 * long as any of its accessors are in use.
+	 */
+
+	private static final Map<ClassLoader, WeakReference<AccessorClassLoader>>	ACCESSOR_CLASS_LOADERS		= new WeakHashMap<ClassLoader, WeakReference<AccessorClassLoader>>();
+
+	//
+	// Public methods
+	//
+
+	public PropertyAccessor newAccessor( Method readMethod, Method writeMethod ) {
+
+		if ( !isAccessible( readMethod ) || !isAccessible( writeMethod ) ) {
+			return null;
+		}
+
+		// (getter and setter may be declared in different classes)
+
+		String readBody = "throw new java.lang.UnsupportedOperationException();";
+
+		if ( readMethod != null ) {
+
+			if ( getSourceName( readMethod.getReturnType() ) == null ) {
+				return null;
+			}
+
+			readBody = "return " + box( readMethod.getReturnType(), "((" + getSourceName( readMethod.getDeclaringClass() ) + ") obj)." + readMethod.getName() + "()" ) + ";";
+		}
+
+		String writeBody = "throw new java.lang.UnsupportedOperationException();";
+
+		if ( writeMethod != null ) {
+			Class<?> writeType = writeMethod.getParameterTypes()[0];
+
+			if ( getSourceName( writeType ) == null ) {
+				return null;
+			}
+
+			writeBody = "((" + getSourceName( writeMethod.getDeclaringClass() ) + ") obj)." + writeMethod.getName() + "(" + unbox( writeType, "value" ) + ");";
+		}
+
+		if ( readMethod != null ) {
+			return generateAccessor( readMethod.getDeclaringClass(), readBody, writeBody );
+		}
+
+		return generateAccessor( writeMethod.getDeclaringClass(), readBody, writeBody );
+	}
+
+	public PropertyAccessor newAccessor( Field field ) {
+
+		if ( !isAccessible( field ) || Modifier.isStatic( field.getModifiers() ) || getSourceName( field.getType() ) == null ) {
+			return null;
+		}
+
+		String fieldAccess = "((" + getSourceName( field.getDeclaringClass() ) + ") obj)." + field.getName();
+		String readBody = "return " + box( field.getType(), fieldAccess ) + ";";
+		String writeBody = "throw new java.lang.IllegalAccessException(\"" + field.getName() + " is final\");";
+
+		if ( !Modifier.isFinal( field.getModifiers() ) ) {
+			writeBody = fieldAccess + " = " + unbox( field.getType(), "value" ) + ";";
+		}
+
+		return generateAccessor( field.getDeclaringClass(), readBody, writeBody );
+	}
+
+	//
+	// Private methods
+	//
+
+	private PropertyAccessor generateAccessor( Class<?> declaringClass, String readBody, String writeBody ) {
+
+		String className = GENERATED_CLASS_NAME_PREFIX + GENERATED_CLASS_COUNT.incrementAndGet();
+
+		try {
+			return getAccessorClassLoader( declaringClass.getClassLoader() ).defineAccessor( className, readBody, writeBody );
+		} catch ( Exception e ) {
+			LOG.debug( "Unable to generate PropertyAccessor for {0} ({1}). Falling back to reflection", declaringClass, e );
+			return null;
+		} catch ( LinkageError e ) {
+			LOG.debug( "Unable to generate PropertyAccessor for {0} ({1}). Falling back to reflection", declaringClass, e );
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the AccessorClassLoader for the given ClassLoader, creating one if necessary.
+	 * <p>
+	 * Accessors for all classes from the same ClassLoader share one AccessorClassLoader (rather
+	 * than one per property), so large domain models do not create thousands of ClassLoaders.
+	 */
+
+	private static AccessorClassLoader getAccessorClassLoader( ClassLoader parent ) {
+
+		synchronized ( ACCESSOR_CLASS_LOADERS ) {
+
+			WeakReference<AccessorClassLoader> reference = ACCESSOR_CLASS_LOADERS.get( parent );
+			AccessorClassLoader accessorClassLoader = null;
+
+			if ( reference != null ) {
+				accessorClassLoader = reference.get();
+			}
+
+			if ( accessorClassLoader == null ) {
+				accessorClassLoader = new AccessorClassLoader( parent );
+				ACCESSOR_CLASS_LOADERS.put( parent, new WeakReference<AccessorClassLoader>( accessorClassLoader ) );
+			}
+
+			return accessorClassLoader;
+		}
+	}
+
+	/**
+	 * Whether the generated class, which lives in its own ClassLoader and package, can access the
+	 * given member (which may be null).
+	 */
+
+	private boolean isAccessible( Member member ) {
+
+		if ( member == null ) {
+			return true;
+		}
+
+		if ( !Modifier.isPublic( member.getModifiers() ) ) {
+			return false;
+		}
+
+		return isAccessible( member.getDeclaringClass() );
+	}
+
+	private boolean isAccessible( Class<?> clazz ) {
+
+		for ( Class<?> enclosingClass = clazz; enclosingClass != null; enclosingClass = enclosingClass.getEnclosingClass() ) {
+
+			if ( !Modifier.isPublic( enclosingClass.getModifiers() ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the name of the given class as it would appear in Javassist source code, or null if
+	 *         it is not accessible to the generated class
+	 */
+
+	private String getSourceName( Class<?> clazz ) {
+
+		if ( clazz.isArray() ) {
+			String componentName = getSourceName( clazz.getComponentType() );
+
+			if ( componentName == null ) {
+				return null;
+			}
+
+			return componentName + "[]";
+		}
+
+		if ( !clazz.isPrimitive() && !isAccessible( clazz ) ) {
+			return null;
+		}
+
+		return clazz.getName();
+	}
+
+	/**
+	 * Javassist's compiler does not support autoboxing, so box explicitly.
+	 */
+
+	private String box( Class<?> clazz, String expression ) {
+
+		if ( !clazz.isPrimitive() ) {
+			return expression;
+		}
+
+		return getWrapperName( clazz ) + ".valueOf( " + expression + " )";
+	}
+
+	/**
+	 * Javassist's compiler does not support autounboxing, so unbox explicitly.
+	 */
+
+	private String unbox( Class<?> clazz, String expression ) {
+
+		if ( !clazz.isPrimitive() ) {
+			return "(" + getSourceName( clazz ) + ") " + expression;
+		}
+
+		return "((" + getWrapperName( clazz ) + ") " + expression + ")." + clazz.getName() + "Value()";
+	}
+
+	private String getWrapperName( Class<?> primitive ) {
+
+		if ( int.class.equals( primitive ) ) {
+			return Integer.class.getName();
+		}
+
+		if ( char.class.equals( primitive ) ) {
+			return Character.class.getName();
+		}
+
+		String name = primitive.getName();
+		return "java.lang." + Character.toUpperCase( name.charAt( 0 ) ) + name.substring( 1 );
+	}
+
+	//
+	// Inner class
+	//
+
+	/**
+	 * ClassLoader for generated accessors. Delegates to the ClassLoader of the class being accessed,
+	 * except for <code>PropertyAccessor</code> itself (which that ClassLoader may not be able to
+	 * see, such as when inspecting WAR classes from an EJB lib).
+	 */
+
+	private static class AccessorClassLoader
+		extends ClassLoader {
+
+		//
+		// Private members
+		//
+
+		private final ClassPool	mClassPool;
+
+		//
+		// Constructor
+		//
+
+		public AccessorClassLoader( ClassLoader parent ) {
+
+			super( parent );
+
+			mClassPool = new ClassPool( null );
+			mClassPool.appendSystemPath();
+			mClassPool.appendClassPath( new ClassClassPath( PropertyAccessor.class ) );
+
+			if ( parent != null ) {
+				mClassPool.appendClassPath( new LoaderClassPath( parent ) );
+			}
+		}
+
+		//
+		// Public methods
+		//
+
+		public synchronized PropertyAccessor defineAccessor( String className, String readBody, String writeBody )
+			throws Exception {
+
+			CtClass ctClass = mClassPool.makeClass( className );
+
+			try {
+				ctClass.addInterface( mClassPool.get( PropertyAccessor.class.getName() ) );
+				ctClass.addConstructor( CtNewConstructor.defaultConstructor( ctClass ) );
+				ctClass.addMethod( CtNewMethod.make( "public Object read( Object obj ) throws Exception { " + readBody + " }", ctClass ) );
+				ctClass.addMethod( CtNewMethod.make( "public void write( Object obj, Object value ) throws Exception { " + writeBody + " }", ctClass ) );
+
+				byte[] bytes = ctClass.toBytecode();
+				return (PropertyAccessor) defineClass( className, bytes, 0, bytes.length ).newInstance();
+			} finally {
+
+				// (so that the ClassPool does not accumulate CtClasses)
+
+				ctClass.detach();
+			}
+		}
+
+		//
+		// Protected methods
+		//
+
+		@Override
+		protected Class<?> loadClass( String name, boolean resolve )
+			throws ClassNotFoundException {
+
+			if ( PropertyAccessor.class.getName().equals( name ) ) {
+				return PropertyAccessor.class;
+			}
+
+			return super.loadClass( name, resolve );
+		}
+	}
+}
@@ -0,0 +1,246 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.inspector.impl.propertystyle.javassist;
+
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.metawidget.inspector.iface.InspectorException;
+import org.metawidget.inspector.impl.propertystyle.Property;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyle;
+import org.metawidget.inspector.impl.propertystyle.javabean.JavaBeanPropertyStyleConfig;
+import org.metawidget.inspector.impl.propertystyle.javabean.PropertyAccessor;
+
+/**
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class JavassistPropertyAccessorFactoryTest
+	extends TestCase {
+
+	//
+	// Public methods
+	//
+
+	public void testGetterAndSetter()
+		throws Exception {
+
+		JavassistPropertyAccessorFactory accessorFactory = new JavassistPropertyAccessorFactory();
+		Foo foo = new Foo();
+
+		PropertyAccessor accessor = accessorFactory.newAccessor( Foo.class.getMethod( "getName" ), Foo.class.getMethod( "setName", String.class ) );
+		accessor.write( foo, "Bar" );
+		assertEquals( "Bar", foo.getName() );
+		assertEquals( "Bar", accessor.read( foo ) );
+
+		// Primitives
+
+		accessor = accessorFactory.newAccessor( Foo.class.getMethod( "getAge" ), Foo.class.getMethod( "setAge", int.class ) );
+		accessor.write( foo, 42 );
+		assertEquals( 42, foo.getAge() );
+		assertEquals( Integer.valueOf( 42 ), accessor.read( foo ) );
+
+		accessor = accessorFactory.newAccessor( Foo.class.getMethod( "isRetired" ), Foo.class.getMethod( "setRetired", boolean.class ) );
+		accessor.write( foo, Boolean.TRUE );
+		assertTrue( foo.isRetired() );
+		assertEquals( Boolean.TRUE, accessor.read( foo ) );
+
+		// Arrays
+
+		String[] nicknames = new String[] { "Baz" };
+		accessor = accessorFactory.newAccessor( Foo.class.getMethod( "getNicknames" ), Foo.class.getMethod( "setNicknames", String[].class ) );
+		accessor.write( foo, nicknames );
+		assertTrue( nicknames == foo.getNicknames() );
+		assertTrue( nicknames == accessor.read( foo ) );
+
+		// Read-only
+
+		accessor = accessorFactory.newAccessor( Foo.class.getMethod( "getName" ), null );
+		assertEquals( "Bar", accessor.read( foo ) );
+
+		try {
+			accessor.write( foo, "Abc" );
+			fail();
+		} catch ( UnsupportedOperationException e ) {
+			// Should fail
+		}
+	}
+
+	public void testFields()
+		throws Exception {
+
+		JavassistPropertyAccessorFactory accessorFactory = new JavassistPropertyAccessorFactory();
+		Foo foo = new Foo();
+
+		PropertyAccessor accessor = accessorFactory.newAccessor( Foo.class.getField( "height" ) );
+		accessor.write( foo, 1.5d );
+		assertEquals( 1.5d, foo.height );
+		assertEquals( Double.valueOf( 1.5d ), accessor.read( foo ) );
+
+		accessor = accessorFactory.newAccessor( Foo.class.getField( "id" ) );
+		assertEquals( "FOO", accessor.read( foo ) );
+
+		try {
+			accessor.write( foo, "BAR" );
+			fail();
+		} catch ( IllegalAccessException e ) {
+			assertEquals( "id is final", e.getMessage() );
+		}
+	}
+
+	public void testSharedClassLoader()
+		throws Exception {
+
+		JavassistPropertyAccessorFactory accessorFactory = new JavassistPropertyAccessorFactory();
+
+		PropertyAccessor nameAccessor = accessorFactory.newAccessor( Foo.class.getMethod( "getName" ), Foo.class.getMethod( "setName", String.class ) );
+		PropertyAccessor heightAccessor = accessorFactory.newAccessor( Foo.class.getField( "height" ) );
+		PropertyAccessor otherFactoryAccessor = new JavassistPropertyAccessorFactory().newAccessor( Foo.class.getMethod( "getAge" ), null );
+
+		// One ClassLoader per ClassLoader of the accessed classes, not per property
+
+		assertTrue( nameAccessor.getClass() != heightAccessor.getClass() );
+		assertTrue( nameAccessor.getClass().getClassLoader() == heightAccessor.getClass().getClassLoader() );
+		assertTrue( nameAccessor.getClass().getClassLoader() == otherFactoryAccessor.getClass().getClassLoader() );
+		assertTrue( Foo.class.getClassLoader() == nameAccessor.getClass().getClassLoader().getParent() );
+	}
+
+	public void testNotAccessible()
+		throws Exception {
+
+		JavassistPropertyAccessorFactory accessorFactory = new JavassistPropertyAccessorFactory();
+		assertTrue( null == accessorFactory.newAccessor( NotPublic.class.getMethod( "getName" ), null ) );
+		assertTrue( null == accessorFactory.newAccessor( NotPublic.class.getField( "age" ) ) );
+		assertTrue( null == accessorFactory.newAccessor( Foo.class.getMethod( "getNotPublic" ), null ) );
+	}
+
+	public void testPropertyStyle() {
+
+		JavaBeanPropertyStyleConfig config = new JavaBeanPropertyStyleConfig();
+		config.setSupportPublicFields( true );
+		config.setPropertyAccessorFactory( new JavassistPropertyAccessorFactory() );
+		JavaBeanPropertyStyle propertyStyle = new JavaBeanPropertyStyle( config );
+
+		// Generated
+
+		Foo foo = new Foo();
+		Map<String, Property> properties = propertyStyle.getProperties( Foo.class.getName() );
+		properties.get( "age" ).write( foo, 42 );
+		assertEquals( 42, properties.get( "age" ).read( foo ) );
+
+		try {
+			properties.get( "age" ).write( foo, null );
+			fail();
+		} catch ( InspectorException e ) {
+			assertTrue( e.getCause() instanceof NullPointerException );
+		}
+
+		// Falls back to reflection
+
+		assertEquals( null, properties.get( "notPublic" ).read( foo ) );
+	}
+
+	//
+	// Inner class
+	//
+
+	public static class Foo {
+
+		//
+		// Public members
+		//
+
+		public double		height;
+
+		public final String	id	= "FOO";
+
+		//
+		// Private members
+		//
+
+		private String		mName;
+
+		private int			mAge;
+
+		private boolean		mRetired;
+
+		private String[]	mNicknames;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return mName;
+		}
+
+		public void setName( String name ) {
+
+			mName = name;
+		}
+
+		public int getAge() {
+
+			return mAge;
+		}
+
+		public void setAge( int age ) {
+
+			mAge = age;
+		}
+
+		public boolean isRetired() {
+
+			return mRetired;
+		}
+
+		public void setRetired( boolean retired ) {
+
+			mRetired = retired;
+		}
+
+		public String[] getNicknames() {
+
+			return mNicknames;
+		}
+
+		public void setNicknames( String[] nicknames ) {
+
+			mNicknames = nicknames;
+		}
+
+		public NotPublic getNotPublic() {
+
+			return null;
+		}
+	}
+
+	static class NotPublic {
+
+		//
+		// Public members
+		//
+
+		public int	age;
+
+		//
+		// Public methods
+		//
+
+		public String getName() {
+
+			return null;
+		}
+	}
+}
@@ -27,6 +27,7 @@ import javax.persistence.Transient;
 import javax.persistence.Version;
 
 import org.metawidget.inspector.impl.BaseObjectInspector;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.CollectionUtils;
 
@@ -37,7 +38,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class JpaInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Private members
@@ -77,6 +79,10 @@ public class JpaInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( property ) ) {
+			return attributes;
+		}
+
 		// Large
 
 		if ( property.isAnnotationPresent( Lob.class ) ) {
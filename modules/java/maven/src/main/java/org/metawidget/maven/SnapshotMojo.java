@@ -0,0 +1,167 @@
+// Metawidget
+//
+// This file is dual licensed under both the LGPL
+// (http://www.gnu.org/licenses/lgpl-2.1.html) and the EPL
+// (http://www.eclipse.org/org/documents/epl-v10.php). As a
+// recipient of Metawidget, you may choose to receive it under either
+// the LGPL or the EPL.
+//
+// Commercial licenses are also available. See http://metawidget.org
+// for details.
+
+package org.metawidget.maven;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.metawidget.config.impl.BaseConfigReader;
+import org.metawidget.inspector.snapshot.SnapshotWriter;
+
+/**
+ * Maven plugin that takes build-time snapshots of inspection results, for serving at runtime by
+ * <code>SnapshotInspector</code>.
+ * <p>
+ * Configures a <code>SnapshotWriter</code> from the given <code>metawidget.xml</code>, runs it
+ * over the given types and writes the result into the build output (and so into the artifact):
+ * <p>
+ * <code>
+ * &lt;plugin&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;groupId&gt;org.metawidget.modules&lt;/groupId&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;artifactId&gt;metawidget-maven-plugin&lt;/artifactId&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;executions&gt;&lt;execution&gt;&lt;goals&gt;&lt;goal&gt;snapshot&lt;/goal&gt;&lt;/goals&gt;&lt;/execution&gt;&lt;/executions&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;configuration&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&lt;config&gt;src/main/snapshot/metawidget.xml&lt;/config&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&lt;types&gt;&lt;type&gt;com.myapp.Person&lt;/type&gt;&lt;type&gt;com.myapp.Address&lt;/type&gt;&lt;/types&gt;<br/>
+ * &nbsp;&nbsp;&nbsp;&lt;/configuration&gt;<br/>
+ * &lt;/plugin&gt;
+ * </code>
+ * <p>
+ * The types, and the Inspectors and InspectionResultProcessors named in <code>metawidget.xml</code>,
+ * are loaded from the project's compile classpath.
+ *
+ * @goal snapshot
+ * @phase process-classes
+ * @requiresDependencyResolution compile
+ * @threadSafe
+ * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
+ */
+
+public class SnapshotMojo
+	extends AbstractMojo {
+
+	//
+	// Private members
+	//
+
+	// (Maven injects parameters by field name, so these do not use the usual 'm' prefix)
+
+	/**
+	 * @parameter default-value="${project}"
+	 * @required
+	 * @readonly
+	 */
+
+	private MavenProject	project;
+
+	/**
+	 * <code>metawidget.xml</code> that configures a <code>snapshotWriter</code>.
+	 *
+	 * @parameter
+	 * @required
+	 */
+
+	private File			config;
+
+	/**
+	 * Types to snapshot. Must include the types of any nested properties that are to be traversed.
+	 *
+	 * @parameter
+	 * @required
+	 */
+
+	private String[]		types;
+
+	/**
+	 * Snapshot to write. By default, this is where <code>SnapshotInspector</code> looks for it.
+	 *
+	 * @parameter default-value="${project.build.outputDirectory}/metawidget-snapshot.xml"
+	 * @required
+	 */
+
+	private File			outputFile;
+
+	//
+	// Public methods
+	//
+
+	public void execute()
+		throws MojoExecutionException {
+
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+
+		try {
+			thread.setContextClassLoader( newProjectClassLoader() );
+
+			// Configure
+
+			SnapshotWriter snapshotWriter = new SnapshotWriter();
+			InputStream in = new FileInputStream( config );
+
+			try {
+				new BaseConfigReader().configure( in, snapshotWriter );
+			} finally {
+				in.close();
+			}
+
+			// Snapshot
+
+			outputFile.getParentFile().mkdirs();
+			OutputStream out = new FileOutputStream( outputFile );
+
+			try {
+				snapshotWriter.write( out, types );
+			} finally {
+				out.close();
+			}
+
+			getLog().info( "Snapshotted " + types.length + " type(s) to " + outputFile );
+		} catch ( Exception e ) {
+			throw new MojoExecutionException( "Unable to snapshot inspection results", e );
+		} finally {
+			thread.setContextClassLoader( contextClassLoader );
+		}
+	}
+
+	//
+	// Private methods
+	//
+
+	/**
+	 * ClassLoader for the project's compile classpath (including its own classes), delegating to
+	 * the plugin's ClassLoader.
+	 */
+
+	private ClassLoader newProjectClassLoader()
+		throws Exception {
+
+		@SuppressWarnings( "unchecked" )
+		List<String> classpathElements = project.getCompileClasspathElements();
+		URL[] urls = new URL[classpathElements.size()];
+
+		for ( int loop = 0, length = urls.length; loop < length; loop++ ) {
+			urls[loop] = new File( classpathElements.get( loop ) ).toURI().toURL();
+		}
+
+		return new URLClassLoader( urls, getClass().getClassLoader() );
+	}
+}
@@ -25,6 +25,7 @@ import net.sf.oval.constraint.Range;
 
 import org.metawidget.inspector.impl.BaseObjectInspector;
 import org.metawidget.inspector.impl.BaseObjectInspectorConfig;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.propertystyle.Property;
 import org.metawidget.util.CollectionUtils;
 
@@ -38,7 +39,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class OvalInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
@@ -64,6 +66,10 @@ public class OvalInspector
 
 		Map<String, String> attributes = CollectionUtils.newHashMap();
 
+		if ( isUnannotated( property ) ) {
+			return attributes;
+		}
+
 		// NotNull
 
 		if ( property.isAnnotationPresent( NotNull.class ) ) {
@@ -15,7 +15,7 @@ import java.io.InputStream;
 import java.util.List;
 
 import org.metawidget.config.iface.ResourceResolver;
-import org.metawidget.inspector.iface.Inspector;
+import org.metawidget.inspector.iface.DomInspector;
 import org.metawidget.inspector.iface.InspectorException;
 import org.metawidget.inspector.impl.BaseXmlInspectorConfig;
 import org.metawidget.inspector.jbpm.PageflowInspector;
@@ -36,7 +36,7 @@ import org.w3c.dom.Element;
  */
 
 public class SeamInspector
-	implements Inspector {
+	implements DomInspector<Element> {
 
 	//
 	// Private statics
@@ -106,10 +106,21 @@ public class SeamInspector
 
 	public String inspect( Object toInspect, String type, String... names ) {
 
+		Element element = inspectAsDom( toInspect, type, names );
+
+		if ( element == null ) {
+			return null;
+		}
+
+		return XmlUtils.nodeToString( element, false );
+	}
+
+	public Element inspectAsDom( Object toInspect, String type, String... names ) {
+
 		// Pageflow
 
 		if ( mPageflowInspector != null ) {
-			return mPageflowInspector.inspect( toInspect, type, names );
+			return mPageflowInspector.inspectAsDom( toInspect, type, names );
 		}
 
 		return null;
@@ -16,6 +16,7 @@ import static org.metawidget.inspector.InspectionResultConstants.*;
 import java.util.Map;
 
 import org.metawidget.inspector.impl.BaseObjectInspector;
+import org.metawidget.inspector.impl.StaticTraitInspector;
 import org.metawidget.inspector.impl.actionstyle.Action;
 import org.metawidget.util.CollectionUtils;
 
@@ -26,7 +27,8 @@ import org.metawidget.util.CollectionUtils;
  */
 
 public class SwingAppFrameworkInspector
-	extends BaseObjectInspector {
+	extends BaseObjectInspector
+	implements StaticTraitInspector {
 
 	//
 	// Constructor
@@ -14,6 +14,7 @@ package org.metawidget.swing;
 import static org.metawidget.inspector.InspectionResultConstants.*;
 
 import java.awt.BasicStroke;
+import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
@@ -27,9 +28,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
 
 import javax.swing.JComponent;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 
 import org.metawidget.iface.Immutable;
 import org.metawidget.iface.MetawidgetException;
@@ -83,6 +87,19 @@ public class SwingMetawidget
 
 	private boolean					mIgnoreAddRemove;
 
+	private Executor				mInspectionExecutor;
+
+	/**
+	 * Identifies the background inspection currently in progress (if any), so that the results of
+	 * superseded inspections can be discarded.
+	 */
+
+	private Object					mInspectionInProgress;
+
+	private boolean					mInspectedInBackground;
+
+	private JComponent				mInspectionPlaceholder;
+
 	/**
 	 * List of existing, manually added components.
 	 * <p>
@@ -397,6 +414,29 @@ public class SwingMetawidget
 		invalidateWidgets();
 	}
 
+	/**
+	 * Sets an Executor on which to run inspection, including any InspectionResultProcessors, rather
+	 * than on the Event Dispatch Thread.
+	 * <p>
+	 * By default, inspection runs just-in-time on the Event Dispatch Thread, as part of whichever
+	 * method (such as <code>paintComponent</code> or <code>getComponents</code>) first needs the
+	 * widgets. With slow Inspectors this freezes the UI. With an Executor, that method instead
+	 * returns straight away, a placeholder is shown (see <code>newInspectionPlaceholder</code>),
+	 * and the widgets are built back on the Event Dispatch Thread once inspection completes.
+	 * <p>
+	 * Inspectors and InspectionResultProcessors must therefore not touch the Swing component
+	 * hierarchy. Also, methods such as <code>getComponent( String... names )</code> will not find
+	 * any widgets until inspection completes.
+	 *
+	 * @param inspectionExecutor
+	 *            the Executor to inspect on, or null to inspect on the Event Dispatch Thread
+	 */
+
+	public void setInspectionExecutor( Executor inspectionExecutor ) {
+
+		mInspectionExecutor = inspectionExecutor;
+	}
+
 	public int getMaximumInspectionDepth() {
 
 		return mPipeline.getMaximumInspectionDepth();
@@ -702,6 +742,7 @@ public class SwingMetawidget
 		nestedMetawidget.setPath( mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + attributes.get( NAME ) );
 		nestedMetawidget.setBundle( mBundle );
 		nestedMetawidget.setOpaque( isOpaque() );
+		nestedMetawidget.setInspectionExecutor( mInspectionExecutor );
 		nestedMetawidget.setToInspect( mToInspect );
 	}
 
@@ -726,6 +767,22 @@ public class SwingMetawidget
 		return ClassUtils.getPackagesAsFolderNames( SwingMetawidget.class ) + "/metawidget-swing-default.xml";
 	}
 
+	/**
+	 * Instantiate the placeholder shown while inspecting in the background (see
+	 * <code>setInspectionExecutor</code>).
+	 * <p>
+	 * By default this is an indeterminate <code>JProgressBar</code>. Subclasses may override this
+	 * method to show something else, or return null to show nothing.
+	 */
+
+	protected JComponent newInspectionPlaceholder() {
+
+		JProgressBar progressBar = new JProgressBar();
+		progressBar.setIndeterminate( true );
+
+		return progressBar;
+	}
+
 	@Override
 	protected void paintComponent( Graphics graphics ) {
 
@@ -761,6 +818,7 @@ public class SwingMetawidget
 	protected void invalidateInspection() {
 
 		mLastInspectionResult = null;
+		mInspectionInProgress = null;
 		invalidateWidgets();
 	}
 
@@ -824,7 +882,15 @@ public class SwingMetawidget
 
 		mPipeline.configureOnce();
 
+		// Inspect in the background?
+
+		if ( mLastInspectionResult == null && mInspectionExecutor != null && mPath != null && !mInspectedInBackground ) {
+			inspectInBackground();
+			return;
+		}
+
 		mNeedToBuildWidgets = false;
+		mInspectedInBackground = false;
 		mIgnoreAddRemove = true;
 
 		try {
@@ -913,6 +979,116 @@ public class SwingMetawidget
 		return mPipeline.inspectAsDom( mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
 	}
 
+	/**
+	 * Inspect on the <code>mInspectionExecutor</code>, showing a placeholder meanwhile, then build
+	 * widgets back on the Event Dispatch Thread.
+	 */
+
+	private void inspectInBackground() {
+
+		if ( mInspectionInProgress != null ) {
+			return;
+		}
+
+		final Object inspectionInProgress = new Object();
+		mInspectionInProgress = inspectionInProgress;
+
+		if ( mInspectionPlaceholder == null ) {
+			mInspectionPlaceholder = newInspectionPlaceholder();
+
+			if ( mInspectionPlaceholder != null ) {
+				mIgnoreAddRemove = true;
+
+				try {
+					setLayout( new BorderLayout() );
+					add( mInspectionPlaceholder, BorderLayout.NORTH );
+				} finally {
+					mIgnoreAddRemove = false;
+				}
+			}
+		}
+
+		// Pipelines are not thread-safe, so inspect using a dedicated pipeline (initialized here,
+		// before handing it to the background thread)
+
+		final Pipeline inspectionPipeline = newPipeline();
+		mPipeline.initInspectionPipeline( inspectionPipeline );
+
+		final Object toInspect = mToInspect;
+		final TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+
+		mInspectionExecutor.execute( new Runnable() {
+
+			public void run() {
+
+				Element inspectionResult = null;
+				RuntimeException inspectionException = null;
+
+				try {
+					inspectionResult = inspectionPipeline.inspectAsDom( toInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+				} catch ( RuntimeException e ) {
+					inspectionException = e;
+				}
+
+				final Element finalInspectionResult = inspectionResult;
+				final RuntimeException finalInspectionException = inspectionException;
+
+				SwingUtilities.invokeLater( new Runnable() {
+
+					public void run() {
+
+						onInspectedInBackground( inspectionInProgress, finalInspectionResult, finalInspectionException );
+					}
+				} );
+			}
+		} );
+	}
+
+	/**
+	 * Build widgets from a background inspection. Called on the Event Dispatch Thread.
+	 */
+
+	private void onInspectedInBackground( Object inspection, Element inspectionResult, RuntimeException inspectionException ) {
+
+		// Superseded (eg. by setToInspect) while inspecting?
+
+		if ( inspection != mInspectionInProgress ) {
+			return;
+		}
+
+		mInspectionInProgress = null;
+
+		// (clear mNeedToBuildWidgets whilst removing the placeholder, as Container.remove calls
+		// getComponent, which would otherwise kick off another build)
+
+		mNeedToBuildWidgets = false;
+
+		if ( mInspectionPlaceholder != null ) {
+			mIgnoreAddRemove = true;
+
+			try {
+				remove( mInspectionPlaceholder );
+				mInspectionPlaceholder = null;
+			} finally {
+				mIgnoreAddRemove = false;
+			}
+		}
+
+		if ( inspectionException != null ) {
+			throw MetawidgetException.newException( inspectionException );
+		}
+
+		// (inspectionResult may be null, so flag that we needn't inspect again)
+
+		mLastInspectionResult = inspectionResult;
+		mInspectedInBackground = true;
+		mNeedToBuildWidgets = true;
+		buildWidgets();
+
+		revalidate();
+		repaint();
+	}
+
 	private ComponentAndValueProperty getComponentAndValueProperty( String... names ) {
 
 		Component component = getComponent( names );
@@ -21,14 +21,18 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 import junit.framework.TestCase;
 
@@ -431,6 +435,74 @@ public class SwingMetawidgetTest
 		assertEquals( 2, configured.size() );
 	}
 
+	public void testInspectionExecutor()
+		throws Exception {
+
+		final List<Runnable> inspections = CollectionUtils.newArrayList();
+		Executor executor = new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		};
+
+		SwingMetawidget metawidget = new SwingMetawidget();
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setInspectionExecutor( executor );
+		metawidget.setToInspect( new Foo() );
+
+		// Placeholder while inspecting
+
+		assertEquals( 1, metawidget.getComponentCount() );
+		assertTrue( metawidget.getComponent( 0 ) instanceof JProgressBar );
+		assertEquals( 1, inspections.size() );
+
+		// Superseded inspections are discarded
+
+		metawidget.setToInspect( new Foo() );
+		assertEquals( 1, metawidget.getComponentCount() );
+		assertEquals( 2, inspections.size() );
+		inspections.get( 0 ).run();
+		flushEventDispatchThread();
+		assertEquals( 1, metawidget.getComponentCount() );
+		assertTrue( metawidget.getComponent( 0 ) instanceof JProgressBar );
+
+		// Widgets built on the Event Dispatch Thread
+
+		inspections.get( 1 ).run();
+		flushEventDispatchThread();
+		assertTrue( metawidget.getComponent( "name" ) instanceof JTextField );
+		assertTrue( metawidget.getComponent( "foo" ) instanceof SwingMetawidget );
+		assertTrue( !( metawidget.getComponent( 0 ) instanceof JProgressBar ) );
+
+		// Nested Metawidgets inspect in the background too
+
+		assertEquals( 3, inspections.size() );
+
+		// Widget-only changes do not re-inspect (only the rebuilt nested Metawidget does)
+
+		metawidget.setReadOnly( true );
+		assertTrue( metawidget.getComponent( "name" ) instanceof JLabel );
+		assertEquals( 4, inspections.size() );
+	}
+
+	//
+	// Private methods
+	//
+
+	private void flushEventDispatchThread()
+		throws Exception {
+
+		SwingUtilities.invokeAndWait( new Runnable() {
+
+			public void run() {
+
+				// Do nothing
+			}
+		} );
+	}
+
 	//
 	// Inner class
 	//
@@ -17,6 +17,7 @@ import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ControlEvent;
@@ -26,6 +27,8 @@ import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.ProgressBar;
 import org.metawidget.iface.Immutable;
 import org.metawidget.iface.MetawidgetException;
 import org.metawidget.inspectionresultprocessor.iface.InspectionResultProcessor;
@@ -67,6 +70,19 @@ public class SwtMetawidget
 
 	private Element					mLastInspectionResult;
 
+	private Executor				mInspectionExecutor;
+
+	/**
+	 * Identifies the background inspection currently in progress (if any), so that the results of
+	 * superseded inspections can be discarded.
+	 */
+
+	private Object					mInspectionInProgress;
+
+	private boolean					mInspectedInBackground;
+
+	private Control					mInspectionPlaceholder;
+
 	private Map<String, Facet>		mFacets					= CollectionUtils.newHashMap();
 
 	/**
@@ -405,6 +421,29 @@ public class SwtMetawidget
 		invalidateWidgets();
 	}
 
+	/**
+	 * Sets an Executor on which to run inspection, including any InspectionResultProcessors, rather
+	 * than on the SWT user-interface thread.
+	 * <p>
+	 * By default, inspection runs just-in-time on the user-interface thread, as part of whichever
+	 * event (such as a resize or paint) first needs the controls. With slow Inspectors this freezes
+	 * the UI. With an Executor, a placeholder is shown instead (see
+	 * <code>newInspectionPlaceholder</code>), and the controls are built back on the
+	 * <code>Display</code> thread once inspection completes.
+	 * <p>
+	 * Inspectors and InspectionResultProcessors must therefore not touch any SWT controls. Also,
+	 * methods such as <code>getControl( String... names )</code> will not find any controls until
+	 * inspection completes.
+	 *
+	 * @param inspectionExecutor
+	 *            the Executor to inspect on, or null to inspect on the user-interface thread
+	 */
+
+	public void setInspectionExecutor( Executor inspectionExecutor ) {
+
+		mInspectionExecutor = inspectionExecutor;
+	}
+
 	/**
 	 * Gets the value from the Control with the given name.
 	 * <p>
@@ -553,6 +592,20 @@ public class SwtMetawidget
 		return ClassUtils.getPackagesAsFolderNames( SwtMetawidget.class ) + "/metawidget-swt-default.xml";
 	}
 
+	/**
+	 * Instantiate the placeholder shown while inspecting in the background (see
+	 * <code>setInspectionExecutor</code>). The placeholder should be created as a child of this
+	 * Metawidget. It is disposed once inspection completes.
+	 * <p>
+	 * By default this is an indeterminate <code>ProgressBar</code>. Subclasses may override this
+	 * method to show something else, or return null to show nothing.
+	 */
+
+	protected Control newInspectionPlaceholder() {
+
+		return new ProgressBar( this, SWT.INDETERMINATE );
+	}
+
 	/**
 	 * Invalidates the current inspection result (if any) <em>and</em> invalidates the widgets.
 	 * <p>
@@ -563,6 +616,7 @@ public class SwtMetawidget
 	protected void invalidateInspection() {
 
 		mLastInspectionResult = null;
+		mInspectionInProgress = null;
 		invalidateWidgets();
 	}
 
@@ -589,7 +643,15 @@ public class SwtMetawidget
 
 		mPipeline.configureOnce();
 
+		// Inspect in the background?
+
+		if ( mLastInspectionResult == null && mInspectionExecutor != null && mPath != null && !mInspectedInBackground ) {
+			inspectInBackground();
+			return;
+		}
+
 		mNeedToBuildWidgets = false;
+		mInspectedInBackground = false;
 
 		// Metawidget needs a way to distinguish between manually added controls and generated
 		// controls: the generated ones must be cleaned up on subsequent buildWidgets(), whereas
@@ -703,6 +765,7 @@ public class SwtMetawidget
 		mPipeline.initNestedPipeline( nestedMetawidget.mPipeline, attributes );
 		nestedMetawidget.setPath( mPath + StringUtils.SEPARATOR_FORWARD_SLASH_CHAR + attributes.get( NAME ) );
 		nestedMetawidget.setBundle( mBundle );
+		nestedMetawidget.setInspectionExecutor( mInspectionExecutor );
 		nestedMetawidget.setToInspect( mToInspect );
 	}
 
@@ -720,6 +783,112 @@ public class SwtMetawidget
 		return mPipeline.inspectAsDom( mToInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
 	}
 
+	/**
+	 * Inspect on the <code>mInspectionExecutor</code>, showing a placeholder meanwhile, then build
+	 * controls back on the <code>Display</code> thread.
+	 */
+
+	private void inspectInBackground() {
+
+		if ( mInspectionInProgress != null ) {
+			return;
+		}
+
+		final Object inspectionInProgress = new Object();
+		mInspectionInProgress = inspectionInProgress;
+
+		// Dispose the previously generated controls, rather than leave them stale
+
+		for ( Control control : mControlsToDispose ) {
+			control.dispose();
+		}
+
+		mControlsToDispose.clear();
+
+		if ( mInspectionPlaceholder == null ) {
+			mInspectionPlaceholder = newInspectionPlaceholder();
+
+			if ( mInspectionPlaceholder != null ) {
+				mInspectionPlaceholder.pack();
+				layout();
+			}
+		}
+
+		// (SWT only allows getDisplay on the user-interface thread)
+
+		final Display display = getDisplay();
+
+		// Pipelines are not thread-safe, so inspect using a dedicated pipeline (initialized here,
+		// before handing it to the background thread)
+
+		final Pipeline inspectionPipeline = newPipeline();
+		mPipeline.initInspectionPipeline( inspectionPipeline );
+
+		final Object toInspect = mToInspect;
+		final TypeAndNames typeAndNames = PathUtils.parsePath( mPath );
+
+		mInspectionExecutor.execute( new Runnable() {
+
+			public void run() {
+
+				Element inspectionResult = null;
+				RuntimeException inspectionException = null;
+
+				try {
+					inspectionResult = inspectionPipeline.inspectAsDom( toInspect, typeAndNames.getType(), typeAndNames.getNamesAsArray() );
+				} catch ( RuntimeException e ) {
+					inspectionException = e;
+				}
+
+				final Element finalInspectionResult = inspectionResult;
+				final RuntimeException finalInspectionException = inspectionException;
+
+				if ( display.isDisposed() ) {
+					return;
+				}
+
+				display.asyncExec( new Runnable() {
+
+					public void run() {
+
+						onInspectedInBackground( inspectionInProgress, finalInspectionResult, finalInspectionException );
+					}
+				} );
+			}
+		} );
+	}
+
+	/**
+	 * Build controls from a background inspection. Called on the <code>Display</code> thread.
+	 */
+
+	private void onInspectedInBackground( Object inspection, Element inspectionResult, RuntimeException inspectionException ) {
+
+		// Disposed, or superseded (eg. by setToInspect), while inspecting?
+
+		if ( isDisposed() || inspection != mInspectionInProgress ) {
+			return;
+		}
+
+		mInspectionInProgress = null;
+
+		if ( mInspectionPlaceholder != null ) {
+			mInspectionPlaceholder.dispose();
+			mInspectionPlaceholder = null;
+		}
+
+		if ( inspectionException != null ) {
+			mNeedToBuildWidgets = false;
+			throw MetawidgetException.newException( inspectionException );
+		}
+
+		// (inspectionResult may be null, so flag that we needn't inspect again)
+
+		mLastInspectionResult = inspectionResult;
+		mInspectedInBackground = true;
+		buildWidgets();
+	}
+
 	private ControlAndValueProperty getControlAndValueProperty( String... names ) {
 
 		Control control = getControl( names );
@@ -13,12 +13,16 @@ package org.metawidget.swt;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import junit.framework.TestCase;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.ProgressBar;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.metawidget.inspector.propertytype.PropertyTypeInspector;
 
 /**
  * @author <a href="http://kennardconsulting.com">Richard Kennard</a>
@@ -47,6 +51,58 @@ public class SwtMetawidgetTest
 		assertEquals( 2, configured.size() );
 	}
 
+	public void testInspectionExecutor() {
+
+		final List<Runnable> inspections = new ArrayList<Runnable>();
+		Executor executor = new Executor() {
+
+			public void execute( Runnable runnable ) {
+
+				inspections.add( runnable );
+			}
+		};
+
+		SwtMetawidget metawidget = new SwtMetawidget( new Shell( SwtMetawidgetTests.TEST_DISPLAY, SWT.NONE ), SWT.NONE );
+		metawidget.setInspector( new PropertyTypeInspector() );
+		metawidget.setInspectionExecutor( executor );
+		metawidget.setToInspect( new Foo() );
+
+		// Placeholder while inspecting
+
+		assertEquals( 1, metawidget.getChildren().length );
+		assertTrue( metawidget.getChildren()[0] instanceof ProgressBar );
+		assertEquals( 1, inspections.size() );
+
+		// Superseded inspections are discarded
+
+		metawidget.setToInspect( new Foo() );
+		assertEquals( 1, metawidget.getChildren().length );
+		assertEquals( 2, inspections.size() );
+		inspections.get( 0 ).run();
+		dispatchAsyncRunnables();
+		assertEquals( 1, metawidget.getChildren().length );
+		assertTrue( metawidget.getChildren()[0] instanceof ProgressBar );
+
+		// Controls built on the Display thread
+
+		inspections.get( 1 ).run();
+		dispatchAsyncRunnables();
+		assertTrue( metawidget.getControl( "name" ) instanceof Text );
+		assertTrue( metawidget.getControl( "foo" ) instanceof SwtMetawidget );
+		assertTrue( !( metawidget.getChildren()[0] instanceof ProgressBar ) );
+	}
+
+	//
+	// Private methods
+	//
+
+	private void dispatchAsyncRunnables() {
+
+		while ( SwtMetawidgetTests.TEST_DISPLAY.readAndDispatch() ) {
+			// Keep dispatching
+		}
+	}
+
 	//
 	// Inner class
 	//